@@ -0,0 +1,323 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.benchmarks;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.Locale;
+
+import org.openmrs.Auditable;
+import org.openmrs.Concept;
+import org.openmrs.ConceptAnswer;
+import org.openmrs.ConceptClass;
+import org.openmrs.ConceptDatatype;
+import org.openmrs.ConceptDescription;
+import org.openmrs.ConceptName;
+import org.openmrs.ConceptNumeric;
+import org.openmrs.Encounter;
+import org.openmrs.EncounterRole;
+import org.openmrs.EncounterType;
+import org.openmrs.Location;
+import org.openmrs.Obs;
+import org.openmrs.Patient;
+import org.openmrs.PatientIdentifier;
+import org.openmrs.PatientIdentifierType;
+import org.openmrs.Person;
+import org.openmrs.PersonAddress;
+import org.openmrs.PersonName;
+import org.openmrs.Provider;
+import org.openmrs.Role;
+import org.openmrs.User;
+import org.openmrs.api.AdministrationService;
+import org.openmrs.api.ConceptNameType;
+import org.openmrs.api.ConceptService;
+import org.openmrs.api.EncounterService;
+import org.openmrs.api.LocationService;
+import org.openmrs.api.ObsService;
+import org.openmrs.api.PatientService;
+import org.openmrs.api.PersonService;
+import org.openmrs.api.UserService;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.context.ServiceContext;
+import org.openmrs.api.context.UserContext;
+import org.openmrs.module.webservices.rest.web.RestUtil;
+import org.openmrs.module.webservices.rest.web.api.RestService;
+import org.openmrs.module.webservices.rest.web.api.impl.RestServiceImpl;
+import org.openmrs.module.webservices.rest.web.resource.api.SearchHandler;
+import org.openmrs.module.webservices.rest.web.v1_0.search.openmrs1_8.EncounterSearchHandler1_8;
+import org.openmrs.module.webservices.rest.web.v1_0.search.openmrs1_8.LocationSearchHandler;
+import org.openmrs.module.webservices.rest.web.v1_0.search.openmrs1_8.ObservationSearchHandler1_8;
+import org.openmrs.module.webservices.rest.web.v1_0.search.openmrs1_8.PatientByIdentifierSearchHandler1_8;
+import org.openmrs.module.webservices.rest.web.v1_0.search.openmrs1_8.RelationshipSearchHandler1_8;
+import org.openmrs.module.webservices.rest.web.v1_0.search.openmrs1_9.ProviderSearchHandler1_9;
+import org.springframework.context.support.StaticApplicationContext;
+
+/**
+ * Sets up OpenMRS for the benchmarks without a database. The services used while converting are
+ * mocks that find the objects of an in-memory fixture by uuid, the {@link RestService} is the real
+ * one, and the search handlers that need no other beans are registered in a static application
+ * context.
+ * <p>
+ * The fixture is a patient with names, an address and an identifier, and an encounter holding
+ * {@value #OBS_PER_ENCOUNTER} numeric and coded obs for that patient, all created by the same
+ * user.
+ */
+public class BenchmarkContext {
+	
+	public static final int OBS_PER_ENCOUNTER = 20;
+	
+	private static BenchmarkContext instance;
+	
+	private final User creator;
+	
+	private final Location location;
+	
+	private final ConceptNumeric weight;
+	
+	private final Concept civilStatus;
+	
+	private final Patient patient;
+	
+	private final Encounter encounter;
+	
+	private final Obs obs;
+	
+	/**
+	 * Gets the fixture, setting up OpenMRS the first time it is called. A user context is opened
+	 * for the calling thread, so this must be called from the thread running the benchmark, e.g.
+	 * in a {@link org.openjdk.jmh.annotations.Setup} method of a thread scoped state.
+	 * 
+	 * @return the fixture
+	 */
+	public static synchronized BenchmarkContext get() {
+		if (instance == null) {
+			BenchmarkContext context = new BenchmarkContext();
+			context.install();
+			instance = context;
+		}
+		UserContext userContext = new UserContext();
+		userContext.setLocale(Locale.ENGLISH);
+		Context.setUserContext(userContext);
+		return instance;
+	}
+	
+	private BenchmarkContext() {
+		Date now = new Date();
+		
+		creator = new User(1);
+		creator.setUsername("admin");
+		creator.setSystemId("admin");
+		Person creatorPerson = new Person(1);
+		creatorPerson.addName(new PersonName("Super", null, "User"));
+		creator.setPerson(creatorPerson);
+		
+		location = created(new Location(1));
+		location.setName("Unknown Location");
+		
+		ConceptClass test = created(new ConceptClass(1));
+		test.setName("Test");
+		ConceptClass misc = created(new ConceptClass(2));
+		misc.setName("Misc");
+		
+		ConceptDatatype numeric = created(new ConceptDatatype(1));
+		numeric.setName("Numeric");
+		numeric.setHl7Abbreviation(ConceptDatatype.NUMERIC);
+		ConceptDatatype coded = created(new ConceptDatatype(2));
+		coded.setName("Coded");
+		coded.setHl7Abbreviation(ConceptDatatype.CODED);
+		ConceptDatatype notApplicable = created(new ConceptDatatype(4));
+		notApplicable.setName("N/A");
+		notApplicable.setHl7Abbreviation(ConceptDatatype.N_A);
+		
+		weight = created(new ConceptNumeric(5089));
+		weight.setDatatype(numeric);
+		weight.setConceptClass(test);
+		weight.addName(name("WEIGHT (KG)"));
+		weight.addDescription(new ConceptDescription("Patient's weight in kilograms", Locale.ENGLISH));
+		weight.setUnits("kg");
+		weight.setLowAbsolute(0d);
+		weight.setHiAbsolute(250d);
+		weight.setPrecise(true);
+		
+		civilStatus = created(new Concept(1054));
+		civilStatus.setDatatype(coded);
+		civilStatus.setConceptClass(misc);
+		civilStatus.addName(name("CIVIL STATUS"));
+		civilStatus.addDescription(new ConceptDescription("The marital status of the patient", Locale.ENGLISH));
+		String[] answers = { "MARRIED", "SINGLE", "DIVORCED", "WIDOWED" };
+		for (int i = 0; i < answers.length; i++) {
+			Concept answer = created(new Concept(1055 + i));
+			answer.setDatatype(notApplicable);
+			answer.setConceptClass(misc);
+			answer.addName(name(answers[i]));
+			civilStatus.addAnswer(new ConceptAnswer(answer));
+		}
+		
+		PatientIdentifierType identifierType = created(new PatientIdentifierType(1));
+		identifierType.setName("OpenMRS Identification Number");
+		
+		patient = created(new Patient(2));
+		patient.setGender("F");
+		patient.setBirthdate(new Date(now.getTime() - 30L * 365 * 24 * 60 * 60 * 1000));
+		PersonName name = created(new PersonName("Jane", "Q", "Doe"));
+		name.setPreferred(true);
+		patient.addName(name);
+		PersonAddress address = created(new PersonAddress());
+		address.setPreferred(true);
+		address.setAddress1("1050 Wishard Blvd.");
+		address.setCityVillage("Indianapolis");
+		address.setCountry("USA");
+		patient.addAddress(address);
+		PatientIdentifier identifier = created(new PatientIdentifier("101-6", identifierType, location));
+		identifier.setPreferred(true);
+		patient.addIdentifier(identifier);
+		
+		EncounterType encounterType = created(new EncounterType("ADULTINITIAL", "Outpatient adult initial visit"));
+		EncounterRole role = created(new EncounterRole(1));
+		role.setName("Clinician");
+		Provider provider = created(new Provider(1));
+		provider.setPerson(creatorPerson);
+		provider.setIdentifier("8A4");
+		
+		encounter = created(new Encounter(3));
+		encounter.setPatient(patient);
+		encounter.setEncounterType(encounterType);
+		encounter.setLocation(location);
+		encounter.setEncounterDatetime(now);
+		encounter.addProvider(role, provider);
+		Obs first = null;
+		for (int i = 0; i < OBS_PER_ENCOUNTER; i++) {
+			Obs o = created(new Obs(patient, i % 2 == 0 ? weight : civilStatus, now, location));
+			o.setObsId(i + 1);
+			if (i % 2 == 0) {
+				o.setValueNumeric(60d + i);
+			} else {
+				o.setValueCoded(civilStatus.getAnswers().iterator().next().getAnswerConcept());
+			}
+			encounter.addObs(o);
+			if (first == null) {
+				first = o;
+			}
+		}
+		obs = first;
+	}
+	
+	private void install() {
+		AdministrationService administrationService = mock(AdministrationService.class);
+		
+		UserService userService = mock(UserService.class);
+		when(userService.getRole(anyString())).thenReturn(new Role("Anonymous"));
+		when(userService.getUserByUuid(creator.getUuid())).thenReturn(creator);
+		
+		ConceptService conceptService = mock(ConceptService.class);
+		when(conceptService.getConceptByUuid(weight.getUuid())).thenReturn(weight);
+		when(conceptService.getConceptByUuid(civilStatus.getUuid())).thenReturn(civilStatus);
+		
+		PersonService personService = mock(PersonService.class);
+		when(personService.getPersonByUuid(patient.getUuid())).thenReturn(patient);
+		
+		PatientService patientService = mock(PatientService.class);
+		when(patientService.getPatientByUuid(patient.getUuid())).thenReturn(patient);
+		
+		EncounterService encounterService = mock(EncounterService.class);
+		when(encounterService.getEncounterByUuid(encounter.getUuid())).thenReturn(encounter);
+		
+		ObsService obsService = mock(ObsService.class);
+		when(obsService.getObsByUuid(obs.getUuid())).thenReturn(obs);
+		
+		LocationService locationService = mock(LocationService.class);
+		when(locationService.getLocationByUuid(location.getUuid())).thenReturn(location);
+		
+		ServiceContext serviceContext = ServiceContext.getInstance();
+		serviceContext.setService(AdministrationService.class, administrationService);
+		serviceContext.setService(UserService.class, userService);
+		serviceContext.setService(ConceptService.class, conceptService);
+		serviceContext.setService(PersonService.class, personService);
+		serviceContext.setService(PatientService.class, patientService);
+		serviceContext.setService(EncounterService.class, encounterService);
+		serviceContext.setService(ObsService.class, obsService);
+		serviceContext.setService(LocationService.class, locationService);
+		serviceContext.setService(RestService.class, new RestServiceImpl());
+		
+		StaticApplicationContext applicationContext = new StaticApplicationContext();
+		for (SearchHandler searchHandler : new SearchHandler[] { new ObservationSearchHandler1_8(),
+		        new EncounterSearchHandler1_8(), new PatientByIdentifierSearchHandler1_8(), new LocationSearchHandler(),
+		        new RelationshipSearchHandler1_8(), new ProviderSearchHandler1_9() }) {
+			applicationContext.getBeanFactory().registerSingleton(searchHandler.getClass().getName(), searchHandler);
+		}
+		applicationContext.refresh();
+		serviceContext.setApplicationContext(applicationContext);
+		new Context().setServiceContext(serviceContext);
+		
+		RestUtil.setUriPrefix();
+	}
+	
+	private <T extends Auditable> T created(T auditable) {
+		auditable.setCreator(creator);
+		auditable.setDateCreated(new Date());
+		return auditable;
+	}
+	
+	private ConceptName name(String name) {
+		ConceptName conceptName = created(new ConceptName(name, Locale.ENGLISH));
+		conceptName.setConceptNameType(ConceptNameType.FULLY_SPECIFIED);
+		conceptName.setLocalePreferred(true);
+		return conceptName;
+	}
+	
+	/**
+	 * @param resource one of obs, patient, concept and encounter
+	 * @return the object of the fixture converted by that resource
+	 */
+	public Object getDelegate(String resource) {
+		if ("obs".equals(resource)) {
+			return obs;
+		} else if ("patient".equals(resource)) {
+			return patient;
+		} else if ("concept".equals(resource)) {
+			return civilStatus;
+		} else if ("encounter".equals(resource)) {
+			return encounter;
+		}
+		throw new IllegalArgumentException("No fixture for " + resource);
+	}
+	
+	public Location getLocation() {
+		return location;
+	}
+	
+	public ConceptNumeric getWeight() {
+		return weight;
+	}
+	
+	public Concept getCivilStatus() {
+		return civilStatus;
+	}
+	
+	public Patient getPatient() {
+		return patient;
+	}
+	
+	public Encounter getEncounter() {
+		return encounter;
+	}
+	
+	public Obs getObs() {
+		return obs;
+	}
+	
+}
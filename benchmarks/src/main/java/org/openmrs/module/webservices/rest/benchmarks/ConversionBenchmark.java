@@ -0,0 +1,98 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.Concept;
+import org.openmrs.Obs;
+import org.openmrs.module.webservices.rest.web.ConversionUtil;
+import org.openmrs.module.webservices.rest.web.representation.Representation;
+
+/**
+ * Measures {@link ConversionUtil#convert(Object, java.lang.reflect.Type)} for the values clients
+ * submit most, and {@link ConversionUtil#convertToRepresentation(Object, Representation)} for a
+ * single object and for a list.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConversionBenchmark {
+	
+	private String conceptUuid;
+	
+	private Obs obs;
+	
+	private List<Obs> obsList;
+	
+	@Setup
+	public void setUp() {
+		BenchmarkContext context = BenchmarkContext.get();
+		conceptUuid = context.getWeight().getUuid();
+		obs = context.getObs();
+		obsList = new ArrayList<Obs>(context.getEncounter().getObs());
+	}
+	
+	@Benchmark
+	public Object convertStringToDate() {
+		return ConversionUtil.convert("2016-03-11T14:25:10.000+0200", Date.class);
+	}
+	
+	@Benchmark
+	public Object convertStringToInteger() {
+		return ConversionUtil.convert("42", Integer.class);
+	}
+	
+	@Benchmark
+	public Object convertUuidToConcept() {
+		return ConversionUtil.convert(conceptUuid, Concept.class);
+	}
+	
+	@Benchmark
+	public Object convertDateToRepresentation() {
+		return ConversionUtil.convertToRepresentation(obs.getObsDatetime(), Representation.DEFAULT);
+	}
+	
+	@Benchmark
+	public Object convertObsToRefRepresentation() {
+		return ConversionUtil.convertToRepresentation(obs, Representation.REF);
+	}
+	
+	@Benchmark
+	public Object convertObsToDefaultRepresentation() {
+		return ConversionUtil.convertToRepresentation(obs, Representation.DEFAULT);
+	}
+	
+	@Benchmark
+	public Object convertObsListToDefaultRepresentation() {
+		return ConversionUtil.convertToRepresentation(obsList, Representation.DEFAULT);
+	}
+	
+}
@@ -0,0 +1,85 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.module.webservices.rest.web.IpMatcher;
+import org.openmrs.module.webservices.rest.web.RestUtil;
+
+/**
+ * Measures {@link RestUtil#ipMatches(String, List)}, which compiles the allowed IPs on each call,
+ * and {@link IpMatcher#matches(String)} on IPs compiled once, as done for each request by the
+ * authorization filter. The allowed IPs mix exact addresses with IPv4 and IPv6 subnets, and the
+ * address looked up matches none of them, so that every candidate is considered.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IpMatchesBenchmark {
+	
+	@Param({ "1", "10", "100" })
+	public int allowedIps;
+	
+	private List<String> candidateIps;
+	
+	private IpMatcher matcher;
+	
+	private String ip = "192.168.250.17";
+	
+	@Setup
+	public void setUp() {
+		candidateIps = new ArrayList<String>(allowedIps);
+		for (int i = 0; i < allowedIps; i++) {
+			switch (i % 3) {
+				case 0:
+					candidateIps.add("10." + i + ".0.1");
+					break;
+				case 1:
+					candidateIps.add("172." + (16 + i % 16) + "." + i + ".0/24");
+					break;
+				default:
+					candidateIps.add("fe80::" + Integer.toHexString(i) + ":0:0/96");
+			}
+		}
+		matcher = IpMatcher.compile(candidateIps);
+	}
+	
+	@Benchmark
+	public boolean ipMatches() {
+		return RestUtil.ipMatches(ip, candidateIps);
+	}
+	
+	@Benchmark
+	public boolean compiledMatches() {
+		return matcher.matches(ip);
+	}
+	
+}
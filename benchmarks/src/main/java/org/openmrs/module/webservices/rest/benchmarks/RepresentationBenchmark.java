@@ -0,0 +1,90 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.webservices.rest.SimpleObject;
+import org.openmrs.module.webservices.rest.web.api.RestService;
+import org.openmrs.module.webservices.rest.web.representation.Representation;
+import org.openmrs.module.webservices.rest.web.resource.impl.BaseDelegatingResource;
+
+/**
+ * Measures {@link BaseDelegatingResource#asRepresentation(Object, Representation)} for the
+ * resources most often fetched in bulk, in the ref, default, full and a custom representation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RepresentationBenchmark {
+	
+	/**
+	 * The custom representation requested for each resource, chosen to mix plain properties with
+	 * nested ref and custom representations
+	 */
+	private static final Map<String, String> CUSTOM_REPRESENTATIONS = new HashMap<String, String>();
+	
+	static {
+		CUSTOM_REPRESENTATIONS.put("obs", "(uuid,display,obsDatetime,value,concept:(uuid,display),person:ref)");
+		CUSTOM_REPRESENTATIONS.put("patient",
+		    "(uuid,display,identifiers:(identifier,identifierType:ref),person:(gender,birthdate,preferredName:ref))");
+		CUSTOM_REPRESENTATIONS.put("concept", "(uuid,display,name:(name,locale),datatype:ref,conceptClass:ref,answers:ref)");
+		CUSTOM_REPRESENTATIONS.put("encounter", "(uuid,display,encounterDatetime,patient:ref,obs:(uuid,display,value))");
+	}
+	
+	@Param({ "obs", "patient", "concept", "encounter" })
+	public String resource;
+	
+	@Param({ "ref", "default", "full", "custom" })
+	public String representation;
+	
+	private BaseDelegatingResource<Object> handler;
+	
+	private Object delegate;
+	
+	private Representation rep;
+	
+	@SuppressWarnings("unchecked")
+	@Setup
+	public void setUp() {
+		delegate = BenchmarkContext.get().getDelegate(resource);
+		RestService restService = Context.getService(RestService.class);
+		handler = (BaseDelegatingResource<Object>) restService.getResourceBySupportedClass(delegate.getClass());
+		rep = restService.getRepresentation("custom".equals(representation) ? "custom:"
+		        + CUSTOM_REPRESENTATIONS.get(resource) : representation);
+	}
+	
+	@Benchmark
+	public SimpleObject asRepresentation() {
+		return handler.asRepresentation(delegate, rep);
+	}
+	
+}
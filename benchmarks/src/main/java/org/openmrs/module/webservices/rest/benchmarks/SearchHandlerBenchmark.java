@@ -0,0 +1,97 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.api.RestService;
+import org.openmrs.module.webservices.rest.web.resource.api.SearchHandler;
+
+/**
+ * Measures {@link RestService#getSearchHandler(String, Map)} when the search is chosen by id, and
+ * when it is routed by the parameters of the request, for a resource with one search and for one
+ * with many.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchHandlerBenchmark {
+	
+	private static final String OBS = RestConstants.VERSION_1 + "/obs";
+	
+	private static final String RELATIONSHIP = RestConstants.VERSION_1 + "/relationship";
+	
+	private RestService restService;
+	
+	private Map<String, String[]> obsById;
+	
+	private Map<String, String[]> obsByParameters;
+	
+	private Map<String, String[]> relationshipByParameters;
+	
+	@Setup
+	public void setUp() {
+		BenchmarkContext context = BenchmarkContext.get();
+		restService = Context.getService(RestService.class);
+		
+		obsByParameters = new HashMap<String, String[]>();
+		obsByParameters.put("patient", new String[] { context.getPatient().getUuid() });
+		obsByParameters.put("concept", new String[] { context.getWeight().getUuid() });
+		obsByParameters.put("v", new String[] { "default" });
+		
+		obsById = new HashMap<String, String[]>(obsByParameters);
+		obsById.put(RestConstants.REQUEST_PROPERTY_FOR_SEARCH_ID, new String[] { "default" });
+		
+		relationshipByParameters = new HashMap<String, String[]>();
+		relationshipByParameters.put("personA", new String[] { context.getPatient().getUuid() });
+		relationshipByParameters.put("personB", new String[] { context.getPatient().getUuid() });
+		relationshipByParameters.put("relation", new String[] { "Parent" });
+		
+		// the handlers are looked up on the first call
+		restService.getSearchHandler(OBS, obsById);
+	}
+	
+	@Benchmark
+	public SearchHandler getSearchHandlerById() {
+		return restService.getSearchHandler(OBS, obsById);
+	}
+	
+	@Benchmark
+	public SearchHandler getSearchHandlerByParameters() {
+		return restService.getSearchHandler(OBS, obsByParameters);
+	}
+	
+	@Benchmark
+	public SearchHandler getSearchHandlerByParametersAmongMany() {
+		return restService.getSearchHandler(RELATIONSHIP, relationshipByParameters);
+	}
+	
+}
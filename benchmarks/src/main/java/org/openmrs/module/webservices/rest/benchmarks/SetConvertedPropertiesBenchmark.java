@@ -0,0 +1,80 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.Obs;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.webservices.rest.web.api.RestService;
+import org.openmrs.module.webservices.rest.web.resource.impl.BaseDelegatingResource;
+import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingResourceDescription;
+
+/**
+ * Measures
+ * {@link BaseDelegatingResource#setConvertedProperties(Object, Map, DelegatingResourceDescription, boolean)}
+ * for the body of a request creating an obs, which refers to a patient, a concept and a location
+ * by uuid. Each invocation fills a new obs from a copy of the body.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SetConvertedPropertiesBenchmark {
+	
+	private BaseDelegatingResource<Obs> handler;
+	
+	private DelegatingResourceDescription description;
+	
+	private Map<String, Object> body;
+	
+	@SuppressWarnings("unchecked")
+	@Setup
+	public void setUp() {
+		BenchmarkContext context = BenchmarkContext.get();
+		handler = (BaseDelegatingResource<Obs>) Context.getService(RestService.class).getResourceBySupportedClass(
+		    Obs.class);
+		description = handler.getCreatableProperties();
+		
+		body = new HashMap<String, Object>();
+		body.put("person", context.getPatient().getUuid());
+		body.put("concept", context.getWeight().getUuid());
+		body.put("obsDatetime", "2016-03-11T14:25:10.000+0200");
+		body.put("location", context.getLocation().getUuid());
+		body.put("value", "72.5");
+		body.put("comment", "Weighed after breakfast");
+	}
+	
+	@Benchmark
+	public Obs setConvertedProperties() {
+		Obs obs = new Obs();
+		handler.setConvertedProperties(obs, new HashMap<String, Object>(body), description, true);
+		return obs;
+	}
+	
+}
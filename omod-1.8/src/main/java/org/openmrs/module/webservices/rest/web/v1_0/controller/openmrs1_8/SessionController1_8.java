@@ -18,6 +18,7 @@ import org.openmrs.module.webservices.rest.SimpleObject;
 import org.openmrs.module.webservices.rest.web.ConversionUtil;
 import org.openmrs.module.webservices.rest.web.RestConstants;
 import org.openmrs.module.webservices.rest.web.api.RestService;
+import org.openmrs.module.webservices.rest.web.auth.SessionTokens;
 import org.openmrs.module.webservices.rest.web.representation.Representation;
 import org.openmrs.module.webservices.rest.web.v1_0.controller.BaseRestController;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,12 +41,17 @@ public class SessionController1_8 extends BaseRestController {
        @Autowired
        RestService restService;
 	/**
-	 * Tells the user their sessionId, and whether or not they are authenticated.
+	 * Tells the user their sessionId, and whether or not they are authenticated. If session token
+	 * keys are configured, an authenticated user is also given a token that any node sharing those
+	 * keys accepts in place of the session, as <code>Authorization: Bearer token</code>. Tokens are
+	 * only given to users who authenticated with their password, so that a token cannot be renewed
+	 * beyond its lifetime with itself.
 	 * 
 	 * @param request
 	 * @return
 	 * @should return the session id if the user is authenticated
 	 * @should return the session id if the user is not authenticated
+	 * @should not issue a token to a request authenticated by a token
 	 */
 	@RequestMapping(method = RequestMethod.GET)
 	@ResponseBody
@@ -57,6 +63,12 @@ public class SessionController1_8 extends BaseRestController {
                 String repParam = request.getParameter(RestConstants.REQUEST_PROPERTY_FOR_REPRESENTATION);
                 Representation rep = (repParam != null) ? restService.getRepresentation(repParam) : Representation.DEFAULT;
                 session.add("user",ConversionUtil.convertToRepresentation(Context.getAuthenticatedUser(), rep));
+                Object byToken = request.getAttribute(SessionTokens.AUTHENTICATED_BY_TOKEN_ATTRIBUTE,
+                    WebRequest.SCOPE_REQUEST);
+                String token = byToken != null ? null : SessionTokens.issue(Context.getAuthenticatedUser());
+                if (token != null) {
+                    session.add("token", token);
+                }
             }
             return session;
 	}
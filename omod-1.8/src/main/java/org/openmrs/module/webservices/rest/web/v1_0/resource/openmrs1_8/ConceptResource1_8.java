@@ -407,10 +407,10 @@ public class ConceptResource1_8 extends DelegatingCrudResource<Concept> {
 			canPage = false; // ConceptService does not support memberOf searches, so paging must be deferred.
 		}
 		
-		// Only set startIndex and limit if we can return paged results
+		// Only set startIndex and limit if we can return paged results, asking for one more result to know if there are more
 		if (canPage) {
 			startIndex = context.getStartIndex();
-			limit = context.getLimit();
+			limit = context.getLimit() + 1;
 		}
 		
 		List<ConceptSearchResult> searchResults;
@@ -431,11 +431,13 @@ public class ConceptResource1_8 extends DelegatingCrudResource<Concept> {
 		
 		PageableResult result = null;
 		if (canPage) {
-			Integer count = service.getCountOfConcepts(context.getParameter("q"), locales, false, Collections
-			        .<ConceptClass> emptyList(), Collections.<ConceptClass> emptyList(), Collections
-			        .<ConceptDatatype> emptyList(), Collections.<ConceptDatatype> emptyList(), answerTo);
-			boolean hasMore = count > startIndex + limit;
-			result = new AlreadyPaged<Concept>(context, results, hasMore);
+			Long totalCount = null;
+			if (context.getTotalCount()) {
+				totalCount = Long.valueOf(service.getCountOfConcepts(context.getParameter("q"), locales, false,
+				    Collections.<ConceptClass> emptyList(), Collections.<ConceptClass> emptyList(), Collections
+				            .<ConceptDatatype> emptyList(), Collections.<ConceptDatatype> emptyList(), answerTo));
+			}
+			result = AlreadyPaged.fromLimitPlusOne(context, results, totalCount);
 		} else {
 			result = new NeedsPaging<Concept>(results, context);
 		}
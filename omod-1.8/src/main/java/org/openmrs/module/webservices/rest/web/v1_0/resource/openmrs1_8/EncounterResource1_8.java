@@ -24,6 +24,7 @@ import org.openmrs.module.webservices.rest.web.RestConstants;
 import org.openmrs.module.webservices.rest.web.annotation.PropertyGetter;
 import org.openmrs.module.webservices.rest.web.annotation.PropertySetter;
 import org.openmrs.module.webservices.rest.web.annotation.Resource;
+import org.openmrs.module.webservices.rest.web.api.RestHelperService.Field;
 import org.openmrs.module.webservices.rest.web.api.RestService;
 import org.openmrs.module.webservices.rest.web.representation.DefaultRepresentation;
 import org.openmrs.module.webservices.rest.web.representation.FullRepresentation;
@@ -32,6 +33,7 @@ import org.openmrs.module.webservices.rest.web.resource.api.PageableResult;
 import org.openmrs.module.webservices.rest.web.resource.impl.DataDelegatingCrudResource;
 import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingResourceDescription;
 import org.openmrs.module.webservices.rest.web.resource.impl.EmptySearchResult;
+import org.openmrs.module.webservices.rest.web.resource.impl.KeysetPager;
 import org.openmrs.module.webservices.rest.web.resource.impl.NeedsPaging;
 import org.openmrs.module.webservices.rest.web.resource.impl.ServiceSearcher;
 import org.openmrs.module.webservices.rest.web.response.ResponseException;
@@ -201,7 +203,8 @@ public class EncounterResource1_8 extends DataDelegatingCrudResource<Encounter>
 	/**
 	 * Gets encounters for the given patient (paged according to context if necessary) only if a
 	 * patient parameter exists in the request set on the {@link RequestContext} otherwise searches
-	 * for encounters that match the specified query
+	 * for encounters that match the specified query. Encounters of a patient can also be paged by
+	 * cursor, newest first.
 	 * 
 	 * @param context
 	 * @see org.openmrs.module.webservices.rest.web.resource.impl.DelegatingCrudResource#doSearch(org.openmrs.module.webservices.rest.web.RequestContext)
@@ -214,6 +217,9 @@ public class EncounterResource1_8 extends DataDelegatingCrudResource<Encounter>
 			    Patient.class)).getByUniqueId(patientUuid);
 			if (patient == null)
 				return new EmptySearchResult();
+			if (KeysetPager.isRequested(context))
+				return new KeysetPager<Encounter>(Encounter.class, "encounterDatetime", "encounterId").getPage(context,
+				    new Field("patient", patient));
 			List<Encounter> encs = Context.getEncounterService().getEncountersByPatient(patient);
 			return new NeedsPaging<Encounter>(encs, context);
 		}
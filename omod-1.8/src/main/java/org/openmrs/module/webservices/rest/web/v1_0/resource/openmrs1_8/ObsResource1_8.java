@@ -14,7 +14,6 @@
 package org.openmrs.module.webservices.rest.web.v1_0.resource.openmrs1_8;
 
 import java.text.ParseException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
@@ -27,6 +26,7 @@ import org.openmrs.ConceptNumeric;
 import org.openmrs.Encounter;
 import org.openmrs.Obs;
 import org.openmrs.Patient;
+import org.openmrs.Person;
 import org.openmrs.Drug;
 import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
@@ -36,14 +36,18 @@ import org.openmrs.module.webservices.rest.web.RestConstants;
 import org.openmrs.module.webservices.rest.web.annotation.PropertyGetter;
 import org.openmrs.module.webservices.rest.web.annotation.PropertySetter;
 import org.openmrs.module.webservices.rest.web.annotation.Resource;
+import org.openmrs.module.webservices.rest.web.api.RestHelperService;
+import org.openmrs.module.webservices.rest.web.api.RestHelperService.Field;
 import org.openmrs.module.webservices.rest.web.api.RestService;
 import org.openmrs.module.webservices.rest.web.representation.DefaultRepresentation;
 import org.openmrs.module.webservices.rest.web.representation.FullRepresentation;
 import org.openmrs.module.webservices.rest.web.representation.Representation;
 import org.openmrs.module.webservices.rest.web.resource.api.PageableResult;
+import org.openmrs.module.webservices.rest.web.resource.impl.AlreadyPaged;
 import org.openmrs.module.webservices.rest.web.resource.impl.DataDelegatingCrudResource;
 import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingResourceDescription;
 import org.openmrs.module.webservices.rest.web.resource.impl.EmptySearchResult;
+import org.openmrs.module.webservices.rest.web.resource.impl.KeysetPager;
 import org.openmrs.module.webservices.rest.web.resource.impl.NeedsPaging;
 import org.openmrs.module.webservices.rest.web.response.ConversionException;
 import org.openmrs.module.webservices.rest.web.response.ObjectNotFoundException;
@@ -55,6 +59,18 @@ import org.openmrs.module.webservices.rest.web.response.ResponseException;
 @Resource(name = RestConstants.VERSION_1 + "/obs", order = 2, supportedClass = Obs.class, supportedOpenmrsVersions = {"1.8.*"})
 public class ObsResource1_8 extends DataDelegatingCrudResource<Obs> {
 	
+	/**
+	 * An optional request parameter for the earliest date of the obs searched for
+	 */
+	public static final String REQUEST_PARAM_FROM_DATE = "fromdate";
+	
+	/**
+	 * An optional request parameter for the latest date of the obs searched for
+	 */
+	public static final String REQUEST_PARAM_TO_DATE = "todate";
+	
+	private static final KeysetPager<Obs> OBS_BY_CURSOR = new KeysetPager<Obs>(Obs.class, "obsDatetime", "obsId");
+	
 	/**
 	 * @see org.openmrs.module.webservices.rest.web.resource.impl.BaseDelegatingResource#delete(java.lang.Object,
 	 *      java.lang.String, org.openmrs.module.webservices.rest.web.RequestContext)
@@ -373,7 +389,10 @@ public class ObsResource1_8 extends DataDelegatingCrudResource<Obs> {
 	/**
 	 * Gets obs by patient or encounter (paged according to context if necessary) only if a patient
 	 * or encounter parameter exists respectively in the request set on the {@link RequestContext}
-	 * otherwise searches for obs that match the specified query
+	 * otherwise searches for obs that match the specified query. Obs of a patient or encounter are
+	 * paged in the database, newest first, optionally within the dates given by the
+	 * {@link #REQUEST_PARAM_FROM_DATE} and {@link #REQUEST_PARAM_TO_DATE} parameters, and can also be
+	 * paged by cursor.
 	 *
 	 * @param context
 	 * @see org.openmrs.module.webservices.rest.web.resource.impl.DelegatingCrudResource#doSearch(org.openmrs.module.webservices.rest.web.RequestContext)
@@ -386,8 +405,9 @@ public class ObsResource1_8 extends DataDelegatingCrudResource<Obs> {
 					Patient.class)).getByUniqueId(patientUuid);
 			if (patient == null)
 				return new EmptySearchResult();
-			List<Obs> obs = Context.getObsService().getObservationsByPerson(patient);
-			return new NeedsPaging<Obs>(obs, context);
+			if (KeysetPager.isRequested(context))
+				return OBS_BY_CURSOR.getPage(context, new Field("person", patient));
+			return getObservations(context, patient, null, null);
 		}
 		
 		String encounterUuid = context.getRequest().getParameter("encounter");
@@ -396,11 +416,45 @@ public class ObsResource1_8 extends DataDelegatingCrudResource<Obs> {
 					Encounter.class)).getByUniqueId(encounterUuid);
 			if (enc == null)
 				return new EmptySearchResult();
-			List<Obs> obs = new ArrayList<Obs>(enc.getAllObs());
-			return new NeedsPaging<Obs>(obs, context);
+			if (KeysetPager.isRequested(context))
+				return OBS_BY_CURSOR.getPage(context, new Field("encounter", enc));
+			return getObservations(context, null, enc, null);
 		}
 		
 		return new NeedsPaging<Obs>(Context.getObsService().getObservations(context.getParameter("q")), context);
 	}
+	
+	/**
+	 * Gets the page of obs asked for by the request, newest first. Only the obs of the page, and
+	 * one more to know whether there are more, are loaded. The obs are only counted if the client
+	 * asked for the total count.
+	 * 
+	 * @param context
+	 * @param person the person of the obs, or null for any
+	 * @param encounter the encounter of the obs, or null for any
+	 * @param concept the question of the obs, or null for any
+	 * @return the page of obs, within the dates given by the {@link #REQUEST_PARAM_FROM_DATE} and
+	 *         {@link #REQUEST_PARAM_TO_DATE} parameters if any
+	 */
+	public static AlreadyPaged<Obs> getObservations(RequestContext context, Person person, Encounter encounter,
+	        Concept concept) {
+		Date fromDate = getDateParameter(context, REQUEST_PARAM_FROM_DATE);
+		Date toDate = getDateParameter(context, REQUEST_PARAM_TO_DATE);
+		boolean includeVoided = context.getIncludeAll();
+		RestHelperService service = Context.getService(RestHelperService.class);
+		
+		List<Obs> obs = service.getObservations(person, encounter, concept, fromDate, toDate, includeVoided, context
+		        .getStartIndex(), context.getLimit() + 1);
+		Long totalCount = null;
+		if (context.getTotalCount()) {
+			totalCount = service.getCountOfObservations(person, encounter, concept, fromDate, toDate, includeVoided);
+		}
+		return AlreadyPaged.fromLimitPlusOne(context, obs, totalCount);
+	}
+	
+	private static Date getDateParameter(RequestContext context, String name) {
+		String value = context.getParameter(name);
+		return StringUtils.isBlank(value) ? null : (Date) ConversionUtil.convert(value, Date.class);
+	}
 
 }
@@ -23,6 +23,7 @@ import org.openmrs.module.webservices.rest.web.RequestContext;
 import org.openmrs.module.webservices.rest.web.RestConstants;
 import org.openmrs.module.webservices.rest.web.annotation.PropertyGetter;
 import org.openmrs.module.webservices.rest.web.annotation.Resource;
+import org.openmrs.module.webservices.rest.web.api.RestHelperService.Field;
 import org.openmrs.module.webservices.rest.web.api.RestService;
 import org.openmrs.module.webservices.rest.web.representation.DefaultRepresentation;
 import org.openmrs.module.webservices.rest.web.representation.FullRepresentation;
@@ -31,6 +32,7 @@ import org.openmrs.module.webservices.rest.web.resource.api.PageableResult;
 import org.openmrs.module.webservices.rest.web.resource.impl.DataDelegatingCrudResource;
 import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingResourceDescription;
 import org.openmrs.module.webservices.rest.web.resource.impl.EmptySearchResult;
+import org.openmrs.module.webservices.rest.web.resource.impl.KeysetPager;
 import org.openmrs.module.webservices.rest.web.resource.impl.NeedsPaging;
 import org.openmrs.module.webservices.rest.web.response.ResponseException;
 
@@ -197,7 +199,8 @@ public class OrderResource1_8 extends DataDelegatingCrudResource<Order> {
 	
 	/**
 	 * Gets orders by given patient (paged according to context if necessary) only if a patient
-	 * parameter exists in the request set on the {@link RequestContext} otherwise
+	 * parameter exists in the request set on the {@link RequestContext} otherwise. Orders of all
+	 * types can also be paged by cursor, newest first.
 	 * 
 	 * @param context
 	 * @see org.openmrs.module.webservices.rest.web.resource.impl.DelegatingCrudResource#doSearch(org.openmrs.module.webservices.rest.web.RequestContext)
@@ -220,6 +223,10 @@ public class OrderResource1_8 extends DataDelegatingCrudResource<Order> {
 					return ret;
 			}
 			
+			if (context.getType() == null && KeysetPager.isRequested(context))
+				return new KeysetPager<Order>(Order.class, "dateCreated", "orderId").getPage(context, new Field("patient",
+				    patient));
+			
 			List<Order> orders = Context.getOrderService().getOrdersByPatient(patient);
 			// if the user indicated a specific type, and we couldn't delegate to a subclass handler above, filter here
 			if (context.getType() != null) {
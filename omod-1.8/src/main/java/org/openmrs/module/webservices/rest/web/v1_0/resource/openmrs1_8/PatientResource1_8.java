@@ -37,7 +37,9 @@ import org.openmrs.module.webservices.rest.web.representation.FullRepresentation
 import org.openmrs.module.webservices.rest.web.representation.Representation;
 import org.openmrs.module.webservices.rest.web.resource.impl.AlreadyPaged;
 import org.openmrs.module.webservices.rest.web.resource.impl.DataDelegatingCrudResource;
+import org.openmrs.module.webservices.rest.web.resource.api.PageableResult;
 import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingResourceDescription;
+import org.openmrs.module.webservices.rest.web.resource.impl.KeysetPager;
 import org.openmrs.module.webservices.rest.web.resource.impl.ServiceSearcher;
 import org.openmrs.module.webservices.rest.web.response.ConversionException;
 import org.openmrs.module.webservices.rest.web.response.ResourceDoesNotSupportOperationException;
@@ -252,6 +254,19 @@ public class PatientResource1_8 extends DataDelegatingCrudResource<Patient> {
 		        .getParameter("q"), context);
 	}
 	
+	/**
+	 * Getting all patients is only supported by cursor, newest first, as there are too many
+	 * patients to page through by startIndex
+	 * 
+	 * @see org.openmrs.module.webservices.rest.web.resource.impl.DelegatingCrudResource#doGetAll(org.openmrs.module.webservices.rest.web.RequestContext)
+	 */
+	@Override
+	protected PageableResult doGetAll(RequestContext context) throws ResponseException {
+		if (KeysetPager.isRequested(context))
+			return new KeysetPager<Patient>(Patient.class, null, "patientId").getPage(context);
+		return super.doGetAll(context);
+	}
+	
 	/**
 	 * @see org.openmrs.module.webservices.rest.web.resource.impl.DelegatingCrudResource#getPropertiesToExposeAsSubResources()
 	 */
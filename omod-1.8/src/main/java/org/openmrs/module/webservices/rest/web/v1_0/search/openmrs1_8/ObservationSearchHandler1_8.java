@@ -1,10 +1,8 @@
 package org.openmrs.module.webservices.rest.web.v1_0.search.openmrs1_8;
 
 import java.util.Arrays;
-import java.util.List;
 
 import org.openmrs.Concept;
-import org.openmrs.Obs;
 import org.openmrs.Patient;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.webservices.rest.web.RequestContext;
@@ -15,9 +13,9 @@ import org.openmrs.module.webservices.rest.web.resource.api.SearchConfig;
 import org.openmrs.module.webservices.rest.web.resource.api.SearchHandler;
 import org.openmrs.module.webservices.rest.web.resource.api.SearchQuery;
 import org.openmrs.module.webservices.rest.web.resource.impl.EmptySearchResult;
-import org.openmrs.module.webservices.rest.web.resource.impl.NeedsPaging;
 import org.openmrs.module.webservices.rest.web.response.ResponseException;
 import org.openmrs.module.webservices.rest.web.v1_0.resource.openmrs1_8.ConceptResource1_8;
+import org.openmrs.module.webservices.rest.web.v1_0.resource.openmrs1_8.ObsResource1_8;
 import org.openmrs.module.webservices.rest.web.v1_0.resource.openmrs1_8.PatientResource1_8;
 import org.springframework.stereotype.Component;
 
@@ -38,7 +36,10 @@ import org.springframework.stereotype.Component;
 public class ObservationSearchHandler1_8 implements SearchHandler {
 
     private final SearchConfig searchConfig = new SearchConfig("default", RestConstants.VERSION_1 + "/obs", Arrays.asList("1.8.*", "1.9.*", "1.10.*", "1.11.*", "1.12.*", "2.0.*"),
-            Arrays.asList(new SearchQuery.Builder("Allows you to find Observations by patient and concept").withRequiredParameters("patient", "concept").build()));
+            Arrays.asList(new SearchQuery.Builder("Allows you to find Observations by patient and concept")
+                    .withRequiredParameters("patient", "concept")
+                    .withOptionalParameters(ObsResource1_8.REQUEST_PARAM_FROM_DATE, ObsResource1_8.REQUEST_PARAM_TO_DATE)
+                    .build()));
 
     @Override
     public SearchConfig getSearchConfig() {
@@ -50,7 +51,6 @@ public class ObservationSearchHandler1_8 implements SearchHandler {
 
         String patientUuid = context.getRequest().getParameter("patient");
         String conceptUuid = context.getRequest().getParameter("concept");
-        List<Concept> concepts = null;
 
         if (patientUuid != null) {
             Patient patient = ((PatientResource1_8) Context.getService(RestService.class).getResourceBySupportedClass(
@@ -59,9 +59,10 @@ public class ObservationSearchHandler1_8 implements SearchHandler {
                 if (conceptUuid != null) {
                     Concept concept = ((ConceptResource1_8) Context.getService(RestService.class).getResourceBySupportedClass(
                             Concept.class)).getByUniqueId(conceptUuid);
+                    if (concept == null)
+                        return new EmptySearchResult();
 
-                    List<Obs> obs = Context.getObsService().getObservationsByPersonAndConcept(patient,concept);
-                    return new NeedsPaging<Obs>(obs, context);
+                    return ObsResource1_8.getObservations(context, patient, null, concept);
                 }
 
             }
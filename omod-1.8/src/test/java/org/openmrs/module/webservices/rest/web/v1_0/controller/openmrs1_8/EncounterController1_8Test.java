@@ -297,6 +297,19 @@ public class EncounterController1_8Test extends MainResourceControllerTest {
 		Assert.assertTrue(uuids.contains("6519d653-393b-4118-9c83-a3715b82d4ac"));
 	}
 	
+	@Test
+	public void searchByPatient_shouldPageEncountersByCursorWithoutOverlapsOrGaps() throws Exception {
+		Patient patient = Context.getPatientService().getPatient(7);
+		List<Encounter> expected = new ArrayList<Encounter>();
+		for (Encounter encounter : Context.getEncounterService().getEncountersByPatient(patient)) {
+			if (!encounter.isVoided())
+				expected.add(encounter);
+		}
+		
+		List<Object> uuids = getUuidsPagedByCursor(1, new Parameter("patient", patient.getUuid()));
+		assertSameObjects(expected, uuids);
+	}
+	
 	@Test
 	public void search_shouldSearchForEncountersByASearchPhrase() throws Exception {
 		SimpleObject response = deserialize(handle(newGetRequest(getURI(), new Parameter("q", "Collet"))));
@@ -22,6 +22,7 @@ import static org.junit.Assert.assertTrue;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 
 import javax.servlet.http.HttpServletResponse;
@@ -32,6 +33,7 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.openmrs.Obs;
+import org.openmrs.Patient;
 import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.webservices.rest.SimpleObject;
@@ -41,6 +43,7 @@ import org.openmrs.module.webservices.rest.web.RestConstants;
 import org.openmrs.module.webservices.rest.web.RestTestConstants1_8;
 import org.openmrs.module.webservices.rest.web.representation.Representation;
 import org.openmrs.module.webservices.rest.web.response.ConversionException;
+import org.openmrs.module.webservices.rest.web.response.InvalidSearchException;
 import org.openmrs.module.webservices.rest.web.response.ResourceDoesNotSupportOperationException;
 import org.openmrs.module.webservices.rest.web.v1_0.controller.MainResourceControllerTest;
 import org.openmrs.module.webservices.rest.web.v1_0.resource.openmrs1_8.ObsResource1_8;
@@ -378,6 +381,115 @@ public class ObsController1_8Test extends MainResourceControllerTest {
 		Assert.assertEquals(9, results.size());
 	}
 	
+	@Test
+	public void searchByPatient_shouldPageObsByCursorWithoutOverlapsOrGaps() throws Exception {
+		Patient patient = Context.getPatientService().getPatient(7);
+		
+		List<Object> uuids = getUuidsPagedByCursor(2, new Parameter("patient", patient.getUuid()));
+		assertSameObjects(Context.getObsService().getObservationsByPerson(patient), uuids);
+	}
+	
+	@Test
+	public void searchByPatient_shouldPageByCursorThroughObsWithTheSameDate() throws Exception {
+		Patient patient = Context.getPatientService().getPatient(7);
+		Date date = new Date(1400000000000L);
+		for (int i = 0; i < 5; i++) {
+			Obs obs = new Obs(patient, Context.getConceptService().getConcept(5089), date, Context.getLocationService()
+			        .getLocation(1));
+			obs.setValueNumeric(60.0 + i);
+			Context.getObsService().saveObs(obs, null);
+		}
+		
+		for (int limit = 1; limit <= 3; limit++) {
+			List<Object> uuids = getUuidsPagedByCursor(limit, new Parameter("patient", patient.getUuid()));
+			assertSameObjects(Context.getObsService().getObservationsByPerson(patient), uuids);
+		}
+	}
+	
+	@Test
+	public void searchByEncounter_shouldPageVoidedObsByCursorOnlyIfIncludeAll() throws Exception {
+		Obs voided = Context.getObsService().getObsByUuid("39fb7f47-e80a-4056-9285-bd798be13c63");
+		Context.getObsService().voidObs(voided, "testing");
+		Parameter encounter = new Parameter("encounter", "6519d653-393b-4118-9c83-a3715b82d4ac");
+		
+		List<Object> uuids = getUuidsPagedByCursor(1, encounter);
+		Assert.assertEquals(Arrays.<Object> asList("be48cdcb-6a76-47e3-9f2e-2635032f3a9a"), uuids);
+		
+		uuids = getUuidsPagedByCursor(1, encounter, new Parameter(RestConstants.REQUEST_PROPERTY_FOR_INCLUDE_ALL, "true"));
+		assertSameObjects(Arrays.asList(voided, Context.getObsService().getObsByUuid(
+		    "be48cdcb-6a76-47e3-9f2e-2635032f3a9a")), uuids);
+	}
+	
+	@Test
+	public void searchByPatient_shouldPageObsByStartIndexWithoutOverlapsOrGaps() throws Exception {
+		Patient patient = Context.getPatientService().getPatient(7);
+		List<Obs> expected = Context.getObsService().getObservationsByPerson(patient);
+		
+		List<Object> uuids = new ArrayList<Object>();
+		for (int startIndex = 0; startIndex < expected.size(); startIndex += 2) {
+			SimpleObject result = deserialize(handle(newGetRequest(getURI(), new Parameter("patient", patient.getUuid()),
+			    new Parameter(RestConstants.REQUEST_PROPERTY_FOR_LIMIT, "2"), new Parameter(
+			            RestConstants.REQUEST_PROPERTY_FOR_START_INDEX, String.valueOf(startIndex)), new Parameter(
+			            RestConstants.REQUEST_PROPERTY_FOR_TOTAL_COUNT, "true"))));
+			
+			List<Object> results = Util.getResultsList(result);
+			assertEquals(Math.min(2, expected.size() - startIndex), results.size());
+			assertEquals(expected.size(), ((Number) result.get("totalCount")).intValue());
+			for (Object obs : results) {
+				uuids.add(PropertyUtils.getProperty(obs, "uuid"));
+			}
+		}
+		assertSameObjects(expected, uuids);
+	}
+	
+	@Test
+	public void searchByPatient_shouldReturnTheObsWithinFromdateAndTodate() throws Exception {
+		Patient patient = Context.getPatientService().getPatient(7);
+		SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+		List<Obs> created = new ArrayList<Obs>();
+		for (int day = 1; day <= 4; day++) {
+			Obs obs = new Obs(patient, Context.getConceptService().getConcept(5089), format.parse("2014-02-0" + day),
+			        Context.getLocationService().getLocation(1));
+			obs.setValueNumeric(60.0 + day);
+			created.add(Context.getObsService().saveObs(obs, null));
+		}
+		
+		SimpleObject result = deserialize(handle(newGetRequest(getURI(), new Parameter("patient", patient.getUuid()),
+		    new Parameter(ObsResource1_8.REQUEST_PARAM_FROM_DATE, "2014-02-02"), new Parameter(
+		            ObsResource1_8.REQUEST_PARAM_TO_DATE, "2014-02-03"))));
+		List<Object> results = Util.getResultsList(result);
+		assertEquals(2, results.size());
+		assertEquals(created.get(2).getUuid(), PropertyUtils.getProperty(results.get(0), "uuid"));
+		assertEquals(created.get(1).getUuid(), PropertyUtils.getProperty(results.get(1), "uuid"));
+	}
+	
+	@Test
+	public void searchByEncounter_shouldReturnVoidedObsOnlyIfIncludeAll() throws Exception {
+		Context.getObsService().voidObs(Context.getObsService().getObsByUuid(RestTestConstants1_8.OBS_UUID), "testing");
+		Parameter encounter = new Parameter("encounter", "6519d653-393b-4118-9c83-a3715b82d4ac");
+		
+		List<Object> results = Util.getResultsList(deserialize(handle(newGetRequest(getURI(), encounter))));
+		assertEquals(1, results.size());
+		assertEquals("be48cdcb-6a76-47e3-9f2e-2635032f3a9a", PropertyUtils.getProperty(results.get(0), "uuid"));
+		
+		results = Util.getResultsList(deserialize(handle(newGetRequest(getURI(), encounter, new Parameter(
+		        RestConstants.REQUEST_PROPERTY_FOR_INCLUDE_ALL, "true")))));
+		assertEquals(2, results.size());
+	}
+	
+	@Test
+	public void searchByPatient_shouldReturnNoObsForAnUnknownPatient() throws Exception {
+		SimpleObject result = deserialize(handle(newGetRequest(getURI(), new Parameter("patient", "unknown-patient-uuid"))));
+		assertEquals(0, Util.getResultsSize(result));
+	}
+	
+	@Test(expected = InvalidSearchException.class)
+	public void searchByPatient_shouldRejectACursorWithAStartIndex() throws Exception {
+		handle(newGetRequest(getURI(), new Parameter("patient", "5946f880-b197-400b-9caa-a3c661d23041"), new Parameter(
+		        RestConstants.REQUEST_PROPERTY_FOR_CURSOR, ""), new Parameter(
+		        RestConstants.REQUEST_PROPERTY_FOR_START_INDEX, "2")));
+	}
+	
 	@Test
 	//@Ignore("RESTWS-238: Define creatable/updatable properties on Obs resource")
 	public void createObs_shouldCreateAnObsWhenUnitsAreSpecifiedForAConceptNumeric() throws Exception {
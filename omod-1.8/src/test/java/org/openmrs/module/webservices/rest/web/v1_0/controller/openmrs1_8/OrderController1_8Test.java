@@ -13,6 +13,7 @@
  */
 package org.openmrs.module.webservices.rest.web.v1_0.controller.openmrs1_8;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.beanutils.PropertyUtils;
@@ -166,6 +167,19 @@ public class OrderController1_8Test extends MainResourceControllerTest {
 		
 	}
 	
+	@Test
+	public void shouldPageOrdersByPatientByCursorWithoutOverlapsOrGaps() throws Exception {
+		Patient patient = patientService.getPatientByUuid(PATIENT_UUID);
+		List<Order> expected = new ArrayList<Order>();
+		for (Order order : service.getOrdersByPatient(patient)) {
+			if (!order.isVoided())
+				expected.add(order);
+		}
+		
+		List<Object> uuids = getUuidsPagedByCursor(2, new Parameter("patient", PATIENT_UUID));
+		assertSameObjects(expected, uuids);
+	}
+	
 	@Test
 	public void shouldGetAllDrugOrdersByPatient() throws Exception {
 		
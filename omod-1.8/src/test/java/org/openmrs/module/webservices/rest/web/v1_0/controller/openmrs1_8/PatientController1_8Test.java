@@ -14,10 +14,13 @@
 package org.openmrs.module.webservices.rest.web.v1_0.controller.openmrs1_8;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.List;
+
 import org.apache.commons.beanutils.PropertyUtils;
 import org.junit.Before;
 import org.junit.Test;
@@ -30,6 +33,7 @@ import org.openmrs.module.webservices.rest.test.Util;
 import org.openmrs.module.webservices.rest.web.RestConstants;
 import org.openmrs.module.webservices.rest.web.RestTestConstants1_8;
 import org.openmrs.module.webservices.rest.web.response.ConversionException;
+import org.openmrs.module.webservices.rest.web.response.InvalidSearchException;
 import org.openmrs.module.webservices.rest.web.response.ResourceDoesNotSupportOperationException;
 import org.openmrs.module.webservices.rest.web.v1_0.controller.MainResourceControllerTest;
 import org.springframework.mock.web.MockHttpServletRequest;
@@ -68,6 +72,28 @@ public class PatientController1_8Test extends MainResourceControllerTest {
 		super.shouldGetAll();
 	}
 
+	@Test
+	public void shouldPageAllPatientsByCursorWithoutOverlapsOrGaps() throws Exception {
+		List<Object> uuids = getUuidsPagedByCursor(2);
+		assertSameObjects(service.getAllPatients(), uuids);
+	}
+	
+	@Test
+	public void shouldPageVoidedPatientsByCursorOnlyIfIncludeAll() throws Exception {
+		Patient voided = service.getPatientByUuid(getUuid());
+		service.voidPatient(voided, "testing");
+		
+		assertFalse(getUuidsPagedByCursor(2).contains(getUuid()));
+		assertTrue(getUuidsPagedByCursor(2, new Parameter(RestConstants.REQUEST_PROPERTY_FOR_INCLUDE_ALL, "true")).contains(
+		    getUuid()));
+	}
+	
+	@Test(expected = InvalidSearchException.class)
+	public void shouldRejectACursorWithAStartIndex() throws Exception {
+		handle(newGetRequest(getURI(), new Parameter(RestConstants.REQUEST_PROPERTY_FOR_CURSOR, ""), new Parameter(
+		        RestConstants.REQUEST_PROPERTY_FOR_START_INDEX, "2")));
+	}
+	
 	@Test
 	public void shouldGetAPatientByUuid() throws Exception {
 		MockHttpServletRequest req = request(RequestMethod.GET, getURI() + "/" + getUuid());
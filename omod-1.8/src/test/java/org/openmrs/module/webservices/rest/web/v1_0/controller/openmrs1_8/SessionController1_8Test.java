@@ -1,10 +1,16 @@
 package org.openmrs.module.webservices.rest.web.v1_0.controller.openmrs1_8;
 
+import java.util.Properties;
+
 import org.apache.commons.beanutils.PropertyUtils;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.openmrs.api.context.Context;
+import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.RestUtil;
+import org.openmrs.module.webservices.rest.web.auth.SessionTokens;
 import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpSession;
@@ -28,6 +34,14 @@ public class SessionController1_8Test extends BaseModuleWebContextSensitiveTest
 		request = new ServletWebRequest(hsr);
 	}
 	
+	@After
+	public void after() {
+		Properties properties = Context.getRuntimeProperties();
+		properties.remove(RestConstants.SESSION_TOKEN_KEYS_RUNTIME_PROPERTY_NAME);
+		Context.setRuntimeProperties(properties);
+		RestUtil.reloadSettings();
+	}
+	
 	/**
 	 * @see SessionController1_8#delete()
 	 * @verifies log the client out
@@ -67,4 +81,23 @@ public class SessionController1_8Test extends BaseModuleWebContextSensitiveTest
 		Assert.assertEquals(SESSION_ID, PropertyUtils.getProperty(ret, "sessionId"));
 		Assert.assertEquals(false, PropertyUtils.getProperty(ret, "authenticated"));
 	}
+	
+	/**
+	 * @see SessionController1_8#get(WebRequest)
+	 * @verifies not issue a token to a request authenticated by a token
+	 */
+	@Test
+	public void get_shouldNotIssueATokenToARequestAuthenticatedByAToken() throws Exception {
+		Properties properties = Context.getRuntimeProperties();
+		properties.setProperty(RestConstants.SESSION_TOKEN_KEYS_RUNTIME_PROPERTY_NAME, "a:0123456789abcdef0123");
+		Context.setRuntimeProperties(properties);
+		RestUtil.reloadSettings();
+		
+		Assert.assertNotNull(PropertyUtils.getProperty(controller.get(request), "token"));
+		
+		request.setAttribute(SessionTokens.AUTHENTICATED_BY_TOKEN_ATTRIBUTE, Boolean.TRUE, WebRequest.SCOPE_REQUEST);
+		Object ret = controller.get(request);
+		Assert.assertEquals(true, PropertyUtils.getProperty(ret, "authenticated"));
+		Assert.assertNull(PropertyUtils.getProperty(ret, "token"));
+	}
 }
@@ -0,0 +1,161 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.v1_0.search.openmrs1_8;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.beanutils.PropertyUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.Concept;
+import org.openmrs.Obs;
+import org.openmrs.Patient;
+import org.openmrs.api.ObsService;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.webservices.rest.SimpleObject;
+import org.openmrs.module.webservices.rest.test.Util;
+import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.RestTestConstants1_8;
+import org.openmrs.module.webservices.rest.web.response.ResourceDoesNotSupportOperationException;
+import org.openmrs.module.webservices.rest.web.v1_0.controller.MainResourceControllerTest;
+import org.openmrs.module.webservices.rest.web.v1_0.resource.openmrs1_8.ObsResource1_8;
+
+/**
+ * Tests the search of obs by patient and concept, which is paged in the database.
+ */
+public class ObservationSearchHandler1_8Test extends MainResourceControllerTest {
+	
+	private static final String PATIENT_UUID = "86526ed5-3c11-11de-a0ba-001e378eb67a";
+	
+	private ObsService service;
+	
+	private String conceptUuid;
+	
+	/**
+	 * The obs of the patient for the concept, newest first
+	 */
+	private List<Obs> obs = new ArrayList<Obs>();
+	
+	@Before
+	public void init() throws Exception {
+		executeDataSet("obsWithGroupMembers.xml");
+		service = Context.getObsService();
+		
+		Patient patient = Context.getPatientService().getPatientByUuid(PATIENT_UUID);
+		Concept weight = Context.getConceptService().getConcept(5089);
+		conceptUuid = weight.getUuid();
+		SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+		for (int day = 5; day >= 1; day--) {
+			Obs o = new Obs(patient, weight, format.parse("2014-01-0" + day), Context.getLocationService().getLocation(1));
+			o.setValueNumeric(60.0 + day);
+			obs.add(service.saveObs(o, null));
+		}
+	}
+	
+	@Override
+	public String getURI() {
+		return "obs";
+	}
+	
+	@Override
+	public String getUuid() {
+		return RestTestConstants1_8.OBS_UUID;
+	}
+	
+	@Override
+	public long getAllCount() {
+		return 0;
+	}
+	
+	@Override
+	@Test(expected = ResourceDoesNotSupportOperationException.class)
+	public void shouldGetAll() throws Exception {
+		super.shouldGetAll();
+	}
+	
+	@Test
+	public void search_shouldPageObsNewestFirst() throws Exception {
+		for (int startIndex = 0; startIndex < obs.size(); startIndex += 2) {
+			SimpleObject result = search(new Parameter(RestConstants.REQUEST_PROPERTY_FOR_LIMIT, "2"), new Parameter(
+			        RestConstants.REQUEST_PROPERTY_FOR_START_INDEX, String.valueOf(startIndex)));
+			
+			List<Obs> page = obs.subList(startIndex, Math.min(startIndex + 2, obs.size()));
+			Assert.assertEquals(getUuids(page), getUuids(Util.getResultsList(result)));
+			Assert.assertEquals(startIndex + 2 < obs.size(), hasNextLink(result));
+		}
+	}
+	
+	@Test
+	public void search_shouldReturnTheObsWithinTheDatesInclusive() throws Exception {
+		SimpleObject result = search(new Parameter(ObsResource1_8.REQUEST_PARAM_FROM_DATE, "2014-01-02"), new Parameter(
+		        ObsResource1_8.REQUEST_PARAM_TO_DATE, "2014-01-04"));
+		Assert.assertEquals(getUuids(obs.subList(1, 4)), getUuids(Util.getResultsList(result)));
+		
+		result = search(new Parameter(ObsResource1_8.REQUEST_PARAM_FROM_DATE, "2014-01-04"));
+		Assert.assertEquals(getUuids(obs.subList(0, 2)), getUuids(Util.getResultsList(result)));
+		
+		result = search(new Parameter(ObsResource1_8.REQUEST_PARAM_TO_DATE, "2014-01-01"));
+		Assert.assertEquals(getUuids(obs.subList(4, 5)), getUuids(Util.getResultsList(result)));
+	}
+	
+	@Test
+	public void search_shouldReturnVoidedObsOnlyIfIncludeAll() throws Exception {
+		Obs voided = service.voidObs(obs.get(2), "testing");
+		
+		List<Object> uuids = getUuids(Util.getResultsList(search()));
+		Assert.assertEquals(obs.size() - 1, uuids.size());
+		Assert.assertFalse(uuids.contains(voided.getUuid()));
+		
+		uuids = getUuids(Util.getResultsList(search(new Parameter(RestConstants.REQUEST_PROPERTY_FOR_INCLUDE_ALL, "true"))));
+		Assert.assertEquals(getUuids(obs), uuids);
+	}
+	
+	@Test
+	public void search_shouldReturnNoObsForAnUnknownConcept() throws Exception {
+		SimpleObject result = deserialize(handle(newGetRequest(getURI(), new Parameter("patient", PATIENT_UUID),
+		    new Parameter("concept", "unknown-concept-uuid"))));
+		Assert.assertEquals(0, Util.getResultsSize(result));
+	}
+	
+	private SimpleObject search(Parameter... parameters) throws Exception {
+		List<Parameter> all = new ArrayList<Parameter>(Arrays.asList(parameters));
+		all.add(new Parameter("patient", PATIENT_UUID));
+		all.add(new Parameter("concept", conceptUuid));
+		return deserialize(handle(newGetRequest(getURI(), all.toArray(new Parameter[all.size()]))));
+	}
+	
+	private List<Object> getUuids(List<?> objects) throws Exception {
+		List<Object> uuids = new ArrayList<Object>();
+		for (Object object : objects) {
+			uuids.add(PropertyUtils.getProperty(object, "uuid"));
+		}
+		return uuids;
+	}
+	
+	private boolean hasNextLink(SimpleObject result) throws Exception {
+		List<Object> links = result.get("links");
+		if (links != null) {
+			for (Object link : links) {
+				if ("next".equals(PropertyUtils.getProperty(link, "rel")))
+					return true;
+			}
+		}
+		return false;
+	}
+	
+}
@@ -22,13 +22,16 @@ import org.openmrs.module.webservices.rest.web.RestConstants;
 import org.openmrs.module.webservices.rest.web.annotation.PropertyGetter;
 import org.openmrs.module.webservices.rest.web.annotation.PropertySetter;
 import org.openmrs.module.webservices.rest.web.annotation.Resource;
+import org.openmrs.module.webservices.rest.web.api.RestHelperService.Field;
 import org.openmrs.module.webservices.rest.web.api.RestService;
 import org.openmrs.module.webservices.rest.web.representation.DefaultRepresentation;
 import org.openmrs.module.webservices.rest.web.representation.FullRepresentation;
 import org.openmrs.module.webservices.rest.web.representation.Representation;
+import org.openmrs.module.webservices.rest.web.resource.api.PageableResult;
 import org.openmrs.module.webservices.rest.web.resource.impl.DataDelegatingCrudResource;
 import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingCrudResource;
 import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingResourceDescription;
+import org.openmrs.module.webservices.rest.web.resource.impl.KeysetPager;
 import org.openmrs.module.webservices.rest.web.resource.impl.NeedsPaging;
 import org.openmrs.module.webservices.rest.web.response.ObjectNotFoundException;
 import org.openmrs.module.webservices.rest.web.response.ResourceDoesNotSupportOperationException;
@@ -46,6 +49,9 @@ import java.util.Set;
 @Resource(name = RestConstants.VERSION_1 + "/visit", supportedClass = Visit.class, supportedOpenmrsVersions = {"1.9.*", "1.10.*", "1.11.*", "1.12.*", "2.0.*"})
 public class VisitResource1_9 extends DataDelegatingCrudResource<Visit> {
 	
+	private static final KeysetPager<Visit> VISITS_BY_CURSOR = new KeysetPager<Visit>(Visit.class, "startDatetime",
+	        "visitId");
+	
 	/**
 	 * @see org.openmrs.module.webservices.rest.web.resource.impl.DelegatingResourceHandler#getRepresentationDescription(org.openmrs.module.webservices.rest.web.representation.Representation)
 	 */
@@ -237,17 +243,24 @@ public class VisitResource1_9 extends DataDelegatingCrudResource<Visit> {
 	private SimpleObject getVisits(RequestContext context, String patientParameter, String includeInactiveParameter) {
 		Collection<Patient> patients = patientParameter == null ? null : Arrays.asList(getPatient(patientParameter));
 		boolean includeInactive = includeInactiveParameter == null ? true : Boolean.parseBoolean(includeInactiveParameter);
+		if (KeysetPager.isRequested(context)) {
+			Field patient = patients == null ? null : new Field("patient", patients.iterator().next());
+			Field active = includeInactive ? null : new Field("stopDatetime", null);
+			return VISITS_BY_CURSOR.getPage(context, patient, active).toSimpleObject(this);
+		}
 		return new NeedsPaging<Visit>(Context.getVisitService().getVisits(null, patients, null, null, null, null, null, null, null, includeInactive, false), context).toSimpleObject(this);
 	}
 	
 	/**
-     * Get all the visits
+     * Get all the visits, newest first if paged by cursor
      *
      * @see
      * org.openmrs.module.webservices.rest.web.resource.impl.DelegatingCrudResource#doGetAll(org.openmrs.module.webservices.rest.web.RequestContext)
      */
     @Override
-    protected NeedsPaging<Visit> doGetAll(RequestContext context) {
+    protected PageableResult doGetAll(RequestContext context) {
+        if (KeysetPager.isRequested(context))
+            return VISITS_BY_CURSOR.getPage(context);
         return new NeedsPaging<Visit>(Context.getVisitService().getAllVisits(), context);
     }
 
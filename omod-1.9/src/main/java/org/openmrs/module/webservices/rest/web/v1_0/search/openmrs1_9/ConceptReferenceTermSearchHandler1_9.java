@@ -91,11 +91,14 @@ public class ConceptReferenceTermSearchHandler1_9 implements SearchHandler {
 			}
 		} else {
 			List<ConceptReferenceTerm> terms = conceptService.getConceptReferenceTerms(null, conceptSource,
-			    context.getStartIndex(), context.getLimit(), context.getIncludeAll());
-			int count = conceptService.getCountOfConceptReferenceTerms(null, conceptSource, context.getIncludeAll());
-			boolean hasMore = count > (context.getStartIndex() + context.getLimit());
+			    context.getStartIndex(), context.getLimit() + 1, context.getIncludeAll());
+			Long totalCount = null;
+			if (context.getTotalCount()) {
+				totalCount = Long.valueOf(conceptService.getCountOfConceptReferenceTerms(null, conceptSource, context
+				        .getIncludeAll()));
+			}
 			
-			return new AlreadyPaged<ConceptReferenceTerm>(context, terms, hasMore);
+			return AlreadyPaged.fromLimitPlusOne(context, terms, totalCount);
 		}
 	}
 	
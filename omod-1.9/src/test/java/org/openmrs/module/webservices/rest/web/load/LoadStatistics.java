@@ -0,0 +1,145 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.load;
+
+import java.util.Arrays;
+
+/**
+ * The measurements of one kind of request during a load test. Each worker thread records into its
+ * own instance, and the instances are merged when the workers are done.
+ */
+public class LoadStatistics {
+	
+	private final String kind;
+	
+	private long[] latencies = new long[256];
+	
+	private int count;
+	
+	private int failures;
+	
+	private long statements;
+	
+	private long maxStatements;
+	
+	private long allocatedBytes;
+	
+	private boolean allocationsMeasured = true;
+	
+	public LoadStatistics(String kind) {
+		this.kind = kind;
+	}
+	
+	/**
+	 * Records one request
+	 * 
+	 * @param nanos how long the request took
+	 * @param failed whether the request failed
+	 * @param statementCount the number of SQL statements it issued
+	 * @param allocated the number of bytes it allocated, or -1 if that is not known
+	 */
+	public void record(long nanos, boolean failed, long statementCount, long allocated) {
+		if (count == latencies.length) {
+			latencies = Arrays.copyOf(latencies, count * 2);
+		}
+		latencies[count++] = nanos;
+		if (failed) {
+			failures++;
+		}
+		statements += statementCount;
+		maxStatements = Math.max(maxStatements, statementCount);
+		if (allocated < 0) {
+			allocationsMeasured = false;
+		} else {
+			allocatedBytes += allocated;
+		}
+	}
+	
+	/**
+	 * Adds the measurements of another instance to this one
+	 * 
+	 * @param other
+	 */
+	public void merge(LoadStatistics other) {
+		if (count + other.count > latencies.length) {
+			latencies = Arrays.copyOf(latencies, count + other.count);
+		}
+		System.arraycopy(other.latencies, 0, latencies, count, other.count);
+		count += other.count;
+		failures += other.failures;
+		statements += other.statements;
+		maxStatements = Math.max(maxStatements, other.maxStatements);
+		allocatedBytes += other.allocatedBytes;
+		allocationsMeasured &= other.allocationsMeasured;
+	}
+	
+	public String getKind() {
+		return kind;
+	}
+	
+	public int getCount() {
+		return count;
+	}
+	
+	public int getFailures() {
+		return failures;
+	}
+	
+	/**
+	 * @param percentile between 0 and 100
+	 * @return the latency below which the given percentage of requests finished, in milliseconds
+	 */
+	public double getLatencyMillis(double percentile) {
+		if (count == 0) {
+			return 0;
+		}
+		long[] sorted = Arrays.copyOf(latencies, count);
+		Arrays.sort(sorted);
+		int index = (int) Math.ceil(percentile / 100 * count) - 1;
+		return sorted[Math.max(0, Math.min(count - 1, index))] / 1e6;
+	}
+	
+	public double getStatementsPerRequest() {
+		return count == 0 ? 0 : (double) statements / count;
+	}
+	
+	public long getMaxStatements() {
+		return maxStatements;
+	}
+	
+	/**
+	 * @return the mean number of bytes allocated per request, or -1 if the JVM does not measure
+	 *         allocations
+	 */
+	public double getAllocatedBytesPerRequest() {
+		if (!allocationsMeasured) {
+			return -1;
+		}
+		return count == 0 ? 0 : (double) allocatedBytes / count;
+	}
+	
+	/**
+	 * @param seconds the duration of the load test
+	 * @return a line describing these measurements
+	 */
+	public String format(double seconds) {
+		double allocated = getAllocatedBytesPerRequest();
+		return String.format("%-8s %7d req %5d failed %9.1f req/s   p50 %8.2f ms   p95 %8.2f ms   p99 %8.2f ms"
+		        + "   max %8.2f ms   %7.1f SQL/req (max %d)   %s", kind, count, failures, count / seconds,
+		    getLatencyMillis(50), getLatencyMillis(95), getLatencyMillis(99), getLatencyMillis(100),
+		    getStatementsPerRequest(), maxStatements, allocated < 0 ? "allocations not measured" : String.format(
+		        "%.1f KB/req", allocated / 1024));
+	}
+	
+}
@@ -0,0 +1,356 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.load;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.metrics.QueryStats;
+import org.openmrs.module.webservices.rest.web.metrics.RequestMetrics;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.mvc.annotation.AnnotationMethodHandlerAdapter;
+import org.springframework.web.servlet.mvc.annotation.DefaultAnnotationHandlerMapping;
+
+/**
+ * Runs a mix of GET, search and POST requests against the resource controllers from several
+ * threads, on synthetic data added to the in-memory test database, and fails if the throughput,
+ * latency, SQL statements or allocations per request exceed the thresholds.
+ * <p>
+ * Load tests are not part of the regular build. Run them with
+ * <code>mvn -pl omod-1.9 test -Pload-test</code> after installing the other modules, and size the
+ * load with system properties, e.g. <code>-Dloadtest.patients=500 -Dloadtest.threads=8</code>. See
+ * the constants below for all properties and their defaults. The default thresholds are sized for
+ * the default load on a developer machine, with headroom for slower build servers. When changing
+ * the load or the machine, run once with the thresholds relaxed, read the measured baseline from
+ * the logged results, and set the thresholds a little above it.
+ * <p>
+ * The synthetic data is committed, so that the worker threads can see it, and is deleted after the
+ * test along with the obs created by its requests.
+ */
+public class RestLoadTest extends BaseModuleWebContextSensitiveTest {
+	
+	private static final Log log = LogFactory.getLog(RestLoadTest.class);
+	
+	private static final int PATIENTS = Integer.getInteger("loadtest.patients", 20);
+	
+	private static final int ENCOUNTERS_PER_PATIENT = Integer.getInteger("loadtest.encountersPerPatient", 5);
+	
+	private static final int OBS_PER_ENCOUNTER = Integer.getInteger("loadtest.obsPerEncounter", 10);
+	
+	private static final int THREADS = Integer.getInteger("loadtest.threads", 4);
+	
+	private static final int WARM_UP_REQUESTS = Integer.getInteger("loadtest.warmUpRequests", 200);
+	
+	private static final int REQUESTS = Integer.getInteger("loadtest.requests", 2000);
+	
+	/**
+	 * The percentage of requests getting a patient, encounter or obs by uuid
+	 */
+	private static final int GET_PERCENT = Integer.getInteger("loadtest.getPercent", 60);
+	
+	/**
+	 * The percentage of requests searching patients, encounters or obs. The remaining requests
+	 * create obs.
+	 */
+	private static final int SEARCH_PERCENT = Integer.getInteger("loadtest.searchPercent", 30);
+	
+	private static final double MIN_REQUESTS_PER_SECOND = getDouble("loadtest.minRequestsPerSecond", 50);
+	
+	private static final double MAX_P95_MILLIS = getDouble("loadtest.maxP95Millis", 250);
+	
+	private static final double MAX_STATEMENTS_PER_REQUEST = getDouble("loadtest.maxStatementsPerRequest", 100);
+	
+	private static final double MAX_KB_PER_REQUEST = getDouble("loadtest.maxKbPerRequest", 4 * 1024);
+	
+	private static final String GET = "get";
+	
+	private static final String SEARCH = "search";
+	
+	private static final String POST = "post";
+	
+	@Autowired
+	private AnnotationMethodHandlerAdapter handlerAdapter;
+	
+	@Autowired
+	private List<DefaultAnnotationHandlerMapping> handlerMappings;
+	
+	private SyntheticData data;
+	
+	@After
+	public void deleteSyntheticData() throws Exception {
+		if (data != null) {
+			Context.clearSession();
+			data.delete();
+			getConnection().commit();
+			Context.clearSession();
+		}
+	}
+	
+	@Test
+	public void shouldServeMixedLoadWithinThresholds() throws Exception {
+		long start = System.nanoTime();
+		data = SyntheticData.create(PATIENTS, ENCOUNTERS_PER_PATIENT, OBS_PER_ENCOUNTER);
+		getConnection().commit();
+		Context.clearSession();
+		log.info(String.format("Created %d patients, %d encounters and %d obs in %.1f s", data.getPatientUuids().size(),
+		    data.getEncounterUuids().size(), data.getObsUuids().size(), (System.nanoTime() - start) / 1e9));
+		
+		run(data, WARM_UP_REQUESTS, 0);
+		start = System.nanoTime();
+		Map<String, LoadStatistics> results = run(data, REQUESTS, 1);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("%d threads, %d requests in %.1f s, %.1f req/s%n", THREADS, REQUESTS, seconds,
+		    REQUESTS / seconds));
+		List<String> violations = new ArrayList<String>();
+		if (REQUESTS / seconds < MIN_REQUESTS_PER_SECOND) {
+			violations.add(String.format("throughput below %.1f req/s", MIN_REQUESTS_PER_SECOND));
+		}
+		for (LoadStatistics statistics : results.values()) {
+			report.append(statistics.format(seconds)).append(String.format("%n"));
+			if (statistics.getFailures() > 0) {
+				violations.add(statistics.getKind() + ": " + statistics.getFailures() + " failed requests");
+			}
+			if (!POST.equals(statistics.getKind()) && statistics.getCount() > 0 && statistics.getMaxStatements() == 0) {
+				// reads always reach the database, as each request starts with an empty session
+				violations.add(statistics.getKind() + ": no SQL statements counted, the query counting interceptor"
+				        + " is not chained into the session factory");
+			}
+			if (statistics.getLatencyMillis(95) > MAX_P95_MILLIS) {
+				violations.add(String.format("%s: p95 above %.0f ms", statistics.getKind(), MAX_P95_MILLIS));
+			}
+			if (statistics.getStatementsPerRequest() > MAX_STATEMENTS_PER_REQUEST) {
+				violations.add(String.format("%s: more than %.0f SQL statements per request", statistics.getKind(),
+				    MAX_STATEMENTS_PER_REQUEST));
+			}
+			if (statistics.getAllocatedBytesPerRequest() > MAX_KB_PER_REQUEST * 1024) {
+				violations.add(String.format("%s: more than %.0f KB allocated per request", statistics.getKind(),
+				    MAX_KB_PER_REQUEST));
+			}
+		}
+		log.info("Load test results:\n" + report);
+		
+		Assert.assertTrue("Load test thresholds exceeded: " + violations + "\n" + report, violations.isEmpty());
+	}
+	
+	/**
+	 * Sends the given number of requests, spread evenly over the worker threads
+	 * 
+	 * @param data
+	 * @param requests
+	 * @param seed makes the sequence of requests reproducible
+	 * @return the measurements for each kind of request
+	 */
+	private Map<String, LoadStatistics> run(SyntheticData data, int requests, long seed) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Map<String, LoadStatistics>>> futures = new ArrayList<Future<Map<String, LoadStatistics>>>();
+			for (int i = 0; i < THREADS; i++) {
+				int count = requests / THREADS + (i < requests % THREADS ? 1 : 0);
+				futures.add(executor.submit(new Worker(data, count, new Random(seed * THREADS + i))));
+			}
+			Map<String, LoadStatistics> results = newStatistics();
+			for (Future<Map<String, LoadStatistics>> future : futures) {
+				for (LoadStatistics statistics : future.get().values()) {
+					results.get(statistics.getKind()).merge(statistics);
+				}
+			}
+			return results;
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+	
+	private static Map<String, LoadStatistics> newStatistics() {
+		Map<String, LoadStatistics> statistics = new LinkedHashMap<String, LoadStatistics>();
+		for (String kind : new String[] { GET, SEARCH, POST }) {
+			statistics.put(kind, new LoadStatistics(kind));
+		}
+		return statistics;
+	}
+	
+	/**
+	 * Sends requests from its own thread, with its own session, as the web application would
+	 */
+	private class Worker implements Callable<Map<String, LoadStatistics>> {
+		
+		private final SyntheticData data;
+		
+		private final int requests;
+		
+		private final Random random;
+		
+		public Worker(SyntheticData data, int requests, Random random) {
+			this.data = data;
+			this.requests = requests;
+			this.random = random;
+		}
+		
+		@Override
+		public Map<String, LoadStatistics> call() throws Exception {
+			Map<String, LoadStatistics> statistics = newStatistics();
+			Context.openSession();
+			try {
+				Context.authenticate("admin", "test");
+				for (int i = 0; i < requests; i++) {
+					int percent = random.nextInt(100);
+					String kind = percent < GET_PERCENT ? GET : percent < GET_PERCENT + SEARCH_PERCENT ? SEARCH : POST;
+					MockHttpServletRequest request = newRequest(kind);
+					
+					RequestMetrics metrics = RequestMetrics.begin();
+					QueryStats queryStats = new QueryStats();
+					metrics.setQueryStats(queryStats);
+					long allocatedBefore = getAllocatedBytes();
+					long start = System.nanoTime();
+					boolean failed;
+					try {
+						failed = handle(request).getStatus() >= 400;
+					}
+					catch (Exception ex) {
+						failed = true;
+						log.warn("Request failed: " + request.getMethod() + " " + request.getRequestURI(), ex);
+					}
+					finally {
+						RequestMetrics.end();
+					}
+					long nanos = System.nanoTime() - start;
+					long allocated = allocatedBefore < 0 ? -1 : getAllocatedBytes() - allocatedBefore;
+					statistics.get(kind).record(nanos, failed, queryStats.getStatements(), allocated);
+					
+					// the web application uses a new session for each request
+					Context.clearSession();
+				}
+			}
+			finally {
+				Context.closeSession();
+			}
+			return statistics;
+		}
+		
+		private MockHttpServletRequest newRequest(String kind) {
+			int patient = random.nextInt(data.getPatientUuids().size());
+			String patientUuid = data.getPatientUuids().get(patient);
+			int choice = random.nextInt(3);
+			if (GET.equals(kind)) {
+				if (choice == 0) {
+					return request("GET", "patient/" + patientUuid);
+				} else if (choice == 1) {
+					MockHttpServletRequest request = request("GET", "encounter/" + pick(data.getEncounterUuids()));
+					request.addParameter("v", "full");
+					return request;
+				}
+				return request("GET", "obs/" + pick(data.getObsUuids()));
+			} else if (SEARCH.equals(kind)) {
+				MockHttpServletRequest request;
+				if (choice == 0) {
+					request = request("GET", "patient");
+					request.addParameter("q", data.getFamilyNames().get(patient));
+				} else if (choice == 1) {
+					request = request("GET", "encounter");
+					request.addParameter("patient", patientUuid);
+					request.addParameter("encounterType", data.getEncounterTypeUuid());
+				} else {
+					request = request("GET", "obs");
+					request.addParameter("patient", patientUuid);
+					request.addParameter("concept", data.getConceptUuid());
+				}
+				return request;
+			}
+			MockHttpServletRequest request = request("POST", "obs");
+			String json = "{\"person\":\"" + patientUuid + "\",\"concept\":\"" + data.getConceptUuid()
+			        + "\",\"location\":\"" + data.getLocationUuid() + "\",\"obsDatetime\":\"2015-09-07T00:00:00.000+0530\""
+			        + ",\"value\":" + data.getValue() + "}";
+			try {
+				request.setContent(json.getBytes("UTF-8"));
+			}
+			catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+			return request;
+		}
+		
+		private String pick(List<String> uuids) {
+			return uuids.get(random.nextInt(uuids.size()));
+		}
+	}
+	
+	private MockHttpServletRequest request(String method, String uri) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, "/rest/" + RestConstants.VERSION_1 + "/" + uri);
+		request.addHeader("content-type", "application/json");
+		return request;
+	}
+	
+	/**
+	 * Passes the given request to the controller handling it, like
+	 * {@link org.openmrs.module.webservices.rest.web.v1_0.controller.MainResourceControllerTest#handle(HttpServletRequest)}
+	 */
+	private MockHttpServletResponse handle(HttpServletRequest request) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HandlerExecutionChain handlerExecutionChain = null;
+		for (DefaultAnnotationHandlerMapping handlerMapping : handlerMappings) {
+			handlerExecutionChain = handlerMapping.getHandler(request);
+			if (handlerExecutionChain != null) {
+				break;
+			}
+		}
+		Assert.assertNotNull("The request URI does not exist", handlerExecutionChain);
+		handlerAdapter.handle(request, response, handlerExecutionChain.getHandler());
+		return response;
+	}
+	
+	/**
+	 * @return the number of bytes allocated by the current thread so far, or -1 if the JVM does not
+	 *         measure it
+	 */
+	private static long getAllocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+			if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+				return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+	
+	private static double getDouble(String property, double defaultValue) {
+		String value = System.getProperty(property);
+		return value == null ? defaultValue : Double.parseDouble(value);
+	}
+	
+}
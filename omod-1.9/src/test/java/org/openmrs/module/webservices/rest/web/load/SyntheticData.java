@@ -0,0 +1,217 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.load;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.lang.StringUtils;
+import org.openmrs.Concept;
+import org.openmrs.ConceptNumeric;
+import org.openmrs.Encounter;
+import org.openmrs.EncounterType;
+import org.openmrs.Location;
+import org.openmrs.Obs;
+import org.openmrs.Patient;
+import org.openmrs.PatientIdentifier;
+import org.openmrs.PatientIdentifierType;
+import org.openmrs.PersonName;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.webservices.rest.web.RestTestConstants1_8;
+
+/**
+ * Creates N patients with M encounters each, with K numeric obs per encounter, through the API,
+ * on top of the standard test dataset. The uuids of what was created are kept, so that requests
+ * can refer to them.
+ */
+public class SyntheticData {
+	
+	private static final int FLUSH_EVERY = 50;
+	
+	private static final long DAY = 24L * 60 * 60 * 1000;
+	
+	private final List<String> patientUuids = new ArrayList<String>();
+	
+	private final List<String> familyNames = new ArrayList<String>();
+	
+	private final List<String> encounterUuids = new ArrayList<String>();
+	
+	private final List<String> obsUuids = new ArrayList<String>();
+	
+	private Concept concept;
+	
+	private double value;
+	
+	private Location location;
+	
+	private EncounterType encounterType;
+	
+	/**
+	 * Creates the data in the current session. It is flushed but not committed.
+	 * 
+	 * @param patients N, the number of patients
+	 * @param encountersPerPatient M, the number of encounters of each patient
+	 * @param obsPerEncounter K, the number of obs in each encounter
+	 * @return the uuids of the data created
+	 */
+	public static SyntheticData create(int patients, int encountersPerPatient, int obsPerEncounter) {
+		SyntheticData data = new SyntheticData();
+		data.generate(patients, encountersPerPatient, obsPerEncounter);
+		return data;
+	}
+	
+	private void generate(int patients, int encountersPerPatient, int obsPerEncounter) {
+		concept = Context.getConceptService().getConceptByUuid(RestTestConstants1_8.CONCEPT_NUMERIC_UUID);
+		value = getValidValue(concept);
+		location = Context.getLocationService().getLocationByUuid(RestTestConstants1_8.LOCATION_UUID);
+		encounterType = Context.getEncounterService().getEncounterTypeByUuid(RestTestConstants1_8.ENCOUNTER_TYPE_UUID);
+		PatientIdentifierType identifierType = getIdentifierTypeWithoutValidator();
+		Date now = new Date();
+		
+		for (int n = 0; n < patients; n++) {
+			Patient patient = new Patient();
+			patient.setGender(n % 2 == 0 ? "F" : "M");
+			patient.setBirthdate(new Date(now.getTime() - (20 + n % 50) * 365 * DAY));
+			String familyName = "Loadtest" + n;
+			patient.addName(new PersonName("Patient", null, familyName));
+			PatientIdentifier identifier = new PatientIdentifier("LT-" + n, identifierType, location);
+			identifier.setPreferred(true);
+			patient.addIdentifier(identifier);
+			Context.getPatientService().savePatient(patient);
+			patientUuids.add(patient.getUuid());
+			familyNames.add(familyName);
+			
+			for (int m = 0; m < encountersPerPatient; m++) {
+				Date date = new Date(now.getTime() - (m + 1) * DAY);
+				Encounter encounter = new Encounter();
+				encounter.setPatient(patient);
+				encounter.setEncounterType(encounterType);
+				encounter.setLocation(location);
+				encounter.setEncounterDatetime(date);
+				for (int k = 0; k < obsPerEncounter; k++) {
+					Obs obs = new Obs(patient, concept, date, location);
+					obs.setValueNumeric(value);
+					encounter.addObs(obs);
+				}
+				Context.getEncounterService().saveEncounter(encounter);
+				encounterUuids.add(encounter.getUuid());
+				for (Obs obs : encounter.getAllObs()) {
+					obsUuids.add(obs.getUuid());
+				}
+			}
+			
+			if ((n + 1) % FLUSH_EVERY == 0) {
+				Context.flushSession();
+				Context.clearSession();
+				concept = Context.getConceptService().getConceptByUuid(concept.getUuid());
+				location = Context.getLocationService().getLocationByUuid(location.getUuid());
+				encounterType = Context.getEncounterService().getEncounterTypeByUuid(encounterType.getUuid());
+				identifierType = Context.getPatientService().getPatientIdentifierTypeByUuid(identifierType.getUuid());
+			}
+		}
+		Context.flushSession();
+	}
+	
+	/**
+	 * Deletes the patients created, with their encounters and all their obs, including the ones
+	 * created since. It is flushed but not committed.
+	 */
+	public void delete() {
+		for (String uuid : patientUuids) {
+			Patient patient = Context.getPatientService().getPatientByUuid(uuid);
+			if (patient == null)
+				continue;
+			for (Obs obs : Context.getObsService().getObservationsByPerson(patient)) {
+				Context.getObsService().purgeObs(obs);
+			}
+			// so that the encounters are loaded without the obs just deleted
+			Context.flushSession();
+			Context.clearSession();
+			
+			patient = Context.getPatientService().getPatientByUuid(uuid);
+			for (Encounter encounter : Context.getEncounterService().getEncountersByPatient(patient)) {
+				Context.getEncounterService().purgeEncounter(encounter);
+			}
+			Context.getPatientService().purgePatient(patient);
+			Context.flushSession();
+			Context.clearSession();
+		}
+	}
+	
+	/**
+	 * @return a value within the absolute range of the concept, if it has one
+	 */
+	private static double getValidValue(Concept concept) {
+		if (concept instanceof ConceptNumeric) {
+			ConceptNumeric numeric = (ConceptNumeric) concept;
+			if (numeric.getLowAbsolute() != null && numeric.getHiAbsolute() != null) {
+				return (numeric.getLowAbsolute() + numeric.getHiAbsolute()) / 2;
+			} else if (numeric.getLowAbsolute() != null) {
+				return numeric.getLowAbsolute() + 1;
+			} else if (numeric.getHiAbsolute() != null) {
+				return numeric.getHiAbsolute() - 1;
+			}
+		}
+		return 70;
+	}
+	
+	/**
+	 * Identifiers are generated, so they could not be checked by a validator
+	 */
+	private static PatientIdentifierType getIdentifierTypeWithoutValidator() {
+		for (PatientIdentifierType type : Context.getPatientService().getAllPatientIdentifierTypes()) {
+			if (StringUtils.isBlank(type.getValidator()) && StringUtils.isBlank(type.getFormat())) {
+				return type;
+			}
+		}
+		throw new IllegalStateException("The test dataset has no identifier type without validator and format");
+	}
+	
+	public List<String> getPatientUuids() {
+		return patientUuids;
+	}
+	
+	public List<String> getFamilyNames() {
+		return familyNames;
+	}
+	
+	public List<String> getEncounterUuids() {
+		return encounterUuids;
+	}
+	
+	public List<String> getObsUuids() {
+		return obsUuids;
+	}
+	
+	public String getConceptUuid() {
+		return concept.getUuid();
+	}
+	
+	/**
+	 * @return a value that can be given to obs of {@link #getConceptUuid()}
+	 */
+	public double getValue() {
+		return value;
+	}
+	
+	public String getLocationUuid() {
+		return location.getUuid();
+	}
+	
+	public String getEncounterTypeUuid() {
+		return encounterType.getUuid();
+	}
+	
+}
@@ -15,7 +15,9 @@ package org.openmrs.module.webservices.rest.web.v1_0.controller.openmrs1_9;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 import org.apache.commons.beanutils.PropertyUtils;
 import org.junit.Assert;
@@ -27,6 +29,7 @@ import org.openmrs.api.VisitService;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.webservices.rest.SimpleObject;
 import org.openmrs.module.webservices.rest.test.Util;
+import org.openmrs.module.webservices.rest.web.RestConstants;
 import org.openmrs.module.webservices.rest.web.RestTestConstants1_9;
 import org.openmrs.module.webservices.rest.web.v1_0.controller.MainResourceControllerTest;
 
@@ -219,4 +222,32 @@ public class VisitController1_9Test extends MainResourceControllerTest {
 		Assert.assertEquals(3, Util.getResultsSize(result));
 	}
 	
+	@Test
+	public void shouldPageAllVisitsByCursorWithoutOverlapsOrGaps() throws Exception {
+		List<Visit> expected = new ArrayList<Visit>();
+		for (Visit visit : service.getAllVisits()) {
+			if (!visit.isVoided())
+				expected.add(visit);
+		}
+		
+		List<Object> uuids = getUuidsPagedByCursor(2);
+		assertSameObjects(expected, uuids);
+		
+		uuids = getUuidsPagedByCursor(2, new Parameter(RestConstants.REQUEST_PROPERTY_FOR_INCLUDE_ALL, "true"));
+		assertSameObjects(service.getAllVisits(), uuids);
+	}
+	
+	@Test
+	public void searchByPatient_shouldPageVisitsByCursorWithoutOverlapsOrGaps() throws Exception {
+		Patient patient = Context.getPatientService().getPatientByUuid("da7f524f-27ce-4bb2-86d6-6d1d05312bd5");
+		List<Visit> expected = new ArrayList<Visit>();
+		for (Visit visit : service.getVisitsByPatient(patient)) {
+			if (!visit.isVoided())
+				expected.add(visit);
+		}
+		
+		List<Object> uuids = getUuidsPagedByCursor(1, new Parameter("patient", patient.getUuid()));
+		assertSameObjects(expected, uuids);
+	}
+	
 }
@@ -13,15 +13,24 @@
  */
 package org.openmrs.module.webservices.rest.util;
 
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+import org.apache.commons.beanutils.DynaBean;
+import org.apache.commons.beanutils.MethodUtils;
+import org.apache.commons.beanutils.PropertyUtils;
 import org.openmrs.module.webservices.rest.web.annotation.PropertyGetter;
 import org.openmrs.module.webservices.rest.web.annotation.PropertySetter;
+import org.openmrs.module.webservices.rest.web.annotation.RepHandler;
 import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingPropertyAccessor;
 import org.springframework.util.ReflectionUtils;
 
@@ -34,11 +43,17 @@ public class ReflectionUtil {
 	
 	private static ConcurrentMap<String, Method> getterMethodCache;
 	
+	private static ConcurrentMap<String, Method> readMethodCache;
+	
+	private static ConcurrentMap<Class<?>, Method[]> repHandlerMethodCache;
+	
 	private static Method nullMethod;
 	
 	static {
 		setterMethodCache = new ConcurrentHashMap<String, Method>();
 		getterMethodCache = new ConcurrentHashMap<String, Method>();
+		readMethodCache = new ConcurrentHashMap<String, Method>();
+		repHandlerMethodCache = new ConcurrentHashMap<Class<?>, Method[]>();
 		
 		// Just get a method from this class to use as the token null method
 		nullMethod = ReflectionUtil.class.getDeclaredMethods()[0];
@@ -47,6 +62,8 @@ public class ReflectionUtil {
 	public static void clearCaches() {
 		setterMethodCache = new ConcurrentHashMap<String, Method>();
 		getterMethodCache = new ConcurrentHashMap<String, Method>();
+		readMethodCache = new ConcurrentHashMap<String, Method>();
+		repHandlerMethodCache = new ConcurrentHashMap<Class<?>, Method[]>();
 	}
 	
 	/**
@@ -137,6 +154,80 @@ public class ReflectionUtil {
 		return result;
 	}
 	
+	/**
+	 * Gets the value of a simple bean property, using a cached read method for the bean class.
+	 * Nested, indexed and mapped property names, and beans that are maps or dyna beans, are handled
+	 * by {@link PropertyUtils#getProperty(Object, String)}.
+	 * 
+	 * @param bean
+	 * @param propName
+	 * @return the property value
+	 */
+	public static Object getBeanProperty(Object bean, String propName) throws IllegalAccessException,
+	        InvocationTargetException, NoSuchMethodException {
+		if (bean != null && !(bean instanceof Map) && !(bean instanceof DynaBean)) {
+			Method readMethod = findPropertyReadMethod(bean.getClass(), propName);
+			if (readMethod != null) {
+				return readMethod.invoke(bean);
+			}
+		}
+		return PropertyUtils.getProperty(bean, propName);
+	}
+	
+	/**
+	 * Find the accessible read method of a simple bean property in clazz
+	 * 
+	 * @param clazz
+	 * @param propName
+	 * @return the read method, or null if propName is not a simple readable property of clazz
+	 */
+	public static Method findPropertyReadMethod(Class<?> clazz, String propName) {
+		String key = clazz.getName().concat(propName);
+		Method result = readMethodCache.get(key);
+		if (result != null) {
+			return result == nullMethod ? null : result;
+		}
+		
+		if (propName.indexOf('.') < 0 && propName.indexOf('[') < 0 && propName.indexOf('(') < 0) {
+			for (PropertyDescriptor descriptor : PropertyUtils.getPropertyDescriptors(clazz)) {
+				if (descriptor.getName().equals(propName) && descriptor.getReadMethod() != null) {
+					result = MethodUtils.getAccessibleMethod(clazz, descriptor.getReadMethod());
+					break;
+				}
+			}
+		}
+		
+		readMethodCache.put(key, result == null ? nullMethod : result);
+		
+		return result;
+	}
+	
+	/**
+	 * Gets the public methods of clazz, including inherited ones, that are annotated with
+	 * {@link RepHandler}. They are looked up once per class.
+	 * 
+	 * @param clazz
+	 * @return the annotated methods, or an empty array if there are none
+	 */
+	public static Method[] findRepHandlerMethods(Class<?> clazz) {
+		Method[] result = repHandlerMethodCache.get(clazz);
+		if (result != null) {
+			return result;
+		}
+		
+		List<Method> annotated = new ArrayList<Method>();
+		for (Method method : clazz.getMethods()) {
+			if (method.isAnnotationPresent(RepHandler.class)) {
+				annotated.add(method);
+			}
+		}
+		result = annotated.toArray(new Method[annotated.size()]);
+		
+		repHandlerMethodCache.put(clazz, result);
+		
+		return result;
+	}
+	
 	/**
 	 * @param name the full method name to look for
 	 * @return the java Method object if found. (does not return null)
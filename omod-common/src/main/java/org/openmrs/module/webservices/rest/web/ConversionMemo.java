@@ -0,0 +1,193 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openmrs.module.webservices.rest.SimpleObject;
+import org.openmrs.module.webservices.rest.web.representation.DefaultRepresentation;
+import org.openmrs.module.webservices.rest.web.representation.RefRepresentation;
+import org.openmrs.module.webservices.rest.web.representation.Representation;
+import org.openmrs.module.webservices.rest.web.resource.api.Converter;
+
+/**
+ * Remembers the ref and default representations converted while handling the current request, so
+ * that an object referenced by many others in the same response (e.g. the concept or patient of
+ * each obs in a page) is converted only once. Objects are matched by identity, which within a
+ * request's Hibernate session is the same as matching them by class and id.
+ * <p>
+ * Every lookup returns a copy of the remembered representation, so callers are free to modify
+ * what they get back, and the XStream marshaller never sees the same instance twice (which it
+ * would otherwise write as a reference).
+ * 
+ * @see ConversionUtil#convertToRepresentation(Object, Representation, Converter)
+ * @see org.openmrs.module.webservices.rest.web.filter.ConversionMemoFilter
+ */
+public class ConversionMemo {
+	
+	private static final ThreadLocal<ConversionMemo> current = new ThreadLocal<ConversionMemo>();
+	
+	private static final AtomicLong totalHits = new AtomicLong();
+	
+	private static final AtomicLong totalMisses = new AtomicLong();
+	
+	private final Map<Object, Map<String, SimpleObject>> representations = new IdentityHashMap<Object, Map<String, SimpleObject>>();
+	
+	private int hits;
+	
+	private int misses;
+	
+	/**
+	 * Starts remembering conversions made by the current thread
+	 * 
+	 * @return the new memo
+	 */
+	public static ConversionMemo begin() {
+		ConversionMemo memo = new ConversionMemo();
+		current.set(memo);
+		return memo;
+	}
+	
+	/**
+	 * Stops remembering conversions made by the current thread and adds its hits and misses to
+	 * the totals
+	 * 
+	 * @return the memo that was used, or null if none was begun
+	 */
+	public static ConversionMemo end() {
+		ConversionMemo memo = current.get();
+		current.remove();
+		if (memo != null) {
+			totalHits.addAndGet(memo.hits);
+			totalMisses.addAndGet(memo.misses);
+		}
+		return memo;
+	}
+	
+	/**
+	 * @return the memo of the current thread, or null if conversions are not being remembered
+	 */
+	public static ConversionMemo getCurrent() {
+		return current.get();
+	}
+	
+	/**
+	 * @param rep
+	 * @return whether conversions to rep are remembered
+	 */
+	public static boolean isMemoizable(Representation rep) {
+		return rep instanceof RefRepresentation || rep instanceof DefaultRepresentation;
+	}
+	
+	/**
+	 * @return the number of conversions answered from a memo, over all finished requests
+	 */
+	public static long getTotalHits() {
+		return totalHits.get();
+	}
+	
+	/**
+	 * @return the number of conversions that had to be made, over all finished requests
+	 */
+	public static long getTotalMisses() {
+		return totalMisses.get();
+	}
+	
+	/**
+	 * Gets a copy of the representation remembered for the given object
+	 * 
+	 * @param delegate
+	 * @param converter the converter used for delegate
+	 * @param rep
+	 * @return the representation, or null if delegate has not been converted by converter to rep
+	 */
+	public SimpleObject get(Object delegate, Converter<?> converter, Representation rep) {
+		Map<String, SimpleObject> forDelegate = representations.get(delegate);
+		SimpleObject simple = forDelegate == null ? null : forDelegate.get(getKey(converter, rep));
+		if (simple == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return (SimpleObject) copy(simple);
+	}
+	
+	/**
+	 * Remembers a copy of the representation of the given object
+	 * 
+	 * @param delegate
+	 * @param converter the converter used for delegate
+	 * @param rep
+	 * @param simple the representation of delegate
+	 */
+	public void put(Object delegate, Converter<?> converter, Representation rep, SimpleObject simple) {
+		Map<String, SimpleObject> forDelegate = representations.get(delegate);
+		if (forDelegate == null) {
+			forDelegate = new HashMap<String, SimpleObject>(4);
+			representations.put(delegate, forDelegate);
+		}
+		forDelegate.put(getKey(converter, rep), (SimpleObject) copy(simple));
+	}
+	
+	/**
+	 * @return the number of conversions answered from this memo
+	 */
+	public int getHits() {
+		return hits;
+	}
+	
+	/**
+	 * @return the number of conversions that were not in this memo
+	 */
+	public int getMisses() {
+		return misses;
+	}
+	
+	private static String getKey(Converter<?> converter, Representation rep) {
+		return converter.getClass().getName() + ":" + rep.getRepresentation();
+	}
+	
+	/**
+	 * Copies the maps, lists and links of a representation. Other values are strings, numbers and
+	 * the like, and are shared.
+	 */
+	private static Object copy(Object value) {
+		if (value instanceof SimpleObject) {
+			SimpleObject copy = new SimpleObject();
+			for (Map.Entry<String, Object> entry : ((SimpleObject) value).entrySet()) {
+				copy.put(entry.getKey(), copy(entry.getValue()));
+			}
+			return copy;
+		} else if (value instanceof List) {
+			List<?> list = (List<?>) value;
+			List<Object> copy = new ArrayList<Object>(list.size());
+			for (Object item : list) {
+				copy.add(copy(item));
+			}
+			return copy;
+		} else if (value instanceof Hyperlink) {
+			Hyperlink link = (Hyperlink) value;
+			Hyperlink copy = new Hyperlink(link.getRel(), link.getUri());
+			copy.setResourceAlias(link.getResourceAlias());
+			return copy;
+		}
+		return value;
+	}
+	
+}
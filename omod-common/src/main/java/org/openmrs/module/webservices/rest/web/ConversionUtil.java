@@ -14,38 +14,31 @@
 package org.openmrs.module.webservices.rest.web;
 
 import java.lang.reflect.Array;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
-import org.apache.commons.beanutils.PropertyUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.joda.time.DateTime;
-import org.joda.time.format.DateTimeFormat;
 import org.openmrs.Auditable;
 import org.openmrs.Retireable;
 import org.openmrs.Voidable;
 import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.webservices.rest.SimpleObject;
+import org.openmrs.module.webservices.rest.util.ReflectionUtil;
 import org.openmrs.module.webservices.rest.web.api.RestService;
+import org.openmrs.module.webservices.rest.web.codec.TypeCodec;
+import org.openmrs.module.webservices.rest.web.codec.TypeCodecRegistry;
+import org.openmrs.module.webservices.rest.web.metrics.RequestMetrics;
 import org.openmrs.module.webservices.rest.web.representation.DefaultRepresentation;
 import org.openmrs.module.webservices.rest.web.representation.Representation;
 import org.openmrs.module.webservices.rest.web.resource.api.Converter;
@@ -55,62 +48,27 @@ import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingResourceD
 import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingResourceHandler;
 import org.openmrs.module.webservices.rest.web.response.ConversionException;
 import org.openmrs.util.HandlerUtil;
-import org.openmrs.util.LocaleUtility;
 
 public class ConversionUtil {
 	
 	static final Log log = LogFactory.getLog(ConversionUtil.class);
 	
-	// This would better be a Map<Pair<Class, String>, Type> but adding the dependency for
-	//  org.apache.commons.lang3.tuple.Pair (through omrs-api) messed up other tests
-	private static Map<String, Type> typeVariableMap = new ConcurrentHashMap<String, Type>();
-	
-	private static ConcurrentMap<Class<?>, Converter> converterCache;
-	
-	private static Converter nullConverter;
-	
-	static {
-		converterCache = new ConcurrentHashMap<Class<?>, Converter>();
-		nullConverter = new Converter() {
-			
-			@Override
-			public Object newInstance(String type) {
-				return null;
-			}
-			
-			@Override
-			public Object getByUniqueId(String string) {
-				return null;
-			}
-			
-			@Override
-			public SimpleObject asRepresentation(Object instance, Representation rep) throws ConversionException {
-				return null;
-			}
-			
-			@Override
-			public Object getProperty(Object instance, String propertyName) throws ConversionException {
-				return null;
-			}
-			
-			@Override
-			public void setProperty(Object instance, String propertyName, Object value) throws ConversionException {
-				
-			}
-		};
-	}
-	
+	/**
+	 * Clears the converters and type variables resolved so far, together with the resources
+	 * resolved for subclasses
+	 */
 	public static void clearCache() {
-		converterCache = new ConcurrentHashMap<Class<?>, Converter>();
+		TypeResolutionCache.clear();
 	}
 	
 	@SuppressWarnings("unchecked")
 	public static <T> Converter<T> getConverter(Class<T> clazz) {
-		Converter<T> result = converterCache.get(clazz);
-		if (result != null) {
-			return result == nullConverter ? null : result;
+		TypeResolutionCache.Entry entry = TypeResolutionCache.get(clazz);
+		if (entry.isConverterResolved()) {
+			return entry.getConverter();
 		}
 		
+		Converter<T> result = null;
 		try {
 			try {
 				Resource resource = Context.getService(RestService.class).getResourceBySupportedClass(clazz);
@@ -131,11 +89,7 @@ public class ConversionUtil {
 		
 		// At this point, we don't really care if a result was found or not, we cache it regardless so that repeated
 		// searches are not performed.
-		if (result == null) {
-			converterCache.put(clazz, nullConverter);
-		} else {
-			converterCache.put(clazz, result);
-		}
+		entry.setConverter(result);
 		
 		return result;
 	}
@@ -237,42 +191,9 @@ public class ConversionUtil {
 			if (converter != null)
 				return converter.getByUniqueId(string);
 			
-			if (toClass.isAssignableFrom(Date.class)) {
-				IllegalArgumentException pex = null;
-				String[] supportedFormats = { "yyyy-MM-dd'T'HH:mm:ss.SSSZ", "yyyy-MM-dd'T'HH:mm:ss.SSS",
-				        "yyyy-MM-dd'T'HH:mm:ssZ", "yyyy-MM-dd'T'HH:mm:ssXXX", "yyyy-MM-dd'T'HH:mm:ss",
-				        "yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd" };
-				for (int i = 0; i < supportedFormats.length; i++) {
-					try {
-						Date date = DateTime.parse(string, DateTimeFormat.forPattern(supportedFormats[i])).toDate();
-						return date;
-					}
-					catch (IllegalArgumentException ex) {
-						pex = ex;
-					}
-				}
-				throw new ConversionException(
-				        "Error converting date - correct format (ISO8601 Long): yyyy-MM-dd'T'HH:mm:ss.SSSZ", pex);
-			} else if (toClass.isAssignableFrom(Locale.class)) {
-				return LocaleUtility.fromSpecification(object.toString());
-			} else if (toClass.isEnum()) {
-				return Enum.valueOf((Class<? extends Enum>) toClass, object.toString());
-			} else if (toClass.isAssignableFrom(Class.class)) {
-				try {
-					return Context.loadClass((String) object);
-				}
-				catch (ClassNotFoundException e) {
-					throw new ConversionException("Could not convert from " + object.getClass() + " to " + toType, e);
-				}
-			}
-			// look for a static valueOf(String) method (e.g. Double, Integer, Boolean)
-			try {
-				Method method = toClass.getMethod("valueOf", String.class);
-				if (Modifier.isStatic(method.getModifiers()) && toClass.isAssignableFrom(method.getReturnType())) {
-					return method.invoke(null, string);
-				}
-			}
-			catch (Exception ex) {}
+			TypeCodec<?> codec = TypeCodecRegistry.getDecoder(toClass);
+			if (codec != null)
+				return codec.decode(string);
 		} else if (object instanceof Map) {
 			return convertMap((Map<String, ?>) object, toClass);
 		}
@@ -350,7 +271,7 @@ public class ConversionUtil {
 	        throws ConversionException {
 		Object o;
 		try {
-			o = PropertyUtils.getProperty(bean, propertyName);
+			o = ReflectionUtil.getBeanProperty(bean, propertyName);
 		}
 		catch (Exception ex) {
 			throw new ConversionException(null, ex);
@@ -394,18 +315,34 @@ public class ConversionUtil {
 			Converter<S> converter = specificConverter != null ? specificConverter : (Converter) getConverter(o.getClass());
 			if (converter == null) {
 				// try a few known datatypes
-				if (o instanceof Date) {
-					return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ").format((Date) o);
+				TypeCodec codec = TypeCodecRegistry.getEncoder(o.getClass());
+				if (codec != null) {
+					return codec.encode(o);
 				}
 				// otherwise we have no choice but to return the plain object
 				return o;
 			}
+			ConversionMemo memo = ConversionMemo.isMemoizable(rep) ? ConversionMemo.getCurrent() : null;
+			if (memo != null) {
+				SimpleObject remembered = memo.get(o, converter, rep);
+				if (remembered != null)
+					return remembered;
+			}
+			RequestMetrics metrics = RequestMetrics.beginConversion(o, rep);
 			try {
-				return converter.asRepresentation(o, rep);
+				Object ret = converter.asRepresentation(o, rep);
+				if (memo != null && ret instanceof SimpleObject)
+					memo.put(o, converter, rep, (SimpleObject) ret);
+				return ret;
 			}
 			catch (Exception ex) {
 				throw new ConversionException("converting " + o.getClass() + " to " + rep, ex);
 			}
+			finally {
+				if (metrics != null) {
+					metrics.endConversion();
+				}
+			}
 		}
 	}
 	
@@ -434,7 +371,8 @@ public class ConversionUtil {
 		Type type = instanceClass;
 		
 		// Check to see if type variable has already been cached
-		Type result = typeVariableMap.get(instanceClass.getName().concat(genericTypeName));
+		TypeResolutionCache.Entry entry = TypeResolutionCache.get(instanceClass);
+		Type result = entry.getTypeVariable(genericTypeName);
 		
 		// Walk the inheritance chain up and try to find the generic type with the specified name
 		while (result == null && type != null && !type.equals(Object.class)) {
@@ -451,7 +389,7 @@ public class ConversionUtil {
 					Type actualType = actualTypeArguments[i];
 					
 					// Cache each generic type's actual type
-					typeVariableMap.put(instanceClass.getName().concat(name), actualType);
+					entry.putTypeVariable(name, actualType);
 					
 					if (name.equals(genericTypeName)) {
 						// Found it
@@ -0,0 +1,191 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collection;
+
+/**
+ * Matches IP addresses against a list of IPv4 and IPv6 addresses and ranges, e.g.
+ * <code>10.0.0.1</code>, <code>10.0.0.0/24</code> or <code>fe80::/10</code>. The list is compiled
+ * once into one binary trie per address family, so a match costs at most 32 or 128 steps however
+ * long the list is. Only literal addresses are accepted: host names are rejected instead of being
+ * looked up.
+ * 
+ * @see RestConstants#ALLOWED_IPS_GLOBAL_PROPERTY_NAME
+ */
+public class IpMatcher {
+	
+	private final boolean matchesAll;
+	
+	private final Node ipv4 = new Node();
+	
+	private final Node ipv6 = new Node();
+	
+	private IpMatcher(boolean matchesAll) {
+		this.matchesAll = matchesAll;
+	}
+	
+	/**
+	 * Compiles the given addresses and ranges
+	 * 
+	 * @param entries addresses, optionally followed by <code>/</code> and the number of leading bits
+	 *            to compare
+	 * @return the matcher, which matches any address if entries is empty
+	 * @throws IllegalArgumentException if an entry is not a valid address or range
+	 * @should match any address if there are no entries
+	 * @should match exact addresses and ranges
+	 * @should match ipv6 ranges
+	 * @should reject host names
+	 * @should reject invalid masks
+	 */
+	public static IpMatcher compile(Collection<String> entries) {
+		IpMatcher matcher = new IpMatcher(entries.isEmpty());
+		for (String entry : entries) {
+			matcher.add(entry);
+		}
+		return matcher;
+	}
+	
+	/**
+	 * Compiles the given addresses and ranges, leaving out the invalid ones. Unlike
+	 * {@link #compile(Collection)}, the matcher matches nothing if all entries are invalid.
+	 * 
+	 * @param entries
+	 * @param invalidEntries collects the entries left out, may be null
+	 * @return the matcher
+	 */
+	public static IpMatcher compileValid(Collection<String> entries, Collection<String> invalidEntries) {
+		IpMatcher matcher = new IpMatcher(entries.isEmpty());
+		for (String entry : entries) {
+			try {
+				matcher.add(entry);
+			}
+			catch (IllegalArgumentException ex) {
+				if (invalidEntries != null) {
+					invalidEntries.add(entry);
+				}
+			}
+		}
+		return matcher;
+	}
+	
+	/**
+	 * @param ip a literal IPv4 or IPv6 address
+	 * @return whether ip is in the compiled list, false if it is not a literal address
+	 */
+	public boolean matches(String ip) {
+		if (matchesAll)
+			return true;
+		byte[] address = parseAddress(ip);
+		if (address == null)
+			return false;
+		
+		Node node = address.length == 4 ? ipv4 : ipv6;
+		for (int bit = 0; !node.terminal; bit++) {
+			if (bit == address.length * 8)
+				return false;
+			node = node.children[(address[bit >>> 3] >>> (7 - (bit & 7))) & 1];
+			if (node == null)
+				return false;
+		}
+		return true;
+	}
+	
+	private void add(String entry) {
+		String trimmed = entry.trim();
+		int slash = trimmed.indexOf('/');
+		byte[] address = parseAddress(slash < 0 ? trimmed : trimmed.substring(0, slash));
+		if (address == null)
+			throw new IllegalArgumentException("Invalid IP " + entry + ", expected a literal IPv4 or IPv6 address");
+		
+		int bits = address.length * 8;
+		if (slash >= 0) {
+			try {
+				bits = Integer.parseInt(trimmed.substring(slash + 1));
+			}
+			catch (NumberFormatException ex) {
+				bits = -1;
+			}
+			if (bits < 0 || bits > address.length * 8)
+				throw new IllegalArgumentException("Invalid mask in " + entry);
+		}
+		
+		Node node = address.length == 4 ? ipv4 : ipv6;
+		for (int bit = 0; bit < bits && !node.terminal; bit++) {
+			int b = (address[bit >>> 3] >>> (7 - (bit & 7))) & 1;
+			if (node.children[b] == null) {
+				node.children[b] = new Node();
+			}
+			node = node.children[b];
+		}
+		// a range includes all the narrower ranges below it
+		node.terminal = true;
+		node.children[0] = null;
+		node.children[1] = null;
+	}
+	
+	/**
+	 * Parses a literal IPv4 or IPv6 address without ever looking up a host name
+	 * 
+	 * @param ip
+	 * @return the 4 or 16 bytes of the address, or null if ip is not a literal address
+	 */
+	public static byte[] parseAddress(String ip) {
+		if (ip == null || ip.length() == 0)
+			return null;
+		if (ip.indexOf(':') >= 0) {
+			// InetAddress does not look up names containing ':' that start like an IPv6 literal
+			char first = ip.charAt(0);
+			if (first != '[' && first != ':' && Character.digit(first, 16) < 0)
+				return null;
+			try {
+				return InetAddress.getByName(ip).getAddress();
+			}
+			catch (UnknownHostException ex) {
+				return null;
+			}
+		}
+		
+		byte[] address = new byte[4];
+		int part = 0;
+		int value = -1;
+		for (int i = 0; i <= ip.length(); i++) {
+			char c = i < ip.length() ? ip.charAt(i) : '.';
+			if (c == '.') {
+				if (value < 0 || part == 4)
+					return null;
+				address[part++] = (byte) value;
+				value = -1;
+			} else if (c >= '0' && c <= '9') {
+				value = (value < 0 ? 0 : value * 10) + (c - '0');
+				if (value > 255)
+					return null;
+			} else {
+				return null;
+			}
+		}
+		return part == 4 ? address : null;
+	}
+	
+	private static class Node {
+		
+		private final Node[] children = new Node[2];
+		
+		private boolean terminal;
+	
+	}
+	
+}
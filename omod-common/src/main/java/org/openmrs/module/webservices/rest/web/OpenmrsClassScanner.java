@@ -15,7 +15,9 @@ package org.openmrs.module.webservices.rest.web;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -72,42 +74,83 @@ public class OpenmrsClassScanner {
 	
 	public <T> List<Class<? extends T>> getClasses(Class<? extends T> type, boolean concrete) throws IOException {
 		
-		List<Class<? extends T>> types = new ArrayList<Class<? extends T>>();
+		return getClasses(type, concrete, Collections.<String> emptySet());
 		
-		String pattern = "classpath*:org/openmrs/**/*.class";
+	}
+	
+	/**
+	 * Searches for classes extending or implementing the given type, except in the given jars or
+	 * folders, which are not searched at all.
+	 * 
+	 * @param <T>
+	 * @param type
+	 * @param concrete true if only concrete classes should be returned
+	 * @param skippedRoots the URLs of the jars or folders not to search, up to and including the
+	 *            separator that precedes the package path, e.g. <code>jar:file:/lib/x.jar!/</code>
+	 * @return the list of found classes
+	 * @throws IOException
+	 * @should find classes in the jars and folders that are not skipped
+	 * @should not search the skipped jars and folders
+	 */
+	
+	public <T> List<Class<? extends T>> getClasses(Class<? extends T> type, boolean concrete, Set<String> skippedRoots)
+	        throws IOException {
 		
-		Resource[] resources = resourceResolver.getResources(pattern);
+		List<Class<? extends T>> types = new ArrayList<Class<? extends T>>();
 		
 		TypeFilter typeFilter = new AssignableTypeFilter(type);
 		
-		for (Resource resource : resources) {
+		// the org/openmrs folder of each jar or folder on the classpath, which are only searched if
+		// they are not skipped, rather than searching them all and leaving out the classes found in
+		// skipped ones
+		
+		for (Resource root : resourceResolver.getResources("classpath*:org/openmrs/")) {
+			
+			String rootUrl = root.getURL().toString();
 			
-			try {
+			if (!isInRoot(rootUrl, skippedRoots)) {
 				
-				MetadataReader metadataReader = metadataReaderFactory.getMetadataReader(resource);
+				for (Resource resource : resourceResolver.getResources(rootUrl + "**/*.class")) {
+					
+					addClass(resource, typeFilter, concrete, types);
+					
+				}
+				
+			}
+			
+		}
+		
+		return types;
+		
+	}
+	
+	private <T> void addClass(Resource resource, TypeFilter typeFilter, boolean concrete, List<Class<? extends T>> types)
+	        throws IOException {
+		
+		try {
+			
+			MetadataReader metadataReader = metadataReaderFactory.getMetadataReader(resource);
+			
+			if (typeFilter.match(metadataReader, metadataReaderFactory)) {
 				
-				if (typeFilter.match(metadataReader, metadataReaderFactory)) {
+				if (concrete == metadataReader.getClassMetadata().isConcrete()) {
+					
+					String classname = metadataReader.getClassMetadata().getClassName();
 					
-					if (concrete == metadataReader.getClassMetadata().isConcrete()) {
+					try {
+						
+						@SuppressWarnings("unchecked")
+						Class<? extends T> metadata = (Class<? extends T>) OpenmrsClassLoader.getInstance().loadClass(
 						
-						String classname = metadataReader.getClassMetadata().getClassName();
+						classname);
 						
-						try {
-							
-							@SuppressWarnings("unchecked")
-							Class<? extends T> metadata = (Class<? extends T>) OpenmrsClassLoader.getInstance().loadClass(
-							
-							classname);
-							
-							types.add(metadata);
-							
-						}
+						types.add(metadata);
+						
+					}
+					
+					catch (ClassNotFoundException e) {
 						
-						catch (ClassNotFoundException e) {
-							
-							throw new IOException("Class cannot be loaded: " + classname, e);
-							
-						}
+						throw new IOException("Class cannot be loaded: " + classname, e);
 						
 					}
 					
@@ -115,15 +158,29 @@ public class OpenmrsClassScanner {
 				
 			}
 			
-			catch (IOException e) {
+		}
+		
+		catch (IOException e) {
+			
+			log.debug("Resource cannot be loaded: " + resource);
+			
+		}
+		
+	}
+	
+	private boolean isInRoot(String location, Set<String> roots) {
+		
+		for (String root : roots) {
+			
+			if (location.startsWith(root)) {
 				
-				log.debug("Resource cannot be loaded: " + resource);
+				return true;
 				
 			}
 			
 		}
 		
-		return types;
+		return false;
 		
 	}
 }
@@ -39,8 +39,14 @@ public class RequestContext {
 	
 	private Integer limit = RestUtil.getDefaultLimit();
 	
+	private String cursor;
+	
 	private Boolean includeAll = false;
 	
+	private Boolean totalCount = false;
+	
+	private boolean streamResponses = false;
+	
 	// for resources that represent class hierarchies, this allows requests for a specific type
 	private String type;
 	
@@ -122,6 +128,39 @@ public class RequestContext {
 		this.includeAll = includeAll;
 	}
 	
+	/**
+	 * Should be used by search methods to determine whether to count all results, which they
+	 * otherwise avoid as the count can be as expensive as the search itself
+	 * 
+	 * @return whether the client asked for the total number of results
+	 * @see RestConstants#REQUEST_PROPERTY_FOR_TOTAL_COUNT
+	 */
+	public Boolean getTotalCount() {
+		return totalCount;
+	}
+	
+	/**
+	 * @param totalCount whether the client asked for the total number of results
+	 */
+	public void setTotalCount(Boolean totalCount) {
+		this.totalCount = totalCount;
+	}
+	
+	/**
+	 * @return whether results should be converted while the response is written
+	 * @see RestConstants#STREAM_RESPONSES_GLOBAL_PROPERTY_NAME
+	 */
+	public boolean isStreamResponses() {
+		return streamResponses;
+	}
+	
+	/**
+	 * @param streamResponses whether results should be converted while the response is written
+	 */
+	public void setStreamResponses(boolean streamResponses) {
+		this.streamResponses = streamResponses;
+	}
+	
 	/**
 	 * Should be used to limit the number of main results returned by search methods
 	 * 
@@ -141,8 +180,9 @@ public class RequestContext {
 	public void setLimit(Integer limit) {
 		if (limit == null || limit <= 0)
 			throw new APIException("If you specify a number of results to return, it must be >0 and not null");
-		if (limit > RestUtil.getAbsoluteLimit())
-			throw new APIException("Administrator has set absolute limit at " + RestUtil.getAbsoluteLimit());
+		int absoluteLimit = RestUtil.getAbsoluteLimit();
+		if (limit > absoluteLimit)
+			throw new APIException("Administrator has set absolute limit at " + absoluteLimit);
 		else
 			this.limit = limit;
 	}
@@ -166,6 +206,26 @@ public class RequestContext {
 		this.startIndex = startIndex;
 	}
 	
+	/**
+	 * Set by clients that page through results by cursor rather than by startIndex. Resources that
+	 * do not support cursors ignore it.
+	 * 
+	 * @return the cursor given in a request parameter, empty for the first page, or null if the
+	 *         client did not ask for results paged by cursor
+	 * @see RestConstants#REQUEST_PROPERTY_FOR_CURSOR
+	 * @see org.openmrs.module.webservices.rest.web.resource.impl.KeysetPager
+	 */
+	public String getCursor() {
+		return cursor;
+	}
+	
+	/**
+	 * @param cursor the cursor to set
+	 */
+	public void setCursor(String cursor) {
+		this.cursor = cursor;
+	}
+	
 	/**
 	 * (Assumes this was a search query)
 	 * 
@@ -177,6 +237,23 @@ public class RequestContext {
 		return new Hyperlink("next", request.getRequestURL().append(query).toString());
 	}
 	
+	/**
+	 * (Assumes this was a search query paged by cursor)
+	 * 
+	 * @param nextCursor the cursor of the next page
+	 * @return the hyperlink you would GET to fetch the next page of results for the query
+	 */
+	public Hyperlink getNextLink(String nextCursor) {
+		String query = getQueryWithoutStartIndex();
+		try {
+			query += RestConstants.REQUEST_PROPERTY_FOR_CURSOR + "=" + URLEncoder.encode(nextCursor, "UTF-8");
+		}
+		catch (UnsupportedEncodingException ex) {
+			throw new RuntimeException("UTF-8 encoding should always be supported", ex);
+		}
+		return new Hyperlink("next", request.getRequestURL().append(query).toString());
+	}
+	
 	/**
 	 * (Assumes this was a search query)
 	 * 
@@ -193,15 +270,16 @@ public class RequestContext {
 	}
 	
 	/**
-	 * @return the query string from this request, with the startIndex query parameter removed if it
-	 *         was present
+	 * @return the query string from this request, with the startIndex and cursor query parameters
+	 *         removed if they were present
 	 */
 	@SuppressWarnings("unchecked")
 	private String getQueryWithoutStartIndex() {
 		StringBuilder query = new StringBuilder("?");
 		for (Map.Entry<String, String[]> e : ((Map<String, String[]>) (request.getParameterMap())).entrySet()) {
 			String param = e.getKey();
-			if (RestConstants.REQUEST_PROPERTY_FOR_START_INDEX.equals(param)) {
+			if (RestConstants.REQUEST_PROPERTY_FOR_START_INDEX.equals(param)
+			        || RestConstants.REQUEST_PROPERTY_FOR_CURSOR.equals(param)) {
 				continue;
 			}
 			for (int i = 0; i < e.getValue().length; ++i) {
@@ -67,6 +67,111 @@ public class RestConstants {
 	 */
 	public static String ALLOWED_IPS_GLOBAL_PROPERTY_NAME = MODULE_ID + ".allowedips";
 	
+	/**
+	 * The key of the global property that an admin can set to "true" if list results and the
+	 * collections of a retrieved object should be converted while the response is being written,
+	 * rather than being built fully in memory first. Note that an error raised while converting
+	 * can then no longer be reported with an error status, since the response has already started.
+	 */
+	public static final String STREAM_RESPONSES_GLOBAL_PROPERTY_NAME = MODULE_ID + ".streamResponses";
+	
+	/**
+	 * The key of the global property that an admin can set to the size in bytes a response must
+	 * reach before it is gzip compressed, for clients that accept it. A negative value turns
+	 * compression off.
+	 * 
+	 * @see #GZIP_MIN_SIZE_DEFAULT
+	 */
+	public static final String GZIP_MIN_SIZE_GLOBAL_PROPERTY_NAME = MODULE_ID + ".gzip.minSize";
+	
+	/**
+	 * The key of the global property that an admin can set to the level responses are gzip
+	 * compressed with, from 1 (fastest) to 9 (smallest). 0 turns compression off.
+	 * 
+	 * @see #GZIP_LEVEL_DEFAULT
+	 */
+	public static final String GZIP_LEVEL_GLOBAL_PROPERTY_NAME = MODULE_ID + ".gzip.level";
+	
+	/**
+	 * The size in bytes from which responses are compressed, if an admin has not defined a global
+	 * property
+	 */
+	public static final int GZIP_MIN_SIZE_DEFAULT = 1024;
+	
+	/**
+	 * The level responses are compressed with, if an admin has not defined a global property
+	 */
+	public static final int GZIP_LEVEL_DEFAULT = 6;
+	
+	/**
+	 * The key of the global property that an admin can set to the number of seconds Basic
+	 * authentication credentials are remembered once verified, so that clients sending them with
+	 * every request are not authenticated again each time. 0 turns this off.
+	 * 
+	 * @see #CREDENTIAL_CACHE_TTL_DEFAULT
+	 */
+	public static final String CREDENTIAL_CACHE_TTL_GLOBAL_PROPERTY_NAME = MODULE_ID + ".credentialCache.ttl";
+	
+	/**
+	 * The number of seconds verified credentials are remembered, if an admin has not defined a
+	 * global property
+	 */
+	public static final int CREDENTIAL_CACHE_TTL_DEFAULT = 60;
+	
+	/**
+	 * The key of the runtime property that an admin can set to the keys session tokens are signed
+	 * with: a list of <code>keyId:secret</code> entries separated by commas or whitespace. The first
+	 * key signs new tokens and any key verifies them. Session tokens are not issued if this is empty.
+	 * It is a runtime property rather than a global property so that the secrets are never stored in
+	 * the database, where users allowed to view global properties could read them and sign tokens
+	 * for any user. Changes are read on startup, so keys are rotated node by node.
+	 * 
+	 * @see org.openmrs.module.webservices.rest.web.auth.SessionTokenSigner
+	 */
+	public static final String SESSION_TOKEN_KEYS_RUNTIME_PROPERTY_NAME = MODULE_ID + ".sessionToken.keys";
+	
+	/**
+	 * The key of the global property that an admin can set to the number of seconds session tokens
+	 * are valid
+	 * 
+	 * @see #SESSION_TOKEN_TTL_DEFAULT
+	 */
+	public static final String SESSION_TOKEN_TTL_GLOBAL_PROPERTY_NAME = MODULE_ID + ".sessionToken.ttl";
+	
+	/**
+	 * The number of seconds session tokens are valid, if an admin has not defined a global property
+	 */
+	public static final int SESSION_TOKEN_TTL_DEFAULT = 1800;
+	
+	/**
+	 * The key of the global property that an admin can set to true to count the SQL statements
+	 * and entity loads of each request, return them in the {@link #QUERY_STATS_HEADER} header and
+	 * log the requests that issue many statements
+	 * 
+	 * @see #QUERY_STATS_LOG_THRESHOLD_GLOBAL_PROPERTY_NAME
+	 */
+	public static final String QUERY_STATS_ENABLED_GLOBAL_PROPERTY_NAME = MODULE_ID + ".queryStats.enabled";
+	
+	/**
+	 * The key of the global property that an admin can set to the number of SQL statements from
+	 * which a request is logged, with the conversions that issued them, if query statistics are
+	 * enabled
+	 * 
+	 * @see #QUERY_STATS_LOG_THRESHOLD_DEFAULT
+	 */
+	public static final String QUERY_STATS_LOG_THRESHOLD_GLOBAL_PROPERTY_NAME = MODULE_ID + ".queryStats.logThreshold";
+	
+	/**
+	 * The number of SQL statements from which a request is logged, if an admin has not defined a
+	 * global property
+	 */
+	public static final int QUERY_STATS_LOG_THRESHOLD_DEFAULT = 100;
+	
+	/**
+	 * The response header holding the query statistics of a request, if they are enabled
+	 */
+	public static final String QUERY_STATS_HEADER = "X-OpenMRS-Query-Stats";
+	
 	/**
 	 * The version number for the first rest web services representations
 	 */
@@ -105,6 +210,16 @@ public class RestConstants {
 	 */
 	public static String REQUEST_PROPERTY_FOR_START_INDEX = "startIndex";
 	
+	/**
+	 * An optional request parameter used by methods that return long lists of data to page through
+	 * them by cursor rather than by startIndex. Clients pass it empty for the first page, and follow
+	 * the next links, which carry the cursor of the following page.
+	 * 
+	 * @see RequestContext#getCursor()
+	 * @see org.openmrs.module.webservices.rest.web.resource.impl.KeysetPager
+	 */
+	public static final String REQUEST_PROPERTY_FOR_CURSOR = "cursor";
+	
 	/**
 	 * An optional request parameter used by rest methods. Will change the properties on the
 	 * results. Default is "default"
@@ -128,6 +243,22 @@ public class RestConstants {
 	 */
 	public static final String REQUEST_PROPERTY_FOR_INCLUDE_ALL = "includeAll";
 	
+	/**
+	 * An optional request parameter used by methods that return a list of objects to ask for the
+	 * total number of objects, which is otherwise not counted. It is returned in the totalCount
+	 * property of the response and in the {@link #TOTAL_COUNT_HEADER} header.
+	 * 
+	 * @see RequestContext#getTotalCount()
+	 */
+	public static final String REQUEST_PROPERTY_FOR_TOTAL_COUNT = "totalCount";
+	
+	/**
+	 * The response header holding the total number of objects, if the client asked for it
+	 * 
+	 * @see #REQUEST_PROPERTY_FOR_TOTAL_COUNT
+	 */
+	public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+	
 	/**
 	 * An optional request parameter for the jsessionid
 	 */
@@ -138,6 +269,19 @@ public class RestConstants {
 	 */
 	public static final String REQUEST_PROPERTY_FOR_SEARCH_ID = "s";
 	
+	/**
+	 * An optional request parameter that, when set to {@link #LINKS_NONE}, leaves the hyperlinks
+	 * out of every representation in the response. Meant for clients that never follow them.
+	 * 
+	 * @see org.openmrs.module.webservices.rest.web.filter.LinksFilter
+	 */
+	public static final String REQUEST_PROPERTY_FOR_LINKS = "links";
+	
+	/**
+	 * The value of {@link #REQUEST_PROPERTY_FOR_LINKS} that turns hyperlinks off
+	 */
+	public static final String LINKS_NONE = "none";
+	
 	/**
 	 * Used in object representations to indicate which specific type an instance belongs to for a
 	 * resource that represents a full class hierarchy
@@ -187,12 +331,15 @@ public class RestConstants {
 	static {
 		SPECIAL_REQUEST_PARAMETERS = new HashSet<String>();
 		SPECIAL_REQUEST_PARAMETERS.add(REQUEST_PROPERTY_FOR_INCLUDE_ALL);
+		SPECIAL_REQUEST_PARAMETERS.add(REQUEST_PROPERTY_FOR_TOTAL_COUNT);
 		SPECIAL_REQUEST_PARAMETERS.add(REQUEST_PROPERTY_FOR_LIMIT);
 		SPECIAL_REQUEST_PARAMETERS.add(REQUEST_PROPERTY_FOR_REPRESENTATION);
 		SPECIAL_REQUEST_PARAMETERS.add(REQUEST_PROPERTY_FOR_START_INDEX);
+		SPECIAL_REQUEST_PARAMETERS.add(REQUEST_PROPERTY_FOR_CURSOR);
 		SPECIAL_REQUEST_PARAMETERS.add(REQUEST_PROPERTY_FOR_TYPE);
 		SPECIAL_REQUEST_PARAMETERS.add(REQUEST_PROPERTY_FOR_JSESSIONID);
 		SPECIAL_REQUEST_PARAMETERS.add(REQUEST_PROPERTY_FOR_SEARCH_ID);
+		SPECIAL_REQUEST_PARAMETERS.add(REQUEST_PROPERTY_FOR_LINKS);
 	}
 	
 	/**
@@ -0,0 +1,200 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openmrs.module.webservices.rest.web.annotation.RestIndexProcessor;
+import org.openmrs.module.webservices.rest.web.resource.api.Resource;
+import org.openmrs.util.OpenmrsClassLoader;
+
+/**
+ * Lists the classes of this and other modules that the REST module needs to know about, from the
+ * index files written at compile time by the {@link RestIndexProcessor}. Each jar or class folder
+ * has one file per kind of class under {@value #INDEX_DIRECTORY}, with one class name per line.
+ * Classes in jars that were built without the processor are still found by scanning those jars.
+ */
+public class RestIndex {
+	
+	protected final Log log = LogFactory.getLog(getClass());
+	
+	public static final String INDEX_DIRECTORY = "META-INF/webservices.rest/index/";
+	
+	public static final String ENCODING = "UTF-8";
+	
+	/**
+	 * Classes annotated with {@link org.openmrs.module.webservices.rest.web.annotation.Resource}
+	 */
+	public static final String RESOURCES = "resources";
+	
+	/**
+	 * Classes annotated with {@link org.openmrs.module.webservices.rest.web.annotation.SubResource}
+	 */
+	public static final String SUBRESOURCES = "subresources";
+	
+	/**
+	 * Classes annotated with
+	 * {@link org.openmrs.module.webservices.rest.web.annotation.SubClassHandler}
+	 */
+	public static final String SUBCLASS_HANDLERS = "subclasshandlers";
+	
+	/**
+	 * Classes implementing {@link org.openmrs.module.webservices.rest.web.resource.api.SearchHandler}
+	 */
+	public static final String SEARCH_HANDLERS = "searchhandlers";
+	
+	public static final String[] KINDS = { RESOURCES, SUBRESOURCES, SUBCLASS_HANDLERS, SEARCH_HANDLERS };
+	
+	private static final RestIndex instance = new RestIndex();
+	
+	/**
+	 * @return the instance
+	 */
+	public static RestIndex getInstance() {
+		return instance;
+	}
+	
+	/**
+	 * @param kind one of {@link #KINDS}
+	 * @return the path of the index file of the given kind
+	 */
+	public static String getPath(String kind) {
+		return INDEX_DIRECTORY + kind;
+	}
+	
+	/**
+	 * Reads the class names in an index file, skipping blank lines and # comments
+	 * 
+	 * @param reader
+	 * @return the class names, in the order given
+	 * @throws IOException
+	 */
+	public static List<String> parse(BufferedReader reader) throws IOException {
+		List<String> classNames = new ArrayList<String>();
+		String line;
+		while ((line = reader.readLine()) != null) {
+			line = line.trim();
+			if (line.length() > 0 && !line.startsWith("#"))
+				classNames.add(line);
+		}
+		return classNames;
+	}
+	
+	/**
+	 * Gets the concrete resource and subresource classes, from the indexes where there are any and
+	 * by scanning the rest of the classpath
+	 * 
+	 * @return the resource classes
+	 * @throws IOException
+	 */
+	public List<Class<? extends Resource>> getResourceClasses() throws IOException {
+		Map<String, List<String>> resourcesByRoot = readIndexes(RESOURCES);
+		Map<String, List<String>> subresourcesByRoot = readIndexes(SUBRESOURCES);
+		
+		Set<Class<? extends Resource>> classes = new LinkedHashSet<Class<? extends Resource>>();
+		for (List<String> classNames : resourcesByRoot.values()) {
+			classes.addAll(loadClasses(classNames, Resource.class));
+		}
+		for (List<String> classNames : subresourcesByRoot.values()) {
+			classes.addAll(loadClasses(classNames, Resource.class));
+		}
+		
+		Set<String> skippedRoots = new LinkedHashSet<String>(resourcesByRoot.keySet());
+		skippedRoots.retainAll(subresourcesByRoot.keySet());
+		int indexes = skippedRoots.size();
+		skippedRoots.addAll(getCoreRoots());
+		List<Class<? extends Resource>> scanned = OpenmrsClassScanner.getInstance().getClasses(Resource.class, true,
+		    skippedRoots);
+		if (log.isDebugEnabled()) {
+			log.debug("Found " + classes.size() + " resources in " + indexes + " indexes and " + scanned.size()
+			        + " by scanning");
+		}
+		classes.addAll(scanned);
+		return new ArrayList<Class<? extends Resource>>(classes);
+	}
+	
+	/**
+	 * Reads the index files of the given kind on the classpath
+	 * 
+	 * @param kind
+	 * @return the class names listed in each index, by the root of the jar or folder containing it
+	 * @throws IOException
+	 */
+	public Map<String, List<String>> readIndexes(String kind) throws IOException {
+		Map<String, List<String>> byRoot = new LinkedHashMap<String, List<String>>();
+		String path = getPath(kind);
+		Enumeration<URL> urls = OpenmrsClassLoader.getInstance().getResources(path);
+		while (urls.hasMoreElements()) {
+			URL url = urls.nextElement();
+			String location = url.toString();
+			BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), ENCODING));
+			try {
+				byRoot.put(location.substring(0, location.length() - path.length()), parse(reader));
+			}
+			finally {
+				reader.close();
+			}
+		}
+		return byRoot;
+	}
+	
+	/**
+	 * The jars of the OpenMRS API and web application cannot contain resources, since they do not
+	 * depend on this module, so they need not be scanned
+	 */
+	private Set<String> getCoreRoots() {
+		Set<String> roots = new LinkedHashSet<String>();
+		for (String coreClass : new String[] { "org/openmrs/util/OpenmrsConstants.class",
+		        "org/openmrs/web/WebConstants.class" }) {
+			URL url = OpenmrsClassLoader.getInstance().getResource(coreClass);
+			if (url != null) {
+				String location = url.toString();
+				roots.add(location.substring(0, location.length() - coreClass.length()));
+			}
+		}
+		return roots;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <T> List<Class<? extends T>> loadClasses(List<String> classNames, Class<T> type) {
+		List<Class<? extends T>> classes = new ArrayList<Class<? extends T>>(classNames.size());
+		for (String className : classNames) {
+			try {
+				Class<?> clazz = OpenmrsClassLoader.getInstance().loadClass(className);
+				if (type.isAssignableFrom(clazz))
+					classes.add((Class<? extends T>) clazz);
+			}
+			catch (ClassNotFoundException e) {
+				instance.log.debug("Indexed class cannot be loaded: " + className);
+			}
+			catch (LinkageError e) {
+				instance.log.debug("Indexed class cannot be loaded: " + className, e);
+			}
+		}
+		return classes;
+	}
+	
+}
@@ -13,15 +13,26 @@
  */
 package org.openmrs.module.webservices.rest.web;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import javax.annotation.PostConstruct;
 
+import org.openmrs.module.webservices.rest.web.jackson.CborHttpMessageConverter;
+import org.openmrs.module.webservices.rest.web.jackson.SmileHttpMessageConverter;
+import org.openmrs.module.webservices.rest.web.xml.SimpleObjectXmlHttpMessageConverter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.xml.MarshallingHttpMessageConverter;
 import org.springframework.oxm.xstream.XStreamMarshaller;
 import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.annotation.AnnotationMethodHandlerAdapter;
 
 /**
- * Setups xstream marshaller to support annotated classes.
+ * Setups xstream marshaller to support annotated classes, and registers the streaming XML writer
+ * and the binary formats for representations with the handler adapters.
  */
 @Component
 public class RestInit {
@@ -30,8 +41,52 @@ public class RestInit {
 	@Qualifier("xStreamMarshaller")
 	XStreamMarshaller marshaller;
 	
+	@Autowired
+	SimpleObjectXmlHttpMessageConverter xmlConverter;
+	
+	@Autowired
+	SmileHttpMessageConverter smileConverter;
+	
+	@Autowired
+	CborHttpMessageConverter cborConverter;
+	
+	@Autowired(required = false)
+	List<AnnotationMethodHandlerAdapter> handlerAdapters;
+	
 	@PostConstruct
 	public void init() {
 		marshaller.setAutodetectAnnotations(true);
+		if (handlerAdapters != null) {
+			for (AnnotationMethodHandlerAdapter handlerAdapter : handlerAdapters) {
+				registerMessageConverters(handlerAdapter);
+			}
+		}
+	}
+	
+	/**
+	 * Adds the streaming XML converter just before the first marshalling converter, so that it
+	 * writes XML representations in its place while JSON keeps being preferred when the client
+	 * accepts either. The binary formats go last, so they are only used when asked for by name.
+	 * 
+	 * @param handlerAdapter
+	 */
+	private void registerMessageConverters(AnnotationMethodHandlerAdapter handlerAdapter) {
+		HttpMessageConverter<?>[] converters = handlerAdapter.getMessageConverters();
+		if (converters == null)
+			return;
+		List<HttpMessageConverter<?>> list = new ArrayList<HttpMessageConverter<?>>(Arrays.asList(converters));
+		if (list.contains(xmlConverter))
+			return;
+		int index = list.size();
+		for (int i = 0; i < list.size(); i++) {
+			if (list.get(i) instanceof MarshallingHttpMessageConverter) {
+				index = i;
+				break;
+			}
+		}
+		list.add(index, xmlConverter);
+		list.add(smileConverter);
+		list.add(cborConverter);
+		handlerAdapter.setMessageConverters(list.toArray(new HttpMessageConverter<?>[list.size()]));
 	}
 }
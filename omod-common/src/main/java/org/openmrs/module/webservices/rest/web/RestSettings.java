@@ -0,0 +1,292 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openmrs.api.AdministrationService;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.webservices.rest.web.auth.SessionTokenSigner;
+import org.openmrs.util.OpenmrsConstants;
+
+/**
+ * An immutable snapshot of the global properties read while handling requests, so that they are
+ * not looked up in the database on every call. {@link RestUtil} loads it the first time it is
+ * needed and, as a global property listener, replaces it with an updated copy whenever one of the
+ * properties changes. The session token keys are read from the runtime properties instead, and
+ * kept by every copy.
+ * 
+ * @see RestUtil#getSettings()
+ */
+public class RestSettings {
+	
+	private static final Log log = LogFactory.getLog(RestSettings.class);
+	
+	private final Map<String, String> values;
+	
+	private final int defaultLimit;
+	
+	private final int absoluteLimit;
+	
+	private final boolean streamResponses;
+	
+	private final List<String> allowedIps;
+	
+	private final IpMatcher allowedIpMatcher;
+	
+	private final boolean gzipEnabled;
+	
+	private final int gzipMinSize;
+	
+	private final int gzipLevel;
+	
+	private final int credentialCacheTtl;
+	
+	private final SessionTokenSigner sessionTokenSigner;
+	
+	private final boolean queryStatsEnabled;
+	
+	private final int queryStatsLogThreshold;
+	
+	/**
+	 * @param values the values of the global properties and of the session token keys runtime
+	 *            property by name, missing or null if not set
+	 * @should use defaults for missing or invalid values
+	 * @should split allowed ips on whitespace and commas
+	 */
+	public RestSettings(Map<String, String> values) {
+		this.values = Collections.unmodifiableMap(new HashMap<String, String>(values));
+		
+		defaultLimit = parseInteger(RestConstants.MAX_RESULTS_DEFAULT_GLOBAL_PROPERTY_NAME,
+		    RestConstants.MAX_RESULTS_DEFAULT);
+		absoluteLimit = parseInteger(RestConstants.MAX_RESULTS_ABSOLUTE_GLOBAL_PROPERTY_NAME,
+		    RestConstants.MAX_RESULTS_ABSOLUTE);
+		streamResponses = Boolean.valueOf(StringUtils.trim(get(RestConstants.STREAM_RESPONSES_GLOBAL_PROPERTY_NAME)));
+		
+		String allowedIpsProperty = StringUtils.trim(get(RestConstants.ALLOWED_IPS_GLOBAL_PROPERTY_NAME));
+		if (StringUtils.isEmpty(allowedIpsProperty)) {
+			allowedIps = Collections.emptyList();
+		} else {
+			allowedIps = Collections.unmodifiableList(Arrays.asList(allowedIpsProperty.split("[\\s,]+")));
+		}
+		List<String> invalidIps = new ArrayList<String>();
+		allowedIpMatcher = IpMatcher.compileValid(allowedIps, invalidIps);
+		if (!invalidIps.isEmpty()) {
+			log.error(RestConstants.ALLOWED_IPS_GLOBAL_PROPERTY_NAME + " contains invalid entries, which are ignored: "
+			        + invalidIps);
+		}
+		
+		gzipEnabled = Boolean.valueOf(StringUtils.trim(get(OpenmrsConstants.GLOBAL_PROPERTY_GZIP_ENABLED)));
+		gzipMinSize = parseInteger(RestConstants.GZIP_MIN_SIZE_GLOBAL_PROPERTY_NAME, RestConstants.GZIP_MIN_SIZE_DEFAULT);
+		int level = parseInteger(RestConstants.GZIP_LEVEL_GLOBAL_PROPERTY_NAME, RestConstants.GZIP_LEVEL_DEFAULT);
+		if (level < 0 || level > 9) {
+			log.error(RestConstants.GZIP_LEVEL_GLOBAL_PROPERTY_NAME + " must be between 0 and 9");
+			level = RestConstants.GZIP_LEVEL_DEFAULT;
+		}
+		gzipLevel = level;
+		
+		credentialCacheTtl = parseInteger(RestConstants.CREDENTIAL_CACHE_TTL_GLOBAL_PROPERTY_NAME,
+		    RestConstants.CREDENTIAL_CACHE_TTL_DEFAULT);
+		
+		String sessionTokenKeys = StringUtils.trim(get(RestConstants.SESSION_TOKEN_KEYS_RUNTIME_PROPERTY_NAME));
+		if (StringUtils.isEmpty(sessionTokenKeys)) {
+			sessionTokenSigner = null;
+		} else {
+			List<String> invalidKeys = new ArrayList<String>();
+			sessionTokenSigner = SessionTokenSigner.compileValid(Arrays.asList(sessionTokenKeys.split("[\\s,]+")),
+			    parseInteger(RestConstants.SESSION_TOKEN_TTL_GLOBAL_PROPERTY_NAME, RestConstants.SESSION_TOKEN_TTL_DEFAULT),
+			    invalidKeys);
+			if (!invalidKeys.isEmpty()) {
+				// only the ids, the secrets are not logged
+				List<String> invalidKeyIds = new ArrayList<String>();
+				for (String key : invalidKeys) {
+					invalidKeyIds.add(StringUtils.substringBefore(key, ":"));
+				}
+				log.error(RestConstants.SESSION_TOKEN_KEYS_RUNTIME_PROPERTY_NAME
+				        + " contains invalid keys, which are ignored: " + invalidKeyIds);
+			}
+		}
+		
+		queryStatsEnabled = Boolean.valueOf(StringUtils.trim(get(RestConstants.QUERY_STATS_ENABLED_GLOBAL_PROPERTY_NAME)));
+		queryStatsLogThreshold = parseInteger(RestConstants.QUERY_STATS_LOG_THRESHOLD_GLOBAL_PROPERTY_NAME,
+		    RestConstants.QUERY_STATS_LOG_THRESHOLD_DEFAULT);
+	}
+	
+	/**
+	 * @return the names of the global properties held by a snapshot
+	 */
+	public static List<String> getPropertyNames() {
+		return Arrays.asList(RestConstants.MAX_RESULTS_DEFAULT_GLOBAL_PROPERTY_NAME,
+		    RestConstants.MAX_RESULTS_ABSOLUTE_GLOBAL_PROPERTY_NAME, RestConstants.STREAM_RESPONSES_GLOBAL_PROPERTY_NAME,
+		    RestConstants.ALLOWED_IPS_GLOBAL_PROPERTY_NAME, OpenmrsConstants.GLOBAL_PROPERTY_GZIP_ENABLED,
+		    RestConstants.GZIP_MIN_SIZE_GLOBAL_PROPERTY_NAME, RestConstants.GZIP_LEVEL_GLOBAL_PROPERTY_NAME,
+		    RestConstants.CREDENTIAL_CACHE_TTL_GLOBAL_PROPERTY_NAME, RestConstants.SESSION_TOKEN_TTL_GLOBAL_PROPERTY_NAME,
+		    RestConstants.QUERY_STATS_ENABLED_GLOBAL_PROPERTY_NAME,
+		    RestConstants.QUERY_STATS_LOG_THRESHOLD_GLOBAL_PROPERTY_NAME);
+	}
+	
+	/**
+	 * Reads the current values of the global properties, and the session token keys from the
+	 * runtime properties
+	 * 
+	 * @return the snapshot
+	 * @should read the session token keys from the runtime properties only
+	 */
+	public static RestSettings load() {
+		AdministrationService administrationService = Context.getAdministrationService();
+		Map<String, String> values = new HashMap<String, String>();
+		for (String name : getPropertyNames()) {
+			values.put(name, administrationService.getGlobalProperty(name));
+		}
+		values.put(RestConstants.SESSION_TOKEN_KEYS_RUNTIME_PROPERTY_NAME, Context.getRuntimeProperties().getProperty(
+		    RestConstants.SESSION_TOKEN_KEYS_RUNTIME_PROPERTY_NAME));
+		return new RestSettings(values);
+	}
+	
+	/**
+	 * @param name
+	 * @param value the new value, or null if the property was deleted
+	 * @return a copy of this snapshot with the given property changed
+	 * @should change only the given property
+	 */
+	public RestSettings with(String name, String value) {
+		Map<String, String> newValues = new HashMap<String, String>(values);
+		newValues.put(name, value);
+		return new RestSettings(newValues);
+	}
+	
+	private String get(String name) {
+		return values.get(name);
+	}
+	
+	private int parseInteger(String name, int defaultValue) {
+		String value = get(name);
+		if (StringUtils.isBlank(value))
+			return defaultValue;
+		try {
+			return Integer.parseInt(value.trim());
+		}
+		catch (NumberFormatException nfex) {
+			log.error(name + " must be an integer. " + nfex.getMessage());
+			return defaultValue;
+		}
+	}
+	
+	/**
+	 * @return the number of results returned when the client does not ask for a limit
+	 * @see RestConstants#MAX_RESULTS_DEFAULT_GLOBAL_PROPERTY_NAME
+	 */
+	public int getDefaultLimit() {
+		return defaultLimit;
+	}
+	
+	/**
+	 * @return the largest number of results a client may ask for
+	 * @see RestConstants#MAX_RESULTS_ABSOLUTE_GLOBAL_PROPERTY_NAME
+	 */
+	public int getAbsoluteLimit() {
+		return absoluteLimit;
+	}
+	
+	/**
+	 * @return whether results should be converted while the response is written
+	 * @see RestConstants#STREAM_RESPONSES_GLOBAL_PROPERTY_NAME
+	 */
+	public boolean isStreamResponses() {
+		return streamResponses;
+	}
+	
+	/**
+	 * @return the IPs and masks allowed to access the API, empty if any IP is allowed
+	 * @see RestConstants#ALLOWED_IPS_GLOBAL_PROPERTY_NAME
+	 */
+	public List<String> getAllowedIps() {
+		return allowedIps;
+	}
+	
+	/**
+	 * @return the matcher compiled from the allowed IPs, leaving out invalid entries
+	 * @see RestConstants#ALLOWED_IPS_GLOBAL_PROPERTY_NAME
+	 */
+	public IpMatcher getAllowedIpMatcher() {
+		return allowedIpMatcher;
+	}
+	
+	/**
+	 * @return whether responses are compressed and compressed requests decompressed, which is off
+	 *         unless enabled in core's gzip setting
+	 * @see OpenmrsConstants#GLOBAL_PROPERTY_GZIP_ENABLED
+	 */
+	public boolean isGzipEnabled() {
+		return gzipEnabled;
+	}
+	
+	/**
+	 * @return the size in bytes from which responses are compressed, negative if they should not
+	 *         be compressed
+	 * @see RestConstants#GZIP_MIN_SIZE_GLOBAL_PROPERTY_NAME
+	 */
+	public int getGzipMinSize() {
+		return gzipMinSize;
+	}
+	
+	/**
+	 * @return the level responses are compressed with, from 0 (not compressed) to 9
+	 * @see RestConstants#GZIP_LEVEL_GLOBAL_PROPERTY_NAME
+	 */
+	public int getGzipLevel() {
+		return gzipLevel;
+	}
+	
+	/**
+	 * @return the number of seconds verified credentials are remembered, 0 or less if they are not
+	 * @see RestConstants#CREDENTIAL_CACHE_TTL_GLOBAL_PROPERTY_NAME
+	 */
+	public int getCredentialCacheTtl() {
+		return credentialCacheTtl;
+	}
+	
+	/**
+	 * @return the signer of session tokens, or null if no valid keys are configured
+	 * @see RestConstants#SESSION_TOKEN_KEYS_RUNTIME_PROPERTY_NAME
+	 */
+	public SessionTokenSigner getSessionTokenSigner() {
+		return sessionTokenSigner;
+	}
+	
+	/**
+	 * @return whether the SQL statements and entity loads of each request are counted
+	 * @see RestConstants#QUERY_STATS_ENABLED_GLOBAL_PROPERTY_NAME
+	 */
+	public boolean isQueryStatsEnabled() {
+		return queryStatsEnabled;
+	}
+	
+	/**
+	 * @return the number of SQL statements from which a request is logged
+	 * @see RestConstants#QUERY_STATS_LOG_THRESHOLD_GLOBAL_PROPERTY_NAME
+	 */
+	public int getQueryStatsLogThreshold() {
+		return queryStatsLogThreshold;
+	}
+	
+}
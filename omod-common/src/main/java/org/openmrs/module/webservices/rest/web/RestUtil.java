@@ -15,14 +15,10 @@ package org.openmrs.module.webservices.rest.web;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.InetAddress;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.net.UnknownHostException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Enumeration;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -48,6 +44,7 @@ import org.openmrs.messagesource.MessageSourceService;
 import org.openmrs.module.webservices.rest.SimpleObject;
 import org.openmrs.module.webservices.rest.web.api.RestService;
 import org.openmrs.module.webservices.rest.web.representation.Representation;
+import org.openmrs.module.webservices.rest.web.response.InvalidSearchException;
 import org.openmrs.module.webservices.validation.ValidationException;
 import org.openmrs.util.OpenmrsClassLoader;
 import org.springframework.validation.FieldError;
@@ -66,6 +63,47 @@ public class RestUtil implements GlobalPropertyListener {
 	
 	private static boolean contextEnabled = true;
 	
+	private static final ThreadLocal<Boolean> linksDisabled = new ThreadLocal<Boolean>();
+	
+	private static volatile RestSettings settings;
+	
+	private static int settingsChanges;
+	
+	/**
+	 * Gets the snapshot of the global properties read while handling requests, loading it if this
+	 * is the first call
+	 * 
+	 * @return the settings
+	 */
+	public static RestSettings getSettings() {
+		RestSettings current = settings;
+		if (current == null) {
+			int changes;
+			synchronized (RestUtil.class) {
+				changes = settingsChanges;
+			}
+			current = RestSettings.load();
+			synchronized (RestUtil.class) {
+				// do not keep what was loaded if a property changed meanwhile
+				if (settings == null && changes == settingsChanges) {
+					settings = current;
+				}
+			}
+		}
+		return current;
+	}
+	
+	/**
+	 * Discards the snapshot of the settings so that the next call to {@link #getSettings()} loads
+	 * it again, e.g. after the runtime properties changed
+	 */
+	public static void reloadSettings() {
+		synchronized (RestUtil.class) {
+			settingsChanges++;
+			settings = null;
+		}
+	}
+	
 	/**
 	 * Looks up the admin defined global property for the system limit
 	 * 
@@ -74,20 +112,7 @@ public class RestUtil implements GlobalPropertyListener {
 	 * @see RestConstants#MAX_RESULTS_DEFAULT_GLOBAL_PROPERTY_NAME
 	 */
 	public static Integer getDefaultLimit() {
-		String limit = Context.getAdministrationService().getGlobalProperty(
-		    RestConstants.MAX_RESULTS_DEFAULT_GLOBAL_PROPERTY_NAME);
-		if (StringUtils.isNotEmpty(limit)) {
-			try {
-				return Integer.parseInt(limit);
-			}
-			catch (NumberFormatException nfex) {
-				log.error(RestConstants.MAX_RESULTS_DEFAULT_GLOBAL_PROPERTY_NAME + " must be an integer. "
-				        + nfex.getMessage());
-				return RestConstants.MAX_RESULTS_DEFAULT;
-			}
-		} else {
-			return RestConstants.MAX_RESULTS_DEFAULT;
-		}
+		return getSettings().getDefaultLimit();
 	}
 	
 	/**
@@ -98,22 +123,72 @@ public class RestUtil implements GlobalPropertyListener {
 	 * @see RestConstants#MAX_RESULTS_ABSOLUTE_GLOBAL_PROPERTY_NAME
 	 */
 	public static Integer getAbsoluteLimit() {
-		String limit = Context.getAdministrationService().getGlobalProperty(
-		    RestConstants.MAX_RESULTS_ABSOLUTE_GLOBAL_PROPERTY_NAME);
-		if (StringUtils.isNotEmpty(limit)) {
-			try {
-				return Integer.parseInt(limit);
-			}
-			catch (NumberFormatException nfex) {
-				log.error(RestConstants.MAX_RESULTS_ABSOLUTE_GLOBAL_PROPERTY_NAME + " must be an integer. "
-				        + nfex.getMessage());
-				return RestConstants.MAX_RESULTS_ABSOLUTE;
-			}
+		return getSettings().getAbsoluteLimit();
+	}
+	
+	/**
+	 * Looks up the admin defined global property for whether responses should be streamed
+	 * 
+	 * @return <code>true</code> if results should be converted while the response is written
+	 * @see RestConstants#STREAM_RESPONSES_GLOBAL_PROPERTY_NAME
+	 */
+	public static boolean isStreamResponses() {
+		return getSettings().isStreamResponses();
+	}
+	
+	/**
+	 * Looks up core's global property for whether compression is enabled
+	 * 
+	 * @return <code>true</code> if responses may be compressed and compressed requests decompressed
+	 * @see org.openmrs.util.OpenmrsConstants#GLOBAL_PROPERTY_GZIP_ENABLED
+	 */
+	public static boolean isGzipEnabled() {
+		return getSettings().isGzipEnabled();
+	}
+	
+	/**
+	 * Looks up the admin defined global property for the size from which responses are compressed
+	 * 
+	 * @return the size in bytes, negative if responses should not be compressed
+	 * @see RestConstants#GZIP_MIN_SIZE_GLOBAL_PROPERTY_NAME
+	 */
+	public static int getGzipMinSize() {
+		return getSettings().getGzipMinSize();
+	}
+	
+	/**
+	 * Looks up the admin defined global property for the level responses are compressed with
+	 * 
+	 * @return the level from 0 (not compressed) to 9
+	 * @see RestConstants#GZIP_LEVEL_GLOBAL_PROPERTY_NAME
+	 */
+	public static int getGzipLevel() {
+		return getSettings().getGzipLevel();
+	}
+	
+	/**
+	 * Turns hyperlinks in representations off or back on for the request handled by the current
+	 * thread
+	 * 
+	 * @param disabled
+	 * @see RestConstants#REQUEST_PROPERTY_FOR_LINKS
+	 */
+	public static void setLinksDisabled(boolean disabled) {
+		if (disabled) {
+			linksDisabled.set(Boolean.TRUE);
 		} else {
-			return RestConstants.MAX_RESULTS_ABSOLUTE;
+			linksDisabled.remove();
 		}
 	}
 	
+	/**
+	 * @return whether representations built by the current thread should leave out hyperlinks
+	 * @see RestConstants#REQUEST_PROPERTY_FOR_LINKS
+	 */
+	public static boolean isLinksDisabled() {
+		return linksDisabled.get() != null;
+	}
+	
 	/**
 	 * Tests whether or not a client's IP address is allowed to have access to the REST API (based
 	 * on a admin-settable global property).
@@ -123,11 +198,12 @@ public class RestUtil implements GlobalPropertyListener {
 	 * @see RestConstants#ALLOWED_IPS_GLOBAL_PROPERTY_NAME
 	 */
 	public static boolean isIpAllowed(String ip) {
-		return ipMatches(ip, getAllowedIps());
+		return getSettings().getAllowedIpMatcher().matches(ip);
 	}
 	
 	/**
-	 * Tests whether or not there is a match between the given IP address and the candidates.
+	 * Tests whether or not there is a match between the given IP address and the candidates. The
+	 * candidates are compiled for this call only, see {@link IpMatcher} to match many addresses.
 	 * 
 	 * @param ip
 	 * @param candidateIps
@@ -141,65 +217,7 @@ public class RestUtil implements GlobalPropertyListener {
 	 * @should throw IllegalArgumentException for invalid mask
 	 */
 	public static boolean ipMatches(String ip, List<String> candidateIps) {
-		if (candidateIps.isEmpty()) {
-			return true;
-		}
-		
-		InetAddress address;
-		try {
-			address = InetAddress.getByName(ip);
-		}
-		catch (UnknownHostException e) {
-			throw new IllegalArgumentException("Invalid IP in the ip parameter" + ip, e);
-		}
-		
-		for (String candidateIp : candidateIps) {
-			// split IP and mask
-			String[] candidateIpPattern = candidateIp.split("/");
-			
-			InetAddress candidateAddress;
-			try {
-				candidateAddress = InetAddress.getByName(candidateIpPattern[0]);
-			}
-			catch (UnknownHostException e) {
-				throw new IllegalArgumentException("Invalid IP in the candidateIps parameter", e);
-			}
-			
-			if (candidateIpPattern.length == 1) { // there's no mask
-				if (address.equals(candidateAddress)) {
-					return true;
-				}
-			} else {
-				if (address.getAddress().length != candidateAddress.getAddress().length) {
-					continue;
-				}
-				
-				int bits = Integer.parseInt(candidateIpPattern[1]);
-				if (candidateAddress.getAddress().length < Math.ceil((double) bits / 8)) {
-					throw new IllegalArgumentException("Invalid mask " + bits + " for IP " + candidateIp
-					        + " in the candidateIps parameter");
-				}
-				
-				// compare bytes based on the given mask
-				boolean matched = true;
-				for (int bytes = 0; bits > 0; bytes++, bits -= 8) {
-					int mask = 0x000000FF; // mask the entire byte
-					if (bits < 8) {
-						// mask only some first bits of a byte
-						mask = (mask << (8 - bits));
-					}
-					if ((address.getAddress()[bytes] & mask) != (candidateAddress.getAddress()[bytes] & mask)) {
-						matched = false;
-						break;
-					}
-				}
-				if (matched) {
-					return true;
-				}
-			}
-			
-		}
-		return false;
+		return IpMatcher.compile(candidateIps).matches(ip);
 	}
 	
 	/**
@@ -214,15 +232,7 @@ public class RestUtil implements GlobalPropertyListener {
 	 * @return the list of IPs
 	 */
 	public static List<String> getAllowedIps() {
-		String allowedIpsProperty = Context.getAdministrationService().getGlobalProperty(
-		    RestConstants.ALLOWED_IPS_GLOBAL_PROPERTY_NAME, "");
-		
-		if (allowedIpsProperty.isEmpty()) {
-			return Collections.emptyList();
-		} else {
-			String[] allowedIps = allowedIpsProperty.split("[\\s,]+");
-			return Arrays.asList(allowedIps);
-		}
+		return getSettings().getAllowedIps();
 	}
 	
 	/*
@@ -473,10 +483,27 @@ public class RestUtil implements GlobalPropertyListener {
 			ret.setStartIndex(startIndex);
 		}
 		
+		// fetch the cursor param, for results paged by cursor rather than by startIndex
+		temp = request.getParameter(RestConstants.REQUEST_PROPERTY_FOR_CURSOR);
+		if (temp != null) {
+			if (ret.getStartIndex() > 0) {
+				throw new InvalidSearchException("?" + RestConstants.REQUEST_PROPERTY_FOR_CURSOR + " and ?"
+				        + RestConstants.REQUEST_PROPERTY_FOR_START_INDEX + " cannot be used together");
+			}
+			ret.setCursor(temp);
+		}
+		
 		Boolean includeAll = getBooleanParam(request, RestConstants.REQUEST_PROPERTY_FOR_INCLUDE_ALL);
 		if (includeAll != null) {
 			ret.setIncludeAll(includeAll);
 		}
+		
+		Boolean totalCount = getBooleanParam(request, RestConstants.REQUEST_PROPERTY_FOR_TOTAL_COUNT);
+		if (totalCount != null) {
+			ret.setTotalCount(totalCount);
+		}
+		
+		ret.setStreamResponses(isStreamResponses());
 		return ret;
 	}
 	
@@ -669,7 +696,8 @@ public class RestUtil implements GlobalPropertyListener {
 	 */
 	@Override
 	public boolean supportsPropertyName(String propertyName) {
-		return propertyName.equals(RestConstants.URI_PREFIX_GLOBAL_PROPERTY_NAME);
+		return propertyName.equals(RestConstants.URI_PREFIX_GLOBAL_PROPERTY_NAME)
+		        || RestSettings.getPropertyNames().contains(propertyName);
 	}
 	
 	/**
@@ -677,7 +705,7 @@ public class RestUtil implements GlobalPropertyListener {
 	 */
 	@Override
 	public void globalPropertyChanged(GlobalProperty newValue) {
-		setUriPrefix();
+		propertyChanged(newValue.getProperty(), newValue.getPropertyValue());
 	}
 	
 	/**
@@ -685,7 +713,21 @@ public class RestUtil implements GlobalPropertyListener {
 	 */
 	@Override
 	public void globalPropertyDeleted(String propertyName) {
-		setUriPrefix();
+		propertyChanged(propertyName, null);
+	}
+	
+	private static void propertyChanged(String propertyName, String value) {
+		if (propertyName.equals(RestConstants.URI_PREFIX_GLOBAL_PROPERTY_NAME)) {
+			setUriPrefix();
+		} else {
+			synchronized (RestUtil.class) {
+				// a snapshot not loaded yet will read the new value when it is
+				settingsChanges++;
+				if (settings != null) {
+					settings = settings.with(propertyName, value);
+				}
+			}
+		}
 	}
 	
 	/**
@@ -0,0 +1,147 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.webservices.rest.web.annotation.Resource;
+import org.openmrs.module.webservices.rest.web.annotation.SubResource;
+import org.openmrs.module.webservices.rest.web.api.RestService;
+import org.openmrs.module.webservices.rest.web.resource.impl.BaseDelegatingResource;
+import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingResourceHandler;
+
+/**
+ * Warms up the conversion layer in a background thread once the resources are initialized, so that
+ * the first requests for each resource do not pay for finding subclass handlers, compiling
+ * representations and looking up converters and property accessors. Requests are served normally
+ * while the warm-up runs, they may just be slower until it is done.
+ * 
+ * @see BaseDelegatingResource#warmUp()
+ * @see org.openmrs.module.webservices.rest.web.v1_0.controller.ReadinessController
+ */
+public class RestWarmUp {
+	
+	private static final Log log = LogFactory.getLog(RestWarmUp.class);
+	
+	private static final AtomicInteger generation = new AtomicInteger();
+	
+	private static volatile boolean ready;
+	
+	private static volatile long startTime;
+	
+	private static volatile long duration;
+	
+	private static volatile int resourcesWarmed;
+	
+	private RestWarmUp() {
+	}
+	
+	/**
+	 * Starts warming up all resources in a daemon thread. A warm-up still running from an earlier
+	 * call keeps going, but only the latest one marks the module as ready.
+	 * 
+	 * @should mark the module as ready once the resources are warmed up
+	 * @should only let the latest warm-up mark the module as ready
+	 */
+	public static void start() {
+		final int current = generation.incrementAndGet();
+		ready = false;
+		resourcesWarmed = 0;
+		startTime = System.currentTimeMillis();
+		
+		Thread thread = new Thread(new Runnable() {
+			
+			@Override
+			public void run() {
+				warmUp(current);
+			}
+		}, "REST warm-up");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	private static void warmUp(int current) {
+		int warmed = 0;
+		Context.openSession();
+		try {
+			for (DelegatingResourceHandler<?> handler : Context.getService(RestService.class).getResourceHandlers()) {
+				if (generation.get() != current)
+					return;
+				try {
+					if (handler instanceof BaseDelegatingResource) {
+						((BaseDelegatingResource<?>) handler).warmUp();
+					}
+					Class<?> supportedClass = getSupportedClass(handler);
+					if (supportedClass != null) {
+						ConversionUtil.getConverter(supportedClass);
+					}
+					warmed++;
+				}
+				catch (RuntimeException ex) {
+					log.debug("Cannot warm up " + handler.getClass(), ex);
+				}
+			}
+		}
+		catch (RuntimeException ex) {
+			log.warn("REST warm-up failed", ex);
+		}
+		finally {
+			Context.closeSession();
+			if (generation.get() == current) {
+				resourcesWarmed = warmed;
+				duration = System.currentTimeMillis() - startTime;
+				ready = true;
+				log.info("Warmed up " + warmed + " REST resources in " + duration + " ms");
+			}
+		}
+	}
+	
+	private static Class<?> getSupportedClass(DelegatingResourceHandler<?> handler) {
+		Resource resource = handler.getClass().getAnnotation(Resource.class);
+		if (resource != null)
+			return resource.supportedClass();
+		SubResource subResource = handler.getClass().getAnnotation(SubResource.class);
+		if (subResource != null)
+			return subResource.supportedClass();
+		return null;
+	}
+	
+	/**
+	 * @return whether the latest warm-up has finished
+	 */
+	public static boolean isReady() {
+		return ready;
+	}
+	
+	/**
+	 * @return the number of resources warmed up by the latest finished warm-up
+	 */
+	public static int getResourcesWarmed() {
+		return resourcesWarmed;
+	}
+	
+	/**
+	 * @return how long the latest warm-up took, or has been running for, in milliseconds (0 if none was
+	 *         started)
+	 */
+	public static long getDurationMillis() {
+		if (startTime == 0)
+			return 0;
+		return ready ? duration : System.currentTimeMillis() - startTime;
+	}
+	
+}
@@ -0,0 +1,181 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.hibernate.proxy.HibernateProxy;
+import org.openmrs.module.webservices.rest.web.resource.api.Converter;
+
+/**
+ * Remembers, for each class seen while converting, what it resolves to: the resource registered
+ * for it or its closest superclass, its converter, and the actual types of its type variables. It
+ * replaces the separate caches of {@link ConversionUtil} and
+ * {@link org.openmrs.module.webservices.rest.web.api.RestService}, so that a Hibernate proxy or a
+ * subclass such as ConceptNumeric is resolved by walking the hierarchy only once.
+ * <p>
+ * Everything is dropped together by {@link #clear()}, which is called whenever resources are
+ * initialized again or the conversion caches are cleared. (Java 7's ClassValue would do the same
+ * job, but this module still builds for Java 6.)
+ */
+public class TypeResolutionCache {
+	
+	private static final Object NONE = new Object();
+	
+	private static volatile ConcurrentMap<Class<?>, Entry> entries = new ConcurrentHashMap<Class<?>, Entry>();
+	
+	private TypeResolutionCache() {
+	}
+	
+	/**
+	 * Forgets everything resolved so far
+	 */
+	public static void clear() {
+		entries = new ConcurrentHashMap<Class<?>, Entry>();
+	}
+	
+	/**
+	 * @param clazz
+	 * @return the entry for clazz, created if needed
+	 */
+	public static Entry get(Class<?> clazz) {
+		ConcurrentMap<Class<?>, Entry> current = entries;
+		Entry entry = current.get(clazz);
+		if (entry == null) {
+			entry = new Entry(clazz);
+			Entry existing = current.putIfAbsent(clazz, entry);
+			if (existing != null) {
+				entry = existing;
+			}
+		}
+		return entry;
+	}
+	
+	/**
+	 * What a single class resolves to. Values are computed by the callers and stored here, as
+	 * computing the same value twice in a race is harmless.
+	 */
+	public static class Entry {
+		
+		private final Class<?> type;
+		
+		private final Class<?> entityClass;
+		
+		private volatile Object[] mostSpecific;
+		
+		private volatile Object converter;
+		
+		private final ConcurrentMap<String, Type> typeVariables = new ConcurrentHashMap<String, Type>(4);
+		
+		Entry(Class<?> type) {
+			this.type = type;
+			Class<?> entityClass = type;
+			while (entityClass != null && HibernateProxy.class.isAssignableFrom(entityClass)) {
+				entityClass = entityClass.getSuperclass();
+			}
+			this.entityClass = entityClass;
+		}
+		
+		/**
+		 * @return the class this entry is for
+		 */
+		public Class<?> getType() {
+			return type;
+		}
+		
+		/**
+		 * @return the class this entry is for, or the entity class if it is a Hibernate proxy
+		 */
+		public Class<?> getEntityClass() {
+			return entityClass;
+		}
+		
+		/**
+		 * Finds the value registered for the entity class, or else for its closest superclass or
+		 * interface. The result is remembered for as long as the same map is passed in, so a map
+		 * that is replaced when rebuilt never yields stale values.
+		 * 
+		 * @param valuesByClass values keyed by the class they are registered for, not to be
+		 *            modified once passed in
+		 * @return the value, or null if no key is assignable from the entity class
+		 */
+		@SuppressWarnings("unchecked")
+		public <V> V getMostSpecific(Map<Class<?>, V> valuesByClass) {
+			Object[] cached = mostSpecific;
+			if (cached != null && cached[0] == valuesByClass) {
+				return (V) cached[1];
+			}
+			
+			V value = valuesByClass.get(entityClass);
+			if (value == null) {
+				Class<?> bestClass = null;
+				for (Map.Entry<Class<?>, V> candidate : valuesByClass.entrySet()) {
+					if (candidate.getKey().isAssignableFrom(entityClass)) {
+						if (bestClass == null || bestClass.isAssignableFrom(candidate.getKey())) {
+							bestClass = candidate.getKey();
+							value = candidate.getValue();
+						}
+					}
+				}
+			}
+			mostSpecific = new Object[] { valuesByClass, value };
+			return value;
+		}
+		
+		/**
+		 * @return whether {@link #setConverter(Converter)} has been called
+		 */
+		public boolean isConverterResolved() {
+			return converter != null;
+		}
+		
+		/**
+		 * @return the converter set for this class, or null if there is none or it is not resolved
+		 *         yet
+		 */
+		@SuppressWarnings("rawtypes")
+		public Converter getConverter() {
+			Object result = converter;
+			return result == NONE ? null : (Converter) result;
+		}
+		
+		/**
+		 * @param converter the converter for this class, or null if there is none
+		 */
+		public void setConverter(Converter<?> converter) {
+			this.converter = converter == null ? NONE : converter;
+		}
+		
+		/**
+		 * @param name
+		 * @return the actual type of the named type variable, or null if not resolved yet
+		 */
+		public Type getTypeVariable(String name) {
+			return typeVariables.get(name);
+		}
+		
+		/**
+		 * @param name
+		 * @param actualType the actual type of the named type variable
+		 */
+		public void putTypeVariable(String name, Type actualType) {
+			typeVariables.put(name, actualType);
+		}
+	
+	}
+	
+}
@@ -0,0 +1,197 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.annotation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import org.openmrs.module.webservices.rest.web.RestIndex;
+
+/**
+ * Writes the {@link RestIndex} of the classes compiled in a module, so that they do not have to be
+ * found by scanning the classpath at startup. It is registered as a service, so it runs on its own
+ * when a module that depends on this one is compiled.
+ * <p>
+ * On incremental builds the existing index is read back and its entries are kept as long as the
+ * class still exists and still qualifies.
+ */
+public class RestIndexProcessor extends AbstractProcessor {
+	
+	private static final String SEARCH_HANDLER = "org.openmrs.module.webservices.rest.web.resource.api.SearchHandler";
+	
+	private final Map<String, Set<String>> index = new LinkedHashMap<String, Set<String>>();
+	
+	/**
+	 * @see AbstractProcessor#init(ProcessingEnvironment)
+	 */
+	@Override
+	public synchronized void init(ProcessingEnvironment processingEnv) {
+		super.init(processingEnv);
+		for (String kind : RestIndex.KINDS) {
+			index.put(kind, readExistingIndex(kind));
+		}
+	}
+	
+	/**
+	 * @see AbstractProcessor#getSupportedAnnotationTypes()
+	 */
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		// search handlers are found by type rather than by annotation
+		Set<String> types = new TreeSet<String>();
+		types.add("*");
+		return types;
+	}
+	
+	/**
+	 * @see AbstractProcessor#getSupportedSourceVersion()
+	 */
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+	
+	/**
+	 * @see AbstractProcessor#process(Set, RoundEnvironment)
+	 */
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		if (roundEnv.processingOver()) {
+			writeIndex();
+		} else {
+			for (Element element : roundEnv.getRootElements()) {
+				addToIndex(element);
+			}
+		}
+		return false;
+	}
+	
+	private void addToIndex(Element element) {
+		if (element.getKind() != ElementKind.CLASS)
+			return;
+		TypeElement type = (TypeElement) element;
+		for (String kind : RestIndex.KINDS) {
+			if (isOfKind(type, kind)) {
+				index.get(kind).add(processingEnv.getElementUtils().getBinaryName(type).toString());
+			}
+		}
+		for (Element enclosed : type.getEnclosedElements()) {
+			if (enclosed.getModifiers().contains(Modifier.STATIC)) {
+				addToIndex(enclosed);
+			}
+		}
+	}
+	
+	private boolean isOfKind(TypeElement type, String kind) {
+		if (type.getModifiers().contains(Modifier.ABSTRACT))
+			return false;
+		if (RestIndex.RESOURCES.equals(kind)) {
+			return hasAnnotation(type, Resource.class.getName());
+		} else if (RestIndex.SUBRESOURCES.equals(kind)) {
+			return hasAnnotation(type, SubResource.class.getName());
+		} else if (RestIndex.SUBCLASS_HANDLERS.equals(kind)) {
+			return hasAnnotation(type, SubClassHandler.class.getName());
+		} else if (RestIndex.SEARCH_HANDLERS.equals(kind)) {
+			TypeElement searchHandler = processingEnv.getElementUtils().getTypeElement(SEARCH_HANDLER);
+			if (searchHandler == null)
+				return false;
+			TypeMirror searchHandlerType = processingEnv.getTypeUtils().erasure(searchHandler.asType());
+			return processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(type.asType()),
+			    searchHandlerType);
+		}
+		return false;
+	}
+	
+	private boolean hasAnnotation(TypeElement type, String annotation) {
+		for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+			if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation))
+				return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Reads the index written by an earlier build, keeping the classes that still qualify
+	 */
+	private Set<String> readExistingIndex(String kind) {
+		Set<String> classNames = new TreeSet<String>();
+		try {
+			FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+			    RestIndex.getPath(kind));
+			BufferedReader reader = new BufferedReader(new InputStreamReader(file.openInputStream(), RestIndex.ENCODING));
+			try {
+				for (String className : RestIndex.parse(reader)) {
+					TypeElement type = processingEnv.getElementUtils().getTypeElement(className.replace('$', '.'));
+					if (type != null && isOfKind(type, kind))
+						classNames.add(className);
+				}
+			}
+			finally {
+				reader.close();
+			}
+		}
+		catch (IOException e) {
+			// there is no earlier index
+		}
+		catch (IllegalArgumentException e) {
+			// some compilers do not allow reading the class output
+		}
+		return classNames;
+	}
+	
+	private void writeIndex() {
+		for (Map.Entry<String, Set<String>> entry : index.entrySet()) {
+			try {
+				FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+				    RestIndex.getPath(entry.getKey()));
+				Writer writer = file.openWriter();
+				try {
+					writer.write("# Generated by " + getClass().getName() + "\n");
+					for (String className : entry.getValue()) {
+						writer.write(className);
+						writer.write("\n");
+					}
+				}
+				finally {
+					writer.close();
+				}
+			}
+			catch (IOException e) {
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+				    "Could not write " + RestIndex.getPath(entry.getKey()) + ": " + e.getMessage());
+			}
+		}
+	}
+	
+}
@@ -14,9 +14,14 @@
 package org.openmrs.module.webservices.rest.web.api;
 
 import java.io.Serializable;
+import java.util.Date;
 import java.util.List;
 
+import org.openmrs.Concept;
 import org.openmrs.ConceptMap;
+import org.openmrs.Encounter;
+import org.openmrs.Obs;
+import org.openmrs.Person;
 
 /**
  * It is provided as a workaround for missing API methods to fetch {@link ConceptMap}, etc.
@@ -29,6 +34,47 @@ public interface RestHelperService {
 	
 	<T> List<T> getObjectsByFields(Class<? extends T> type, Field... fields);
 	
+	/**
+	 * Gets the objects sorted newest first on a date and then on id, that come after the given sort
+	 * key. The objects before it are neither read nor skipped, so the cost of a page does not depend
+	 * on how far into the results it is.
+	 * 
+	 * @param type
+	 * @param dateProperty the date to sort on, or null to sort on id only
+	 * @param idProperty the id to sort on
+	 * @param afterDate the date of the last object of the previous page
+	 * @param afterId the id of the last object of the previous page, or null for the first page
+	 * @param maxResults the number of objects to get
+	 * @param fields the values the objects must have, where a null value matches null
+	 * @return the objects
+	 */
+	<T> List<T> getObjectsAfter(Class<? extends T> type, String dateProperty, String idProperty, Date afterDate,
+	        Integer afterId, int maxResults, Field... fields);
+	
+	/**
+	 * Gets a page of obs sorted newest first, reading only the obs of the page from the database
+	 * 
+	 * @param person the person of the obs, or null for any
+	 * @param encounter the encounter of the obs, or null for any
+	 * @param concept the question of the obs, or null for any
+	 * @param fromDate the earliest obs date, or null
+	 * @param toDate the latest obs date, or null
+	 * @param includeVoided
+	 * @param firstResult the index of the first obs of the page
+	 * @param maxResults the size of the page
+	 * @return the obs
+	 */
+	List<Obs> getObservations(Person person, Encounter encounter, Concept concept, Date fromDate, Date toDate,
+	        boolean includeVoided, int firstResult, int maxResults);
+	
+	/**
+	 * Counts the obs {@link #getObservations} pages through, in the database
+	 * 
+	 * @see #getObservations(Person, Encounter, Concept, Date, Date, boolean, int, int)
+	 */
+	long getCountOfObservations(Person person, Encounter encounter, Concept concept, Date fromDate, Date toDate,
+	        boolean includeVoided);
+	
 	public static class Field {
 		
 		private final String name;
@@ -15,12 +15,20 @@ package org.openmrs.module.webservices.rest.web.api.impl;
 
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.util.Date;
 import java.util.List;
 
 import org.hibernate.Criteria;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.openmrs.Concept;
+import org.openmrs.Encounter;
+import org.openmrs.Obs;
+import org.openmrs.Person;
 import org.openmrs.api.impl.BaseOpenmrsService;
 import org.openmrs.module.webservices.rest.web.api.RestHelperService;
 import org.springframework.transaction.annotation.Transactional;
@@ -96,4 +104,97 @@ public class RestHelperServiceImpl extends BaseOpenmrsService implements RestHel
 		}
 		return criteria.list();
 	}
+	
+	/**
+	 * @see org.openmrs.module.webservices.rest.web.api.RestHelperService#getObjectsAfter(java.lang.Class,
+	 *      java.lang.String, java.lang.String, java.util.Date, java.lang.Integer, int,
+	 *      org.openmrs.module.webservices.rest.web.api.RestHelperService.Field[])
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	@Transactional(readOnly = true)
+	public <T> List<T> getObjectsAfter(Class<? extends T> type, String dateProperty, String idProperty, Date afterDate,
+	        Integer afterId, int maxResults, Field... fields) {
+		Criteria criteria = getSession().createCriteria(type);
+		for (Field field : fields) {
+			if (field != null) {
+				criteria.add(field.getValue() == null ? Restrictions.isNull(field.getName()) : Restrictions.eq(
+				    field.getName(), field.getValue()));
+			}
+		}
+		if (afterId != null) {
+			Criterion after = Restrictions.lt(idProperty, afterId);
+			if (dateProperty != null) {
+				// objects without a date are sorted after all others
+				if (afterDate == null) {
+					after = Restrictions.and(Restrictions.isNull(dateProperty), after);
+				} else {
+					after = Restrictions.or(Restrictions.lt(dateProperty, afterDate), Restrictions.and(
+					    Restrictions.eq(dateProperty, afterDate), after));
+				}
+			}
+			criteria.add(after);
+		}
+		if (dateProperty != null) {
+			criteria.addOrder(Order.desc(dateProperty));
+		}
+		criteria.addOrder(Order.desc(idProperty));
+		criteria.setMaxResults(maxResults);
+		return criteria.list();
+	}
+	
+	/**
+	 * @see org.openmrs.module.webservices.rest.web.api.RestHelperService#getObservations(org.openmrs.Person,
+	 *      org.openmrs.Encounter, org.openmrs.Concept, java.util.Date, java.util.Date, boolean, int,
+	 *      int)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	@Transactional(readOnly = true)
+	public List<Obs> getObservations(Person person, Encounter encounter, Concept concept, Date fromDate, Date toDate,
+	        boolean includeVoided, int firstResult, int maxResults) {
+		Criteria criteria = createObservationsCriteria(person, encounter, concept, fromDate, toDate, includeVoided);
+		// the id makes the order total, so that pages neither overlap nor skip obs recorded at the same time
+		criteria.addOrder(Order.desc("obsDatetime")).addOrder(Order.desc("obsId"));
+		criteria.setFirstResult(firstResult);
+		criteria.setMaxResults(maxResults);
+		return criteria.list();
+	}
+	
+	/**
+	 * @see org.openmrs.module.webservices.rest.web.api.RestHelperService#getCountOfObservations(org.openmrs.Person,
+	 *      org.openmrs.Encounter, org.openmrs.Concept, java.util.Date, java.util.Date, boolean)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public long getCountOfObservations(Person person, Encounter encounter, Concept concept, Date fromDate, Date toDate,
+	        boolean includeVoided) {
+		Criteria criteria = createObservationsCriteria(person, encounter, concept, fromDate, toDate, includeVoided);
+		criteria.setProjection(Projections.rowCount());
+		return ((Number) criteria.uniqueResult()).longValue();
+	}
+	
+	private Criteria createObservationsCriteria(Person person, Encounter encounter, Concept concept, Date fromDate,
+	        Date toDate, boolean includeVoided) {
+		Criteria criteria = getSession().createCriteria(Obs.class);
+		if (person != null) {
+			criteria.add(Restrictions.eq("person", person));
+		}
+		if (encounter != null) {
+			criteria.add(Restrictions.eq("encounter", encounter));
+		}
+		if (concept != null) {
+			criteria.add(Restrictions.eq("concept", concept));
+		}
+		if (fromDate != null) {
+			criteria.add(Restrictions.ge("obsDatetime", fromDate));
+		}
+		if (toDate != null) {
+			criteria.add(Restrictions.le("obsDatetime", toDate));
+		}
+		if (!includeVoided) {
+			criteria.add(Restrictions.eq("voided", false));
+		}
+		return criteria;
+	}
 }
@@ -19,22 +19,20 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 import javax.servlet.http.HttpServletRequest;
 
 import org.apache.commons.lang.StringUtils;
-import org.hibernate.proxy.HibernateProxy;
 import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.ModuleException;
 import org.openmrs.module.ModuleUtil;
-import org.openmrs.module.webservices.rest.web.OpenmrsClassScanner;
 import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.RestIndex;
+import org.openmrs.module.webservices.rest.web.TypeResolutionCache;
 import org.openmrs.module.webservices.rest.web.annotation.SubResource;
 import org.openmrs.module.webservices.rest.web.api.RestService;
 import org.openmrs.module.webservices.rest.web.representation.CustomRepresentation;
@@ -43,7 +41,6 @@ import org.openmrs.module.webservices.rest.web.representation.Representation;
 import org.openmrs.module.webservices.rest.web.resource.api.Resource;
 import org.openmrs.module.webservices.rest.web.resource.api.SearchConfig;
 import org.openmrs.module.webservices.rest.web.resource.api.SearchHandler;
-import org.openmrs.module.webservices.rest.web.resource.api.SearchQuery;
 import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingResourceHandler;
 import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingSubclassHandler;
 import org.openmrs.module.webservices.rest.web.response.InvalidSearchException;
@@ -58,7 +55,7 @@ public class RestServiceImpl implements RestService {
 	
 	volatile Map<Class<?>, Resource> resourcesBySupportedClasses;
 	
-	private volatile Map<SearchHandlerParameterKey, Set<SearchHandler>> searchHandlersByParameter;
+	private volatile Map<String, SearchHandlerRouter> searchHandlerRoutersByResource;
 	
 	private volatile Map<SearchHandlerIdKey, SearchHandler> searchHandlersByIds;
 	
@@ -82,50 +79,6 @@ public class RestServiceImpl implements RestService {
 		
 	}
 	
-	private static class SearchHandlerParameterKey {
-		
-		public String supportedResource;
-		
-		public String parameter;
-		
-		public SearchHandlerParameterKey(String supportedResource, String parameter) {
-			this.supportedResource = supportedResource;
-			this.parameter = parameter;
-		}
-		
-		@Override
-		public int hashCode() {
-			final int prime = 31;
-			int result = 1;
-			result = prime * result + ((parameter == null) ? 0 : parameter.hashCode());
-			result = prime * result + ((supportedResource == null) ? 0 : supportedResource.hashCode());
-			return result;
-		}
-		
-		@Override
-		public boolean equals(Object obj) {
-			if (this == obj)
-				return true;
-			if (obj == null)
-				return false;
-			if (getClass() != obj.getClass())
-				return false;
-			SearchHandlerParameterKey other = (SearchHandlerParameterKey) obj;
-			if (parameter == null) {
-				if (other.parameter != null)
-					return false;
-			} else if (!parameter.equals(other.parameter))
-				return false;
-			if (supportedResource == null) {
-				if (other.supportedResource != null)
-					return false;
-			} else if (!supportedResource.equals(other.supportedResource))
-				return false;
-			return true;
-		}
-		
-	}
-	
 	private static class SearchHandlerIdKey {
 		
 		public String supportedResource;
@@ -184,11 +137,19 @@ public class RestServiceImpl implements RestService {
 		if (searchHandlersByIds == null) {
 			searchHandlersByIds = new HashMap<RestServiceImpl.SearchHandlerIdKey, SearchHandler>();
 		}
-		if (searchHandlersByParameter == null) {
-			searchHandlersByParameter = new HashMap<SearchHandlerParameterKey, Set<SearchHandler>>();
+		if (searchHandlerRoutersByResource == null) {
+			searchHandlerRoutersByResource = new HashMap<String, SearchHandlerRouter>();
 		}
 		
-		addSupportedSearchHandler(searchHandlersByIds, searchHandlersByParameter, searchHandler);
+		String resource = searchHandler.getSearchConfig().getSupportedResource();
+		SearchHandlerRouter router = searchHandlerRoutersByResource.get(resource);
+		Map<String, List<SearchHandler>> tempSearchHandlersByRoutedResource = new HashMap<String, List<SearchHandler>>();
+		if (router != null) {
+			tempSearchHandlersByRoutedResource.put(resource, new ArrayList<SearchHandler>(router.getSearchHandlers()));
+		}
+		addSupportedSearchHandler(searchHandlersByIds, tempSearchHandlersByRoutedResource, searchHandler);
+		searchHandlerRoutersByResource.put(resource,
+		    new SearchHandlerRouter(tempSearchHandlersByRoutedResource.get(resource)));
 	}
 	
 	private void initializeResources() {
@@ -201,7 +162,7 @@ public class RestServiceImpl implements RestService {
 		
 		List<Class<? extends Resource>> resources;
 		try {
-			resources = OpenmrsClassScanner.getInstance().getClasses(Resource.class, true);
+			resources = RestIndex.getInstance().getResourceClasses();
 		}
 		catch (IOException e) {
 			throw new APIException("Cannot access REST resources", e);
@@ -311,28 +272,34 @@ public class RestServiceImpl implements RestService {
 		}
 		
 		Map<SearchHandlerIdKey, SearchHandler> tempSearchHandlersByIds = new HashMap<RestServiceImpl.SearchHandlerIdKey, SearchHandler>();
-		Map<SearchHandlerParameterKey, Set<SearchHandler>> tempSearchHandlersByParameters = new HashMap<SearchHandlerParameterKey, Set<SearchHandler>>();
+		Map<String, List<SearchHandler>> tempSearchHandlersByRoutedResource = new HashMap<String, List<SearchHandler>>();
 		Map<String, Set<SearchHandler>> tempSearchHandlersByResource = new HashMap<String, Set<SearchHandler>>();
 		
 		List<SearchHandler> allSearchHandlers = Context.getRegisteredComponents(SearchHandler.class);
 		for (SearchHandler searchHandler : allSearchHandlers) {
-			addSearchHandler(tempSearchHandlersByIds, tempSearchHandlersByParameters, tempSearchHandlersByResource,
+			addSearchHandler(tempSearchHandlersByIds, tempSearchHandlersByRoutedResource, tempSearchHandlersByResource,
 			    searchHandler);
 		}
+		
+		Map<String, SearchHandlerRouter> tempSearchHandlerRoutersByResource = new HashMap<String, SearchHandlerRouter>();
+		for (Map.Entry<String, List<SearchHandler>> entry : tempSearchHandlersByRoutedResource.entrySet()) {
+			tempSearchHandlerRoutersByResource.put(entry.getKey(), new SearchHandlerRouter(entry.getValue()));
+		}
+		
 		this.allSearchHandlers = allSearchHandlers;
-		searchHandlersByParameter = tempSearchHandlersByParameters;
+		searchHandlerRoutersByResource = tempSearchHandlerRoutersByResource;
 		searchHandlersByIds = tempSearchHandlersByIds;
 		searchHandlersByResource = tempSearchHandlersByResource;
 	}
 	
 	private void addSearchHandler(Map<SearchHandlerIdKey, SearchHandler> tempSearchHandlersByIds,
-	        Map<SearchHandlerParameterKey, Set<SearchHandler>> tempSearchHandlersByParameters,
+	        Map<String, List<SearchHandler>> tempSearchHandlersByRoutedResource,
 	        Map<String, Set<SearchHandler>> tempSearchHandlersByResource, SearchHandler searchHandler) {
 		for (String supportedVersion : searchHandler.getSearchConfig().getSupportedOpenmrsVersions()) {
 			try {
 				ModuleUtil.checkRequiredVersion(OpenmrsConstants.OPENMRS_VERSION_SHORT, supportedVersion);
 				//If the OpenMRS version is supported then
-				addSupportedSearchHandler(tempSearchHandlersByIds, tempSearchHandlersByParameters, searchHandler);
+				addSupportedSearchHandler(tempSearchHandlersByIds, tempSearchHandlersByRoutedResource, searchHandler);
 				addSearchHandlerToResourceMap(tempSearchHandlersByResource, searchHandler);
 			}
 			catch (ModuleException e) {
@@ -342,7 +309,7 @@ public class RestServiceImpl implements RestService {
 	}
 	
 	private void addSupportedSearchHandler(Map<SearchHandlerIdKey, SearchHandler> tempSearchHandlersByIds,
-	        Map<SearchHandlerParameterKey, Set<SearchHandler>> tempSearchHandlersByParameters, SearchHandler searchHandler) {
+	        Map<String, List<SearchHandler>> tempSearchHandlersByRoutedResource, SearchHandler searchHandler) {
 		SearchHandlerIdKey searchHanlderIdKey = new SearchHandlerIdKey(searchHandler);
 		SearchHandler previousSearchHandler = tempSearchHandlersByIds.put(searchHanlderIdKey, searchHandler);
 		if (previousSearchHandler != null) {
@@ -352,26 +319,13 @@ public class RestServiceImpl implements RestService {
 			        + ") must not have the same ID (" + config.getId() + ")");
 		}
 		
-		addSearchHandlerToParametersMap(tempSearchHandlersByParameters, searchHandler);
-	}
-	
-	private void addSearchHandlerToParametersMap(
-	        Map<SearchHandlerParameterKey, Set<SearchHandler>> tempSearchHandlersByParameters, SearchHandler searchHandler) {
-		for (SearchQuery searchQueries : searchHandler.getSearchConfig().getSearchQueries()) {
-			Set<String> parameters = new HashSet<String>(searchQueries.getRequiredParameters());
-			parameters.addAll(searchQueries.getOptionalParameters());
-			
-			for (String parameter : parameters) {
-				SearchHandlerParameterKey parameterKey = new SearchHandlerParameterKey(searchHandler.getSearchConfig()
-				        .getSupportedResource(), parameter);
-				Set<SearchHandler> list = tempSearchHandlersByParameters.get(parameterKey);
-				if (list == null) {
-					list = new HashSet<SearchHandler>();
-					tempSearchHandlersByParameters.put(parameterKey, list);
-				}
-				list.add(searchHandler);
-			}
+		String resource = searchHandler.getSearchConfig().getSupportedResource();
+		List<SearchHandler> handlers = tempSearchHandlersByRoutedResource.get(resource);
+		if (handlers == null) {
+			handlers = new ArrayList<SearchHandler>();
+			tempSearchHandlersByRoutedResource.put(resource, handlers);
 		}
+		handlers.add(searchHandler);
 	}
 	
 	private void addSearchHandlerToResourceMap(Map<String, Set<SearchHandler>> tempSearchHandlersByResource,
@@ -422,30 +376,12 @@ public class RestServiceImpl implements RestService {
 	public Resource getResourceBySupportedClass(Class<?> resourceClass) throws APIException {
 		initializeResources();
 		
-		if (HibernateProxy.class.isAssignableFrom(resourceClass)) {
-			resourceClass = resourceClass.getSuperclass();
-		}
-		
-		Resource resource = resourcesBySupportedClasses.get(resourceClass);
-		
-		if (resource == null) {
-			Entry<Class<?>, Resource> bestResourceEntry = null;
-			
-			for (Entry<Class<?>, Resource> resourceEntry : resourcesBySupportedClasses.entrySet()) {
-				if (resourceEntry.getKey().isAssignableFrom(resourceClass)) {
-					if (bestResourceEntry == null || bestResourceEntry.getKey().isAssignableFrom(resourceEntry.getKey())) {
-						bestResourceEntry = resourceEntry;
-					}
-				}
-			}
-			
-			if (bestResourceEntry != null) {
-				resource = bestResourceEntry.getValue();
-			}
-		}
+		// proxies and subclasses are resolved once, until resources are initialized again
+		TypeResolutionCache.Entry entry = TypeResolutionCache.get(resourceClass);
+		Resource resource = entry.getMostSpecific(resourcesBySupportedClasses);
 		
 		if (resource == null) {
-			throw new APIException("Unknown resource: " + resourceClass);
+			throw new APIException("Unknown resource: " + entry.getEntityClass());
 		} else {
 			return resource;
 		}
@@ -488,71 +424,8 @@ public class RestServiceImpl implements RestService {
 			}
 		}
 		
-		Set<String> searchParameters = new HashSet<String>(parameters.keySet());
-		searchParameters.removeAll(RestConstants.SPECIAL_REQUEST_PARAMETERS);
-		
-		Set<SearchHandler> candidateSearchHandlers = null;
-		for (String searchParameter : searchParameters) {
-			Set<SearchHandler> searchHandlers = searchHandlersByParameter.get(new SearchHandlerParameterKey(resourceName,
-			        searchParameter));
-			if (searchHandlers == null) {
-				return null; //Missing parameter so there's no handler.
-			} else if (candidateSearchHandlers == null) {
-				candidateSearchHandlers = new HashSet<SearchHandler>();
-				candidateSearchHandlers.addAll(searchHandlers);
-			} else {
-				//Eliminate candidate search handlers that do not include all parameters
-				candidateSearchHandlers.retainAll(searchHandlers);
-			}
-		}
-		
-		if (candidateSearchHandlers == null) {
-			return null;
-		} else {
-			eliminateCandidateSearchHandlersWithMissingRequiredParameters(candidateSearchHandlers, searchParameters);
-			
-			if (candidateSearchHandlers.isEmpty()) {
-				return null;
-			} else if (candidateSearchHandlers.size() == 1) {
-				return candidateSearchHandlers.iterator().next();
-			} else {
-				List<String> candidateSearchHandlerIds = new ArrayList<String>();
-				for (SearchHandler candidateSearchHandler : candidateSearchHandlers) {
-					candidateSearchHandlerIds.add(RestConstants.REQUEST_PROPERTY_FOR_SEARCH_ID + "="
-					        + candidateSearchHandler.getSearchConfig().getId());
-				}
-				throw new InvalidSearchException("The search is ambiguous. Please specify "
-				        + StringUtils.join(candidateSearchHandlerIds, " or "));
-			}
-		}
-	}
-	
-	/**
-	 * Eliminate search handlers with missing required parameters.
-	 * 
-	 * @param candidateSearchHandlers
-	 * @param searchParameters
-	 */
-	private void eliminateCandidateSearchHandlersWithMissingRequiredParameters(Set<SearchHandler> candidateSearchHandlers,
-	        Set<String> searchParameters) {
-		Iterator<SearchHandler> it = candidateSearchHandlers.iterator();
-		while (it.hasNext()) {
-			SearchHandler candidateSearchHandler = it.next();
-			boolean remove = true;
-			
-			for (SearchQuery candidateSearchQueries : candidateSearchHandler.getSearchConfig().getSearchQueries()) {
-				Set<String> requiredParameters = new HashSet<String>(candidateSearchQueries.getRequiredParameters());
-				requiredParameters.removeAll(searchParameters);
-				if (requiredParameters.isEmpty()) {
-					remove = false;
-					break;
-				}
-			}
-			
-			if (remove) {
-				it.remove();
-			}
-		}
+		SearchHandlerRouter router = searchHandlerRoutersByResource.get(resourceName);
+		return router == null ? null : router.route(parameters);
 	}
 	
 	/**
@@ -607,8 +480,9 @@ public class RestServiceImpl implements RestService {
 		resourceDefinitionsByNames = null;
 		resourcesBySupportedClasses = null;
 		searchHandlersByIds = null;
-		searchHandlersByParameter = null;
+		searchHandlerRoutersByResource = null;
 		searchHandlersByResource = null;
+		TypeResolutionCache.clear();
 		
 		initializeResources();
 		initializeSearchHandlers();
@@ -0,0 +1,179 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.api.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.resource.api.SearchHandler;
+import org.openmrs.module.webservices.rest.web.resource.api.SearchQuery;
+import org.openmrs.module.webservices.rest.web.response.InvalidSearchException;
+
+/**
+ * Picks the search handler of one resource for the parameters of a request. The parameters
+ * known to the handlers are numbered when the router is built, and each handler is compiled to
+ * a bitmask of all the parameters it accepts plus one bitmask of required parameters per
+ * {@link SearchQuery}. A handler matches if it accepts every parameter given and all required
+ * parameters of at least one of its queries are given.
+ * <p>
+ * Routers are immutable, and routing a request with no more than 64 distinct parameters known to
+ * the resource allocates nothing unless the search is ambiguous.
+ */
+class SearchHandlerRouter {
+	
+	private final List<SearchHandler> searchHandlers;
+	
+	private final Map<String, Integer> parameterBits = new HashMap<String, Integer>();
+	
+	private final int words;
+	
+	/**
+	 * The parameters accepted by each handler, <code>words</code> longs per handler
+	 */
+	private final long[] acceptedParameters;
+	
+	/**
+	 * The required parameters of each query of each handler, <code>words</code> longs per query
+	 */
+	private final long[][] requiredParameters;
+	
+	/**
+	 * @param searchHandlers the handlers of one resource, in the order they were registered
+	 */
+	SearchHandlerRouter(List<SearchHandler> searchHandlers) {
+		this.searchHandlers = Collections.unmodifiableList(new ArrayList<SearchHandler>(searchHandlers));
+		
+		for (SearchHandler searchHandler : this.searchHandlers) {
+			for (SearchQuery searchQuery : searchHandler.getSearchConfig().getSearchQueries()) {
+				addParameterBits(searchQuery.getRequiredParameters());
+				addParameterBits(searchQuery.getOptionalParameters());
+			}
+		}
+		words = Math.max(1, (parameterBits.size() + 63) / 64);
+		
+		acceptedParameters = new long[this.searchHandlers.size() * words];
+		requiredParameters = new long[this.searchHandlers.size()][];
+		for (int i = 0; i < this.searchHandlers.size(); i++) {
+			List<SearchQuery> searchQueries = new ArrayList<SearchQuery>(this.searchHandlers.get(i).getSearchConfig()
+			        .getSearchQueries());
+			requiredParameters[i] = new long[searchQueries.size() * words];
+			for (int j = 0; j < searchQueries.size(); j++) {
+				SearchQuery searchQuery = searchQueries.get(j);
+				for (String parameter : searchQuery.getRequiredParameters()) {
+					setBit(requiredParameters[i], j * words, parameterBits.get(parameter));
+					setBit(acceptedParameters, i * words, parameterBits.get(parameter));
+				}
+				for (String parameter : searchQuery.getOptionalParameters()) {
+					setBit(acceptedParameters, i * words, parameterBits.get(parameter));
+				}
+			}
+		}
+	}
+	
+	private void addParameterBits(Iterable<String> parameters) {
+		for (String parameter : parameters) {
+			if (!parameterBits.containsKey(parameter)) {
+				parameterBits.put(parameter, parameterBits.size());
+			}
+		}
+	}
+	
+	private static void setBit(long[] masks, int offset, int bit) {
+		masks[offset + (bit >>> 6)] |= 1L << (bit & 63);
+	}
+	
+	/**
+	 * @return the handlers routed to, in the order they were registered
+	 */
+	List<SearchHandler> getSearchHandlers() {
+		return searchHandlers;
+	}
+	
+	/**
+	 * Finds the handler for the given request parameters. Special parameters such as
+	 * <code>v</code> and <code>limit</code> are ignored.
+	 * 
+	 * @param parameters the request parameters
+	 * @return the only matching handler, or null if there is none or no search parameter is given
+	 * @throws InvalidSearchException if more than one handler matches
+	 */
+	SearchHandler route(Map<String, String[]> parameters) throws InvalidSearchException {
+		long single = 0;
+		long[] given = words == 1 ? null : new long[words];
+		boolean any = false;
+		for (String parameter : parameters.keySet()) {
+			if (RestConstants.SPECIAL_REQUEST_PARAMETERS.contains(parameter))
+				continue;
+			Integer bit = parameterBits.get(parameter);
+			if (bit == null)
+				return null; // no handler accepts this parameter
+			if (given == null) {
+				single |= 1L << bit;
+			} else {
+				setBit(given, 0, bit);
+			}
+			any = true;
+		}
+		if (!any)
+			return null;
+		
+		int found = -1;
+		for (int i = 0; i < searchHandlers.size(); i++) {
+			if (matches(i, single, given)) {
+				if (found >= 0)
+					throw ambiguous(single, given);
+				found = i;
+			}
+		}
+		return found < 0 ? null : searchHandlers.get(found);
+	}
+	
+	private boolean matches(int handler, long single, long[] given) {
+		for (int w = 0; w < words; w++) {
+			long givenWord = given == null ? single : given[w];
+			if ((givenWord & ~acceptedParameters[handler * words + w]) != 0)
+				return false;
+		}
+		
+		long[] required = requiredParameters[handler];
+		for (int offset = 0; offset < required.length; offset += words) {
+			boolean satisfied = true;
+			for (int w = 0; w < words && satisfied; w++) {
+				long givenWord = given == null ? single : given[w];
+				satisfied = (required[offset + w] & ~givenWord) == 0;
+			}
+			if (satisfied)
+				return true;
+		}
+		return false;
+	}
+	
+	private InvalidSearchException ambiguous(long single, long[] given) {
+		List<String> candidateSearchHandlerIds = new ArrayList<String>();
+		for (int i = 0; i < searchHandlers.size(); i++) {
+			if (matches(i, single, given)) {
+				candidateSearchHandlerIds.add(RestConstants.REQUEST_PROPERTY_FOR_SEARCH_ID + "="
+				        + searchHandlers.get(i).getSearchConfig().getId());
+			}
+		}
+		return new InvalidSearchException("The search is ambiguous. Please specify "
+		        + StringUtils.join(candidateSearchHandlerIds, " or "));
+	}
+	
+}
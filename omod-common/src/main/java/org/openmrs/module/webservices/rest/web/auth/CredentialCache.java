@@ -0,0 +1,245 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.auth;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.commons.codec.binary.Hex;
+import org.openmrs.api.context.UserContext;
+
+/**
+ * Remembers Basic authentication credentials once they have been verified, so that clients that
+ * send them with every request instead of keeping a session are not authenticated again, with a
+ * user lookup and a password hash, each time.
+ * <p>
+ * Credentials are keyed by a digest of the header salted with a random value chosen at startup, so
+ * that no password is kept in memory. Each entry holds a few idle {@link UserContext}s
+ * authenticated with those credentials; a request checks one out, uses it in place of its own
+ * and checks it back in, so that a context is never used by two requests at once. Entries expire
+ * after a time set by an admin, and all are forgotten whenever users, roles or passwords change.
+ * 
+ * @see CredentialCacheAdvice
+ * @see org.openmrs.module.webservices.rest.web.RestConstants#CREDENTIAL_CACHE_TTL_GLOBAL_PROPERTY_NAME
+ * @see org.openmrs.module.webservices.rest.web.filter.AuthorizationFilter
+ */
+public class CredentialCache {
+	
+	/**
+	 * The largest number of credentials remembered, the least recently used are forgotten first
+	 */
+	public static final int MAX_ENTRIES = 1000;
+	
+	/**
+	 * The largest number of idle contexts kept for the same credentials
+	 */
+	public static final int MAX_IDLE_CONTEXTS = 4;
+	
+	private static final CredentialCache instance = new CredentialCache();
+	
+	private final byte[] salt = new byte[16];
+	
+	private int generation;
+	
+	private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			if (size() > MAX_ENTRIES) {
+				eldest.getValue().invalidate();
+				return true;
+			}
+			return false;
+		}
+	};
+	
+	CredentialCache() {
+		new SecureRandom().nextBytes(salt);
+	}
+	
+	/**
+	 * @return the cache shared by all requests
+	 */
+	public static CredentialCache getInstance() {
+		return instance;
+	}
+	
+	/**
+	 * @param authorization the Authorization header
+	 * @return the entry for the given credentials, or null if they have not been verified or have
+	 *         expired
+	 * @should return the entry for verified credentials
+	 * @should return null for credentials not verified or expired
+	 */
+	public Entry get(String authorization) {
+		String key = getKey(authorization);
+		synchronized (entries) {
+			Entry entry = entries.get(key);
+			if (entry != null && entry.isExpired()) {
+				entries.remove(key);
+				entry.invalidate();
+				entry = null;
+			}
+			return entry;
+		}
+	}
+	
+	/**
+	 * Remembers that the given credentials have been verified
+	 * 
+	 * @param authorization the Authorization header
+	 * @param ttlSeconds how long to remember them
+	 * @return the new entry
+	 */
+	public Entry add(String authorization, int ttlSeconds) {
+		String key = getKey(authorization);
+		Entry entry = new Entry(System.currentTimeMillis() + ttlSeconds * 1000L);
+		synchronized (entries) {
+			Entry previous = entries.put(key, entry);
+			if (previous != null) {
+				previous.invalidate();
+			}
+		}
+		return entry;
+	}
+	
+	/**
+	 * Remembers that the given credentials have been verified, unless the cache was cleared since
+	 * the given generation was read, in which case they may have been verified against a user or
+	 * password that has changed meanwhile
+	 * 
+	 * @param authorization the Authorization header
+	 * @param ttlSeconds how long to remember them
+	 * @param generation the generation read before the credentials were verified
+	 * @return the new entry, or null if the credentials were not remembered
+	 * @should not remember credentials verified before the cache was cleared
+	 * @see #getGeneration()
+	 */
+	public Entry add(String authorization, int ttlSeconds, int generation) {
+		String key = getKey(authorization);
+		Entry entry = new Entry(System.currentTimeMillis() + ttlSeconds * 1000L);
+		synchronized (entries) {
+			if (generation != this.generation)
+				return null;
+			Entry previous = entries.put(key, entry);
+			if (previous != null) {
+				previous.invalidate();
+			}
+		}
+		return entry;
+	}
+	
+	/**
+	 * @return the number of times the cache has been cleared, to be read before verifying
+	 *         credentials that are then remembered with {@link #add(String, int, int)}
+	 */
+	public int getGeneration() {
+		synchronized (entries) {
+			return generation;
+		}
+	}
+	
+	/**
+	 * Forgets all credentials
+	 * 
+	 * @should forget all credentials and their idle contexts
+	 */
+	public void clear() {
+		synchronized (entries) {
+			generation++;
+			for (Iterator<Entry> it = entries.values().iterator(); it.hasNext();) {
+				it.next().invalidate();
+				it.remove();
+			}
+		}
+	}
+	
+	/**
+	 * @return the number of credentials remembered, including expired ones not yet removed
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+	
+	private String getKey(String authorization) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(salt);
+			return new String(Hex.encodeHex(digest.digest(authorization.getBytes(Charset.forName("UTF-8")))));
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("SHA-256 is not available", ex);
+		}
+	}
+	
+	/**
+	 * Verified credentials, with the idle contexts authenticated with them
+	 */
+	public static class Entry {
+		
+		private final long expiresAt;
+		
+		private final ConcurrentLinkedQueue<UserContext> idleContexts = new ConcurrentLinkedQueue<UserContext>();
+		
+		private volatile boolean valid = true;
+		
+		Entry(long expiresAt) {
+			this.expiresAt = expiresAt;
+		}
+		
+		boolean isExpired() {
+			return System.currentTimeMillis() >= expiresAt;
+		}
+		
+		void invalidate() {
+			valid = false;
+			idleContexts.clear();
+		}
+		
+		/**
+		 * @return an idle context authenticated with these credentials, or null if there is none
+		 */
+		public UserContext checkOut() {
+			return valid && !isExpired() ? idleContexts.poll() : null;
+		}
+		
+		/**
+		 * Makes a context authenticated with these credentials available to the next request,
+		 * unless the credentials have been forgotten meanwhile or enough contexts are idle
+		 * 
+		 * @param userContext
+		 */
+		public void checkIn(UserContext userContext) {
+			if (valid && !isExpired() && userContext.getAuthenticatedUser() != null
+			        && idleContexts.size() < MAX_IDLE_CONTEXTS) {
+				idleContexts.add(userContext);
+				if (!valid) {
+					idleContexts.clear();
+				}
+			}
+		}
+	
+	}
+	
+}
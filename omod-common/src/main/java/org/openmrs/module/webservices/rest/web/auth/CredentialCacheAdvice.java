@@ -0,0 +1,52 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.auth;
+
+import java.lang.reflect.Method;
+
+import org.springframework.aop.AfterReturningAdvice;
+
+/**
+ * Advice around the UserService that makes the {@link CredentialCache} forget all credentials
+ * whenever a user, role, privilege or password may have changed, i.e. after any method that
+ * changes them. Other methods, including the ones the API calls while checking privileges, leave
+ * the cache as it is.
+ */
+public class CredentialCacheAdvice implements AfterReturningAdvice {
+	
+	private static final String[] MUTATOR_PREFIXES = { "save", "create", "update", "change", "set", "void", "unvoid",
+	        "retire", "unretire", "purge", "delete", "grant", "revoke" };
+	
+	/**
+	 * @see org.springframework.aop.AfterReturningAdvice#afterReturning(java.lang.Object,
+	 *      java.lang.reflect.Method, java.lang.Object[], java.lang.Object)
+	 * @should keep the cache after lookups and privilege checks
+	 * @should clear the cache after a user changes
+	 */
+	@Override
+	public void afterReturning(Object returnValue, Method method, Object[] args, Object target) throws Throwable {
+		if (isMutator(method.getName())) {
+			CredentialCache.getInstance().clear();
+		}
+	}
+	
+	static boolean isMutator(String methodName) {
+		for (String prefix : MUTATOR_PREFIXES) {
+			if (methodName.startsWith(prefix))
+				return true;
+		}
+		return false;
+	}
+	
+}
@@ -0,0 +1,220 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.auth;
+
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.commons.codec.binary.Base64;
+
+/**
+ * Issues and verifies stateless session tokens, so that a client authenticated by one node can be
+ * recognized by any other node sharing the same keys, without a session or a database lookup. A
+ * token is <code>keyId.payload.signature</code>, where the payload is the URL safe base64 of the
+ * expiry time and the user's system id, and the signature is the HMAC-SHA256 of
+ * <code>keyId.payload</code> with the key's secret.
+ * <p>
+ * Tokens are signed with the first key and verified with whichever key they name, so keys are
+ * rotated by putting a new key first and removing the old one once the tokens it signed have
+ * expired. Removing every key revokes all tokens.
+ * 
+ * @see org.openmrs.module.webservices.rest.web.RestConstants#SESSION_TOKEN_KEYS_RUNTIME_PROPERTY_NAME
+ */
+public class SessionTokenSigner {
+	
+	private static final String ALGORITHM = "HmacSHA256";
+	
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	private static final Pattern KEY_ID = Pattern.compile("[A-Za-z0-9_-]+");
+	
+	/**
+	 * The shortest secret accepted, in characters
+	 */
+	public static final int MIN_SECRET_LENGTH = 16;
+	
+	private final Map<String, SecretKeySpec> keys = new LinkedHashMap<String, SecretKeySpec>();
+	
+	private final long ttlMillis;
+	
+	private String signingKeyId;
+	
+	private SessionTokenSigner(int ttlSeconds) {
+		this.ttlMillis = ttlSeconds * 1000L;
+	}
+	
+	/**
+	 * Compiles the given keys
+	 * 
+	 * @param entries keys, each a key id and a secret separated by <code>:</code>, the first being
+	 *            used to sign
+	 * @param ttlSeconds how long issued tokens are valid
+	 * @return the signer
+	 * @throws IllegalArgumentException if there are no entries, an entry is not a valid key or
+	 *             ttlSeconds is not positive
+	 * @should sign tokens that verify to the user
+	 * @should not verify expired or tampered tokens
+	 * @should verify tokens signed with any of its keys
+	 * @should reject invalid keys
+	 */
+	public static SessionTokenSigner compile(Collection<String> entries, int ttlSeconds) {
+		if (ttlSeconds <= 0)
+			throw new IllegalArgumentException("The lifetime of session tokens must be positive");
+		if (entries.isEmpty())
+			throw new IllegalArgumentException("At least one key is required to sign session tokens");
+		SessionTokenSigner signer = new SessionTokenSigner(ttlSeconds);
+		for (String entry : entries) {
+			signer.add(entry);
+		}
+		return signer;
+	}
+	
+	/**
+	 * Compiles the given keys, leaving out the invalid ones
+	 * 
+	 * @param entries
+	 * @param ttlSeconds
+	 * @param invalidEntries collects the entries left out, may be null
+	 * @return the signer, or null if there are no valid entries or ttlSeconds is not positive
+	 */
+	public static SessionTokenSigner compileValid(Collection<String> entries, int ttlSeconds,
+	        Collection<String> invalidEntries) {
+		if (ttlSeconds <= 0)
+			return null;
+		SessionTokenSigner signer = new SessionTokenSigner(ttlSeconds);
+		for (String entry : entries) {
+			try {
+				signer.add(entry);
+			}
+			catch (IllegalArgumentException ex) {
+				if (invalidEntries != null) {
+					invalidEntries.add(entry);
+				}
+			}
+		}
+		return signer.signingKeyId == null ? null : signer;
+	}
+	
+	private void add(String entry) {
+		String trimmed = entry.trim();
+		int colon = trimmed.indexOf(':');
+		String keyId = colon < 0 ? "" : trimmed.substring(0, colon);
+		if (!KEY_ID.matcher(keyId).matches())
+			throw new IllegalArgumentException("Invalid key " + keyId
+			        + ", expected an id of letters, digits, '-' or '_' followed by ':' and a secret");
+		String secret = trimmed.substring(colon + 1);
+		if (secret.length() < MIN_SECRET_LENGTH)
+			throw new IllegalArgumentException("The secret of key " + keyId + " must be at least " + MIN_SECRET_LENGTH
+			        + " characters long");
+		if (keys.containsKey(keyId))
+			throw new IllegalArgumentException("Duplicate key " + keyId);
+		
+		keys.put(keyId, new SecretKeySpec(secret.getBytes(UTF8), ALGORITHM));
+		if (signingKeyId == null) {
+			signingKeyId = keyId;
+		}
+	}
+	
+	/**
+	 * @return how long issued tokens are valid, in seconds
+	 */
+	public int getTtl() {
+		return (int) (ttlMillis / 1000);
+	}
+	
+	/**
+	 * Issues a token for the given user, valid from now for the lifetime of this signer's tokens
+	 * 
+	 * @param systemId the system id of the user
+	 * @return the token
+	 */
+	public String sign(String systemId) {
+		return sign(systemId, System.currentTimeMillis() + ttlMillis);
+	}
+	
+	/**
+	 * Derives a key from the key tokens are signed with, for signing something other than tokens,
+	 * so that nodes sharing the keys of this signer share the derived key too
+	 * 
+	 * @param purpose what the key is used for, which gives each purpose its own key
+	 * @return the key, for HMAC-SHA256
+	 * @should derive the same key from the same signing key
+	 */
+	public SecretKeySpec deriveKey(String purpose) {
+		return new SecretKeySpec(mac(keys.get(signingKeyId), "derived:" + purpose), ALGORITHM);
+	}
+	
+	String sign(String systemId, long expiresAt) {
+		String payload = Base64.encodeBase64URLSafeString((expiresAt + ":" + systemId).getBytes(UTF8));
+		String signed = signingKeyId + "." + payload;
+		return signed + "." + Base64.encodeBase64URLSafeString(mac(keys.get(signingKeyId), signed));
+	}
+	
+	/**
+	 * Checks the signature and the expiry of a token. Nothing is looked up besides this signer's
+	 * keys.
+	 * 
+	 * @param token
+	 * @return the system id of the user the token was issued to, or null if the token is not well
+	 *         formed, is signed with an unknown key, has been tampered with or has expired
+	 */
+	public String verify(String token) {
+		int firstDot = token.indexOf('.');
+		int lastDot = token.lastIndexOf('.');
+		if (firstDot <= 0 || lastDot == firstDot)
+			return null;
+		SecretKeySpec key = keys.get(token.substring(0, firstDot));
+		if (key == null)
+			return null;
+		
+		byte[] expected = mac(key, token.substring(0, lastDot));
+		if (!MessageDigest.isEqual(expected, Base64.decodeBase64(token.substring(lastDot + 1))))
+			return null;
+		
+		String payload = new String(Base64.decodeBase64(token.substring(firstDot + 1, lastDot)), UTF8);
+		int colon = payload.indexOf(':');
+		if (colon <= 0)
+			return null;
+		try {
+			if (Long.parseLong(payload.substring(0, colon)) <= System.currentTimeMillis())
+				return null;
+		}
+		catch (NumberFormatException ex) {
+			return null;
+		}
+		String systemId = payload.substring(colon + 1);
+		return systemId.length() == 0 ? null : systemId;
+	}
+	
+	private static byte[] mac(SecretKeySpec key, String data) {
+		try {
+			// Mac instances are not thread safe, and are cheap to create compared to a database lookup
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(key);
+			return mac.doFinal(data.getBytes(UTF8));
+		}
+		catch (GeneralSecurityException ex) {
+			throw new IllegalStateException(ALGORITHM + " is not available", ex);
+		}
+	}
+	
+}
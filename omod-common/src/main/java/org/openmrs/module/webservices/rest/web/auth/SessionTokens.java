@@ -0,0 +1,127 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.auth;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openmrs.User;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.context.Daemon;
+import org.openmrs.api.context.UserContext;
+import org.openmrs.module.DaemonToken;
+import org.openmrs.module.webservices.rest.web.RestUtil;
+
+/**
+ * Issues session tokens with the keys currently configured, and turns verified tokens into
+ * authenticated user contexts.
+ * 
+ * @see SessionTokenSigner
+ * @see org.openmrs.module.webservices.rest.web.filter.AuthorizationFilter
+ */
+public class SessionTokens {
+	
+	private static final Log log = LogFactory.getLog(SessionTokens.class);
+	
+	/**
+	 * Prefix of the keys under which contexts of token users are kept in the
+	 * {@link CredentialCache}, which no Authorization header can start with
+	 */
+	static final String CACHE_KEY_PREFIX = "\0token:";
+	
+	/**
+	 * The request attribute set on requests authenticated by a session token. Such requests are
+	 * not issued a new token, or a stolen token could be renewed for ever.
+	 */
+	public static final String AUTHENTICATED_BY_TOKEN_ATTRIBUTE = SessionTokens.class.getName() + ".authenticatedByToken";
+	
+	private static volatile DaemonToken daemonToken;
+	
+	private SessionTokens() {
+	}
+	
+	/**
+	 * Sets the token this module was given to run code as the daemon user, which is needed to
+	 * become the user named by a session token without their password
+	 * 
+	 * @param token
+	 */
+	public static void setDaemonToken(DaemonToken token) {
+		daemonToken = token;
+	}
+	
+	/**
+	 * @param user
+	 * @return a session token for the given user, or null if no keys are configured
+	 */
+	public static String issue(User user) {
+		SessionTokenSigner signer = RestUtil.getSettings().getSessionTokenSigner();
+		return signer == null ? null : signer.sign(user.getSystemId());
+	}
+	
+	/**
+	 * @param systemId the system id of a user named by a verified token
+	 * @return the key of the contexts of that user in the {@link CredentialCache}
+	 */
+	public static String getCacheKey(String systemId) {
+		return CACHE_KEY_PREFIX + systemId;
+	}
+	
+	/**
+	 * Authenticates a new context as the given user. The core API only lets a superuser become
+	 * another user, so this is done in a daemon thread, and costs a user lookup. Users that have
+	 * been retired since the token was issued are refused.
+	 * 
+	 * @param systemId the system id of a user named by a verified token
+	 * @return the context, or null if the user does not exist or is retired, or this module has no
+	 *         daemon token
+	 */
+	public static UserContext newUserContext(final String systemId) {
+		if (daemonToken == null) {
+			log.warn("Cannot accept session tokens before the module has been given a daemon token");
+			return null;
+		}
+		
+		final UserContext userContext = new UserContext();
+		final boolean[] authenticated = new boolean[1];
+		Thread thread = Daemon.runInDaemonThread(new Runnable() {
+			
+			@Override
+			public void run() {
+				try {
+					Context.setUserContext(userContext);
+					userContext.becomeUser(systemId);
+					User user = userContext.getAuthenticatedUser();
+					if (user == null || user.isRetired()) {
+						log.debug("Refusing the session token of missing or retired user " + systemId);
+						userContext.logout();
+					} else {
+						authenticated[0] = true;
+					}
+				}
+				catch (Exception ex) {
+					log.debug("Cannot become user " + systemId + " named by a session token", ex);
+				}
+			}
+		}, daemonToken);
+		try {
+			thread.join();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		return authenticated[0] ? userContext : null;
+	}
+	
+}
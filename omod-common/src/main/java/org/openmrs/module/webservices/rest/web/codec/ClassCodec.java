@@ -0,0 +1,54 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.codec;
+
+import org.openmrs.api.context.Context;
+import org.openmrs.module.webservices.rest.web.response.ConversionException;
+
+/**
+ * Converts class names to classes, using the OpenMRS class loader
+ */
+@SuppressWarnings("rawtypes")
+class ClassCodec implements TypeCodec<Class> {
+	
+	/**
+	 * @see TypeCodec#getType()
+	 */
+	@Override
+	public Class<Class> getType() {
+		return Class.class;
+	}
+	
+	/**
+	 * @see TypeCodec#decode(String)
+	 */
+	@Override
+	public Class decode(String value) throws ConversionException {
+		try {
+			return Context.loadClass(value);
+		}
+		catch (ClassNotFoundException e) {
+			throw new ConversionException("Could not convert from " + String.class + " to " + Class.class, e);
+		}
+	}
+	
+	/**
+	 * @see TypeCodec#encode(Object)
+	 */
+	@Override
+	public Object encode(Class value) {
+		return value;
+	}
+	
+}
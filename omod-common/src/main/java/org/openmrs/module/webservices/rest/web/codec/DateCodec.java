@@ -0,0 +1,129 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.codec;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+import org.openmrs.module.webservices.rest.web.response.ConversionException;
+
+/**
+ * Reads dates in any of the ISO 8601 shapes accepted by this module, and writes them in the long
+ * ISO 8601 format <code>yyyy-MM-dd'T'HH:mm:ss.SSSZ</code> in the default time zone. The formatters
+ * are compiled once and are thread safe.
+ */
+public class DateCodec implements TypeCodec<Date> {
+	
+	private static final DateTimeFormatter DATE_TIME_MILLIS_ZONE = DateTimeFormat.forPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+	
+	private static final DateTimeFormatter DATE_TIME_MILLIS = DateTimeFormat.forPattern("yyyy-MM-dd'T'HH:mm:ss.SSS");
+	
+	private static final DateTimeFormatter DATE_TIME_ZONE = DateTimeFormat.forPattern("yyyy-MM-dd'T'HH:mm:ssZ");
+	
+	private static final DateTimeFormatter DATE_TIME = DateTimeFormat.forPattern("yyyy-MM-dd'T'HH:mm:ss");
+	
+	private static final DateTimeFormatter DATE_SPACE_TIME = DateTimeFormat.forPattern("yyyy-MM-dd HH:mm:ss");
+	
+	private static final DateTimeFormatter DATE = DateTimeFormat.forPattern("yyyy-MM-dd");
+	
+	/**
+	 * All supported formats, in the order they were historically tried
+	 */
+	private static final DateTimeFormatter[] SUPPORTED_FORMATS = { DATE_TIME_MILLIS_ZONE, DATE_TIME_MILLIS,
+	        DATE_TIME_ZONE, DATE_TIME, DATE_SPACE_TIME, DATE };
+	
+	/**
+	 * @see TypeCodec#getType()
+	 */
+	@Override
+	public Class<Date> getType() {
+		return Date.class;
+	}
+	
+	/**
+	 * Looks at the shape of the string once to pick the one format that can parse it, and only if
+	 * that fails tries every supported format in turn.
+	 * 
+	 * @see TypeCodec#decode(String)
+	 */
+	@Override
+	public Date decode(String value) throws ConversionException {
+		DateTimeFormatter likely = detectFormat(value);
+		try {
+			return DateTime.parse(value, likely).toDate();
+		}
+		catch (IllegalArgumentException ex) {}
+		
+		IllegalArgumentException pex = null;
+		for (DateTimeFormatter format : SUPPORTED_FORMATS) {
+			if (format == likely)
+				continue;
+			try {
+				return DateTime.parse(value, format).toDate();
+			}
+			catch (IllegalArgumentException ex) {
+				pex = ex;
+			}
+		}
+		throw new ConversionException(
+		        "Error converting date - correct format (ISO8601 Long): yyyy-MM-dd'T'HH:mm:ss.SSSZ", pex);
+	}
+	
+	/**
+	 * @see TypeCodec#encode(Object)
+	 */
+	@Override
+	public Object encode(Date value) {
+		return format(value);
+	}
+	
+	/**
+	 * Formats the date as <code>yyyy-MM-dd'T'HH:mm:ss.SSSZ</code> in the current default time zone
+	 * 
+	 * @param date
+	 * @return the formatted date
+	 */
+	public static String format(Date date) {
+		return DATE_TIME_MILLIS_ZONE.withZone(DateTimeZone.forTimeZone(TimeZone.getDefault())).print(date.getTime());
+	}
+	
+	/**
+	 * Picks the format matching the separators found in the string, in a single pass
+	 */
+	private static DateTimeFormatter detectFormat(String value) {
+		int timeStart = value.indexOf('T');
+		if (timeStart < 0) {
+			return value.indexOf(' ') < 0 ? DATE : DATE_SPACE_TIME;
+		}
+		boolean millis = false;
+		boolean zone = false;
+		for (int i = timeStart + 1; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '.') {
+				millis = true;
+			} else if (c == '+' || c == '-' || c == 'Z') {
+				zone = true;
+			}
+		}
+		if (millis) {
+			return zone ? DATE_TIME_MILLIS_ZONE : DATE_TIME_MILLIS;
+		}
+		return zone ? DATE_TIME_ZONE : DATE_TIME;
+	}
+	
+}
@@ -0,0 +1,67 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.codec;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Looks up enum constants by name in a table built once per enum class, with the same result as
+ * {@link Enum#valueOf(Class, String)}
+ * 
+ * @param <E> the enum type
+ */
+class EnumCodec<E extends Enum<E>> implements TypeCodec<E> {
+	
+	private final Class<E> type;
+	
+	private final Map<String, E> constants;
+	
+	EnumCodec(Class<E> type) {
+		this.type = type;
+		E[] values = type.getEnumConstants();
+		constants = new HashMap<String, E>(values.length * 2);
+		for (E value : values) {
+			constants.put(value.name(), value);
+		}
+	}
+	
+	/**
+	 * @see TypeCodec#getType()
+	 */
+	@Override
+	public Class<E> getType() {
+		return type;
+	}
+	
+	/**
+	 * @see TypeCodec#decode(String)
+	 */
+	@Override
+	public E decode(String value) {
+		E constant = constants.get(value);
+		if (constant == null)
+			throw new IllegalArgumentException("No enum constant " + type.getCanonicalName() + "." + value);
+		return constant;
+	}
+	
+	/**
+	 * @see TypeCodec#encode(Object)
+	 */
+	@Override
+	public Object encode(E value) {
+		return value;
+	}
+	
+}
@@ -0,0 +1,49 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.codec;
+
+import java.util.Locale;
+
+import org.openmrs.util.LocaleUtility;
+
+/**
+ * Converts locale specifications such as "en_GB" to locales
+ */
+class LocaleCodec implements TypeCodec<Locale> {
+	
+	/**
+	 * @see TypeCodec#getType()
+	 */
+	@Override
+	public Class<Locale> getType() {
+		return Locale.class;
+	}
+	
+	/**
+	 * @see TypeCodec#decode(String)
+	 */
+	@Override
+	public Locale decode(String value) {
+		return LocaleUtility.fromSpecification(value);
+	}
+	
+	/**
+	 * @see TypeCodec#encode(Object)
+	 */
+	@Override
+	public Object encode(Locale value) {
+		return value;
+	}
+	
+}
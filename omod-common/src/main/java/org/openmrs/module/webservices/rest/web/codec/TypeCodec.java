@@ -0,0 +1,51 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.codec;
+
+import org.openmrs.module.webservices.rest.web.response.ConversionException;
+
+/**
+ * Converts between strings submitted by clients and a simple value type that has no resource or
+ * converter of its own, such as a date or an enum. Codecs are looked up through the
+ * {@link TypeCodecRegistry}, where modules can register their own.
+ * 
+ * @param <T> the type handled by this codec
+ */
+public interface TypeCodec<T> {
+	
+	/**
+	 * @return the type handled by this codec
+	 */
+	Class<T> getType();
+	
+	/**
+	 * Converts a string submitted by a client to a value of this codec's type
+	 * 
+	 * @param value the string, never null
+	 * @return the value
+	 * @throws ConversionException if the string is not a valid value
+	 */
+	T decode(String value) throws ConversionException;
+	
+	/**
+	 * Converts a value of this codec's type to what is sent to clients
+	 * 
+	 * @param value the value, never null
+	 * @return the representation of value, e.g. a string, or value itself if it needs no
+	 *         conversion
+	 * @throws ConversionException
+	 */
+	Object encode(T value) throws ConversionException;
+	
+}
@@ -0,0 +1,155 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.codec;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Holds the {@link TypeCodec}s used by
+ * {@link org.openmrs.module.webservices.rest.web.ConversionUtil} for simple value types. Dates,
+ * locales and classes are handled by built-in codecs; enums and types with a static
+ * <code>valueOf(String)</code> method get a codec created for them the first time they are needed.
+ * <p>
+ * Modules can add codecs for their own types, typically from their activator, with
+ * {@link #register(TypeCodec)}. A registered codec takes precedence over the built-in ones.
+ * <p>
+ * The codec found for each class is cached, so the hierarchy is only searched once per class.
+ */
+public class TypeCodecRegistry {
+	
+	private static final List<TypeCodec<?>> codecs = new CopyOnWriteArrayList<TypeCodec<?>>();
+	
+	private static final ConcurrentMap<Class<?>, TypeCodec<?>> decoders = new ConcurrentHashMap<Class<?>, TypeCodec<?>>();
+	
+	private static final ConcurrentMap<Class<?>, TypeCodec<?>> encoders = new ConcurrentHashMap<Class<?>, TypeCodec<?>>();
+	
+	/**
+	 * Cached for classes that have no codec
+	 */
+	private static final TypeCodec<?> nullCodec = new TypeCodec<Object>() {
+		
+		@Override
+		public Class<Object> getType() {
+			return Object.class;
+		}
+		
+		@Override
+		public Object decode(String value) {
+			return null;
+		}
+		
+		@Override
+		public Object encode(Object value) {
+			return value;
+		}
+	};
+	
+	static {
+		codecs.add(new DateCodec());
+		codecs.add(new LocaleCodec());
+		codecs.add(new ClassCodec());
+	}
+	
+	/**
+	 * Adds a codec, which takes precedence over codecs registered before it
+	 * 
+	 * @param codec
+	 */
+	public static void register(TypeCodec<?> codec) {
+		if (codec == null)
+			throw new IllegalArgumentException("codec is required");
+		codecs.add(0, codec);
+		clearCache();
+	}
+	
+	/**
+	 * Removes a codec added with {@link #register(TypeCodec)}
+	 * 
+	 * @param codec
+	 */
+	public static void unregister(TypeCodec<?> codec) {
+		codecs.remove(codec);
+		clearCache();
+	}
+	
+	/**
+	 * Forgets the codec found for each class
+	 */
+	public static void clearCache() {
+		decoders.clear();
+		encoders.clear();
+	}
+	
+	/**
+	 * Gets the codec to use to convert a string to the given class, i.e. the first registered
+	 * codec whose type can be assigned to toClass, or else a codec for an enum or for a class with
+	 * a static valueOf(String) method
+	 * 
+	 * @param toClass
+	 * @return the codec, or null if there is none
+	 * @should return the built-in date codec for dates
+	 * @should return the same enum codec each time
+	 * @should prefer registered codecs
+	 * @should return null for classes without a codec
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public static TypeCodec<?> getDecoder(Class<?> toClass) {
+		TypeCodec<?> codec = decoders.get(toClass);
+		if (codec == null) {
+			for (TypeCodec<?> candidate : codecs) {
+				if (toClass.isAssignableFrom(candidate.getType())) {
+					codec = candidate;
+					break;
+				}
+			}
+			if (codec == null && toClass.isEnum()) {
+				codec = new EnumCodec(toClass);
+			}
+			if (codec == null) {
+				codec = ValueOfCodec.forType(toClass);
+			}
+			if (codec == null) {
+				codec = nullCodec;
+			}
+			decoders.put(toClass, codec);
+		}
+		return codec == nullCodec ? null : codec;
+	}
+	
+	/**
+	 * Gets the codec to use to convert a value of the given class for sending to clients, i.e. the
+	 * first registered codec whose type valueClass can be assigned to
+	 * 
+	 * @param valueClass
+	 * @return the codec, or null if there is none
+	 */
+	public static TypeCodec<?> getEncoder(Class<?> valueClass) {
+		TypeCodec<?> codec = encoders.get(valueClass);
+		if (codec == null) {
+			codec = nullCodec;
+			for (TypeCodec<?> candidate : codecs) {
+				if (candidate.getType().isAssignableFrom(valueClass)) {
+					codec = candidate;
+					break;
+				}
+			}
+			encoders.put(valueClass, codec);
+		}
+		return codec == nullCodec ? null : codec;
+	}
+	
+}
@@ -0,0 +1,84 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.codec;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.openmrs.module.webservices.rest.web.response.ConversionException;
+
+/**
+ * Converts strings by calling the static <code>valueOf(String)</code> method of a type (e.g.
+ * Double, Integer, Boolean), which is looked up once when the codec is created
+ * 
+ * @param <T> the type
+ */
+class ValueOfCodec<T> implements TypeCodec<T> {
+	
+	private final Class<T> type;
+	
+	private final Method valueOf;
+	
+	private ValueOfCodec(Class<T> type, Method valueOf) {
+		this.type = type;
+		this.valueOf = valueOf;
+	}
+	
+	/**
+	 * @param type
+	 * @return a codec for type, or null if type has no static valueOf(String) method returning
+	 *         the type
+	 */
+	static <T> ValueOfCodec<T> forType(Class<T> type) {
+		try {
+			Method method = type.getMethod("valueOf", String.class);
+			if (Modifier.isStatic(method.getModifiers()) && type.isAssignableFrom(method.getReturnType())) {
+				return new ValueOfCodec<T>(type, method);
+			}
+		}
+		catch (Exception ex) {}
+		return null;
+	}
+	
+	/**
+	 * @see TypeCodec#getType()
+	 */
+	@Override
+	public Class<T> getType() {
+		return type;
+	}
+	
+	/**
+	 * @see TypeCodec#decode(String)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public T decode(String value) throws ConversionException {
+		try {
+			return (T) valueOf.invoke(null, value);
+		}
+		catch (Exception ex) {
+			throw new ConversionException("Don't know how to convert from " + String.class + " to " + type, ex);
+		}
+	}
+	
+	/**
+	 * @see TypeCodec#encode(Object)
+	 */
+	@Override
+	public Object encode(T value) {
+		return value;
+	}
+	
+}
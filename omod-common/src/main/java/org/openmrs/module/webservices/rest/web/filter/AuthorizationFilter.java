@@ -29,19 +29,27 @@ import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.context.UserContext;
 import org.openmrs.module.webservices.rest.web.RestConstants;
 import org.openmrs.module.webservices.rest.web.RestUtil;
+import org.openmrs.module.webservices.rest.web.auth.CredentialCache;
+import org.openmrs.module.webservices.rest.web.auth.SessionTokenSigner;
+import org.openmrs.module.webservices.rest.web.auth.SessionTokens;
 
 /**
  * Filter intended for all /ws/rest calls that allows the user to authenticate via Basic
- * authentication. (It will not fail on invalid or missing credentials. We count on the API to throw
- * exceptions if an unauthenticated user tries to do something they are not allowed to do.) <br/>
+ * authentication, or with a session token issued by the session resource of any node sharing the
+ * same keys, sent as <code>Authorization: Bearer token</code>. (It will not fail on invalid or
+ * missing credentials. We count on the API to throw exceptions if an unauthenticated user tries to
+ * do something they are not allowed to do.) <br/>
  * <br/>
  * IP address authorization is also performed based on the global property:
  * {@link RestConstants#ALLOWED_IPS_GLOBAL_PROPERTY_NAME}
  */
 public class AuthorizationFilter implements Filter {
 	
+	private static final String BEARER = "Bearer ";
+	
 	protected final Log log = LogFactory.getLog(getClass());
 	
 	/**
@@ -63,6 +71,10 @@ public class AuthorizationFilter implements Filter {
 	/**
 	 * @see javax.servlet.Filter#doFilter(javax.servlet.ServletRequest,
 	 *      javax.servlet.ServletResponse, javax.servlet.FilterChain)
+	 * @should authenticate the session of a request with verified credentials
+	 * @should run a request without a session with a context of verified credentials
+	 * @should run a request with a new session but no session cookie with a context of verified
+	 *         credentials
 	 */
 	@Override
 	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException,
@@ -86,19 +98,32 @@ public class AuthorizationFilter implements Filter {
 			
 			if (!Context.isAuthenticated()) {
 				String basicAuth = httpRequest.getHeader("Authorization");
-				if (basicAuth != null) {
-					// this is "Basic ${base64encode(username + ":" + password)}"
-					try {
-						basicAuth = basicAuth.substring(6); // remove the leading "Basic "
-						String decoded = new String(Base64.decodeBase64(basicAuth), Charset.forName("UTF-8"));
-						String[] userAndPass = decoded.split(":");
-						Context.authenticate(userAndPass[0], userAndPass[1]);
-						if (log.isDebugEnabled())
-							log.debug("authenticated " + userAndPass[0]);
+				if (basicAuth != null && basicAuth.startsWith(BEARER)) {
+					SessionTokenSigner signer = RestUtil.getSettings().getSessionTokenSigner();
+					String systemId = signer == null ? null : signer.verify(basicAuth.substring(BEARER.length()).trim());
+					if (systemId != null) {
+						doFilterWithSessionToken(systemId, request, response, chain);
+						return;
+					}
+				} else if (basicAuth != null) {
+					// a client that sent a session cookie relies on its session being authenticated for its
+					// next requests, so only requests without one can run with a context authenticated by
+					// an earlier request. The session that core creates for every request does not count,
+					// as a client that never sends cookies will not use it again.
+					int ttl = RestUtil.getSettings().getCredentialCacheTtl();
+					boolean stateless = httpRequest.getRequestedSessionId() == null;
+					CredentialCache.Entry verified = ttl > 0 && stateless ? CredentialCache.getInstance().get(basicAuth)
+					        : null;
+					if (verified != null) {
+						doFilterWithVerifiedCredentials(verified, basicAuth, request, response, chain);
+						return;
 					}
-					catch (Exception ex) {
-						// This filter never stops execution. If the user failed to
-						// authenticate, that will be caught later.
+					
+					// This filter never stops execution. If the user failed to
+					// authenticate, that will be caught later.
+					int generation = CredentialCache.getInstance().getGeneration();
+					if (authenticate(basicAuth) && ttl > 0 && stateless) {
+						CredentialCache.getInstance().add(basicAuth, ttl, generation);
 					}
 				}
 			}
@@ -107,4 +132,98 @@ public class AuthorizationFilter implements Filter {
 		// continue with the filter chain in all circumstances
 		chain.doFilter(request, response);
 	}
+	
+	/**
+	 * Handles a request without a session cookie whose credentials have been verified by an earlier
+	 * request with an idle context already authenticated with them, so that the password is not
+	 * checked again. If no context is idle, a new one is authenticated and kept for the next
+	 * requests.
+	 */
+	private void doFilterWithVerifiedCredentials(CredentialCache.Entry verified, String basicAuth,
+	        ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+		UserContext sessionContext = Context.getUserContext();
+		UserContext userContext = verified.checkOut();
+		if (userContext == null) {
+			userContext = new UserContext();
+			Context.setUserContext(userContext);
+			if (!authenticate(basicAuth)) {
+				Context.setUserContext(sessionContext);
+				chain.doFilter(request, response);
+				return;
+			}
+		}
+		
+		Context.setUserContext(userContext);
+		try {
+			chain.doFilter(request, response);
+		}
+		finally {
+			Context.setUserContext(sessionContext);
+			verified.checkIn(userContext);
+		}
+	}
+	
+	/**
+	 * Handles a request with a verified session token as the user it was issued to. The token
+	 * itself was checked without any lookup; the contexts of its user are kept in the
+	 * {@link CredentialCache} like those of verified Basic credentials, so the user is only looked
+	 * up when no context is idle.
+	 */
+	private void doFilterWithSessionToken(String systemId, ServletRequest request, ServletResponse response,
+	        FilterChain chain) throws IOException, ServletException {
+		int ttl = RestUtil.getSettings().getCredentialCacheTtl();
+		CredentialCache.Entry entry = null;
+		if (ttl > 0) {
+			String key = SessionTokens.getCacheKey(systemId);
+			int generation = CredentialCache.getInstance().getGeneration();
+			entry = CredentialCache.getInstance().get(key);
+			if (entry == null) {
+				entry = CredentialCache.getInstance().add(key, ttl, generation);
+			}
+		}
+		
+		UserContext userContext = entry == null ? null : entry.checkOut();
+		if (userContext == null) {
+			userContext = SessionTokens.newUserContext(systemId);
+			if (userContext == null) {
+				chain.doFilter(request, response);
+				return;
+			}
+		}
+		
+		UserContext sessionContext = Context.getUserContext();
+		Context.setUserContext(userContext);
+		request.setAttribute(SessionTokens.AUTHENTICATED_BY_TOKEN_ATTRIBUTE, Boolean.TRUE);
+		try {
+			chain.doFilter(request, response);
+		}
+		finally {
+			Context.setUserContext(sessionContext);
+			if (entry != null) {
+				entry.checkIn(userContext);
+			}
+		}
+	}
+	
+	/**
+	 * Authenticates the current user context with Basic credentials
+	 * 
+	 * @param basicAuth the Authorization header
+	 * @return whether the credentials are valid
+	 */
+	private boolean authenticate(String basicAuth) {
+		// this is "Basic ${base64encode(username + ":" + password)}"
+		try {
+			basicAuth = basicAuth.substring(6); // remove the leading "Basic "
+			String decoded = new String(Base64.decodeBase64(basicAuth), Charset.forName("UTF-8"));
+			String[] userAndPass = decoded.split(":");
+			Context.authenticate(userAndPass[0], userAndPass[1]);
+			if (log.isDebugEnabled())
+				log.debug("authenticated " + userAndPass[0]);
+			return true;
+		}
+		catch (Exception ex) {
+			return false;
+		}
+	}
 }
@@ -0,0 +1,82 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.filter;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openmrs.module.webservices.rest.web.ConversionMemo;
+
+/**
+ * Filter intended for all /ws/rest calls that remembers the ref and default representations
+ * converted while handling a GET request, so that objects referenced many times in one response
+ * are only converted once. Other methods change data, so their conversions are not remembered.
+ * 
+ * @see ConversionMemo
+ */
+public class ConversionMemoFilter implements Filter {
+	
+	protected final Log log = LogFactory.getLog(getClass());
+	
+	/**
+	 * @see javax.servlet.Filter#init(javax.servlet.FilterConfig)
+	 */
+	@Override
+	public void init(FilterConfig arg0) throws ServletException {
+		log.debug("Initializing REST WS conversion memo filter");
+	}
+	
+	/**
+	 * @see javax.servlet.Filter#destroy()
+	 */
+	@Override
+	public void destroy() {
+		log.debug("Destroying REST WS conversion memo filter");
+	}
+	
+	/**
+	 * @see javax.servlet.Filter#doFilter(javax.servlet.ServletRequest,
+	 *      javax.servlet.ServletResponse, javax.servlet.FilterChain)
+	 */
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException,
+	        ServletException {
+		if (!(request instanceof HttpServletRequest) || !"GET".equals(((HttpServletRequest) request).getMethod())) {
+			chain.doFilter(request, response);
+			return;
+		}
+		
+		ConversionMemo.begin();
+		try {
+			chain.doFilter(request, response);
+		}
+		finally {
+			ConversionMemo memo = ConversionMemo.end();
+			if (log.isDebugEnabled()) {
+				log.debug("Conversion memo for " + ((HttpServletRequest) request).getRequestURI() + ": " + memo.getHits()
+				        + " hits, " + memo.getMisses() + " misses (" + ConversionMemo.getTotalHits() + " hits, "
+				        + ConversionMemo.getTotalMisses() + " misses in total)");
+			}
+		}
+	}
+}
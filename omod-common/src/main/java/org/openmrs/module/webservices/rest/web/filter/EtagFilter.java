@@ -0,0 +1,44 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.filter;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+
+import org.openmrs.module.webservices.rest.web.RestUtil;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * Filter intended for all /ws/rest calls that adds an ETag to responses, and answers requests whose
+ * If-None-Match header still matches with 304 Not Modified, see {@link ShallowEtagHeaderFilter}.
+ * <p>
+ * The ETag is a hash of the body, so the whole body is held in memory until it is complete. That
+ * would defeat the responses meant to be written as they are produced, which are therefore sent
+ * without an ETag: streamed responses, responses the {@link GzipFilter} compresses, and files
+ * downloaded from clob storage and form resources.
+ */
+public class EtagFilter extends ShallowEtagHeaderFilter {
+	
+	/**
+	 * @see org.springframework.web.filter.OncePerRequestFilter#shouldNotFilter(javax.servlet.http.HttpServletRequest)
+	 * @should add an etag to a response held in memory
+	 * @should not add an etag to a streamed response
+	 * @should not add an etag to a compressed response
+	 */
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
+		return RestUtil.isStreamResponses() || GzipFilter.isCompressed(request) || GzipFilter.isDownload(request);
+	}
+	
+}
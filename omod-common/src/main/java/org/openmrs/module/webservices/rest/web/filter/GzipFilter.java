@@ -0,0 +1,128 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.filter;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.RestUtil;
+import org.openmrs.util.OpenmrsConstants;
+
+/**
+ * Filter intended for all /ws/rest calls that gzip compresses responses for clients that accept it,
+ * and decompresses request bodies sent gzip compressed. Like core's GZIPFilter, which it replaces,
+ * it does nothing unless core's {@link OpenmrsConstants#GLOBAL_PROPERTY_GZIP_ENABLED} setting is
+ * "true". Responses are only compressed once they reach the size set by
+ * {@link RestConstants#GZIP_MIN_SIZE_GLOBAL_PROPERTY_NAME}, with the level set by
+ * {@link RestConstants#GZIP_LEVEL_GLOBAL_PROPERTY_NAME}. Up to that size the body is held back, and
+ * from then on it is compressed as it is written, so large responses are never held in memory.
+ * <p>
+ * Content that is already compressed or encoded, and files downloaded from clob storage and form
+ * resources, are sent as they are.
+ * 
+ * @see GzipResponseWrapper
+ */
+public class GzipFilter implements Filter {
+	
+	protected final Log log = LogFactory.getLog(getClass());
+	
+	/**
+	 * @see javax.servlet.Filter#init(javax.servlet.FilterConfig)
+	 */
+	@Override
+	public void init(FilterConfig arg0) throws ServletException {
+		log.debug("Initializing REST WS gzip filter");
+	}
+	
+	/**
+	 * @see javax.servlet.Filter#destroy()
+	 */
+	@Override
+	public void destroy() {
+		log.debug("Destroying REST WS gzip filter");
+	}
+	
+	/**
+	 * @see javax.servlet.Filter#doFilter(javax.servlet.ServletRequest,
+	 *      javax.servlet.ServletResponse, javax.servlet.FilterChain)
+	 * @should not compress responses unless gzip is enabled
+	 * @should compress large responses for clients that accept gzip
+	 * @should decompress compressed request bodies
+	 */
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException,
+	        ServletException {
+		if (!(request instanceof HttpServletRequest) || !RestUtil.isGzipEnabled()) {
+			chain.doFilter(request, response);
+			return;
+		}
+		
+		HttpServletRequest httpRequest = (HttpServletRequest) request;
+		if (isCompressedBody(httpRequest)) {
+			request = new GzipRequestWrapper(httpRequest);
+		}
+		if (!isCompressed(httpRequest)) {
+			chain.doFilter(request, response);
+			return;
+		}
+		
+		GzipResponseWrapper wrapper = new GzipResponseWrapper((HttpServletResponse) response, RestUtil.getGzipMinSize(),
+		        RestUtil.getGzipLevel());
+		try {
+			chain.doFilter(request, wrapper);
+		}
+		finally {
+			wrapper.finish();
+		}
+	}
+	
+	/**
+	 * @param request
+	 * @return whether the response to the request is compressed, once it reaches the minimum size
+	 */
+	static boolean isCompressed(HttpServletRequest request) {
+		return RestUtil.isGzipEnabled() && acceptsGzip(request) && !isDownload(request) && RestUtil.getGzipLevel() != 0
+		        && RestUtil.getGzipMinSize() >= 0;
+	}
+	
+	private static boolean isCompressedBody(HttpServletRequest request) {
+		String contentEncoding = request.getHeader("Content-Encoding");
+		return contentEncoding != null && contentEncoding.toLowerCase().indexOf("gzip") >= 0;
+	}
+	
+	private static boolean acceptsGzip(HttpServletRequest request) {
+		String acceptEncoding = request.getHeader("Accept-Encoding");
+		return acceptEncoding != null && acceptEncoding.toLowerCase().indexOf("gzip") >= 0;
+	}
+	
+	/**
+	 * Clob storage and form resource values are files sent as they were uploaded, which are often
+	 * compressed already, and are written before their content type is known
+	 */
+	static boolean isDownload(HttpServletRequest request) {
+		String uri = request.getRequestURI();
+		return uri.indexOf("/clobdata/") >= 0 || (uri.indexOf("/resource/") >= 0 && uri.endsWith("/value"));
+	}
+}
@@ -0,0 +1,101 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.filter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+
+/**
+ * Request wrapper used by {@link GzipFilter} for requests with a gzip compressed body, which it
+ * decompresses as it is read.
+ */
+public class GzipRequestWrapper extends HttpServletRequestWrapper {
+	
+	private ServletInputStream stream;
+	
+	private BufferedReader reader;
+	
+	/**
+	 * @param request a request with a gzip compressed body
+	 */
+	public GzipRequestWrapper(HttpServletRequest request) {
+		super(request);
+	}
+	
+	/**
+	 * @see javax.servlet.ServletRequestWrapper#getInputStream()
+	 */
+	@Override
+	public ServletInputStream getInputStream() throws IOException {
+		if (reader != null)
+			throw new IllegalStateException("getReader() has already been called for this request");
+		return getStream();
+	}
+	
+	/**
+	 * @see javax.servlet.ServletRequestWrapper#getReader()
+	 */
+	@Override
+	public BufferedReader getReader() throws IOException {
+		if (reader == null) {
+			if (stream != null)
+				throw new IllegalStateException("getInputStream() has already been called for this request");
+			String encoding = getCharacterEncoding();
+			reader = new BufferedReader(new InputStreamReader(getStream(), encoding == null ? "ISO-8859-1" : encoding));
+		}
+		return reader;
+	}
+	
+	/**
+	 * The length of the decompressed body is not known until it has been read
+	 * 
+	 * @see javax.servlet.ServletRequestWrapper#getContentLength()
+	 */
+	@Override
+	public int getContentLength() {
+		return -1;
+	}
+	
+	private ServletInputStream getStream() throws IOException {
+		if (stream == null) {
+			final InputStream in = new GZIPInputStream(super.getInputStream());
+			stream = new ServletInputStream() {
+				
+				@Override
+				public int read() throws IOException {
+					return in.read();
+				}
+				
+				@Override
+				public int read(byte[] b, int off, int len) throws IOException {
+					return in.read(b, off, len);
+				}
+				
+				@Override
+				public void close() throws IOException {
+					in.close();
+				}
+			};
+		}
+		return stream;
+	}
+	
+}
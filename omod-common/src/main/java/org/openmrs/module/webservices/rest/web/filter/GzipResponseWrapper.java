@@ -0,0 +1,264 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Response wrapper used by {@link GzipFilter}. The body is held back until it reaches the minimum
+ * size, at which point the wrapper decides from the headers set so far whether to compress it, and
+ * from then on writes straight through to the response, compressing as it goes. Bodies that stay
+ * below the minimum size are sent uncompressed when the response is finished.
+ */
+public class GzipResponseWrapper extends HttpServletResponseWrapper {
+	
+	private static final String[] COMPRESSED_CONTENT_TYPES = { "image/", "audio/", "video/", "application/zip",
+	        "application/gzip", "application/x-gzip", "application/x-compress", "application/x-bzip2",
+	        "application/x-7z-compressed", "application/x-rar-compressed", "application/pdf",
+	        "application/octet-stream" };
+	
+	private final int minSize;
+	
+	private final int level;
+	
+	private GzipOutputStream stream;
+	
+	private PrintWriter writer;
+	
+	private int contentLength = -1;
+	
+	/**
+	 * @param response the response to write to
+	 * @param minSize the size in bytes from which the body is compressed
+	 * @param level the compression level, from 1 to 9
+	 */
+	public GzipResponseWrapper(HttpServletResponse response, int minSize, int level) {
+		super(response);
+		this.minSize = minSize;
+		this.level = level;
+	}
+	
+	/**
+	 * @see javax.servlet.ServletResponseWrapper#getOutputStream()
+	 */
+	@Override
+	public ServletOutputStream getOutputStream() throws IOException {
+		if (writer != null)
+			throw new IllegalStateException("getWriter() has already been called on this response");
+		if (stream == null)
+			stream = new GzipOutputStream();
+		return stream;
+	}
+	
+	/**
+	 * @see javax.servlet.ServletResponseWrapper#getWriter()
+	 */
+	@Override
+	public PrintWriter getWriter() throws IOException {
+		if (writer == null) {
+			if (stream != null)
+				throw new IllegalStateException("getOutputStream() has already been called on this response");
+			stream = new GzipOutputStream();
+			writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+		}
+		return writer;
+	}
+	
+	/**
+	 * The length of the body is only known once it is decided whether it is compressed
+	 * 
+	 * @see javax.servlet.ServletResponseWrapper#setContentLength(int)
+	 */
+	@Override
+	public void setContentLength(int len) {
+		contentLength = len;
+	}
+	
+	/**
+	 * @see javax.servlet.http.HttpServletResponseWrapper#setHeader(java.lang.String,
+	 *      java.lang.String)
+	 */
+	@Override
+	public void setHeader(String name, String value) {
+		if ("Content-Length".equalsIgnoreCase(name)) {
+			setContentLength(Integer.parseInt(value));
+		} else {
+			super.setHeader(name, value);
+		}
+	}
+	
+	/**
+	 * @see javax.servlet.ServletResponseWrapper#flushBuffer()
+	 */
+	@Override
+	public void flushBuffer() throws IOException {
+		if (writer != null) {
+			writer.flush();
+		} else if (stream != null) {
+			stream.flush();
+		}
+	}
+	
+	/**
+	 * @see javax.servlet.ServletResponseWrapper#reset()
+	 */
+	@Override
+	public void reset() {
+		super.reset();
+		resetBody();
+	}
+	
+	/**
+	 * @see javax.servlet.ServletResponseWrapper#resetBuffer()
+	 */
+	@Override
+	public void resetBuffer() {
+		super.resetBuffer();
+		resetBody();
+	}
+	
+	private void resetBody() {
+		if (stream != null && stream.target == null)
+			stream.buffer.reset();
+	}
+	
+	/**
+	 * Writes out whatever is still held back and ends the compressed stream, if any
+	 * 
+	 * @throws IOException
+	 */
+	public void finish() throws IOException {
+		if (writer != null) {
+			writer.flush();
+		}
+		if (stream != null) {
+			stream.finish();
+		} else if (contentLength >= 0) {
+			super.setContentLength(contentLength);
+		}
+	}
+	
+	/**
+	 * Whether the body can be compressed, judging by the headers set before it reached the minimum
+	 * size
+	 */
+	private boolean isCompressible() {
+		if (isCommitted() || containsHeader("Content-Encoding") || containsHeader("Content-Disposition"))
+			return false;
+		String contentType = getContentType();
+		if (contentType == null)
+			return true;
+		contentType = contentType.toLowerCase();
+		for (String compressed : COMPRESSED_CONTENT_TYPES) {
+			if (contentType.startsWith(compressed))
+				return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Holds back the body until it reaches the minimum size, then writes it through a gzip stream
+	 * or as it is
+	 */
+	private class GzipOutputStream extends ServletOutputStream {
+		
+		private ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.min(minSize, 8192));
+		
+		private OutputStream target;
+		
+		private boolean finished;
+		
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (finished)
+				throw new IOException("The response has already been written");
+			if (target == null) {
+				if (buffer.size() + len < minSize) {
+					buffer.write(b, off, len);
+					return;
+				}
+				start(isCompressible());
+			}
+			target.write(b, off, len);
+		}
+		
+		/**
+		 * Flushing before the minimum size is reached leaves the body held back, as the content
+		 * converters flush as soon as they are done writing
+		 */
+		@Override
+		public void flush() throws IOException {
+			if (target != null)
+				target.flush();
+		}
+		
+		@Override
+		public void close() throws IOException {
+			finish();
+		}
+		
+		private void start(boolean compress) throws IOException {
+			OutputStream out = getResponse().getOutputStream();
+			if (compress) {
+				setHeader("Content-Encoding", "gzip");
+				addHeader("Vary", "Accept-Encoding");
+				target = new GZIPOutputStream(out, 8192) {
+					
+					{
+						def.setLevel(level);
+					}
+				};
+			} else {
+				if (contentLength >= 0)
+					GzipResponseWrapper.super.setContentLength(contentLength);
+				target = out;
+			}
+			buffer.writeTo(target);
+			buffer = null;
+		}
+		
+		private void finish() throws IOException {
+			if (finished)
+				return;
+			if (target == null) {
+				if (buffer.size() == 0) {
+					finished = true;
+					return;
+				}
+				contentLength = buffer.size();
+				start(false);
+			}
+			finished = true;
+			if (target instanceof GZIPOutputStream) {
+				((GZIPOutputStream) target).finish();
+			}
+			target.flush();
+		}
+	}
+	
+}
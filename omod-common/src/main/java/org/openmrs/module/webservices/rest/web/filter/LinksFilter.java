@@ -0,0 +1,77 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.filter;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.RestUtil;
+
+/**
+ * Filter intended for all /ws/rest calls that turns off the hyperlinks in representations when the
+ * client asks for <code>links=none</code>, so that they are neither built nor sent. Paging links
+ * (next/prev) are still included, since they are needed to get the rest of the results.
+ * 
+ * @see RestConstants#REQUEST_PROPERTY_FOR_LINKS
+ */
+public class LinksFilter implements Filter {
+	
+	protected final Log log = LogFactory.getLog(getClass());
+	
+	/**
+	 * @see javax.servlet.Filter#init(javax.servlet.FilterConfig)
+	 */
+	@Override
+	public void init(FilterConfig arg0) throws ServletException {
+		log.debug("Initializing REST WS links filter");
+	}
+	
+	/**
+	 * @see javax.servlet.Filter#destroy()
+	 */
+	@Override
+	public void destroy() {
+		log.debug("Destroying REST WS links filter");
+	}
+	
+	/**
+	 * @see javax.servlet.Filter#doFilter(javax.servlet.ServletRequest,
+	 *      javax.servlet.ServletResponse, javax.servlet.FilterChain)
+	 */
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException,
+	        ServletException {
+		if (!RestConstants.LINKS_NONE.equals(request.getParameter(RestConstants.REQUEST_PROPERTY_FOR_LINKS))) {
+			chain.doFilter(request, response);
+			return;
+		}
+		
+		RestUtil.setLinksDisabled(true);
+		try {
+			chain.doFilter(request, response);
+		}
+		finally {
+			RestUtil.setLinksDisabled(false);
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.filter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.RestSettings;
+import org.openmrs.module.webservices.rest.web.RestUtil;
+import org.openmrs.module.webservices.rest.web.metrics.QueryStats;
+import org.openmrs.module.webservices.rest.web.metrics.RequestMetrics;
+
+/**
+ * Filter intended for all /ws/rest calls that times each request handled by a resource, including
+ * writing and compressing the response, and adds it to the metrics of its operation.
+ * <p>
+ * If query statistics are enabled, it also counts the SQL statements and entity loads of each
+ * request, returns them in the {@link RestConstants#QUERY_STATS_HEADER} header, added just before
+ * the body is written, and logs the requests issuing many statements with the conversions that
+ * issued them.
+ * 
+ * @see RequestMetrics
+ * @see QueryStats
+ */
+public class MetricsFilter implements Filter {
+	
+	protected final Log log = LogFactory.getLog(getClass());
+	
+	/**
+	 * @see javax.servlet.Filter#init(javax.servlet.FilterConfig)
+	 */
+	@Override
+	public void init(FilterConfig arg0) throws ServletException {
+		log.debug("Initializing REST WS metrics filter");
+	}
+	
+	/**
+	 * @see javax.servlet.Filter#destroy()
+	 */
+	@Override
+	public void destroy() {
+		log.debug("Destroying REST WS metrics filter");
+	}
+	
+	/**
+	 * @see javax.servlet.Filter#doFilter(javax.servlet.ServletRequest,
+	 *      javax.servlet.ServletResponse, javax.servlet.FilterChain)
+	 * @should return the statements and entity loads of the request in a header
+	 * @should log requests issuing at least as many statements as the threshold
+	 */
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException,
+	        ServletException {
+		RequestMetrics metrics = RequestMetrics.begin();
+		RestSettings settings = RestUtil.getSettings();
+		if (!settings.isQueryStatsEnabled() || !(request instanceof HttpServletRequest)) {
+			try {
+				chain.doFilter(request, response);
+			}
+			finally {
+				RequestMetrics.end();
+			}
+			return;
+		}
+		
+		QueryStats stats = new QueryStats();
+		metrics.setQueryStats(stats);
+		QueryStatsResponse wrapper = new QueryStatsResponse((HttpServletResponse) response, stats);
+		try {
+			chain.doFilter(request, wrapper);
+		}
+		finally {
+			RequestMetrics.end();
+			wrapper.addQueryStatsHeader();
+			if (stats.getStatements() >= settings.getQueryStatsLogThreshold()) {
+				HttpServletRequest httpRequest = (HttpServletRequest) request;
+				log.warn(httpRequest.getMethod() + " " + httpRequest.getRequestURI()
+				        + (httpRequest.getQueryString() == null ? "" : "?" + httpRequest.getQueryString()) + " issued "
+				        + stats.toHeaderValue() + stats.describe(10));
+			}
+		}
+	}
+	
+	/**
+	 * Adds the query statistics header when the body starts to be written, which is the last
+	 * moment headers can be added
+	 */
+	private static class QueryStatsResponse extends HttpServletResponseWrapper {
+		
+		private final QueryStats stats;
+		
+		private boolean headerAdded;
+		
+		public QueryStatsResponse(HttpServletResponse response, QueryStats stats) {
+			super(response);
+			this.stats = stats;
+		}
+		
+		void addQueryStatsHeader() {
+			if (!headerAdded && !isCommitted()) {
+				headerAdded = true;
+				((HttpServletResponse) getResponse()).setHeader(RestConstants.QUERY_STATS_HEADER, stats.toHeaderValue());
+			}
+		}
+		
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			addQueryStatsHeader();
+			return super.getOutputStream();
+		}
+		
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			addQueryStatsHeader();
+			return super.getWriter();
+		}
+		
+		@Override
+		public void flushBuffer() throws IOException {
+			addQueryStatsHeader();
+			super.flushBuffer();
+		}
+	}
+}
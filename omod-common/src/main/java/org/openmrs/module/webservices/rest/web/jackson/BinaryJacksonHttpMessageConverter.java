@@ -0,0 +1,109 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.jackson;
+
+import java.io.IOException;
+
+import org.openmrs.module.webservices.rest.web.Hyperlink;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads and writes request and response bodies in one of the binary encodings of the JSON data
+ * model supported by Jackson, such as Smile or CBOR. Representations are the same maps and lists
+ * that are written as JSON, so clients get exactly the same content in fewer bytes, and resources
+ * need no changes to support them.
+ * 
+ * @see SmileHttpMessageConverter
+ * @see CborHttpMessageConverter
+ */
+public abstract class BinaryJacksonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+	
+	private final ObjectMapper objectMapper;
+	
+	/**
+	 * @param factory the factory of the binary encoding
+	 * @param mediaType the media type of the encoding
+	 */
+	protected BinaryJacksonHttpMessageConverter(JsonFactory factory, MediaType mediaType) {
+		super(mediaType);
+		objectMapper = new ObjectMapper(factory);
+		objectMapper.addMixIn(Hyperlink.class, HyperlinkMixIn.class);
+	}
+	
+	/**
+	 * @see AbstractHttpMessageConverter#supports(Class)
+	 * @should only be chosen for the media type it was asked for
+	 */
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return objectMapper.canSerialize(clazz);
+	}
+	
+	/**
+	 * @see AbstractHttpMessageConverter#readInternal(Class, HttpInputMessage)
+	 */
+	@Override
+	protected Object readInternal(Class<? extends Object> clazz, HttpInputMessage inputMessage) throws IOException,
+	        HttpMessageNotReadableException {
+		try {
+			return objectMapper.readValue(inputMessage.getBody(), clazz);
+		}
+		catch (JsonProcessingException ex) {
+			throw new HttpMessageNotReadableException("Could not read " + getSupportedMediaTypes().get(0) + ": "
+			        + ex.getMessage(), ex);
+		}
+	}
+	
+	/**
+	 * @see AbstractHttpMessageConverter#writeInternal(Object, HttpOutputMessage)
+	 * @should write smile that reads back to the same representation
+	 * @should write cbor that reads back to the same representation
+	 * @should write fewer bytes than json
+	 */
+	@Override
+	protected void writeInternal(Object object, HttpOutputMessage outputMessage) throws IOException,
+	        HttpMessageNotWritableException {
+		JsonGenerator generator = objectMapper.getFactory().createGenerator(outputMessage.getBody());
+		try {
+			objectMapper.writeValue(generator, object);
+			generator.flush();
+		}
+		catch (JsonProcessingException ex) {
+			throw new HttpMessageNotWritableException("Could not write " + getSupportedMediaTypes().get(0) + ": "
+			        + ex.getMessage(), ex);
+		}
+	}
+	
+	/**
+	 * Leaves out the same properties of {@link Hyperlink} as its Jackson 1 annotations do for JSON
+	 */
+	abstract static class HyperlinkMixIn {
+		
+		@JsonIgnore
+		abstract String getResourceAlias();
+	
+	}
+	
+}
@@ -0,0 +1,32 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.jackson;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Reads and writes bodies in the Smile binary encoding of JSON, for clients that send or accept
+ * <code>application/x-jackson-smile</code>
+ */
+public class SmileHttpMessageConverter extends BinaryJacksonHttpMessageConverter {
+	
+	public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+	
+	public SmileHttpMessageConverter() {
+		super(new SmileFactory(), SMILE);
+	}
+	
+}
@@ -0,0 +1,193 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.openmrs.module.webservices.rest.SimpleObject;
+import org.openmrs.module.webservices.rest.web.ConversionMemo;
+import org.openmrs.module.webservices.rest.web.metrics.RequestMetrics.Phase;
+
+/**
+ * Holds the {@link OperationMetrics} of every combination of resource, operation, representation
+ * and search handler requested since startup, and shows them as JSON or in the Prometheus text
+ * format.
+ * 
+ * @see org.openmrs.module.webservices.rest.web.v1_0.controller.MetricsController
+ */
+public class MetricsRegistry {
+	
+	private static final MetricsRegistry instance = new MetricsRegistry();
+	
+	private static final double NANOS_PER_SECOND = 1e9;
+	
+	private static final double NANOS_PER_MILLI = 1e6;
+	
+	private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<String, OperationMetrics>();
+	
+	MetricsRegistry() {
+	}
+	
+	/**
+	 * @return the registry shared by all requests
+	 */
+	public static MetricsRegistry getInstance() {
+		return instance;
+	}
+	
+	/**
+	 * Adds a finished request to the metrics of its operation
+	 * 
+	 * @param request
+	 */
+	public void record(RequestMetrics request) {
+		getOperation(request.getResource(), request.getOperation(), request.getRepresentation(),
+		    request.getSearchHandler()).record(request);
+	}
+	
+	/**
+	 * @param resource
+	 * @param operation
+	 * @param representation
+	 * @param searchHandler may be null
+	 * @return the metrics of the given operation, created if there are none yet
+	 * @should return the same metrics for the same operation
+	 */
+	public OperationMetrics getOperation(String resource, String operation, String representation, String searchHandler) {
+		String key = resource + '\0' + operation + '\0' + representation + '\0' + searchHandler;
+		OperationMetrics metrics = operations.get(key);
+		if (metrics == null) {
+			metrics = new OperationMetrics(resource, operation, representation, searchHandler);
+			OperationMetrics existing = operations.putIfAbsent(key, metrics);
+			if (existing != null) {
+				metrics = existing;
+			}
+		}
+		return metrics;
+	}
+	
+	/**
+	 * @return the metrics of all operations requested so far
+	 */
+	public List<OperationMetrics> getOperations() {
+		return new ArrayList<OperationMetrics>(operations.values());
+	}
+	
+	/**
+	 * Forgets all metrics
+	 */
+	public void clear() {
+		operations.clear();
+	}
+	
+	/**
+	 * @return the metrics of all operations, with times in milliseconds
+	 */
+	public SimpleObject toSimpleObject() {
+		List<SimpleObject> list = new ArrayList<SimpleObject>();
+		for (OperationMetrics metrics : getOperations()) {
+			SimpleObject phases = new SimpleObject();
+			for (Phase phase : Phase.values()) {
+				phases.add(phase.getLabel(), metrics.getNanos(phase) / NANOS_PER_MILLI);
+			}
+			long count = metrics.getCount();
+			list.add(new SimpleObject().add("resource", metrics.getResource()).add("operation", metrics.getOperation())
+			        .add("representation", metrics.getRepresentation()).add("searchHandler", metrics.getSearchHandler())
+			        .add("count", count).add("errors", metrics.getErrors())
+			        .add("totalMillis", metrics.getTotalNanos() / NANOS_PER_MILLI)
+			        .add("meanMillis", count == 0 ? 0 : metrics.getTotalNanos() / NANOS_PER_MILLI / count)
+			        .add("p50Millis", toMillis(metrics.getPercentile(0.5)))
+			        .add("p95Millis", toMillis(metrics.getPercentile(0.95)))
+			        .add("p99Millis", toMillis(metrics.getPercentile(0.99))).add("phaseMillis", phases));
+		}
+		SimpleObject memo = new SimpleObject().add("hits", ConversionMemo.getTotalHits()).add("misses",
+		    ConversionMemo.getTotalMisses());
+		return new SimpleObject().add("operations", list).add("conversionMemo", memo);
+	}
+	
+	/**
+	 * Writes the metrics of all operations in the Prometheus text format, version 0.0.4
+	 * 
+	 * @param out
+	 * @throws IOException
+	 * @should write a histogram and phase counters for each operation
+	 */
+	public void writePrometheus(Writer out) throws IOException {
+		List<OperationMetrics> list = getOperations();
+		
+		out.write("# HELP openmrs_rest_request_duration_seconds Time taken to handle REST requests.\n");
+		out.write("# TYPE openmrs_rest_request_duration_seconds histogram\n");
+		for (OperationMetrics metrics : list) {
+			String labels = getLabels(metrics);
+			long[] counts = metrics.getBucketCounts();
+			long cumulative = 0;
+			for (int i = 0; i < counts.length; i++) {
+				cumulative += counts[i];
+				String le = i < OperationMetrics.BUCKETS.length ? String.valueOf(OperationMetrics.BUCKETS[i]) : "+Inf";
+				out.write("openmrs_rest_request_duration_seconds_bucket{" + labels + ",le=\"" + le + "\"} " + cumulative
+				        + "\n");
+			}
+			out.write("openmrs_rest_request_duration_seconds_sum{" + labels + "} " + metrics.getTotalNanos()
+			        / NANOS_PER_SECOND + "\n");
+			out.write("openmrs_rest_request_duration_seconds_count{" + labels + "} " + cumulative + "\n");
+		}
+		
+		out.write("# HELP openmrs_rest_request_phase_seconds_total Time spent in each phase of REST requests.\n");
+		out.write("# TYPE openmrs_rest_request_phase_seconds_total counter\n");
+		for (OperationMetrics metrics : list) {
+			String labels = getLabels(metrics);
+			for (Phase phase : Phase.values()) {
+				out.write("openmrs_rest_request_phase_seconds_total{" + labels + ",phase=\"" + phase.getLabel() + "\"} "
+				        + metrics.getNanos(phase) / NANOS_PER_SECOND + "\n");
+			}
+		}
+		
+		out.write("# HELP openmrs_rest_request_errors_total REST requests that failed.\n");
+		out.write("# TYPE openmrs_rest_request_errors_total counter\n");
+		for (OperationMetrics metrics : list) {
+			out.write("openmrs_rest_request_errors_total{" + getLabels(metrics) + "} " + metrics.getErrors() + "\n");
+		}
+		
+		out.write("# HELP openmrs_rest_conversion_memo_hits_total Conversions answered from a request's memo.\n");
+		out.write("# TYPE openmrs_rest_conversion_memo_hits_total counter\n");
+		out.write("openmrs_rest_conversion_memo_hits_total " + ConversionMemo.getTotalHits() + "\n");
+		out.write("# HELP openmrs_rest_conversion_memo_misses_total Conversions that were not in a request's memo.\n");
+		out.write("# TYPE openmrs_rest_conversion_memo_misses_total counter\n");
+		out.write("openmrs_rest_conversion_memo_misses_total " + ConversionMemo.getTotalMisses() + "\n");
+		out.flush();
+	}
+	
+	private static Object toMillis(double seconds) {
+		// JSON has no infinity
+		return Double.isInfinite(seconds) ? "+Inf" : (Object) (seconds * 1000);
+	}
+	
+	private static String getLabels(OperationMetrics metrics) {
+		return "resource=\"" + escape(metrics.getResource()) + "\",operation=\"" + escape(metrics.getOperation())
+		        + "\",representation=\"" + escape(metrics.getRepresentation()) + "\",search_handler=\""
+		        + escape(metrics.getSearchHandler()) + "\"";
+	}
+	
+	private static String escape(String value) {
+		if (value == null)
+			return "";
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+	
+}
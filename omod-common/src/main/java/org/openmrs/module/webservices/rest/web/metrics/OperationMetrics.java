@@ -0,0 +1,194 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.openmrs.module.webservices.rest.web.metrics.RequestMetrics.Phase;
+
+/**
+ * The counters and latency histogram of one operation on one resource, in one representation and
+ * through one search handler. All counters are updated without locks, so a snapshot taken while
+ * requests are recorded may be off by the requests being recorded.
+ */
+public class OperationMetrics {
+	
+	/**
+	 * The upper bounds of the histogram buckets, in seconds. A last bucket holds the slower
+	 * requests.
+	 */
+	public static final double[] BUCKETS = { 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10 };
+	
+	private static final long[] BUCKET_NANOS = new long[BUCKETS.length];
+	
+	static {
+		for (int i = 0; i < BUCKETS.length; i++) {
+			BUCKET_NANOS[i] = (long) (BUCKETS[i] * TimeUnit.SECONDS.toNanos(1));
+		}
+	}
+	
+	private final String resource;
+	
+	private final String operation;
+	
+	private final String representation;
+	
+	private final String searchHandler;
+	
+	private final AtomicLong count = new AtomicLong();
+	
+	private final AtomicLong errors = new AtomicLong();
+	
+	private final AtomicLong totalNanos = new AtomicLong();
+	
+	private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+	
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS.length + 1);
+	
+	public OperationMetrics(String resource, String operation, String representation, String searchHandler) {
+		this.resource = resource;
+		this.operation = operation;
+		this.representation = representation;
+		this.searchHandler = searchHandler;
+	}
+	
+	/**
+	 * Adds a finished request
+	 * 
+	 * @param request
+	 */
+	public void record(RequestMetrics request) {
+		long[] nanosByPhase = new long[Phase.values().length];
+		for (Phase phase : Phase.values()) {
+			nanosByPhase[phase.ordinal()] = request.getNanos(phase);
+		}
+		record(request.getTotalNanos(), nanosByPhase, request.isFailed());
+	}
+	
+	/**
+	 * Adds a finished request
+	 * 
+	 * @param nanos the total time of the request, in nanoseconds
+	 * @param nanosByPhase the time spent in each {@link Phase}, by ordinal
+	 * @param failed whether the request failed
+	 * @should count requests in the bucket of their total time
+	 * @should add up the time spent in each phase
+	 */
+	public void record(long nanos, long[] nanosByPhase, boolean failed) {
+		count.incrementAndGet();
+		if (failed) {
+			errors.incrementAndGet();
+		}
+		totalNanos.addAndGet(nanos);
+		for (int i = 0; i < nanosByPhase.length; i++) {
+			if (nanosByPhase[i] > 0) {
+				phaseNanos.addAndGet(i, nanosByPhase[i]);
+			}
+		}
+		int bucket = 0;
+		while (bucket < BUCKET_NANOS.length && nanos > BUCKET_NANOS[bucket]) {
+			bucket++;
+		}
+		buckets.incrementAndGet(bucket);
+	}
+	
+	public String getResource() {
+		return resource;
+	}
+	
+	public String getOperation() {
+		return operation;
+	}
+	
+	public String getRepresentation() {
+		return representation;
+	}
+	
+	/**
+	 * @return the id of the search handler, or null if none was used
+	 */
+	public String getSearchHandler() {
+		return searchHandler;
+	}
+	
+	/**
+	 * @return the number of requests
+	 */
+	public long getCount() {
+		return count.get();
+	}
+	
+	/**
+	 * @return the number of requests that failed
+	 */
+	public long getErrors() {
+		return errors.get();
+	}
+	
+	/**
+	 * @return the total time of all requests, in nanoseconds
+	 */
+	public long getTotalNanos() {
+		return totalNanos.get();
+	}
+	
+	/**
+	 * @param phase
+	 * @return the time all requests spent in phase, in nanoseconds
+	 */
+	public long getNanos(Phase phase) {
+		return phaseNanos.get(phase.ordinal());
+	}
+	
+	/**
+	 * @return the number of requests in each bucket of {@link #BUCKETS}, followed by the number of
+	 *         slower requests. Unlike Prometheus buckets, the counts are not cumulative.
+	 */
+	public long[] getBucketCounts() {
+		long[] counts = new long[buckets.length()];
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = buckets.get(i);
+		}
+		return counts;
+	}
+	
+	/**
+	 * Estimates a percentile of the total time from the histogram
+	 * 
+	 * @param percentile e.g. 0.95
+	 * @return the upper bound of the bucket holding the percentile, in seconds, infinity if it is
+	 *         in the last bucket, or 0 if there have been no requests
+	 * @should return the upper bound of the bucket holding the percentile
+	 */
+	public double getPercentile(double percentile) {
+		long[] counts = getBucketCounts();
+		long total = 0;
+		for (long c : counts) {
+			total += c;
+		}
+		if (total == 0)
+			return 0;
+		long rank = (long) Math.ceil(percentile * total);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS.length; i++) {
+			seen += counts[i];
+			if (seen >= rank)
+				return BUCKETS[i];
+		}
+		return Double.POSITIVE_INFINITY;
+	}
+	
+}
@@ -0,0 +1,58 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.metrics;
+
+import java.io.Serializable;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.type.Type;
+
+/**
+ * Counts the SQL statements and entity loads of the REST request handled by the current thread,
+ * if query statistics are enabled. The core chains the Hibernate interceptors defined by modules,
+ * and calls them on the thread that runs the query, so the counts are exact even when requests
+ * run concurrently.
+ * 
+ * @see QueryStats
+ */
+public class QueryCountInterceptor extends EmptyInterceptor {
+	
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * @see org.hibernate.EmptyInterceptor#onPrepareStatement(java.lang.String)
+	 */
+	@Override
+	public String onPrepareStatement(String sql) {
+		QueryStats stats = RequestMetrics.getCurrentQueryStats();
+		if (stats != null) {
+			stats.statementPrepared();
+		}
+		return sql;
+	}
+	
+	/**
+	 * @see org.hibernate.EmptyInterceptor#onLoad(java.lang.Object, java.io.Serializable,
+	 *      java.lang.Object[], java.lang.String[], org.hibernate.type.Type[])
+	 */
+	@Override
+	public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		QueryStats stats = RequestMetrics.getCurrentQueryStats();
+		if (stats != null) {
+			stats.entityLoaded();
+		}
+		return false;
+	}
+	
+}
@@ -0,0 +1,177 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openmrs.module.webservices.rest.web.TypeResolutionCache;
+import org.openmrs.module.webservices.rest.web.representation.Representation;
+
+/**
+ * Counts the SQL statements and entity loads of one request, and which conversions issued the
+ * statements. Conversions are identified by their path in the representation tree, e.g.
+ * <code>Encounter:full &gt; Obs:default &gt; Concept:ref</code>, so that a collection loaded
+ * once for every object of a page stands out as a path with as many statements as conversions.
+ * <p>
+ * Only used by the thread handling the request, through its {@link RequestMetrics}.
+ * 
+ * @see QueryCountInterceptor
+ * @see org.openmrs.module.webservices.rest.web.RestConstants#QUERY_STATS_ENABLED_GLOBAL_PROPERTY_NAME
+ */
+public class QueryStats {
+	
+	/**
+	 * The largest number of conversion paths counted, so that deep representations of large pages
+	 * cannot use up memory
+	 */
+	public static final int MAX_PATHS = 500;
+	
+	private static final String SEPARATOR = " > ";
+	
+	private final List<Frame> stack = new ArrayList<Frame>();
+	
+	private final Map<String, long[]> paths = new LinkedHashMap<String, long[]>();
+	
+	private long statements;
+	
+	private long entityLoads;
+	
+	/**
+	 * Counts a prepared SQL statement
+	 */
+	public void statementPrepared() {
+		statements++;
+	}
+	
+	/**
+	 * Counts an entity loaded from the database
+	 */
+	public void entityLoaded() {
+		entityLoads++;
+	}
+	
+	/**
+	 * @return the number of SQL statements prepared so far
+	 */
+	public long getStatements() {
+		return statements;
+	}
+	
+	/**
+	 * @return the number of entities loaded so far
+	 */
+	public long getEntityLoads() {
+		return entityLoads;
+	}
+	
+	/**
+	 * Marks the start of a conversion. A conversion of the object already being converted, e.g. by
+	 * a converter called through ConversionUtil, is counted as part of it.
+	 * 
+	 * @param delegate the object being converted
+	 * @param label the representation it is converted to
+	 * @should count statements by conversion path
+	 */
+	public void enter(Object delegate, String label) {
+		Frame top = stack.isEmpty() ? null : stack.get(stack.size() - 1);
+		if (top != null && top.delegate == delegate) {
+			top.reentries++;
+			return;
+		}
+		String name = TypeResolutionCache.get(delegate.getClass()).getEntityClass().getSimpleName() + ":" + label;
+		stack.add(new Frame(delegate, top == null ? name : top.path + SEPARATOR + name, statements));
+	}
+	
+	/**
+	 * Marks the end of the conversion started last
+	 */
+	public void exit() {
+		if (stack.isEmpty())
+			return;
+		Frame top = stack.get(stack.size() - 1);
+		if (top.reentries > 0) {
+			top.reentries--;
+			return;
+		}
+		stack.remove(stack.size() - 1);
+		long[] counts = paths.get(top.path);
+		if (counts == null) {
+			if (paths.size() >= MAX_PATHS)
+				return;
+			counts = new long[2];
+			paths.put(top.path, counts);
+		}
+		counts[0]++;
+		counts[1] += statements - top.statementsAtStart;
+	}
+	
+	/**
+	 * @return the value of the {@link org.openmrs.module.webservices.rest.web.RestConstants#QUERY_STATS_HEADER}
+	 *         header
+	 */
+	public String toHeaderValue() {
+		return "statements=" + statements + ", entities=" + entityLoads;
+	}
+	
+	/**
+	 * Describes the conversion paths that issued the most statements, including the statements
+	 * of the conversions nested in them
+	 * 
+	 * @param max the largest number of paths described
+	 * @return one line per path
+	 * @should list the paths that issued the most statements first
+	 */
+	public String describe(int max) {
+		List<Map.Entry<String, long[]>> entries = new ArrayList<Map.Entry<String, long[]>>(paths.entrySet());
+		Collections.sort(entries, new Comparator<Map.Entry<String, long[]>>() {
+			
+			@Override
+			public int compare(Map.Entry<String, long[]> a, Map.Entry<String, long[]> b) {
+				long difference = b.getValue()[1] - a.getValue()[1];
+				return difference < 0 ? -1 : difference > 0 ? 1 : 0;
+			}
+		});
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, long[]> entry : entries) {
+			if (max-- == 0 || entry.getValue()[1] == 0)
+				break;
+			sb.append("\n  ").append(entry.getValue()[1]).append(" statements in ").append(entry.getValue()[0]).append(
+			    " conversions of ").append(entry.getKey());
+		}
+		return sb.toString();
+	}
+	
+	private static class Frame {
+		
+		private final Object delegate;
+		
+		private final String path;
+		
+		private final long statementsAtStart;
+		
+		private int reentries;
+		
+		Frame(Object delegate, String path, long statementsAtStart) {
+			this.delegate = delegate;
+			this.path = path;
+			this.statementsAtStart = statementsAtStart;
+		}
+	}
+	
+}
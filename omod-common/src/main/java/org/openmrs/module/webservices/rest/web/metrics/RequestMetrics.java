@@ -0,0 +1,281 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.metrics;
+
+import org.openmrs.module.webservices.rest.web.RequestContext;
+import org.openmrs.module.webservices.rest.web.representation.CustomRepresentation;
+import org.openmrs.module.webservices.rest.web.representation.DefaultRepresentation;
+import org.openmrs.module.webservices.rest.web.representation.FullRepresentation;
+import org.openmrs.module.webservices.rest.web.representation.RefRepresentation;
+import org.openmrs.module.webservices.rest.web.representation.Representation;
+
+/**
+ * Times the phases of the request handled by the current thread. The time from the start of the
+ * request until its resource has been resolved is spent resolving, the time until the controller
+ * returns is spent fetching, and the time until the response has been written is spent
+ * serializing, except for the time spent converting objects to representations whenever that
+ * happens. Only the current phase and the time it started are kept, so moving between phases
+ * costs a call to {@link System#nanoTime()}.
+ * <p>
+ * Requests that are not handled by a resource, i.e. that never call
+ * {@link #resolved(String, String, RequestContext, String)}, are not recorded.
+ * 
+ * @see MetricsRegistry
+ * @see org.openmrs.module.webservices.rest.web.filter.MetricsFilter
+ */
+public class RequestMetrics {
+	
+	/**
+	 * The phases of a request, in the order they normally happen
+	 */
+	public enum Phase {
+		RESOLVE, FETCH, CONVERT, SERIALIZE;
+		
+		/**
+		 * @return the name of this phase as shown to clients
+		 */
+		public String getLabel() {
+			return name().toLowerCase();
+		}
+	}
+	
+	private static final ThreadLocal<RequestMetrics> current = new ThreadLocal<RequestMetrics>();
+	
+	private final long start = System.nanoTime();
+	
+	private final long[] phaseNanos = new long[Phase.values().length];
+	
+	private Phase phase = Phase.RESOLVE;
+	
+	private long phaseStart = start;
+	
+	private Phase phaseBeforeConversion;
+	
+	private int conversionDepth;
+	
+	private String resource;
+	
+	private String operation;
+	
+	private String representation;
+	
+	private String searchHandler;
+	
+	private boolean failed;
+	
+	private QueryStats queryStats;
+	
+	/**
+	 * Starts timing the request handled by the current thread
+	 * 
+	 * @return the new metrics
+	 */
+	public static RequestMetrics begin() {
+		RequestMetrics metrics = new RequestMetrics();
+		current.set(metrics);
+		return metrics;
+	}
+	
+	/**
+	 * Stops timing the request handled by the current thread, and adds it to the
+	 * {@link MetricsRegistry} if it was handled by a resource
+	 * 
+	 * @return the metrics that were used, or null if none were begun
+	 */
+	public static RequestMetrics end() {
+		RequestMetrics metrics = current.get();
+		current.remove();
+		if (metrics != null) {
+			metrics.switchTo(metrics.phase);
+			if (metrics.resource != null) {
+				MetricsRegistry.getInstance().record(metrics);
+			}
+		}
+		return metrics;
+	}
+	
+	/**
+	 * @return the metrics of the current thread, or null if the request is not being timed
+	 */
+	public static RequestMetrics getCurrent() {
+		return current.get();
+	}
+	
+	/**
+	 * @return the query statistics of the request handled by the current thread, or null if they
+	 *         are not being counted
+	 */
+	public static QueryStats getCurrentQueryStats() {
+		RequestMetrics metrics = current.get();
+		return metrics == null ? null : metrics.queryStats;
+	}
+	
+	/**
+	 * Marks the end of the resolve phase
+	 * 
+	 * @param resource the name of the resource, e.g. v1/obs
+	 * @param operation e.g. retrieve or search
+	 * @param context the context of the request, for the representation asked for
+	 * @param searchHandler the id of the search handler used, or null
+	 */
+	public static void resolved(String resource, String operation, RequestContext context, String searchHandler) {
+		RequestMetrics metrics = current.get();
+		if (metrics != null) {
+			metrics.resource = resource;
+			metrics.operation = operation;
+			metrics.representation = getLabel(context.getRepresentation());
+			metrics.searchHandler = searchHandler;
+			metrics.switchTo(Phase.FETCH);
+		}
+	}
+	
+	/**
+	 * Marks the end of the fetch phase. Controllers pass what they return through this method.
+	 * 
+	 * @param result what the controller returns
+	 * @return result
+	 */
+	public static <T> T handled(T result) {
+		RequestMetrics metrics = current.get();
+		if (metrics != null) {
+			metrics.switchTo(Phase.SERIALIZE);
+		}
+		return result;
+	}
+	
+	/**
+	 * Marks the request as failed, so that it is counted as an error
+	 */
+	public static void failed() {
+		RequestMetrics metrics = current.get();
+		if (metrics != null) {
+			metrics.failed = true;
+			metrics.switchTo(Phase.SERIALIZE);
+		}
+	}
+	
+	/**
+	 * Marks the start of a conversion, which may be nested in another. Every call must be followed
+	 * by a call to {@link #endConversion()} on the returned metrics.
+	 * 
+	 * @param delegate the object being converted
+	 * @param rep the representation it is converted to
+	 * @return the metrics of the current thread, or null if the request is not being timed
+	 */
+	public static RequestMetrics beginConversion(Object delegate, Representation rep) {
+		RequestMetrics metrics = current.get();
+		if (metrics != null) {
+			if (metrics.conversionDepth++ == 0) {
+				metrics.phaseBeforeConversion = metrics.phase;
+				metrics.switchTo(Phase.CONVERT);
+			}
+			if (metrics.queryStats != null) {
+				metrics.queryStats.enter(delegate, getLabel(rep));
+			}
+		}
+		return metrics;
+	}
+	
+	/**
+	 * Marks the end of a conversion started with {@link #beginConversion(Object, Representation)}
+	 */
+	public void endConversion() {
+		if (queryStats != null) {
+			queryStats.exit();
+		}
+		if (--conversionDepth == 0) {
+			switchTo(phaseBeforeConversion);
+		}
+	}
+	
+	private void switchTo(Phase next) {
+		long now = System.nanoTime();
+		phaseNanos[phase.ordinal()] += now - phaseStart;
+		phaseStart = now;
+		// a conversion returns to the phase it started in, unless that phase ended meanwhile
+		if (conversionDepth > 0 && next != Phase.CONVERT) {
+			phaseBeforeConversion = next;
+		} else {
+			phase = next;
+		}
+	}
+	
+	/**
+	 * Only the standard representations get a label of their own. Clients choose the
+	 * representation and operations are never forgotten, so other names would let any client add
+	 * operations without end.
+	 * 
+	 * @param rep
+	 * @return the label of rep in the metrics
+	 * @should label standard representations by name
+	 * @should label all other representations together
+	 */
+	static String getLabel(Representation rep) {
+		if (rep == null)
+			return "";
+		if (rep instanceof RefRepresentation || rep instanceof DefaultRepresentation || rep instanceof FullRepresentation)
+			return rep.getRepresentation().toLowerCase();
+		return rep instanceof CustomRepresentation ? "custom" : "named";
+	}
+	
+	/**
+	 * @return the total time of the request so far, in nanoseconds
+	 */
+	public long getTotalNanos() {
+		return phaseStart - start;
+	}
+	
+	/**
+	 * @param phase
+	 * @return the time spent in phase, in nanoseconds
+	 */
+	public long getNanos(Phase phase) {
+		return phaseNanos[phase.ordinal()];
+	}
+	
+	public String getResource() {
+		return resource;
+	}
+	
+	public String getOperation() {
+		return operation;
+	}
+	
+	public String getRepresentation() {
+		return representation;
+	}
+	
+	public String getSearchHandler() {
+		return searchHandler;
+	}
+	
+	public boolean isFailed() {
+		return failed;
+	}
+	
+	/**
+	 * @return the query statistics of this request, or null if they are not being counted
+	 */
+	public QueryStats getQueryStats() {
+		return queryStats;
+	}
+	
+	/**
+	 * @param queryStats the query statistics to count the statements of this request in
+	 */
+	public void setQueryStats(QueryStats queryStats) {
+		this.queryStats = queryStats;
+	}
+	
+}
@@ -13,6 +13,13 @@
  */
 package org.openmrs.module.webservices.rest.web.representation;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openmrs.module.webservices.rest.web.representation.CustomRepresentationParser.Field;
+
 /**
  * Implementation of {@link Representation} where the user specifies which properties they want
  * included
@@ -21,12 +28,64 @@ public class CustomRepresentation implements Representation {
 	
 	String specification;
 	
+	private volatile List<Field> fields;
+	
+	private volatile Map<Class<?>, Object> compiled = Collections.emptyMap();
+	
 	public CustomRepresentation(String specification) {
 		if (specification == null)
 			throw new IllegalArgumentException("specification is required");
 		this.specification = specification;
 	}
 	
+	/**
+	 * Used by {@link CustomRepresentationParser} for nested specifications it has already parsed
+	 */
+	CustomRepresentation(String specification, List<Field> fields) {
+		this(specification);
+		this.fields = fields;
+	}
+	
+	/**
+	 * Gets the properties requested by this representation, parsing the specification the first
+	 * time this is called
+	 * 
+	 * @return the parsed fields
+	 * @throws IllegalArgumentException if the specification is not well formed
+	 * @see CustomRepresentationParser#parse(String)
+	 */
+	public List<Field> getFields() {
+		if (fields == null) {
+			fields = CustomRepresentationParser.parse(specification);
+		}
+		return fields;
+	}
+	
+	/**
+	 * Gets what the given converter compiled from this representation, so that it is compiled once
+	 * for all the objects converted with the same instance rather than once per object
+	 * 
+	 * @param converterClass
+	 * @return the compiled form, or null if the converter has not compiled this representation
+	 * @should return what was compiled by the same converter only
+	 */
+	public Object getCompiled(Class<?> converterClass) {
+		return compiled.get(converterClass);
+	}
+	
+	/**
+	 * Keeps what the given converter compiled from this representation
+	 * 
+	 * @param converterClass
+	 * @param compiled
+	 * @see #getCompiled(Class)
+	 */
+	public synchronized void setCompiled(Class<?> converterClass, Object compiled) {
+		Map<Class<?>, Object> copy = new HashMap<Class<?>, Object>(this.compiled);
+		copy.put(converterClass, compiled);
+		this.compiled = copy;
+	}
+	
 	@Override
 	public String getRepresentation() {
 		return specification;
@@ -0,0 +1,186 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.representation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parses the specification of a {@link CustomRepresentation}, e.g.
+ * <code>(uuid,display,person:(gender,names:ref),links)</code>, into an immutable list of
+ * {@link Field}s. Nested specifications are parsed in the same pass and returned as
+ * {@link CustomRepresentation}s that already hold their own fields, so they are never parsed
+ * again.
+ * 
+ * <pre>
+ * specification := '(' [ field { ',' field } ] ')'
+ * field         := name [ ':' ( specification | name ) ]
+ * </pre>
+ */
+public class CustomRepresentationParser {
+	
+	private final String input;
+	
+	private int pos;
+	
+	private CustomRepresentationParser(String input) {
+		this.input = input;
+	}
+	
+	/**
+	 * Parses the given custom representation specification
+	 * 
+	 * @param specification
+	 * @return the fields of the specification, in the order given
+	 * @throws IllegalArgumentException if the specification is not well formed
+	 * @should parse simple properties
+	 * @should parse named representations of properties
+	 * @should parse nested custom representations
+	 * @should ignore whitespace around names
+	 * @should fail for unbalanced parentheses
+	 * @should fail for empty property names
+	 */
+	public static List<Field> parse(String specification) {
+		if (specification == null)
+			throw new IllegalArgumentException("specification is required");
+		CustomRepresentationParser parser = new CustomRepresentationParser(specification);
+		List<Field> fields = parser.parseSpecification();
+		parser.skipWhitespace();
+		if (parser.pos < specification.length())
+			throw parser.error("unexpected '" + specification.charAt(parser.pos) + "'");
+		return fields;
+	}
+	
+	private List<Field> parseSpecification() {
+		skipWhitespace();
+		expect('(');
+		List<Field> fields = new ArrayList<Field>();
+		skipWhitespace();
+		if (peek() == ')') {
+			pos++;
+			return Collections.unmodifiableList(fields);
+		}
+		while (true) {
+			fields.add(parseField());
+			skipWhitespace();
+			char c = peek();
+			pos++;
+			if (c == ')')
+				return Collections.unmodifiableList(fields);
+			if (c != ',')
+				throw error(c == 0 ? "missing ')'" : "expected ',' or ')'", pos - 1);
+		}
+	}
+	
+	private Field parseField() {
+		String name = parseName();
+		skipWhitespace();
+		if (peek() != ':')
+			return new Field(name, null);
+		pos++;
+		skipWhitespace();
+		if (peek() == '(') {
+			int start = pos;
+			List<Field> nested = parseSpecification();
+			return new Field(name, new CustomRepresentation(input.substring(start, pos), nested));
+		}
+		return new Field(name, toRepresentation(parseName()));
+	}
+	
+	private String parseName() {
+		skipWhitespace();
+		int start = pos;
+		while (pos < input.length() && !isDelimiter(input.charAt(pos))) {
+			pos++;
+		}
+		String name = input.substring(start, pos).trim();
+		if (name.length() == 0)
+			throw error("expected a name", start);
+		return name;
+	}
+	
+	private static Representation toRepresentation(String name) {
+		String normalized = name.toUpperCase();
+		if (normalized.equals("REF"))
+			return Representation.REF;
+		if (normalized.equals("DEFAULT"))
+			return Representation.DEFAULT;
+		if (normalized.equals("FULL"))
+			return Representation.FULL;
+		return new NamedRepresentation(name);
+	}
+	
+	private static boolean isDelimiter(char c) {
+		return c == '(' || c == ')' || c == ',' || c == ':';
+	}
+	
+	private void skipWhitespace() {
+		while (pos < input.length() && Character.isWhitespace(input.charAt(pos))) {
+			pos++;
+		}
+	}
+	
+	private char peek() {
+		return pos < input.length() ? input.charAt(pos) : 0;
+	}
+	
+	private void expect(char c) {
+		if (peek() != c)
+			throw error("expected '" + c + "'");
+		pos++;
+	}
+	
+	private IllegalArgumentException error(String message) {
+		return error(message, pos);
+	}
+	
+	private IllegalArgumentException error(String message, int at) {
+		return new IllegalArgumentException("Invalid custom representation " + input + ": " + message + " at position "
+		        + at);
+	}
+	
+	/**
+	 * A property requested by a custom representation, with the representation it was requested in
+	 */
+	public static class Field {
+		
+		private final String name;
+		
+		private final Representation representation;
+		
+		public Field(String name, Representation representation) {
+			this.name = name;
+			this.representation = representation;
+		}
+		
+		/**
+		 * @return the name of the property
+		 */
+		public String getName() {
+			return name;
+		}
+		
+		/**
+		 * @return the representation given after ':', or null if none was given. Nested
+		 *         specifications are returned as a {@link CustomRepresentation}, and names other
+		 *         than ref, default and full as a {@link NamedRepresentation}
+		 */
+		public Representation getRepresentation() {
+			return representation;
+		}
+	
+	}
+	
+}
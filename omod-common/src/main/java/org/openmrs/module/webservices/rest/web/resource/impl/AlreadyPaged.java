@@ -13,6 +13,7 @@
  */
 package org.openmrs.module.webservices.rest.web.resource.impl;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.openmrs.module.webservices.rest.web.RequestContext;
@@ -31,12 +32,56 @@ public class AlreadyPaged<T> extends BasePageableResult<T> {
 	
 	private boolean hasMoreResults;
 	
+	private String nextCursor;
+	
+	private Long totalCount;
+	
 	public AlreadyPaged(RequestContext context, List<T> results, boolean hasMoreResults) {
 		this.context = context;
 		this.results = results;
 		this.hasMoreResults = hasMoreResults;
 	}
 	
+	/**
+	 * @param context
+	 * @param results
+	 * @param hasMoreResults
+	 * @param nextCursor the cursor of the next page, for results paged by cursor
+	 * @see KeysetPager
+	 */
+	public AlreadyPaged(RequestContext context, List<T> results, boolean hasMoreResults, String nextCursor) {
+		this(context, results, hasMoreResults);
+		this.nextCursor = nextCursor;
+	}
+	
+	/**
+	 * @param context
+	 * @param results
+	 * @param hasMoreResults
+	 * @param totalCount the total number of results, or null if the client did not ask for it
+	 */
+	public AlreadyPaged(RequestContext context, List<T> results, boolean hasMoreResults, Long totalCount) {
+		this(context, results, hasMoreResults);
+		this.totalCount = totalCount;
+	}
+	
+	/**
+	 * Packages up the results of a search that asked for one more result than the limit of the
+	 * context, so that whether there are more results is known without counting them
+	 * 
+	 * @param context
+	 * @param results up to the limit of the context plus one results
+	 * @param totalCount the total number of results, or null if the client did not ask for it
+	 * @return the results up to the limit
+	 * @should have more results only if given more results than the limit
+	 */
+	public static <T> AlreadyPaged<T> fromLimitPlusOne(RequestContext context, List<T> results, Long totalCount) {
+		if (results.size() <= context.getLimit()) {
+			return new AlreadyPaged<T>(context, results, false, totalCount);
+		}
+		return new AlreadyPaged<T>(context, new ArrayList<T>(results.subList(0, context.getLimit())), true, totalCount);
+	}
+	
 	/**
 	 * @see org.openmrs.module.webservices.rest.web.resource.impl.BasePageableResult#getPageOfResults()
 	 */
@@ -53,4 +98,20 @@ public class AlreadyPaged<T> extends BasePageableResult<T> {
 		return hasMoreResults;
 	}
 	
+	/**
+	 * @see org.openmrs.module.webservices.rest.web.resource.impl.BasePageableResult#getNextCursor()
+	 */
+	@Override
+	public String getNextCursor() {
+		return nextCursor;
+	}
+	
+	/**
+	 * @see org.openmrs.module.webservices.rest.web.resource.impl.BasePageableResult#getTotalCount()
+	 */
+	@Override
+	public Long getTotalCount() {
+		return totalCount;
+	}
+	
 }
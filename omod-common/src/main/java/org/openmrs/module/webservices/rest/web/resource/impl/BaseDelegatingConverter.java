@@ -4,7 +4,6 @@ import org.apache.commons.beanutils.PropertyUtils;
 import org.openmrs.module.webservices.rest.SimpleObject;
 import org.openmrs.module.webservices.rest.util.ReflectionUtil;
 import org.openmrs.module.webservices.rest.web.ConversionUtil;
-import org.openmrs.module.webservices.rest.web.Hyperlink;
 import org.openmrs.module.webservices.rest.web.annotation.SubResource;
 import org.openmrs.module.webservices.rest.web.representation.Representation;
 import org.openmrs.module.webservices.rest.web.resource.api.Converter;
@@ -13,10 +12,9 @@ import org.openmrs.module.webservices.rest.web.response.ConversionException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A base implementation of a converter that can transform something that is _not_ a full resource
@@ -30,6 +28,18 @@ import java.util.Map;
  */
 public abstract class BaseDelegatingConverter<T> implements Converter<T>, DelegatingPropertyAccessor<T> {
 	
+	/**
+	 * Compiled representation plans, keyed by handler class and representation
+	 */
+	private final ConcurrentMap<String, RepresentationPlan> representationPlans = new ConcurrentHashMap<String, RepresentationPlan>();
+	
+	/**
+	 * The alias set on the links of this converter, lazily read from the resource annotations
+	 */
+	private volatile String resourceAlias;
+	
+	private volatile boolean resourceAliasResolved;
+	
 	/**
 	 * Gets the {@link DelegatingResourceDescription} for the given representation for this
 	 * resource, if it exists
@@ -53,11 +63,77 @@ public abstract class BaseDelegatingConverter<T> implements Converter<T>, Delega
 		if (delegate == null)
 			throw new NullPointerException();
 		
-		DelegatingResourceDescription description = getRepresentationDescription(rep);
-		SimpleObject simple = convertDelegateToRepresentation(delegate, description);
+		RepresentationPlan plan = getCachedRepresentationPlan(getClass(), rep);
+		if (plan == null) {
+			DelegatingResourceDescription description = getRepresentationDescription(rep);
+			if (description == null)
+				throw new NullPointerException();
+			plan = cacheRepresentationPlan(getClass(), rep, description);
+		}
+		SimpleObject simple = plan.execute(this, delegate);
 		return simple;
 	}
 	
+	/**
+	 * @param handlerClass the class of the handler that describes the representation
+	 * @param rep
+	 * @return the plan compiled earlier for the given handler class and representation, or null
+	 */
+	RepresentationPlan getCachedRepresentationPlan(Class<?> handlerClass, Representation rep) {
+		String key = RepresentationPlan.getCacheKey(handlerClass, rep);
+		if (key == null)
+			return null;
+		return representationPlans.get(key);
+	}
+	
+	/**
+	 * Compiles the given description and caches the plan for the given handler class and
+	 * representation, if that representation can be cached
+	 * 
+	 * @param handlerClass the class of the handler that describes the representation
+	 * @param rep
+	 * @param description the description returned by the handler for rep
+	 * @return the compiled plan
+	 */
+	RepresentationPlan cacheRepresentationPlan(Class<?> handlerClass, Representation rep,
+	        DelegatingResourceDescription description) {
+		RepresentationPlan plan = RepresentationPlan.compile(this, description);
+		String key = RepresentationPlan.getCacheKey(handlerClass, rep);
+		if (key != null) {
+			representationPlans.put(key, plan);
+		}
+		return plan;
+	}
+	
+	/**
+	 * Gets the alias set on links produced by this converter, i.e. the last path segment of its
+	 * {@link org.openmrs.module.webservices.rest.web.annotation.Resource} name, or the path of its
+	 * {@link SubResource}
+	 * 
+	 * @return the alias, or null if this converter is not annotated
+	 */
+	String getResourceAlias() {
+		if (!resourceAliasResolved) {
+			String alias = null;
+			org.openmrs.module.webservices.rest.web.annotation.Resource res = getClass().getAnnotation(
+			    org.openmrs.module.webservices.rest.web.annotation.Resource.class);
+			if (res != null) {
+				alias = res.name();
+				if (alias.contains("/")) {
+					alias = alias.substring(alias.lastIndexOf("/") + 1);
+				}
+			} else {
+				SubResource sub = getClass().getAnnotation(SubResource.class);
+				if (sub != null) {
+					alias = sub.path();
+				}
+			}
+			resourceAlias = alias;
+			resourceAliasResolved = true;
+		}
+		return resourceAlias;
+	}
+	
 	@Override
 	public Object getProperty(T instance, String propertyName) throws ConversionException {
 		try {
@@ -66,7 +142,7 @@ public abstract class BaseDelegatingConverter<T> implements Converter<T>, Delega
 				return annotatedGetter.invoke(this, instance);
 			}
 			
-			return PropertyUtils.getProperty(instance, propertyName);
+			return ReflectionUtil.getBeanProperty(instance, propertyName);
 		}
 		catch (Exception ex) {
 			throw new ConversionException("Unable to get property " + propertyName, ex);
@@ -129,35 +205,7 @@ public abstract class BaseDelegatingConverter<T> implements Converter<T>, Delega
 	        throws ConversionException {
 		if (delegate == null)
 			throw new NullPointerException();
-		SimpleObject ret = new SimpleObject();
-		for (Map.Entry<String, DelegatingResourceDescription.Property> e : rep.getProperties().entrySet()) {
-			ret.put(e.getKey(), e.getValue().evaluate(this, delegate));
-		}
-		List<Hyperlink> links = new ArrayList<Hyperlink>();
-		for (Hyperlink link : rep.getLinks()) {
-			if (link.getUri().startsWith(".")) {
-				link = new Hyperlink(link.getRel(), getUri(delegate) + link.getUri().substring(1));
-			}
-			
-			org.openmrs.module.webservices.rest.web.annotation.Resource res = getClass().getAnnotation(
-			    org.openmrs.module.webservices.rest.web.annotation.Resource.class);
-			if (res != null) {
-				String name = res.name();
-				if (name.contains("/")) {
-					name = name.substring(name.lastIndexOf("/") + 1);
-				}
-				link.setResourceAlias(name);
-			} else {
-				SubResource sub = getClass().getAnnotation(SubResource.class);
-				if (sub != null) {
-					link.setResourceAlias(sub.path());
-				}
-			}
-			links.add(link);
-		}
-		if (links.size() > 0)
-			ret.put("links", links);
-		return ret;
+		return RepresentationPlan.compile(this, rep).execute(this, delegate);
 	}
 	
 	/**
@@ -45,7 +45,9 @@ import org.openmrs.module.webservices.rest.web.annotation.PropertyGetter;
 import org.openmrs.module.webservices.rest.web.annotation.RepHandler;
 import org.openmrs.module.webservices.rest.web.annotation.SubClassHandler;
 import org.openmrs.module.webservices.rest.web.api.RestService;
+import org.openmrs.module.webservices.rest.web.metrics.RequestMetrics;
 import org.openmrs.module.webservices.rest.web.representation.CustomRepresentation;
+import org.openmrs.module.webservices.rest.web.representation.CustomRepresentationParser.Field;
 import org.openmrs.module.webservices.rest.web.representation.NamedRepresentation;
 import org.openmrs.module.webservices.rest.web.representation.RefRepresentation;
 import org.openmrs.module.webservices.rest.web.representation.Representation;
@@ -86,6 +88,43 @@ public abstract class BaseDelegatingResource<T> extends BaseDelegatingConverter<
 	 */
 	protected volatile List<DelegatingSubclassHandler<T, ? extends T>> subclassHandlers;
 	
+	/**
+	 * Index of {@link #subclassHandlers}, rebuilt whenever that list changes
+	 */
+	private volatile SubclassHandlerIndex<T> subclassHandlerIndex;
+	
+	/**
+	 * The class of the objects created by {@link #newDelegate()}, looked up the first time it is
+	 * needed
+	 */
+	private volatile Class<?> delegateClass;
+	
+	/**
+	 * The part of {@link #getUri(Object)} that follows the URI prefix and precedes the unique id,
+	 * taken from the {@link org.openmrs.module.webservices.rest.web.annotation.Resource} annotation
+	 * the first time it is needed. The prefix itself is read on each call, as it can be changed at
+	 * runtime.
+	 */
+	private volatile String resourcePath;
+	
+	private static final int CUSTOM_REPRESENTATION_CACHE_SIZE = 500;
+	
+	/**
+	 * Plans compiled from custom representations, keyed by resource class and specification, for
+	 * the first object converted with each new instance of a representation. The following ones use
+	 * the plan kept on the instance. Clients can ask for any number of different custom
+	 * representations, so only the most recently used ones are kept.
+	 */
+	@SuppressWarnings("serial")
+	private static final Map<String, RepresentationPlan> customRepresentationPlans = Collections
+	        .synchronizedMap(new LinkedHashMap<String, RepresentationPlan>(16, 0.75f, true) {
+		        
+		        @Override
+		        protected boolean removeEldestEntry(Entry<String, RepresentationPlan> eldest) {
+			        return size() > CUSTOM_REPRESENTATION_CACHE_SIZE;
+		        }
+	        });
+	
 	/**
 	 * Default constructor will set propertiesIgnoredWhenUpdating to include "display", "links", and
 	 * "resourceVersion"
@@ -150,6 +189,26 @@ public abstract class BaseDelegatingResource<T> extends BaseDelegatingConverter<
 		}
 		
 		subclassHandlers = tmpSubclassHandlers;
+		subclassHandlerIndex = new SubclassHandlerIndex<T>(tmpSubclassHandlers);
+	}
+	
+	/**
+	 * Gets the index of the registered subclass handlers, calling {@link #init()} first if needed,
+	 * and rebuilding the index if {@link #subclassHandlers} was changed directly
+	 * 
+	 * @return the index
+	 */
+	private SubclassHandlerIndex<T> getSubclassHandlerIndex() {
+		if (subclassHandlers == null) {
+			init();
+		}
+		List<DelegatingSubclassHandler<T, ? extends T>> handlers = subclassHandlers;
+		SubclassHandlerIndex<T> index = subclassHandlerIndex;
+		if (index == null || !index.isBuiltFrom(handlers)) {
+			index = new SubclassHandlerIndex<T>(handlers);
+			subclassHandlerIndex = index;
+		}
+		return index;
 	}
 	
 	private boolean versionMatches(String supportedVersion) {
@@ -167,7 +226,7 @@ public abstract class BaseDelegatingResource<T> extends BaseDelegatingConverter<
 	 * 
 	 * @param handler
 	 */
-	public void registerSubclassHandler(DelegatingSubclassHandler<T, ? extends T> handler) {
+	public synchronized void registerSubclassHandler(DelegatingSubclassHandler<T, ? extends T> handler) {
 		if (subclassHandlers == null) {
 			init();
 		}
@@ -177,7 +236,73 @@ public abstract class BaseDelegatingResource<T> extends BaseDelegatingConverter<
 				return;
 			}
 		}
-		subclassHandlers.add(handler);
+		List<DelegatingSubclassHandler<T, ? extends T>> handlers = new ArrayList<DelegatingSubclassHandler<T, ? extends T>>(
+		        subclassHandlers);
+		handlers.add(handler);
+		SubclassHandlerIndex<T> index = new SubclassHandlerIndex<T>(handlers);
+		subclassHandlers = handlers;
+		subclassHandlerIndex = index;
+	}
+	
+	/**
+	 * Does ahead of time the work otherwise left to the first requests for this resource. It finds
+	 * the subclass handlers, and compiles the ref, default and full representations of the resource
+	 * and of each subclass, or finds their @RepHandler methods. It also looks up the getters and
+	 * setters of their properties. Representations a handler does not support are skipped.
+	 * 
+	 * @see org.openmrs.module.webservices.rest.web.RestWarmUp
+	 */
+	public void warmUp() {
+		List<DelegatingResourceHandler<? extends T>> handlers = new ArrayList<DelegatingResourceHandler<? extends T>>();
+		handlers.add(this);
+		getSubclassHandlerIndex();
+		handlers.addAll(subclassHandlers);
+		
+		for (DelegatingResourceHandler<? extends T> handler : handlers) {
+			Class<?> handledClass;
+			try {
+				handledClass = handler == this ? getDelegateClass()
+				        : ((DelegatingSubclassHandler<?, ?>) handler).getSubclassHandled();
+			}
+			catch (RuntimeException ex) {
+				handledClass = null;
+			}
+			
+			for (Representation rep : new Representation[] { Representation.REF, Representation.DEFAULT,
+			        Representation.FULL }) {
+				try {
+					if (getCachedRepresentationPlan(handler.getClass(), rep) != null)
+						continue;
+					DelegatingResourceDescription description = handler.getRepresentationDescription(rep);
+					if (description == null) {
+						findAnnotatedMethodForRepresentation(handler.getClass(), rep);
+						continue;
+					}
+					cacheRepresentationPlan(handler.getClass(), rep, description);
+					for (Entry<String, Property> property : description.getProperties().entrySet()) {
+						if (ReflectionUtil.findPropertyGetterMethod(handler, property.getKey()) == null && handledClass != null
+						        && property.getValue().getDelegateProperty() != null) {
+							ReflectionUtil.findPropertyReadMethod(handledClass, property.getValue().getDelegateProperty());
+						}
+					}
+				}
+				catch (RuntimeException ex) {
+					log.debug("Cannot warm up " + rep.getRepresentation() + " representation of " + handler.getClass(), ex);
+				}
+			}
+			
+			try {
+				DelegatingResourceDescription creatable = handler.getCreatableProperties();
+				if (creatable != null) {
+					for (String property : creatable.getProperties().keySet()) {
+						ReflectionUtil.findPropertySetterMethod(handler, property);
+					}
+				}
+			}
+			catch (RuntimeException ex) {
+				// creating is not supported
+			}
+		}
 	}
 	
 	/**
@@ -319,15 +444,55 @@ public abstract class BaseDelegatingResource<T> extends BaseDelegatingConverter<
 	 */
 	@Override
 	public SimpleObject asRepresentation(T delegate, Representation representation) throws ConversionException {
+		return asRepresentation(delegate, representation, false);
+	}
+	
+	/**
+	 * Creates an object of the given representation, leaving its collection properties to be
+	 * converted while the response is written
+	 * 
+	 * @param delegate
+	 * @param representation
+	 * @return the representation of delegate
+	 * @throws ConversionException
+	 * @see LazyRepresentationList
+	 */
+	public SimpleObject asStreamingRepresentation(T delegate, Representation representation)
+	        throws ConversionException {
+		return asRepresentation(delegate, representation, true);
+	}
+	
+	private SimpleObject asRepresentation(T delegate, Representation representation, boolean lazyCollections)
+	        throws ConversionException {
 		if (delegate == null)
 			throw new NullPointerException();
 		
+		RequestMetrics metrics = RequestMetrics.beginConversion(delegate, representation);
+		try {
+			return convert(delegate, representation, lazyCollections);
+		}
+		finally {
+			if (metrics != null) {
+				metrics.endConversion();
+			}
+		}
+	}
+	
+	private SimpleObject convert(T delegate, Representation representation, boolean lazyCollections)
+	        throws ConversionException {
 		DelegatingResourceHandler<? extends T> handler = getResourceHandler(delegate);
 		
-		// first call getRepresentationDescription()
-		DelegatingResourceDescription repDescription = handler.getRepresentationDescription(representation);
-		if (repDescription != null) {
-			SimpleObject simple = convertDelegateToRepresentation(delegate, repDescription);
+		// first use a plan compiled from getRepresentationDescription()
+		RepresentationPlan plan = getCachedRepresentationPlan(handler.getClass(), representation);
+		DelegatingResourceDescription repDescription = null;
+		if (plan == null) {
+			repDescription = handler.getRepresentationDescription(representation);
+			if (repDescription != null) {
+				plan = cacheRepresentationPlan(handler.getClass(), representation, repDescription);
+			}
+		}
+		if (plan != null) {
+			SimpleObject simple = plan.execute(this, delegate, lazyCollections);
 			
 			maybeDecorateWithType(simple, delegate);
 			decorateWithResourceVersion(simple, representation);
@@ -358,72 +523,68 @@ public abstract class BaseDelegatingResource<T> extends BaseDelegatingConverter<
 		
 		// finally if it is a custom representation and not supported by any other handler
 		if (representation instanceof CustomRepresentation) {
-			repDescription = getCustomRepresentationDescription((CustomRepresentation) representation);
-			if (repDescription != null) {
-				SimpleObject simple = convertDelegateToRepresentation(delegate, repDescription);
-				
-				return simple;
-			}
+			plan = getCustomRepresentationPlan((CustomRepresentation) representation);
+			SimpleObject simple = plan.execute(this, delegate, lazyCollections);
+			
+			return simple;
 		}
 		
 		throw new ConversionException("Don't know how to get " + getClass().getSimpleName() + "(" + delegate.getClass()
 		        + ") as " + representation.getRepresentation(), null);
 	}
 	
+	/**
+	 * Gets the plan for a custom representation of this resource, compiling it the first time the
+	 * specification is seen. The plan is kept on the representation, which a request and its
+	 * nested representations reuse for every object, so the shared cache is only looked up once
+	 * per request and nesting level.
+	 * 
+	 * @param representation
+	 * @return the plan
+	 * @throws ConversionException if the specification is not well formed
+	 * @should compile the plan once for all objects converted with the same representation
+	 */
+	RepresentationPlan getCustomRepresentationPlan(CustomRepresentation representation) throws ConversionException {
+		RepresentationPlan plan = (RepresentationPlan) representation.getCompiled(getClass());
+		if (plan != null)
+			return plan;
+		
+		String key = getClass().getName() + ":" + representation.getRepresentation();
+		plan = customRepresentationPlans.get(key);
+		if (plan == null) {
+			plan = RepresentationPlan.compile(this, getCustomRepresentationDescription(representation));
+			customRepresentationPlans.put(key, plan);
+		}
+		representation.setCompiled(getClass(), plan);
+		return plan;
+	}
+	
 	/**
 	 * @should return delegating resource description
 	 */
-	private DelegatingResourceDescription getCustomRepresentationDescription(CustomRepresentation representation) {
-		DelegatingResourceDescription desc = new DelegatingResourceDescription();
+	private DelegatingResourceDescription getCustomRepresentationDescription(CustomRepresentation representation)
+	        throws ConversionException {
+		List<Field> fields;
+		try {
+			fields = representation.getFields();
+		}
+		catch (IllegalArgumentException ex) {
+			throw new ConversionException(ex.getMessage(), ex);
+		}
 		
-		String def = representation.getRepresentation();
-		def = def.substring(1, def.length() - 1); //remove '(' and ')'
-		String[] fragments = def.split(",");
-		for (int i = 0; i < fragments.length; i++) {
-			String[] field = fragments[i].split(":"); //split into field and representation
-			if (field.length == 1) {
-				if (!field[0].equals("links"))
-					desc.addProperty(field[0]);
-				if (field[0].equals("links")) {
+		DelegatingResourceDescription desc = new DelegatingResourceDescription();
+		for (Field field : fields) {
+			Representation rep = field.getRepresentation();
+			if (rep == null) {
+				if (field.getName().equals("links")) {
 					desc.addSelfLink();
 					desc.addLink("default", ".?v=" + RestConstants.REPRESENTATION_DEFAULT);
-				}
-			} else {
-				String property = field[0];
-				String rep = field[1];
-				
-				// if custom representation
-				if (rep.startsWith("(")) {
-					StringBuilder customRep = new StringBuilder();
-					customRep.append(rep);
-					int open = 1;
-					for (i = i + 1; i < fragments.length; i++) {
-						for (char fragment : fragments[i].toCharArray()) {
-							if (fragment == '(') {
-								open++;
-							} else if (fragment == ')') {
-								open--;
-							}
-						}
-						
-						customRep.append(",");
-						customRep.append(fragments[i]);
-						
-						if (open == 0) {
-							break;
-						}
-					}
-					desc.addProperty(property, new CustomRepresentation(customRep.toString()));
 				} else {
-					rep = rep.toUpperCase(); //normalize
-					if (rep.equals("REF")) {
-						desc.addProperty(property, Representation.REF);
-					} else if (rep.equals("FULL")) {
-						desc.addProperty(property, Representation.FULL);
-					} else if (rep.equals("DEFAULT")) {
-						desc.addProperty(property, Representation.DEFAULT);
-					}
+					desc.addProperty(field.getName());
 				}
+			} else if (!(rep instanceof NamedRepresentation)) {
+				// properties requested in any representation other than ref, default, full or custom are left out
+				desc.addProperty(field.getName(), rep);
 			}
 		}
 		
@@ -466,7 +627,7 @@ public abstract class BaseDelegatingResource<T> extends BaseDelegatingConverter<
 			DelegatingSubclassHandler<T, ? extends T> handler = getSubclassHandler(subclass);
 			if (handler != null)
 				return handler.getTypeName();
-			if (newDelegate().getClass().equals(subclass)) {
+			if (getDelegateClass().equals(SubclassHandlerIndex.getEntityClass(subclass))) {
 				String resourceName = getResourceName();
 				int lastSlash = resourceName.lastIndexOf("/");
 				resourceName = resourceName.substring(lastSlash + 1);
@@ -476,6 +637,16 @@ public abstract class BaseDelegatingResource<T> extends BaseDelegatingConverter<
 		return null;
 	}
 	
+	/**
+	 * @return the class of the objects created by {@link #newDelegate()}
+	 */
+	private Class<?> getDelegateClass() {
+		if (delegateClass == null) {
+			delegateClass = newDelegate().getClass();
+		}
+		return delegateClass;
+	}
+	
 	/**
 	 * @see #getTypeName(Class)
 	 */
@@ -540,26 +711,16 @@ public abstract class BaseDelegatingResource<T> extends BaseDelegatingConverter<
 	
 	/**
 	 * @param subclass
-	 * @return the handler most appropriate for the given subclass, or null if none is suitable
+	 * @return the handler most appropriate for the given subclass, i.e. the one for the class itself
+	 *         or else for its closest superclass (so e.g. a Hibernate proxy of a DrugOrder gets the
+	 *         DrugOrder handler), or null if none is suitable
 	 */
 	protected DelegatingSubclassHandler<T, ? extends T> getSubclassHandler(Class<? extends T> subclass) {
-		if (subclassHandlers == null) {
-			init();
-		}
+		SubclassHandlerIndex<T> index = getSubclassHandlerIndex();
 		
 		if (!hasTypesDefined())
 			return null;
-		// look for an exact match
-		for (DelegatingSubclassHandler<T, ? extends T> handler : subclassHandlers) {
-			Class<? extends T> subclassHandled = handler.getSubclassHandled();
-			if (subclass.equals(subclassHandled))
-				return handler;
-		}
-		
-		// TODO should we recurse to subclass's superclass, e.g. so DrugOrderHandler can handle HivDrugOrder if no handler is defined?
-		
-		// didn't find anything suitable
-		return null;
+		return index.getHandler(subclass);
 	}
 	
 	/**
@@ -568,13 +729,7 @@ public abstract class BaseDelegatingResource<T> extends BaseDelegatingConverter<
 	 */
 	protected DelegatingSubclassHandler<T, ? extends T> getSubclassHandler(String type) {
 		if (hasTypesDefined()) {
-			if (subclassHandlers == null) {
-				init();
-			}
-			for (DelegatingSubclassHandler<T, ? extends T> handler : subclassHandlers) {
-				if (type.equals(handler.getTypeName()))
-					return handler;
-			}
+			return getSubclassHandlerIndex().getHandler(type);
 		}
 		return null;
 	}
@@ -666,7 +821,7 @@ public abstract class BaseDelegatingResource<T> extends BaseDelegatingConverter<
 	 * @return
 	 */
 	private Method findAnnotatedMethodForRepresentation(Class<?> clazz, Representation rep) {
-		for (Method method : clazz.getMethods()) {
+		for (Method method : ReflectionUtil.findRepHandlerMethods(clazz)) {
 			RepHandler ann = method.getAnnotation(RepHandler.class);
 			if (ann != null) {
 				if (ann.value().isAssignableFrom(rep.getClass())) {
@@ -696,7 +851,7 @@ public abstract class BaseDelegatingResource<T> extends BaseDelegatingConverter<
 				return annotatedGetter.invoke(handler, instance);
 			}
 			
-			return PropertyUtils.getProperty(instance, propertyName);
+			return ReflectionUtil.getBeanProperty(instance, propertyName);
 		}
 		catch (Exception ex) {
 			// some properties are allowed to be missing, since they may have been added in later OpenMRS versions
@@ -830,12 +985,16 @@ public abstract class BaseDelegatingResource<T> extends BaseDelegatingConverter<
 		if (delegate == null)
 			return "";
 		
-		org.openmrs.module.webservices.rest.web.annotation.Resource res = getClass().getAnnotation(
-		    org.openmrs.module.webservices.rest.web.annotation.Resource.class);
-		if (res != null) {
-			return RestConstants.URI_PREFIX + res.name() + "/" + getUniqueId((T) delegate);
+		String path = resourcePath;
+		if (path == null) {
+			org.openmrs.module.webservices.rest.web.annotation.Resource res = getClass().getAnnotation(
+			    org.openmrs.module.webservices.rest.web.annotation.Resource.class);
+			if (res == null)
+				throw new RuntimeException(getClass() + " needs a @Resource or @SubResource annotation");
+			path = res.name() + "/";
+			resourcePath = path;
 		}
-		throw new RuntimeException(getClass() + " needs a @Resource or @SubResource annotation");
+		return RestConstants.URI_PREFIX + path + getUniqueId((T) delegate);
 	}
 	
 	/**
@@ -17,6 +17,7 @@ import org.openmrs.module.webservices.rest.SimpleObject;
 import org.openmrs.module.webservices.rest.web.ConversionUtil;
 import org.openmrs.module.webservices.rest.web.Hyperlink;
 import org.openmrs.module.webservices.rest.web.RequestContext;
+import org.openmrs.module.webservices.rest.web.RestConstants;
 import org.openmrs.module.webservices.rest.web.resource.api.Converter;
 import org.openmrs.module.webservices.rest.web.resource.api.PageableResult;
 import org.openmrs.module.webservices.rest.web.response.ResponseException;
@@ -38,22 +39,53 @@ public abstract class BasePageableResult<T> implements PageableResult {
 	
 	public abstract boolean hasMoreResults();
 	
+	/**
+	 * @return the cursor the next page is fetched with, or null if the results are paged by
+	 *         startIndex
+	 */
+	public String getNextCursor() {
+		return null;
+	}
+	
+	/**
+	 * @return the total number of results, or null if the client did not ask for it or it is not
+	 *         known
+	 * @see RequestContext#getTotalCount()
+	 */
+	public Long getTotalCount() {
+		return null;
+	}
+	
 	/**
 	 * @see PageableResult#toSimpleObject(Converter)
 	 */
 	@Override
 	public SimpleObject toSimpleObject(Converter preferredConverter) throws ResponseException {
-		List<Object> results = new ArrayList<Object>();
-		for (T match : getPageOfResults()) {
-			results.add(ConversionUtil.convertToRepresentation(match, context.getRepresentation(), preferredConverter));
+		List<Object> results;
+		if (context.isStreamResponses()) {
+			results = new LazyRepresentationList(getPageOfResults(), context.getRepresentation(), preferredConverter);
+		} else {
+			results = new ArrayList<Object>();
+			for (T match : getPageOfResults()) {
+				results.add(ConversionUtil.convertToRepresentation(match, context.getRepresentation(), preferredConverter));
+			}
 		}
 		
 		SimpleObject ret = new SimpleObject().add("results", results);
+		Long totalCount = getTotalCount();
+		if (totalCount != null) {
+			ret.add("totalCount", totalCount);
+			if (context.getResponse() != null) {
+				context.getResponse().setHeader(RestConstants.TOTAL_COUNT_HEADER, totalCount.toString());
+			}
+		}
 		boolean hasMore = hasMoreResults();
 		if (context.getStartIndex() > 0 || hasMore) {
 			List<Hyperlink> links = new ArrayList<Hyperlink>();
-			if (hasMore)
-				links.add(context.getNextLink());
+			if (hasMore) {
+				String nextCursor = getNextCursor();
+				links.add(nextCursor == null ? context.getNextLink() : context.getNextLink(nextCursor));
+			}
 			if (context.getStartIndex() > 0)
 				links.add(context.getPreviousLink());
 			ret.add("links", links);
@@ -56,7 +56,12 @@ public abstract class DelegatingCrudResource<T> extends BaseDelegatingResource<T
 		if (delegate == null)
 			throw new ObjectNotFoundException();
 		
-		SimpleObject ret = asRepresentation(delegate, context.getRepresentation());
+		SimpleObject ret;
+		if (context.isStreamResponses()) {
+			ret = asStreamingRepresentation(delegate, context.getRepresentation());
+		} else {
+			ret = asRepresentation(delegate, context.getRepresentation());
+		}
 		if (hasTypesDefined())
 			ret.add(RestConstants.PROPERTY_FOR_TYPE, getTypeName(delegate));
 		return ret;
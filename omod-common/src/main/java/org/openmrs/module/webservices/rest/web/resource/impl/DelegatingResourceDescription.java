@@ -245,9 +245,24 @@ public class DelegatingResourceDescription implements RepresentationDescription
 		}
 		
 		public <T> Object evaluate(BaseDelegatingConverter<T> converter, T delegate) throws ConversionException {
+			return evaluate(converter, delegate, false);
+		}
+		
+		/**
+		 * @param converter
+		 * @param delegate
+		 * @param lazyCollections whether a collection value should be returned as a
+		 *            {@link LazyRepresentationList}, whose elements are converted as it is written
+		 * @return the value of this property in the representation of delegate
+		 * @throws ConversionException
+		 */
+		public <T> Object evaluate(BaseDelegatingConverter<T> converter, T delegate, boolean lazyCollections)
+		        throws ConversionException {
 			if (delegateProperty != null) {
 				Object propVal = converter.getProperty(delegate, delegateProperty);
-				if (propVal instanceof Collection) {
+				if (propVal instanceof Collection && lazyCollections) {
+					return new LazyRepresentationList((Collection<?>) propVal, rep, getConvertAs());
+				} else if (propVal instanceof Collection) {
 					List<Object> ret = new ArrayList<Object>();
 					for (Object element : (Collection<?>) propVal)
 						ret.add(ConversionUtil.convertToRepresentation(element, rep, getConvertAs()));
@@ -49,6 +49,18 @@ public abstract class DelegatingSubResource<T, P, PR extends DelegatingCrudResou
 	
 	protected final Log log = LogFactory.getLog(getClass());
 	
+	/**
+	 * The part of {@link #getUri(Object)} between the parent's URI and the unique id, taken from
+	 * the {@link org.openmrs.module.webservices.rest.web.annotation.SubResource} annotation the
+	 * first time it is needed
+	 */
+	private volatile String subResourcePath;
+	
+	/**
+	 * The resource of the parent, looked up the first time it is needed
+	 */
+	private volatile PR parentResource;
+	
 	/**
 	 * @param instance
 	 * @return the parent of the given instance of this subresource
@@ -76,12 +88,17 @@ public abstract class DelegatingSubResource<T, P, PR extends DelegatingCrudResou
 	 */
 	@Override
 	public String getUri(Object instance) {
-		org.openmrs.module.webservices.rest.web.annotation.SubResource sub = getClass().getAnnotation(
-		    org.openmrs.module.webservices.rest.web.annotation.SubResource.class);
+		String path = subResourcePath;
+		if (path == null) {
+			org.openmrs.module.webservices.rest.web.annotation.SubResource sub = getClass().getAnnotation(
+			    org.openmrs.module.webservices.rest.web.annotation.SubResource.class);
+			path = "/" + sub.path() + "/";
+			subResourcePath = path;
+		}
 		@SuppressWarnings("unchecked")
 		T instanceAsT = (T) instance;
 		String parentUri = getParentUri(instanceAsT);
-		return parentUri + "/" + sub.path() + "/" + getUniqueId(instanceAsT);
+		return parentUri + path + getUniqueId(instanceAsT);
 	}
 	
 	/**
@@ -185,12 +202,17 @@ public abstract class DelegatingSubResource<T, P, PR extends DelegatingCrudResou
 	
 	@SuppressWarnings("unchecked")
 	private PR getParentResource() {
-		org.openmrs.module.webservices.rest.web.annotation.SubResource sub = getClass().getAnnotation(
-		    org.openmrs.module.webservices.rest.web.annotation.SubResource.class);
-		
-		org.openmrs.module.webservices.rest.web.annotation.Resource resource = sub.parent().getAnnotation(
-		    org.openmrs.module.webservices.rest.web.annotation.Resource.class);
-		return (PR) Context.getService(RestService.class).getResourceByName(resource.name());
+		PR parent = parentResource;
+		if (parent == null) {
+			org.openmrs.module.webservices.rest.web.annotation.SubResource sub = getClass().getAnnotation(
+			    org.openmrs.module.webservices.rest.web.annotation.SubResource.class);
+			
+			org.openmrs.module.webservices.rest.web.annotation.Resource resource = sub.parent().getAnnotation(
+			    org.openmrs.module.webservices.rest.web.annotation.Resource.class);
+			parent = (PR) Context.getService(RestService.class).getResourceByName(resource.name());
+			parentResource = parent;
+		}
+		return parent;
 	}
 	
 	@RepHandler(RefRepresentation.class)
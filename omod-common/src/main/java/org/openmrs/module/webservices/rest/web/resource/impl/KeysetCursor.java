@@ -0,0 +1,166 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.resource.impl;
+
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Date;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.commons.codec.binary.Base64;
+import org.openmrs.module.webservices.rest.web.RestUtil;
+import org.openmrs.module.webservices.rest.web.auth.SessionTokenSigner;
+import org.openmrs.module.webservices.rest.web.response.InvalidSearchException;
+
+/**
+ * The position of a client in a result set paged by keyset: the sort key, a date and an id, of the
+ * last object of the page it has seen. Clients get it as an opaque string, the URL safe base64 of
+ * <code>date:id</code> followed by <code>.</code> and an HMAC-SHA256 signature of that payload and
+ * of the query it was issued for. A cursor therefore cannot be edited, nor reused with a query it
+ * was not issued for.
+ * <p>
+ * Cursors are signed with a key derived from the session token keys of the runtime properties, see
+ * {@link SessionTokenSigner#deriveKey(String)}, so that any node sharing those keys accepts the
+ * cursors of the others, across restarts, until the signing key is rotated. Without session token
+ * keys, a key generated when the class is loaded is used instead, which only suits a single node,
+ * whose clients start paging from the beginning again after it restarts.
+ * 
+ * @see KeysetPager
+ */
+public class KeysetCursor {
+	
+	private static final String ALGORITHM = "HmacSHA256";
+	
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	private static final String KEY_PURPOSE = "keyset-cursor";
+	
+	private static final SecretKeySpec LOCAL_KEY;
+	
+	static {
+		byte[] secret = new byte[32];
+		new SecureRandom().nextBytes(secret);
+		LOCAL_KEY = new SecretKeySpec(secret, ALGORITHM);
+	}
+	
+	private final Date date;
+	
+	private final Integer id;
+	
+	/**
+	 * @param date the date the results are sorted on of the last object seen, may be null if the
+	 *            results are only sorted on id
+	 * @param id the id of the last object seen
+	 */
+	public KeysetCursor(Date date, Integer id) {
+		if (id == null)
+			throw new IllegalArgumentException("The id of a cursor is required");
+		this.date = date;
+		this.id = id;
+	}
+	
+	/**
+	 * @return the date of the last object seen, or null if the results are only sorted on id
+	 */
+	public Date getDate() {
+		return date;
+	}
+	
+	/**
+	 * @return the id of the last object seen
+	 */
+	public Integer getId() {
+		return id;
+	}
+	
+	/**
+	 * Encodes this cursor for the given query
+	 * 
+	 * @param query identifies the query the cursor is issued for, e.g. its criteria
+	 * @return the opaque cursor to hand out to clients
+	 */
+	public String encode(String query) {
+		return encode(query, getKey());
+	}
+	
+	/**
+	 * @should encode a cursor that decodes for the same query
+	 * @should encode a cursor that decodes on nodes sharing the session token keys
+	 */
+	String encode(String query, SecretKeySpec key) {
+		String payload = Base64.encodeBase64URLSafeString(((date == null ? "" : date.getTime()) + ":" + id)
+		        .getBytes(UTF8));
+		return payload + "." + Base64.encodeBase64URLSafeString(mac(key, query, payload));
+	}
+	
+	/**
+	 * Checks the signature of a cursor and decodes it
+	 * 
+	 * @param cursor a cursor handed out by {@link #encode(String)}
+	 * @param query identifies the query the cursor is being used with
+	 * @return the cursor
+	 * @throws InvalidSearchException if the cursor is not well formed, has been tampered with, was
+	 *             issued for another query or signed with a key that is no longer used
+	 */
+	public static KeysetCursor decode(String cursor, String query) {
+		return decode(cursor, query, getKey());
+	}
+	
+	/**
+	 * @should fail for a cursor issued for another query
+	 * @should fail for a tampered cursor
+	 * @should fail for a cursor signed with another key
+	 */
+	static KeysetCursor decode(String cursor, String query, SecretKeySpec key) {
+		int dot = cursor.indexOf('.');
+		if (dot > 0) {
+			String payload = cursor.substring(0, dot);
+			if (MessageDigest.isEqual(mac(key, query, payload), Base64.decodeBase64(cursor.substring(dot + 1)))) {
+				String decoded = new String(Base64.decodeBase64(payload), UTF8);
+				int colon = decoded.indexOf(':');
+				try {
+					Date date = colon == 0 ? null : new Date(Long.parseLong(decoded.substring(0, colon)));
+					return new KeysetCursor(date, Integer.valueOf(decoded.substring(colon + 1)));
+				}
+				catch (RuntimeException ex) {
+					// the signature matched, so this can only happen if the format changes
+				}
+			}
+		}
+		throw new InvalidSearchException("The cursor is invalid or has expired, start again from the first page");
+	}
+	
+	private static SecretKeySpec getKey() {
+		SessionTokenSigner signer = RestUtil.getSettings().getSessionTokenSigner();
+		return signer == null ? LOCAL_KEY : signer.deriveKey(KEY_PURPOSE);
+	}
+	
+	private static byte[] mac(SecretKeySpec key, String query, String payload) {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(key);
+			mac.update(query.getBytes(UTF8));
+			mac.update((byte) 0);
+			return mac.doFinal(payload.getBytes(UTF8));
+		}
+		catch (GeneralSecurityException ex) {
+			throw new IllegalStateException(ALGORITHM + " is not available", ex);
+		}
+	}
+	
+}
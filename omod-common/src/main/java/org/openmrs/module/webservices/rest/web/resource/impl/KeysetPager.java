@@ -0,0 +1,128 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.resource.impl;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.beanutils.PropertyUtils;
+import org.apache.commons.lang.StringUtils;
+import org.openmrs.OpenmrsObject;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.webservices.rest.web.RequestContext;
+import org.openmrs.module.webservices.rest.web.api.RestHelperService;
+import org.openmrs.module.webservices.rest.web.api.RestHelperService.Field;
+
+/**
+ * Pages through objects by keyset instead of by offset: each page holds the objects sorted right
+ * after the last object of the previous page, which the client identifies with the cursor handed
+ * out with that page. Unlike with <code>startIndex</code>, the database neither reads nor skips the
+ * objects of the previous pages, and objects created or voided in the meantime do not make clients
+ * skip or repeat objects.
+ * <p>
+ * Objects are sorted newest first on a date and then on id, and voided objects are left out unless
+ * the client asks to include all.
+ * 
+ * @param <T> the type of objects paged
+ * @see RequestContext#getCursor()
+ * @see KeysetCursor
+ */
+public class KeysetPager<T> {
+	
+	private final Class<T> type;
+	
+	private final String dateProperty;
+	
+	private final String idProperty;
+	
+	/**
+	 * @param type the type of objects paged
+	 * @param dateProperty the date to sort on, or null to sort on id only
+	 * @param idProperty the id to sort on
+	 */
+	public KeysetPager(Class<T> type, String dateProperty, String idProperty) {
+		this.type = type;
+		this.dateProperty = dateProperty;
+		this.idProperty = idProperty;
+	}
+	
+	/**
+	 * @param context
+	 * @return whether the client asked for results paged by cursor
+	 */
+	public static boolean isRequested(RequestContext context) {
+		return context.getCursor() != null;
+	}
+	
+	/**
+	 * Gets the page after the cursor of the request, or the first page if the cursor is empty
+	 * 
+	 * @param context
+	 * @param fields the values the objects must have, null fields are ignored
+	 * @return the page, with the cursor of the next page if there are more objects
+	 * @throws org.openmrs.module.webservices.rest.web.response.InvalidSearchException if the cursor
+	 *             is invalid or was issued for another query
+	 */
+	public AlreadyPaged<T> getPage(RequestContext context, Field... fields) {
+		List<Field> criteria = new ArrayList<Field>();
+		for (Field field : fields) {
+			if (field != null) {
+				criteria.add(field);
+			}
+		}
+		if (!context.getIncludeAll()) {
+			criteria.add(new Field("voided", false));
+		}
+		String query = getQuery(criteria);
+		KeysetCursor after = StringUtils.isEmpty(context.getCursor()) ? null : KeysetCursor.decode(context.getCursor(),
+		    query);
+		
+		int limit = context.getLimit();
+		List<T> results = Context.getService(RestHelperService.class).getObjectsAfter(type, dateProperty, idProperty,
+		    after == null ? null : after.getDate(), after == null ? null : after.getId(), limit + 1,
+		    criteria.toArray(new Field[criteria.size()]));
+		if (results.size() <= limit) {
+			return new AlreadyPaged<T>(context, results, false);
+		}
+		
+		results = new ArrayList<T>(results.subList(0, limit));
+		return new AlreadyPaged<T>(context, results, true, getCursor(results.get(limit - 1)).encode(query));
+	}
+	
+	private KeysetCursor getCursor(T last) {
+		try {
+			Date date = dateProperty == null ? null : (Date) PropertyUtils.getProperty(last, dateProperty);
+			return new KeysetCursor(date, (Integer) PropertyUtils.getProperty(last, idProperty));
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException("Unable to get the sort key of " + last, ex);
+		}
+	}
+	
+	/**
+	 * Identifies the query a cursor is issued for, so that it cannot be used with another
+	 */
+	private String getQuery(List<Field> criteria) {
+		StringBuilder query = new StringBuilder(type.getName()).append('|').append(dateProperty).append('|').append(
+		    idProperty);
+		for (Field field : criteria) {
+			Object value = field.getValue();
+			query.append('|').append(field.getName()).append('=').append(
+			    value instanceof OpenmrsObject ? ((OpenmrsObject) value).getUuid() : value);
+		}
+		return query.toString();
+	}
+	
+}
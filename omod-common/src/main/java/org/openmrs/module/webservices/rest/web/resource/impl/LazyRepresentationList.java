@@ -0,0 +1,96 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.resource.impl;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.openmrs.module.webservices.rest.web.ConversionUtil;
+import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.representation.Representation;
+import org.openmrs.module.webservices.rest.web.resource.api.Converter;
+
+/**
+ * A read-only list that converts each element of the wrapped collection to the given
+ * representation only when it is read. It is used when
+ * {@link RestConstants#STREAM_RESPONSES_GLOBAL_PROPERTY_NAME} is enabled, so that the message
+ * converter writing the response pulls one element at a time and writes it straight to the output
+ * stream, instead of the whole list being converted in memory beforehand. The JSON and XML
+ * produced are the same as for a fully converted list.
+ * <p>
+ * Each read converts the element again, so this list should only be iterated once, by the code
+ * writing the response.
+ */
+public class LazyRepresentationList extends AbstractList<Object> implements RandomAccess {
+	
+	private final List<?> delegates;
+	
+	private final Representation rep;
+	
+	private final Converter<?> converter;
+	
+	private final Class<?> convertAs;
+	
+	/**
+	 * @param delegates the objects to convert
+	 * @param rep the representation to convert them to
+	 * @param converter the converter to use, or null to look up the converter for each element
+	 */
+	public LazyRepresentationList(Collection<?> delegates, Representation rep, Converter<?> converter) {
+		this(delegates, rep, converter, null);
+	}
+	
+	/**
+	 * @param delegates the objects to convert
+	 * @param rep the representation to convert them to
+	 * @param convertAs the class whose converter should be used, or null to look up the converter
+	 *            for each element
+	 */
+	public LazyRepresentationList(Collection<?> delegates, Representation rep, Class<?> convertAs) {
+		this(delegates, rep, null, convertAs);
+	}
+	
+	private LazyRepresentationList(Collection<?> delegates, Representation rep, Converter<?> converter,
+	    Class<?> convertAs) {
+		this.delegates = (delegates instanceof List && delegates instanceof RandomAccess) ? (List<?>) delegates
+		        : new ArrayList<Object>(delegates);
+		this.rep = rep;
+		this.converter = converter;
+		this.convertAs = convertAs;
+	}
+	
+	/**
+	 * @see java.util.AbstractList#get(int)
+	 */
+	@Override
+	public Object get(int index) {
+		Object delegate = delegates.get(index);
+		if (converter != null) {
+			return ConversionUtil.convertToRepresentation(delegate, rep, converter);
+		}
+		return ConversionUtil.convertToRepresentation(delegate, rep, convertAs);
+	}
+	
+	/**
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int size() {
+		return delegates.size();
+	}
+	
+}
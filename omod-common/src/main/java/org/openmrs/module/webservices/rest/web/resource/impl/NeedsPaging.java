@@ -57,4 +57,12 @@ public class NeedsPaging<T> extends BasePageableResult<T> {
 		return unpagedResults.size() > context.getStartIndex() + context.getLimit();
 	}
 	
+	/**
+	 * @see org.openmrs.module.webservices.rest.web.resource.impl.BasePageableResult#getTotalCount()
+	 */
+	@Override
+	public Long getTotalCount() {
+		return context.getTotalCount() ? Long.valueOf(unpagedResults.size()) : null;
+	}
+	
 }
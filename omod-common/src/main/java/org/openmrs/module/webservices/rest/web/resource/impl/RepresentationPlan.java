@@ -0,0 +1,151 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.resource.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.openmrs.module.webservices.rest.SimpleObject;
+import org.openmrs.module.webservices.rest.web.Hyperlink;
+import org.openmrs.module.webservices.rest.web.RestUtil;
+import org.openmrs.module.webservices.rest.web.representation.CustomRepresentation;
+import org.openmrs.module.webservices.rest.web.representation.Representation;
+import org.openmrs.module.webservices.rest.web.resource.impl.DelegatingResourceDescription.Property;
+import org.openmrs.module.webservices.rest.web.response.ConversionException;
+
+/**
+ * An immutable, precompiled form of a {@link DelegatingResourceDescription}. A plan is built once
+ * for a given (handler class, representation) pair and then run against every delegate that is
+ * converted with that representation, so that the description, its properties and its link
+ * templates don't have to be rebuilt for each object.
+ */
+public class RepresentationPlan {
+	
+	private final String[] propertyNames;
+	
+	private final Property[] properties;
+	
+	private final String[] linkRels;
+	
+	/**
+	 * The uri of each link, with the leading "." removed for links relative to the delegate
+	 */
+	private final String[] linkUris;
+	
+	private final boolean[] linkRelative;
+	
+	private final String resourceAlias;
+	
+	private RepresentationPlan(DelegatingResourceDescription description, String resourceAlias) {
+		Map<String, Property> props = description.getProperties();
+		propertyNames = props.keySet().toArray(new String[props.size()]);
+		properties = props.values().toArray(new Property[props.size()]);
+		
+		List<Hyperlink> links = description.getLinks();
+		linkRels = new String[links.size()];
+		linkUris = new String[links.size()];
+		linkRelative = new boolean[links.size()];
+		for (int i = 0; i < links.size(); i++) {
+			Hyperlink link = links.get(i);
+			linkRels[i] = link.getRel();
+			linkRelative[i] = link.getUri().startsWith(".");
+			linkUris[i] = linkRelative[i] ? link.getUri().substring(1) : link.getUri();
+		}
+		
+		this.resourceAlias = resourceAlias;
+	}
+	
+	/**
+	 * Compiles the given description into a plan that can be run by the given converter
+	 * 
+	 * @param converter the converter that will run the plan
+	 * @param description the description to compile
+	 * @return the plan
+	 */
+	public static RepresentationPlan compile(BaseDelegatingConverter<?> converter, DelegatingResourceDescription description) {
+		if (description == null)
+			throw new NullPointerException();
+		return new RepresentationPlan(description, converter.getResourceAlias());
+	}
+	
+	/**
+	 * Gets the key under which a plan for the given handler class and representation can be
+	 * cached. Custom representations are built from client input, so they are not cached here.
+	 * 
+	 * @param handlerClass
+	 * @param rep
+	 * @return the cache key, or null if plans for rep should not be cached
+	 */
+	static String getCacheKey(Class<?> handlerClass, Representation rep) {
+		if (rep == null || rep instanceof CustomRepresentation)
+			return null;
+		return handlerClass.getName() + ":" + rep.getClass().getName() + ":" + rep.getRepresentation();
+	}
+	
+	/**
+	 * Converts the delegate to its representation by evaluating each property of this plan and
+	 * building its links
+	 * 
+	 * @param converter
+	 * @param delegate
+	 * @return the representation of delegate
+	 * @throws ConversionException
+	 */
+	public <T> SimpleObject execute(BaseDelegatingConverter<T> converter, T delegate) throws ConversionException {
+		return execute(converter, delegate, false);
+	}
+	
+	/**
+	 * Converts the delegate to its representation by evaluating each property of this plan and
+	 * building its links
+	 * 
+	 * @param converter
+	 * @param delegate
+	 * @param lazyCollections whether collection properties should be converted only as the
+	 *            response is written
+	 * @return the representation of delegate
+	 * @throws ConversionException
+	 * @see LazyRepresentationList
+	 */
+	public <T> SimpleObject execute(BaseDelegatingConverter<T> converter, T delegate, boolean lazyCollections)
+	        throws ConversionException {
+		if (delegate == null)
+			throw new NullPointerException();
+		SimpleObject ret = new SimpleObject();
+		for (int i = 0; i < properties.length; i++) {
+			ret.put(propertyNames[i], properties[i].evaluate(converter, delegate, lazyCollections));
+		}
+		if (linkRels.length > 0 && !RestUtil.isLinksDisabled()) {
+			List<Hyperlink> links = new ArrayList<Hyperlink>(linkRels.length);
+			String uri = null;
+			for (int i = 0; i < linkRels.length; i++) {
+				Hyperlink link;
+				if (linkRelative[i]) {
+					if (uri == null) {
+						uri = converter.getUri(delegate);
+					}
+					link = new Hyperlink(linkRels[i], uri + linkUris[i]);
+				} else {
+					link = new Hyperlink(linkRels[i], linkUris[i]);
+				}
+				link.setResourceAlias(resourceAlias);
+				links.add(link);
+			}
+			ret.put("links", links);
+		}
+		return ret;
+	}
+	
+}
@@ -42,8 +42,10 @@ public class ServiceSearcher<T> {
 	}
 	
 	/**
-	 * Makes service calls to get the count and search results for the given query, and packages
-	 * those up as an AlreadyPaged search result
+	 * Makes service calls to get the search results for the given query, and packages those up as
+	 * an AlreadyPaged search result. One more result than the limit is searched for to know whether
+	 * there are more results, so the count method is only called if the client asked for the total
+	 * count.
 	 * 
 	 * @param query
 	 * @param context
@@ -51,12 +53,9 @@ public class ServiceSearcher<T> {
 	 */
 	public AlreadyPaged<T> search(String query, RequestContext context) {
 		OpenmrsService service = Context.getService(serviceClass);
-		List<T> results;
-		Integer count;
-		results = doPagedSearch(service, query, context);
-		count = doCount(service, query, context);
-		boolean hasMore = count > context.getStartIndex() + context.getLimit();
-		return new AlreadyPaged<T>(context, results, hasMore);
+		List<T> results = doPagedSearch(service, query, context);
+		Long totalCount = context.getTotalCount() ? Long.valueOf(doCount(service, query, context)) : null;
+		return AlreadyPaged.fromLimitPlusOne(context, results, totalCount);
 	}
 	
 	/**
@@ -128,7 +127,7 @@ public class ServiceSearcher<T> {
 	
 	/**
 	 * Invokes a paged search method, using query as its String argument, and the context's
-	 * startIndex and limit to the first two Integer arguments
+	 * startIndex and limit plus one to the first two Integer arguments
 	 * 
 	 * @param service
 	 * @param method
@@ -151,7 +150,7 @@ public class ServiceSearcher<T> {
 					args[i] = context.getStartIndex();
 					firstInteger = false;
 				} else {
-					args[i] = context.getLimit();
+					args[i] = context.getLimit() + 1;
 				}
 			} else if (clazz.equals(boolean.class) || clazz.equals(Boolean.class)) {
 				args[i] = context.getIncludeAll();
@@ -0,0 +1,127 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.resource.impl;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.hibernate.proxy.HibernateProxy;
+
+/**
+ * An immutable index of the subclass handlers registered with a {@link BaseDelegatingResource},
+ * by the class they handle and by their user-friendly type name. A new index is built whenever a
+ * handler is registered, and swapped in as a whole.
+ * <p>
+ * Classes without a handler of their own (e.g. Hibernate proxies, or subclasses of a handled
+ * class) are resolved to the handler of their closest superclass that has one, and the result is
+ * remembered.
+ * 
+ * @param <T> the class delegated to by the resource
+ */
+class SubclassHandlerIndex<T> {
+	
+	private final List<DelegatingSubclassHandler<T, ? extends T>> source;
+	
+	private final int sourceSize;
+	
+	private final Map<Class<?>, DelegatingSubclassHandler<T, ? extends T>> byClass;
+	
+	private final Map<String, DelegatingSubclassHandler<T, ? extends T>> byTypeName;
+	
+	/**
+	 * Handlers found for classes that are not handled directly, or {@link #NONE}
+	 */
+	private final ConcurrentMap<Class<?>, Object> resolved = new ConcurrentHashMap<Class<?>, Object>();
+	
+	private static final Object NONE = new Object();
+	
+	/**
+	 * @param handlers the handlers in order of registration; for a class or type name handled by
+	 *            more than one, the first one wins
+	 */
+	SubclassHandlerIndex(List<DelegatingSubclassHandler<T, ? extends T>> handlers) {
+		this.source = handlers;
+		this.sourceSize = handlers.size();
+		byClass = new HashMap<Class<?>, DelegatingSubclassHandler<T, ? extends T>>();
+		byTypeName = new HashMap<String, DelegatingSubclassHandler<T, ? extends T>>();
+		for (DelegatingSubclassHandler<T, ? extends T> handler : handlers) {
+			Class<?> subclassHandled = handler.getSubclassHandled();
+			if (subclassHandled != null && !byClass.containsKey(subclassHandled)) {
+				byClass.put(subclassHandled, handler);
+			}
+			String typeName = handler.getTypeName();
+			if (typeName != null && !byTypeName.containsKey(typeName)) {
+				byTypeName.put(typeName, handler);
+			}
+		}
+	}
+	
+	/**
+	 * @param handlers
+	 * @return whether this index was built from the given list, and the list has not grown since
+	 */
+	boolean isBuiltFrom(List<DelegatingSubclassHandler<T, ? extends T>> handlers) {
+		return source == handlers && sourceSize == handlers.size();
+	}
+	
+	/**
+	 * @param typeName
+	 * @return the handler for the given user-friendly type name, or null
+	 */
+	DelegatingSubclassHandler<T, ? extends T> getHandler(String typeName) {
+		return byTypeName.get(typeName);
+	}
+	
+	/**
+	 * @param clazz
+	 * @return the handler for clazz, or else for its closest superclass that has one, or null
+	 */
+	@SuppressWarnings("unchecked")
+	DelegatingSubclassHandler<T, ? extends T> getHandler(Class<?> clazz) {
+		DelegatingSubclassHandler<T, ? extends T> handler = byClass.get(clazz);
+		if (handler != null || byClass.isEmpty()) {
+			return handler;
+		}
+		
+		Object found = resolved.get(clazz);
+		if (found == null) {
+			found = NONE;
+			for (Class<?> superclass = clazz.getSuperclass(); superclass != null; superclass = superclass.getSuperclass()) {
+				handler = byClass.get(superclass);
+				if (handler != null) {
+					found = handler;
+					break;
+				}
+			}
+			resolved.put(clazz, found);
+		}
+		return found == NONE ? null : (DelegatingSubclassHandler<T, ? extends T>) found;
+	}
+	
+	/**
+	 * @param clazz
+	 * @return the class of the entity behind clazz if it is a Hibernate proxy class, otherwise
+	 *         clazz itself
+	 */
+	static Class<?> getEntityClass(Class<?> clazz) {
+		if (HibernateProxy.class.isAssignableFrom(clazz) && clazz.getSuperclass() != null) {
+			return clazz.getSuperclass();
+		}
+		return clazz;
+	}
+	
+}
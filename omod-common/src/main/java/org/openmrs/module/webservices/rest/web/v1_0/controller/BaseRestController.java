@@ -24,6 +24,7 @@ import org.apache.commons.logging.LogFactory;
 import org.openmrs.module.webservices.rest.SimpleObject;
 import org.openmrs.module.webservices.rest.web.RestConstants;
 import org.openmrs.module.webservices.rest.web.RestUtil;
+import org.openmrs.module.webservices.rest.web.metrics.RequestMetrics;
 import org.openmrs.module.webservices.validation.ValidationException;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
@@ -57,6 +58,7 @@ public class BaseRestController {
 	@ResponseBody
 	public SimpleObject apiAuthenticationExceptionHandler(Exception ex, HttpServletRequest request,
 	        HttpServletResponse response) throws Exception {
+		RequestMetrics.failed();
 		int errorCode;
 		String errorDetail;
 		if (Context.isAuthenticated()) {
@@ -79,6 +81,7 @@ public class BaseRestController {
 	@ResponseBody
 	public SimpleObject validationExceptionHandler(ValidationException validationException, HttpServletRequest request,
 	        HttpServletResponse response) {
+		RequestMetrics.failed();
 		response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
 		return RestUtil.wrapValidationErrorResponse(validationException);
 	}
@@ -87,6 +90,7 @@ public class BaseRestController {
 	@ResponseBody
 	public SimpleObject handleException(Exception ex, HttpServletRequest request, HttpServletResponse response)
 	        throws Exception {
+		RequestMetrics.failed();
 		int errorCode = DEFAULT_ERROR_CODE;
 		String errorDetail = DEFAULT_ERROR_DETAIL;
 		ResponseStatus ann = ex.getClass().getAnnotation(ResponseStatus.class);
@@ -18,6 +18,7 @@ import org.openmrs.module.webservices.rest.web.RequestContext;
 import org.openmrs.module.webservices.rest.web.RestConstants;
 import org.openmrs.module.webservices.rest.web.RestUtil;
 import org.openmrs.module.webservices.rest.web.api.RestService;
+import org.openmrs.module.webservices.rest.web.metrics.RequestMetrics;
 import org.openmrs.module.webservices.rest.web.representation.Representation;
 import org.openmrs.module.webservices.rest.web.resource.api.Converter;
 import org.openmrs.module.webservices.rest.web.resource.api.Creatable;
@@ -70,8 +71,10 @@ public class MainResourceController extends BaseRestController {
 	        HttpServletRequest request, HttpServletResponse response) throws ResponseException {
 		baseUriSetup.setup(request);
 		RequestContext context = RestUtil.getRequestContext(request, response);
-		Retrievable res = (Retrievable) restService.getResourceByName(buildResourceName(resource));
-		return res.retrieve(uuid, context);
+		String resourceName = buildResourceName(resource);
+		Retrievable res = (Retrievable) restService.getResourceByName(resourceName);
+		RequestMetrics.resolved(resourceName, "retrieve", context, null);
+		return RequestMetrics.handled(res.retrieve(uuid, context));
 	}
 	
 	/**
@@ -87,9 +90,11 @@ public class MainResourceController extends BaseRestController {
 	        HttpServletRequest request, HttpServletResponse response) throws ResponseException {
 		baseUriSetup.setup(request);
 		RequestContext context = RestUtil.getRequestContext(request, response);
-		Creatable res = (Creatable) restService.getResourceByName(buildResourceName(resource));
+		String resourceName = buildResourceName(resource);
+		Creatable res = (Creatable) restService.getResourceByName(resourceName);
+		RequestMetrics.resolved(resourceName, "create", context, null);
 		Object created = res.create(post, context);
-		return RestUtil.created(response, created);
+		return RequestMetrics.handled(RestUtil.created(response, created));
 	}
 	
 	/**
@@ -107,9 +112,11 @@ public class MainResourceController extends BaseRestController {
 	        throws ResponseException {
 		baseUriSetup.setup(request);
 		RequestContext context = RestUtil.getRequestContext(request, response);
-		Updatable res = (Updatable) restService.getResourceByName(buildResourceName(resource));
+		String resourceName = buildResourceName(resource);
+		Updatable res = (Updatable) restService.getResourceByName(resourceName);
+		RequestMetrics.resolved(resourceName, "update", context, null);
 		Object updated = res.update(uuid, post, context);
-		return RestUtil.updated(response, updated);
+		return RequestMetrics.handled(RestUtil.updated(response, updated));
 	}
 	
 	/**
@@ -125,9 +132,11 @@ public class MainResourceController extends BaseRestController {
 	        HttpServletResponse response) throws ResponseException {
 		baseUriSetup.setup(request);
 		RequestContext context = RestUtil.getRequestContext(request, response);
-		Deletable res = (Deletable) restService.getResourceByName(buildResourceName(resource));
+		String resourceName = buildResourceName(resource);
+		Deletable res = (Deletable) restService.getResourceByName(resourceName);
+		RequestMetrics.resolved(resourceName, "delete", context, null);
 		res.delete(uuid, reason, context);
-		return RestUtil.noContent(response);
+		return RequestMetrics.handled(RestUtil.noContent(response));
 	}
 	
 	/**
@@ -142,9 +151,11 @@ public class MainResourceController extends BaseRestController {
 	        HttpServletRequest request, HttpServletResponse response) throws ResponseException {
 		baseUriSetup.setup(request);
 		RequestContext context = RestUtil.getRequestContext(request, response);
-		Purgeable res = (Purgeable) restService.getResourceByName(buildResourceName(resource));
+		String resourceName = buildResourceName(resource);
+		Purgeable res = (Purgeable) restService.getResourceByName(resourceName);
+		RequestMetrics.resolved(resourceName, "purge", context, null);
 		res.purge(uuid, context);
-		return RestUtil.noContent(response);
+		return RequestMetrics.handled(RestUtil.noContent(response));
 	}
 	
 	/**
@@ -159,22 +170,25 @@ public class MainResourceController extends BaseRestController {
 	public SimpleObject get(@PathVariable("resource") String resource, HttpServletRequest request,
 	        HttpServletResponse response) throws ResponseException {
 		baseUriSetup.setup(request);
-		Object res = restService.getResourceByName(buildResourceName(resource));
+		String resourceName = buildResourceName(resource);
+		Object res = restService.getResourceByName(resourceName);
 		Converter conv = res instanceof Converter ? (Converter) res : null;
 		
 		RequestContext context = RestUtil.getRequestContext(request, response, Representation.REF);
 		
 		@SuppressWarnings("unchecked")
-		SearchHandler searchHandler = restService.getSearchHandler(buildResourceName(resource), request.getParameterMap());
+		SearchHandler searchHandler = restService.getSearchHandler(resourceName, request.getParameterMap());
 		if (searchHandler != null) {
-			return searchHandler.search(context).toSimpleObject(conv);
+			RequestMetrics.resolved(resourceName, "search", context, searchHandler.getSearchConfig().getId());
+			return RequestMetrics.handled(searchHandler.search(context).toSimpleObject(conv));
 		}
 		
 		Enumeration parameters = request.getParameterNames();
 		while (parameters.hasMoreElements()) {
 			if (!RestConstants.SPECIAL_REQUEST_PARAMETERS.contains(parameters.nextElement())) {
 				if (res instanceof Searchable) {
-					return ((Searchable) res).search(context);
+					RequestMetrics.resolved(resourceName, "search", context, null);
+					return RequestMetrics.handled(((Searchable) res).search(context));
 				} else {
 					throw new ResourceDoesNotSupportOperationException(res.getClass().getSimpleName() + " is not searchable");
 				}
@@ -182,7 +196,8 @@ public class MainResourceController extends BaseRestController {
 		}
 		
 		if (res instanceof Listable) {
-			return ((Listable) res).getAll(context);
+			RequestMetrics.resolved(resourceName, "getAll", context, null);
+			return RequestMetrics.handled(((Listable) res).getAll(context));
 		} else {
 			throw new ResourceDoesNotSupportOperationException(res.getClass().getSimpleName() + " is not listable");
 		}
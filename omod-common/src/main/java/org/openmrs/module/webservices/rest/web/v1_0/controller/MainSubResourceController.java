@@ -21,6 +21,7 @@ import org.openmrs.module.webservices.rest.web.RequestContext;
 import org.openmrs.module.webservices.rest.web.RestConstants;
 import org.openmrs.module.webservices.rest.web.RestUtil;
 import org.openmrs.module.webservices.rest.web.api.RestService;
+import org.openmrs.module.webservices.rest.web.metrics.RequestMetrics;
 import org.openmrs.module.webservices.rest.web.resource.api.SubResource;
 import org.openmrs.module.webservices.rest.web.response.ResponseException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -62,8 +63,10 @@ public class MainSubResourceController extends BaseRestController {
 	        HttpServletResponse response) throws ResponseException {
 		baseUriSetup.setup(request);
 		RequestContext context = RestUtil.getRequestContext(request, response);
-		SubResource res = (SubResource) restService.getResourceByName(buildResourceName(resource) + "/" + subResource);
-		return res.retrieve(parentUuid, uuid, context);
+		String resourceName = buildResourceName(resource) + "/" + subResource;
+		SubResource res = (SubResource) restService.getResourceByName(resourceName);
+		RequestMetrics.resolved(resourceName, "retrieve", context, null);
+		return RequestMetrics.handled(res.retrieve(parentUuid, uuid, context));
 	}
 	
 	/**
@@ -80,8 +83,10 @@ public class MainSubResourceController extends BaseRestController {
 	        throws ResponseException {
 		baseUriSetup.setup(request);
 		RequestContext context = RestUtil.getRequestContext(request, response);
-		SubResource res = (SubResource) restService.getResourceByName(buildResourceName(resource) + "/" + subResource);
-		return res.getAll(parentUuid, context);
+		String resourceName = buildResourceName(resource) + "/" + subResource;
+		SubResource res = (SubResource) restService.getResourceByName(resourceName);
+		RequestMetrics.resolved(resourceName, "getAll", context, null);
+		return RequestMetrics.handled(res.getAll(parentUuid, context));
 	}
 	
 	/**
@@ -99,9 +104,11 @@ public class MainSubResourceController extends BaseRestController {
 	        HttpServletResponse response) throws ResponseException {
 		baseUriSetup.setup(request);
 		RequestContext context = RestUtil.getRequestContext(request, response);
-		SubResource res = (SubResource) restService.getResourceByName(buildResourceName(resource) + "/" + subResource);
+		String resourceName = buildResourceName(resource) + "/" + subResource;
+		SubResource res = (SubResource) restService.getResourceByName(resourceName);
+		RequestMetrics.resolved(resourceName, "create", context, null);
 		Object created = res.create(parentUuid, post, context);
-		return RestUtil.created(response, created);
+		return RequestMetrics.handled(RestUtil.created(response, created));
 	}
 	
 	/**
@@ -121,9 +128,11 @@ public class MainSubResourceController extends BaseRestController {
 	        throws ResponseException {
 		baseUriSetup.setup(request);
 		RequestContext context = RestUtil.getRequestContext(request, response);
-		SubResource res = (SubResource) restService.getResourceByName(buildResourceName(resource) + "/" + subResource);
+		String resourceName = buildResourceName(resource) + "/" + subResource;
+		SubResource res = (SubResource) restService.getResourceByName(resourceName);
+		RequestMetrics.resolved(resourceName, "update", context, null);
 		Object updated = res.update(parentUuid, uuid, post, context);
-		return RestUtil.updated(response, updated);
+		return RequestMetrics.handled(RestUtil.updated(response, updated));
 	}
 	
 	/**
@@ -141,9 +150,11 @@ public class MainSubResourceController extends BaseRestController {
 	        HttpServletResponse response) throws ResponseException {
 		baseUriSetup.setup(request);
 		RequestContext context = RestUtil.getRequestContext(request, response);
-		SubResource res = (SubResource) restService.getResourceByName(buildResourceName(resource) + "/" + subResource);
+		String resourceName = buildResourceName(resource) + "/" + subResource;
+		SubResource res = (SubResource) restService.getResourceByName(resourceName);
+		RequestMetrics.resolved(resourceName, "delete", context, null);
 		res.delete(parentUuid, uuid, reason, context);
-		return RestUtil.noContent(response);
+		return RequestMetrics.handled(RestUtil.noContent(response));
 	}
 	
 	/**
@@ -160,9 +171,11 @@ public class MainSubResourceController extends BaseRestController {
 	        HttpServletResponse response) throws ResponseException {
 		baseUriSetup.setup(request);
 		RequestContext context = RestUtil.getRequestContext(request, response);
-		SubResource res = (SubResource) restService.getResourceByName(buildResourceName(resource) + "/" + subResource);
+		String resourceName = buildResourceName(resource) + "/" + subResource;
+		SubResource res = (SubResource) restService.getResourceByName(resourceName);
+		RequestMetrics.resolved(resourceName, "purge", context, null);
 		res.purge(parentUuid, uuid, context);
-		return RestUtil.noContent(response);
+		return RequestMetrics.handled(RestUtil.noContent(response));
 	}
 	
 	/**
@@ -179,9 +192,11 @@ public class MainSubResourceController extends BaseRestController {
 	        HttpServletResponse response) throws ResponseException {
 		baseUriSetup.setup(request);
 		RequestContext context = RestUtil.getRequestContext(request, response);
-		SubResource res = (SubResource) restService.getResourceByName(buildResourceName(resource) + "/" + subResource);
+		String resourceName = buildResourceName(resource) + "/" + subResource;
+		SubResource res = (SubResource) restService.getResourceByName(resourceName);
+		RequestMetrics.resolved(resourceName, "delete", context, null);
 		res.delete(parentUuid, null, reason, context);
-		return RestUtil.noContent(response);
+		return RequestMetrics.handled(RestUtil.noContent(response));
 	}
 	
 	/**
@@ -197,9 +212,11 @@ public class MainSubResourceController extends BaseRestController {
 	        throws ResponseException {
 		baseUriSetup.setup(request);
 		RequestContext context = RestUtil.getRequestContext(request, response);
-		SubResource res = (SubResource) restService.getResourceByName(buildResourceName(resource) + "/" + subResource);
+		String resourceName = buildResourceName(resource) + "/" + subResource;
+		SubResource res = (SubResource) restService.getResourceByName(resourceName);
+		RequestMetrics.resolved(resourceName, "purge", context, null);
 		res.purge(parentUuid, null, context);
-		return RestUtil.noContent(response);
+		return RequestMetrics.handled(RestUtil.noContent(response));
 	}
 	
 	/**
@@ -217,8 +234,10 @@ public class MainSubResourceController extends BaseRestController {
 	        HttpServletResponse response) throws ResponseException {
 		baseUriSetup.setup(request);
 		RequestContext context = RestUtil.getRequestContext(request, response);
-		SubResource res = (SubResource) restService.getResourceByName(buildResourceName(resource) + "/" + subResource);
+		String resourceName = buildResourceName(resource) + "/" + subResource;
+		SubResource res = (SubResource) restService.getResourceByName(resourceName);
+		RequestMetrics.resolved(resourceName, "put", context, null);
 		res.put(parentUuid, post, context);
-		return RestUtil.noContent(response);
+		return RequestMetrics.handled(RestUtil.noContent(response));
 	}
 }
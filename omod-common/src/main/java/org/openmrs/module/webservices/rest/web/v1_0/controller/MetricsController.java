@@ -0,0 +1,71 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.v1_0.controller;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.openmrs.api.APIAuthenticationException;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.metrics.MetricsRegistry;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+/**
+ * Controller that shows the number of requests to each resource and how long they took, split into
+ * phases, as JSON or, for <code>?format=prometheus</code> or clients that accept
+ * <code>text/plain</code> but not JSON, in the Prometheus text format. Requires the
+ * {@link RestConstants#PRIV_VIEW_RESTWS} privilege.
+ * 
+ * @see MetricsRegistry
+ */
+@Controller
+@RequestMapping(value = "/rest/" + RestConstants.VERSION_1 + "/metrics")
+public class MetricsController extends BaseRestController {
+	
+	private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=UTF-8";
+	
+	/**
+	 * @param request
+	 * @param response
+	 * @return the metrics as JSON, or null if they were written in the Prometheus format
+	 * @throws IOException
+	 */
+	@RequestMapping(method = RequestMethod.GET)
+	@ResponseBody
+	public Object get(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		if (!Context.hasPrivilege(RestConstants.PRIV_VIEW_RESTWS))
+			throw new APIAuthenticationException("Privilege required: " + RestConstants.PRIV_VIEW_RESTWS);
+		
+		if (isPrometheusRequested(request)) {
+			response.setContentType(PROMETHEUS_CONTENT_TYPE);
+			MetricsRegistry.getInstance().writePrometheus(response.getWriter());
+			return null;
+		}
+		return MetricsRegistry.getInstance().toSimpleObject();
+	}
+	
+	private boolean isPrometheusRequested(HttpServletRequest request) {
+		if ("prometheus".equals(request.getParameter("format")))
+			return true;
+		String accept = request.getHeader("Accept");
+		return accept != null && accept.contains("text/plain") && !accept.contains("json");
+	}
+	
+}
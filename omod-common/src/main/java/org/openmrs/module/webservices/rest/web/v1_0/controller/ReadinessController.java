@@ -0,0 +1,56 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.v1_0.controller;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.openmrs.module.webservices.rest.SimpleObject;
+import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.RestWarmUp;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+/**
+ * Controller that lets a client or a load balancer check whether the module has finished warming
+ * up. Requests are served before that, only more slowly.
+ * 
+ * @see RestWarmUp
+ */
+@Controller
+@RequestMapping(value = "/rest/" + RestConstants.VERSION_1 + "/readiness")
+public class ReadinessController extends BaseRestController {
+	
+	/**
+	 * Tells whether the warm-up has finished, responding with 503 (Service Unavailable) while it
+	 * is still running
+	 * 
+	 * @param response
+	 * @return the readiness
+	 * @should respond with service unavailable until the warm-up has finished
+	 * @should respond with ok once the warm-up has finished
+	 */
+	@RequestMapping(method = RequestMethod.GET)
+	@ResponseBody
+	public Object get(HttpServletResponse response) {
+		boolean ready = RestWarmUp.isReady();
+		if (!ready) {
+			response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+		}
+		return new SimpleObject().add("ready", ready).add("resources", RestWarmUp.getResourcesWarmed()).add(
+		    "durationMillis", RestWarmUp.getDurationMillis());
+	}
+	
+}
@@ -0,0 +1,96 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.xml;
+
+import java.io.IOException;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.openmrs.module.webservices.rest.SimpleObject;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+/**
+ * Writes {@link SimpleObject} responses as XML straight to the response stream with a
+ * {@link SimpleObjectXmlWriter}. It takes the place of the XStream based
+ * <code>xmlMarshallingHttpMessageConverter</code> for the representations of this module, and
+ * writes the same elements. Reading XML requests is left to the other converters.
+ * 
+ * @see org.openmrs.module.webservices.rest.web.RestInit
+ */
+public class SimpleObjectXmlHttpMessageConverter extends AbstractHttpMessageConverter<SimpleObject> {
+	
+	private static final String ENCODING = "UTF-8";
+	
+	private final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+	
+	private final SimpleObjectXmlWriter xmlWriter = new SimpleObjectXmlWriter();
+	
+	public SimpleObjectXmlHttpMessageConverter() {
+		super(MediaType.APPLICATION_XML, MediaType.TEXT_XML, new MediaType("application", "*+xml"));
+	}
+	
+	/**
+	 * @see AbstractHttpMessageConverter#supports(Class)
+	 */
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return SimpleObject.class.isAssignableFrom(clazz);
+	}
+	
+	/**
+	 * @see AbstractHttpMessageConverter#canRead(Class, MediaType)
+	 */
+	@Override
+	public boolean canRead(Class<?> clazz, MediaType mediaType) {
+		return false;
+	}
+	
+	/**
+	 * @see AbstractHttpMessageConverter#readInternal(Class, HttpInputMessage)
+	 */
+	@Override
+	protected SimpleObject readInternal(Class<? extends SimpleObject> clazz, HttpInputMessage inputMessage)
+	        throws IOException, HttpMessageNotReadableException {
+		throw new HttpMessageNotReadableException("Reading XML is not supported by " + getClass().getSimpleName());
+	}
+	
+	/**
+	 * @see AbstractHttpMessageConverter#writeInternal(Object, HttpOutputMessage)
+	 */
+	@Override
+	protected void writeInternal(SimpleObject object, HttpOutputMessage outputMessage) throws IOException,
+	        HttpMessageNotWritableException {
+		try {
+			XMLStreamWriter writer = outputFactory.createXMLStreamWriter(outputMessage.getBody(), ENCODING);
+			try {
+				xmlWriter.write(object, writer);
+				writer.flush();
+			}
+			finally {
+				writer.close();
+			}
+		}
+		catch (XMLStreamException ex) {
+			throw new HttpMessageNotWritableException("Could not write XML: " + ex.getMessage(), ex);
+		}
+	}
+	
+}
@@ -0,0 +1,179 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.xml;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.openmrs.module.webservices.rest.SimpleObject;
+import org.openmrs.module.webservices.rest.web.Hyperlink;
+
+/**
+ * Writes a {@link SimpleObject} to an {@link XMLStreamWriter} as it is walked, without building an
+ * intermediate tree or going through XStream's reflection. The elements written are the same as
+ * those of {@link org.openmrs.module.webservices.rest.util.SimpleObjectConverter}:
+ * <ul>
+ * <li>each property of an object becomes an element named after the property</li>
+ * <li>each object in a list becomes an element named after the resource of its self link, or
+ * <code>object</code> if it has none</li>
+ * <li>any other value in a list becomes an element named after its type, as XStream would name it,
+ * e.g. <code>string</code>, <code>int</code> or <code>link</code></li>
+ * </ul>
+ * Instances hold no state and can be shared.
+ */
+public class SimpleObjectXmlWriter {
+	
+	/**
+	 * The name of the root element and of list items that are not the representation of a resource
+	 */
+	public static final String OBJECT_ELEMENT = "object";
+	
+	private static final Map<Class<?>, String> ITEM_ELEMENTS = new HashMap<Class<?>, String>();
+	
+	static {
+		ITEM_ELEMENTS.put(String.class, "string");
+		ITEM_ELEMENTS.put(Integer.class, "int");
+		ITEM_ELEMENTS.put(Long.class, "long");
+		ITEM_ELEMENTS.put(Short.class, "short");
+		ITEM_ELEMENTS.put(Byte.class, "byte");
+		ITEM_ELEMENTS.put(Double.class, "double");
+		ITEM_ELEMENTS.put(Float.class, "float");
+		ITEM_ELEMENTS.put(Boolean.class, "boolean");
+		ITEM_ELEMENTS.put(Character.class, "char");
+		ITEM_ELEMENTS.put(BigDecimal.class, "big-decimal");
+		ITEM_ELEMENTS.put(BigInteger.class, "big-int");
+		ITEM_ELEMENTS.put(Date.class, "date");
+		ITEM_ELEMENTS.put(Hyperlink.class, "link");
+	}
+	
+	/**
+	 * Writes the given object as a complete document with an <code>object</code> root element
+	 * 
+	 * @param object
+	 * @param writer
+	 * @throws XMLStreamException
+	 * @should write properties as elements
+	 * @should name list items after the resource of their self link
+	 * @should name other list items after their type
+	 * @should write links as rel and uri elements
+	 * @should escape element names and text like xstream
+	 */
+	public void write(SimpleObject object, XMLStreamWriter writer) throws XMLStreamException {
+		writer.writeStartElement(OBJECT_ELEMENT);
+		writeContent(object, writer);
+		writer.writeEndElement();
+		writer.writeEndDocument();
+	}
+	
+	/**
+	 * Writes the content of the element already started for value
+	 */
+	private void writeContent(Object value, XMLStreamWriter writer) throws XMLStreamException {
+		if (value instanceof Map) {
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				writer.writeStartElement(encodeName(entry.getKey().toString()));
+				writeContent(entry.getValue(), writer);
+				writer.writeEndElement();
+			}
+		} else if (value instanceof Collection) {
+			for (Object item : (Collection<?>) value) {
+				writeItem(item, writer);
+			}
+		} else if (value instanceof Hyperlink) {
+			Hyperlink link = (Hyperlink) value;
+			writeTextElement("rel", link.getRel(), writer);
+			writeTextElement("uri", link.getUri(), writer);
+		} else if (value != null) {
+			writer.writeCharacters(value.toString());
+		}
+	}
+	
+	private void writeItem(Object item, XMLStreamWriter writer) throws XMLStreamException {
+		if (item == null) {
+			writer.writeEmptyElement("null");
+			return;
+		}
+		String name;
+		if (item instanceof Map) {
+			Hyperlink self = getSelfLink((Map<?, ?>) item);
+			name = self == null || self.getResourceAlias() == null ? OBJECT_ELEMENT : encodeName(self.getResourceAlias());
+		} else if (item instanceof Collection) {
+			name = "list";
+		} else {
+			name = ITEM_ELEMENTS.get(item.getClass());
+			if (name == null)
+				name = encodeName(item.getClass().getName());
+		}
+		writer.writeStartElement(name);
+		writeContent(item, writer);
+		writer.writeEndElement();
+	}
+	
+	private void writeTextElement(String name, String text, XMLStreamWriter writer) throws XMLStreamException {
+		if (text == null)
+			return;
+		writer.writeStartElement(name);
+		writer.writeCharacters(text);
+		writer.writeEndElement();
+	}
+	
+	/**
+	 * Gets the self link from the links property of an object
+	 * 
+	 * @param object
+	 * @return the link, or null if the object has none
+	 */
+	private Hyperlink getSelfLink(Map<?, ?> object) {
+		Object links = object.get("links");
+		if (!(links instanceof List))
+			return null;
+		for (Object link : (List<?>) links) {
+			if (link instanceof Hyperlink && "self".equals(((Hyperlink) link).getRel()))
+				return (Hyperlink) link;
+		}
+		return null;
+	}
+	
+	/**
+	 * Escapes an element name the way XStream does, so '_' becomes "__" and '$' becomes "_-"
+	 * 
+	 * @param name
+	 * @return the escaped name
+	 */
+	static String encodeName(String name) {
+		if (name.indexOf('_') < 0 && name.indexOf('$') < 0)
+			return name;
+		StringBuilder sb = new StringBuilder(name.length() + 4);
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (c == '_') {
+				sb.append("__");
+			} else if (c == '$') {
+				sb.append("_-");
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+	
+}
@@ -0,0 +1,87 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link IpMatcher} class.
+ */
+public class IpMatcherTest {
+	
+	/**
+	 * @see IpMatcher#compile(Collection)
+	 * @verifies match any address if there are no entries
+	 */
+	@Test
+	public void compile_shouldMatchAnyAddressIfThereAreNoEntries() throws Exception {
+		IpMatcher matcher = IpMatcher.compile(new ArrayList<String>());
+		
+		Assert.assertTrue(matcher.matches("10.0.0.1"));
+		Assert.assertTrue(matcher.matches("fe80::1"));
+	}
+	
+	/**
+	 * @see IpMatcher#compile(Collection)
+	 * @verifies match exact addresses and ranges
+	 */
+	@Test
+	public void compile_shouldMatchExactAddressesAndRanges() throws Exception {
+		IpMatcher matcher = IpMatcher.compile(Arrays.asList("192.168.1.5", "10.0.0.0/30", "172.16.0.0/12"));
+		
+		Assert.assertTrue(matcher.matches("192.168.1.5"));
+		Assert.assertFalse(matcher.matches("192.168.1.6"));
+		Assert.assertTrue(matcher.matches("10.0.0.3"));
+		Assert.assertFalse(matcher.matches("10.0.0.4"));
+		Assert.assertTrue(matcher.matches("172.31.255.255"));
+		Assert.assertFalse(matcher.matches("172.32.0.0"));
+	}
+	
+	/**
+	 * @see IpMatcher#compile(Collection)
+	 * @verifies match ipv6 ranges
+	 */
+	@Test
+	public void compile_shouldMatchIpv6Ranges() throws Exception {
+		IpMatcher matcher = IpMatcher.compile(Arrays.asList("fe80::/10"));
+		
+		Assert.assertTrue(matcher.matches("fe80::202:b3ff:fe1e:8329"));
+		Assert.assertFalse(matcher.matches("fe00::1"));
+		Assert.assertFalse(matcher.matches("10.0.0.1"));
+	}
+	
+	/**
+	 * @see IpMatcher#compile(Collection)
+	 * @verifies reject host names
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void compile_shouldRejectHostNames() throws Exception {
+		IpMatcher.compile(Arrays.asList("localhost"));
+	}
+	
+	/**
+	 * @see IpMatcher#compile(Collection)
+	 * @verifies reject invalid masks
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void compile_shouldRejectInvalidMasks() throws Exception {
+		IpMatcher.compile(Arrays.asList("10.0.0.0/33"));
+	}
+	
+}
@@ -0,0 +1,56 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.module.webservices.rest.web.filter.GzipFilter;
+import org.openmrs.util.OpenmrsClassLoader;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+
+/**
+ * Tests for the {@link OpenmrsClassScanner} class.
+ */
+public class OpenmrsClassScannerTest extends BaseModuleWebContextSensitiveTest {
+	
+	/**
+	 * @see OpenmrsClassScanner#getClasses(Class,boolean,Set)
+	 * @verifies find classes in the jars and folders that are not skipped
+	 */
+	@Test
+	public void getClasses_shouldFindClassesInTheJarsAndFoldersThatAreNotSkipped() throws Exception {
+		List<Class<? extends GzipFilter>> classes = OpenmrsClassScanner.getInstance().getClasses(GzipFilter.class, true,
+		    Collections.singleton("file:/not/on/the/classpath/"));
+		
+		Assert.assertEquals(Collections.<Class<?>> singletonList(GzipFilter.class), classes);
+	}
+	
+	/**
+	 * @see OpenmrsClassScanner#getClasses(Class,boolean,Set)
+	 * @verifies not search the skipped jars and folders
+	 */
+	@Test
+	public void getClasses_shouldNotSearchTheSkippedJarsAndFolders() throws Exception {
+		String path = GzipFilter.class.getName().replace('.', '/') + ".class";
+		String location = OpenmrsClassLoader.getInstance().getResource(path).toString();
+		Set<String> skippedRoots = Collections.singleton(location.substring(0, location.length() - path.length()));
+		
+		Assert.assertTrue(OpenmrsClassScanner.getInstance().getClasses(GzipFilter.class, true, skippedRoots).isEmpty());
+	}
+	
+}
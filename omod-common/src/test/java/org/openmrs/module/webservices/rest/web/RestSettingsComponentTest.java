@@ -0,0 +1,65 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web;
+
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.context.Context;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+
+/**
+ * Tests for the {@link RestSettings} class that need the context.
+ */
+public class RestSettingsComponentTest extends BaseModuleWebContextSensitiveTest {
+	
+	private static final String KEY = "a:0123456789abcdef0123";
+	
+	@After
+	public void after() {
+		Properties properties = Context.getRuntimeProperties();
+		properties.remove(RestConstants.SESSION_TOKEN_KEYS_RUNTIME_PROPERTY_NAME);
+		Context.setRuntimeProperties(properties);
+		RestUtil.reloadSettings();
+	}
+	
+	/**
+	 * @see RestSettings#load()
+	 * @verifies read the session token keys from the runtime properties only
+	 */
+	@Test
+	public void load_shouldReadTheSessionTokenKeysFromTheRuntimePropertiesOnly() throws Exception {
+		GlobalProperty keys = new GlobalProperty(RestConstants.SESSION_TOKEN_KEYS_RUNTIME_PROPERTY_NAME, KEY);
+		Context.getAdministrationService().saveGlobalProperty(keys);
+		new RestUtil().globalPropertyChanged(keys);
+		
+		Assert.assertNull(RestSettings.load().getSessionTokenSigner());
+		Assert.assertNull(RestUtil.getSettings().getSessionTokenSigner());
+		
+		Properties properties = Context.getRuntimeProperties();
+		properties.setProperty(RestConstants.SESSION_TOKEN_KEYS_RUNTIME_PROPERTY_NAME, KEY);
+		Context.setRuntimeProperties(properties);
+		RestUtil.reloadSettings();
+		
+		Assert.assertNotNull(RestUtil.getSettings().getSessionTokenSigner());
+		// changing a global property keeps the keys
+		new RestUtil().globalPropertyChanged(new GlobalProperty(RestConstants.SESSION_TOKEN_TTL_GLOBAL_PROPERTY_NAME,
+		        "60"));
+		Assert.assertEquals(60, RestUtil.getSettings().getSessionTokenSigner().getTtl());
+	}
+	
+}
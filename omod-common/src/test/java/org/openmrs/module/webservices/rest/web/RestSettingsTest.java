@@ -0,0 +1,81 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link RestSettings} class.
+ */
+public class RestSettingsTest {
+	
+	/**
+	 * @see RestSettings#RestSettings(Map)
+	 * @verifies use defaults for missing or invalid values
+	 */
+	@Test
+	public void RestSettings_shouldUseDefaultsForMissingOrInvalidValues() throws Exception {
+		Map<String, String> values = new HashMap<String, String>();
+		values.put(RestConstants.MAX_RESULTS_DEFAULT_GLOBAL_PROPERTY_NAME, "many");
+		values.put(RestConstants.GZIP_LEVEL_GLOBAL_PROPERTY_NAME, "12");
+		
+		RestSettings settings = new RestSettings(values);
+		
+		Assert.assertEquals(RestConstants.MAX_RESULTS_DEFAULT.intValue(), settings.getDefaultLimit());
+		Assert.assertEquals(RestConstants.MAX_RESULTS_ABSOLUTE.intValue(), settings.getAbsoluteLimit());
+		Assert.assertEquals(RestConstants.GZIP_LEVEL_DEFAULT, settings.getGzipLevel());
+		Assert.assertEquals(RestConstants.GZIP_MIN_SIZE_DEFAULT, settings.getGzipMinSize());
+		Assert.assertFalse(settings.isGzipEnabled());
+		Assert.assertFalse(settings.isStreamResponses());
+		Assert.assertTrue(settings.getAllowedIps().isEmpty());
+	}
+	
+	/**
+	 * @see RestSettings#RestSettings(Map)
+	 * @verifies split allowed ips on whitespace and commas
+	 */
+	@Test
+	public void RestSettings_shouldSplitAllowedIpsOnWhitespaceAndCommas() throws Exception {
+		Map<String, String> values = new HashMap<String, String>();
+		values.put(RestConstants.ALLOWED_IPS_GLOBAL_PROPERTY_NAME, " 10.0.0.1, 10.0.1.0/24\n127.0.0.1 ");
+		
+		RestSettings settings = new RestSettings(values);
+		
+		Assert.assertEquals(Arrays.asList("10.0.0.1", "10.0.1.0/24", "127.0.0.1"), settings.getAllowedIps());
+	}
+	
+	/**
+	 * @see RestSettings#with(String,String)
+	 * @verifies change only the given property
+	 */
+	@Test
+	public void with_shouldChangeOnlyTheGivenProperty() throws Exception {
+		Map<String, String> values = new HashMap<String, String>();
+		values.put(RestConstants.MAX_RESULTS_DEFAULT_GLOBAL_PROPERTY_NAME, "20");
+		values.put(RestConstants.MAX_RESULTS_ABSOLUTE_GLOBAL_PROPERTY_NAME, "200");
+		RestSettings settings = new RestSettings(values);
+		
+		RestSettings changed = settings.with(RestConstants.MAX_RESULTS_ABSOLUTE_GLOBAL_PROPERTY_NAME, "300");
+		
+		Assert.assertEquals(20, changed.getDefaultLimit());
+		Assert.assertEquals(300, changed.getAbsoluteLimit());
+		Assert.assertEquals(200, settings.getAbsoluteLimit());
+	}
+	
+}
@@ -0,0 +1,73 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.webservices.rest.web.api.RestService;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+
+/**
+ * Tests for the {@link RestWarmUp} class.
+ */
+public class RestWarmUpTest extends BaseModuleWebContextSensitiveTest {
+	
+	/**
+	 * Waits for the latest warm-up to finish, failing if it takes more than 30 seconds
+	 */
+	public static void awaitReady() throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 30000;
+		while (!RestWarmUp.isReady()) {
+			assertTrue("The warm-up did not finish in time", System.currentTimeMillis() < deadline);
+			Thread.sleep(50);
+		}
+	}
+	
+	/**
+	 * @see RestWarmUp#start()
+	 * @verifies mark the module as ready once the resources are warmed up
+	 */
+	@Test
+	public void start_shouldMarkTheModuleAsReadyOnceTheResourcesAreWarmedUp() throws Exception {
+		RestWarmUp.start();
+		awaitReady();
+		
+		int resources = Context.getService(RestService.class).getResourceHandlers().size();
+		assertTrue(RestWarmUp.getResourcesWarmed() > 0);
+		assertTrue(RestWarmUp.getResourcesWarmed() <= resources);
+		assertTrue(RestWarmUp.getDurationMillis() >= 0);
+	}
+	
+	/**
+	 * @see RestWarmUp#start()
+	 * @verifies only let the latest warm-up mark the module as ready
+	 */
+	@Test
+	public void start_shouldOnlyLetTheLatestWarmUpMarkTheModuleAsReady() throws Exception {
+		RestWarmUp.start();
+		RestWarmUp.start();
+		awaitReady();
+		
+		long duration = RestWarmUp.getDurationMillis();
+		int warmed = RestWarmUp.getResourcesWarmed();
+		Thread.sleep(200);
+		assertTrue(RestWarmUp.isReady());
+		assertEquals(duration, RestWarmUp.getDurationMillis());
+		assertEquals(warmed, RestWarmUp.getResourcesWarmed());
+	}
+	
+}
@@ -0,0 +1,90 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.auth;
+
+import java.lang.reflect.Method;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.Privilege;
+import org.openmrs.User;
+import org.openmrs.api.UserService;
+import org.openmrs.api.context.Context;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+
+/**
+ * Tests for the {@link CredentialCacheAdvice} class, applied to the UserService the way the module
+ * applies it.
+ */
+public class CredentialCacheAdviceTest extends BaseModuleWebContextSensitiveTest {
+	
+	private static final String AUTHORIZATION = "Basic YWRtaW46dGVzdA==";
+	
+	private CredentialCacheAdvice advice = new CredentialCacheAdvice();
+	
+	@Before
+	public void before() {
+		CredentialCache.getInstance().clear();
+		Context.addAdvice(UserService.class, advice);
+	}
+	
+	@After
+	public void after() {
+		Context.removeAdvice(UserService.class, advice);
+		CredentialCache.getInstance().clear();
+	}
+	
+	/**
+	 * @see CredentialCacheAdvice#afterReturning(Object,Method,Object[],Object)
+	 * @verifies keep the cache after lookups and privilege checks
+	 */
+	@Test
+	public void afterReturning_shouldKeepTheCacheAfterLookupsAndPrivilegeChecks() throws Exception {
+		CredentialCache.Entry entry = CredentialCache.getInstance().add(AUTHORIZATION, 60);
+		
+		// a privileged request, which makes the API check privileges through the UserContext
+		Assert.assertTrue(Context.hasPrivilege("View Users"));
+		Assert.assertNotNull(Context.getPatientService().getPatient(2));
+		Assert.assertNotNull(Context.getUserService().getUserByUsername("admin"));
+		for (Method method : UserService.class.getMethods()) {
+			if (method.getName().equals("notifyPrivilegeListeners")) {
+				Assert.assertFalse(CredentialCacheAdvice.isMutator(method.getName()));
+			}
+		}
+		
+		Assert.assertSame(entry, CredentialCache.getInstance().get(AUTHORIZATION));
+	}
+	
+	/**
+	 * @see CredentialCacheAdvice#afterReturning(Object,Method,Object[],Object)
+	 * @verifies clear the cache after a user changes
+	 */
+	@Test
+	public void afterReturning_shouldClearTheCacheAfterAUserChanges() throws Exception {
+		CredentialCache.getInstance().add(AUTHORIZATION, 60);
+		
+		User user = Context.getUserService().getUserByUsername("admin");
+		Context.getUserService().saveUser(user, null);
+		
+		Assert.assertNull(CredentialCache.getInstance().get(AUTHORIZATION));
+		
+		CredentialCache.getInstance().add(AUTHORIZATION, 60);
+		Context.getUserService().savePrivilege(new Privilege("Some Privilege", "A privilege"));
+		
+		Assert.assertNull(CredentialCache.getInstance().get(AUTHORIZATION));
+	}
+	
+}
@@ -0,0 +1,93 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.auth;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.User;
+import org.openmrs.api.context.UserContext;
+
+/**
+ * Tests for the {@link CredentialCache} class.
+ */
+public class CredentialCacheTest {
+	
+	private static final String AUTHORIZATION = "Basic YWRtaW46dGVzdA==";
+	
+	/**
+	 * @see CredentialCache#get(String)
+	 * @verifies return the entry for verified credentials
+	 */
+	@Test
+	public void get_shouldReturnTheEntryForVerifiedCredentials() throws Exception {
+		CredentialCache cache = new CredentialCache();
+		CredentialCache.Entry entry = cache.add(AUTHORIZATION, 60);
+		
+		Assert.assertSame(entry, cache.get(AUTHORIZATION));
+	}
+	
+	/**
+	 * @see CredentialCache#get(String)
+	 * @verifies return null for credentials not verified or expired
+	 */
+	@Test
+	public void get_shouldReturnNullForCredentialsNotVerifiedOrExpired() throws Exception {
+		CredentialCache cache = new CredentialCache();
+		cache.add(AUTHORIZATION, 0);
+		
+		Assert.assertNull(cache.get(AUTHORIZATION));
+		Assert.assertNull(cache.get("Basic b3RoZXI6dGVzdA=="));
+	}
+	
+	/**
+	 * @see CredentialCache#clear()
+	 * @verifies forget all credentials and their idle contexts
+	 */
+	@Test
+	public void clear_shouldForgetAllCredentialsAndTheirIdleContexts() throws Exception {
+		CredentialCache cache = new CredentialCache();
+		CredentialCache.Entry entry = cache.add(AUTHORIZATION, 60);
+		UserContext userContext = mock(UserContext.class);
+		when(userContext.getAuthenticatedUser()).thenReturn(new User());
+		
+		cache.clear();
+		entry.checkIn(userContext);
+		
+		Assert.assertNull(cache.get(AUTHORIZATION));
+		Assert.assertNull(entry.checkOut());
+		Assert.assertEquals(0, cache.size());
+	}
+	
+	/**
+	 * @see CredentialCache#add(String,int,int)
+	 * @verifies not remember credentials verified before the cache was cleared
+	 */
+	@Test
+	public void add_shouldNotRememberCredentialsVerifiedBeforeTheCacheWasCleared() throws Exception {
+		CredentialCache cache = new CredentialCache();
+		int generation = cache.getGeneration();
+		// a password changes while the credentials are being verified
+		cache.clear();
+		
+		Assert.assertNull(cache.add(AUTHORIZATION, 60, generation));
+		Assert.assertNull(cache.get(AUTHORIZATION));
+		
+		Assert.assertNotNull(cache.add(AUTHORIZATION, 60, cache.getGeneration()));
+		Assert.assertNotNull(cache.get(AUTHORIZATION));
+	}
+	
+}
@@ -0,0 +1,109 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.auth;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link SessionTokenSigner} class.
+ */
+public class SessionTokenSignerTest {
+	
+	private static final String KEY_A = "a:0123456789abcdef0123";
+	
+	private static final String KEY_B = "b:fedcba9876543210fedc";
+	
+	/**
+	 * @see SessionTokenSigner#compile(java.util.Collection,int)
+	 * @verifies sign tokens that verify to the user
+	 */
+	@Test
+	public void compile_shouldSignTokensThatVerifyToTheUser() throws Exception {
+		SessionTokenSigner signer = SessionTokenSigner.compile(Collections.singletonList(KEY_A), 60);
+		
+		String token = signer.sign("admin");
+		Assert.assertTrue(token.startsWith("a."));
+		Assert.assertEquals("admin", signer.verify(token));
+	}
+	
+	/**
+	 * @see SessionTokenSigner#compile(java.util.Collection,int)
+	 * @verifies not verify expired or tampered tokens
+	 */
+	@Test
+	public void compile_shouldNotVerifyExpiredOrTamperedTokens() throws Exception {
+		SessionTokenSigner signer = SessionTokenSigner.compile(Collections.singletonList(KEY_A), 60);
+		
+		Assert.assertNull(signer.verify(signer.sign("admin", System.currentTimeMillis() - 1)));
+		
+		String token = signer.sign("admin");
+		String otherPayload = signer.sign("daemon").split("\\.")[1];
+		String[] parts = token.split("\\.");
+		Assert.assertNull(signer.verify(parts[0] + "." + otherPayload + "." + parts[2]));
+		Assert.assertNull(signer.verify(token.substring(0, token.length() - 2)));
+		Assert.assertNull(signer.verify("not a token"));
+	}
+	
+	/**
+	 * @see SessionTokenSigner#compile(java.util.Collection,int)
+	 * @verifies verify tokens signed with any of its keys
+	 */
+	@Test
+	public void compile_shouldVerifyTokensSignedWithAnyOfItsKeys() throws Exception {
+		String oldToken = SessionTokenSigner.compile(Collections.singletonList(KEY_A), 60).sign("admin");
+		SessionTokenSigner rotated = SessionTokenSigner.compile(Arrays.asList(KEY_B, KEY_A), 60);
+		
+		Assert.assertEquals("admin", rotated.verify(oldToken));
+		Assert.assertTrue(rotated.sign("admin").startsWith("b."));
+		
+		SessionTokenSigner retired = SessionTokenSigner.compile(Collections.singletonList(KEY_B), 60);
+		Assert.assertNull(retired.verify(oldToken));
+	}
+	
+	/**
+	 * @see SessionTokenSigner#compile(java.util.Collection,int)
+	 * @verifies reject invalid keys
+	 */
+	@Test
+	public void compile_shouldRejectInvalidKeys() throws Exception {
+		for (String key : Arrays.asList("no-secret", "a:short", ":0123456789abcdef0123", "a.b:0123456789abcdef0123")) {
+			try {
+				SessionTokenSigner.compile(Collections.singletonList(key), 60);
+				Assert.fail("Expected " + key + " to be rejected");
+			}
+			catch (IllegalArgumentException ex) {}
+		}
+		Assert.assertNull(SessionTokenSigner.compileValid(Arrays.asList("a:short"), 60, null));
+	}
+	
+	/**
+	 * @see SessionTokenSigner#deriveKey(String)
+	 * @verifies derive the same key from the same signing key
+	 */
+	@Test
+	public void deriveKey_shouldDeriveTheSameKeyFromTheSameSigningKey() throws Exception {
+		SessionTokenSigner signer = SessionTokenSigner.compile(Collections.singletonList(KEY_A), 60);
+		SessionTokenSigner otherNode = SessionTokenSigner.compile(Arrays.asList(KEY_A, KEY_B), 60);
+		
+		Assert.assertEquals(signer.deriveKey("cursor"), otherNode.deriveKey("cursor"));
+		Assert.assertFalse(signer.deriveKey("cursor").equals(signer.deriveKey("other")));
+		Assert.assertFalse(signer.deriveKey("cursor").equals(
+		    SessionTokenSigner.compile(Collections.singletonList(KEY_B), 60).deriveKey("cursor")));
+	}
+	
+}
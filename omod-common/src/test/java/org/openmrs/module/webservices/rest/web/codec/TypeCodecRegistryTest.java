@@ -0,0 +1,90 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.junit.Test;
+
+public class TypeCodecRegistryTest {
+	
+	/**
+	 * @see TypeCodecRegistry#getDecoder(Class)
+	 * @verifies return the built-in date codec for dates
+	 */
+	@Test
+	public void getDecoder_shouldReturnTheBuiltinDateCodecForDates() throws Exception {
+		assertTrue(TypeCodecRegistry.getDecoder(Date.class) instanceof DateCodec);
+	}
+	
+	/**
+	 * @see TypeCodecRegistry#getDecoder(Class)
+	 * @verifies return the same enum codec each time
+	 */
+	@Test
+	public void getDecoder_shouldReturnTheSameEnumCodecEachTime() throws Exception {
+		TypeCodec<?> codec = TypeCodecRegistry.getDecoder(Thread.State.class);
+		assertSame(codec, TypeCodecRegistry.getDecoder(Thread.State.class));
+		assertEquals(Thread.State.RUNNABLE, codec.decode("RUNNABLE"));
+	}
+	
+	/**
+	 * @see TypeCodecRegistry#getDecoder(Class)
+	 * @verifies prefer registered codecs
+	 */
+	@Test
+	public void getDecoder_shouldPreferRegisteredCodecs() throws Exception {
+		TypeCodec<Date> epochCodec = new TypeCodec<Date>() {
+			
+			@Override
+			public Class<Date> getType() {
+				return Date.class;
+			}
+			
+			@Override
+			public Date decode(String value) {
+				return new Date(Long.parseLong(value));
+			}
+			
+			@Override
+			public Object encode(Date value) {
+				return value.getTime();
+			}
+		};
+		TypeCodecRegistry.register(epochCodec);
+		try {
+			assertSame(epochCodec, TypeCodecRegistry.getDecoder(Date.class));
+			assertSame(epochCodec, TypeCodecRegistry.getEncoder(Date.class));
+		}
+		finally {
+			TypeCodecRegistry.unregister(epochCodec);
+		}
+		assertTrue(TypeCodecRegistry.getDecoder(Date.class) instanceof DateCodec);
+	}
+	
+	/**
+	 * @see TypeCodecRegistry#getDecoder(Class)
+	 * @verifies return null for classes without a codec
+	 */
+	@Test
+	public void getDecoder_shouldReturnNullForClassesWithoutACodec() throws Exception {
+		assertNull(TypeCodecRegistry.getDecoder(Runnable.class));
+	}
+	
+}
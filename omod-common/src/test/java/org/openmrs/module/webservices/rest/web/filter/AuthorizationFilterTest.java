@@ -0,0 +1,130 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.filter;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.context.UserContext;
+import org.openmrs.module.webservices.rest.web.auth.CredentialCache;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+
+/**
+ * Tests for the {@link AuthorizationFilter} class.
+ */
+public class AuthorizationFilterTest extends BaseModuleWebContextSensitiveTest {
+	
+	// admin:test
+	private static final String AUTHORIZATION = "Basic YWRtaW46dGVzdA==";
+	
+	private AuthorizationFilter filter = new AuthorizationFilter();
+	
+	@Before
+	public void before() {
+		CredentialCache.getInstance().clear();
+		Context.logout();
+	}
+	
+	@After
+	public void after() {
+		CredentialCache.getInstance().clear();
+	}
+	
+	/**
+	 * @see AuthorizationFilter#doFilter(ServletRequest,ServletResponse,javax.servlet.FilterChain)
+	 * @verifies authenticate the session of a request with verified credentials
+	 */
+	@Test
+	public void doFilter_shouldAuthenticateTheSessionOfARequestWithVerifiedCredentials() throws Exception {
+		CredentialCache.getInstance().add(AUTHORIZATION, 60);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/ws/rest/v1/session");
+		request.setSession(new MockHttpSession());
+		request.setRequestedSessionId(request.getSession().getId());
+		request.addHeader("Authorization", AUTHORIZATION);
+		
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		
+		// the session's context stays authenticated for the requests that only send the cookie
+		Assert.assertTrue(Context.isAuthenticated());
+		Assert.assertEquals("admin", Context.getAuthenticatedUser().getUsername());
+	}
+	
+	/**
+	 * @see AuthorizationFilter#doFilter(ServletRequest,ServletResponse,javax.servlet.FilterChain)
+	 * @verifies run a request without a session with a context of verified credentials
+	 */
+	@Test
+	public void doFilter_shouldRunARequestWithoutASessionWithAContextOfVerifiedCredentials() throws Exception {
+		CredentialCache.getInstance().add(AUTHORIZATION, 60);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/ws/rest/v1/session");
+		request.addHeader("Authorization", AUTHORIZATION);
+		final UserContext[] requestContext = new UserContext[1];
+		
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+			
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response) {
+				requestContext[0] = Context.getUserContext();
+			}
+		});
+		
+		Assert.assertTrue(requestContext[0].isAuthenticated());
+		Assert.assertNotSame(Context.getUserContext(), requestContext[0]);
+		Assert.assertFalse(Context.isAuthenticated());
+		Assert.assertNotNull(CredentialCache.getInstance().get(AUTHORIZATION).checkOut());
+	}
+	
+	/**
+	 * @see AuthorizationFilter#doFilter(ServletRequest,ServletResponse,javax.servlet.FilterChain)
+	 * @verifies run a request with a new session but no session cookie with a context of verified
+	 *           credentials
+	 */
+	@Test
+	public void doFilter_shouldRunARequestWithANewSessionButNoSessionCookieWithAContextOfVerifiedCredentials()
+	        throws Exception {
+		// the session core creates for every request before the module filters run
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/ws/rest/v1/session");
+		request.setSession(new MockHttpSession());
+		request.addHeader("Authorization", AUTHORIZATION);
+		final UserContext[] requestContext = new UserContext[1];
+		MockFilterChain chain = new MockFilterChain() {
+			
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response) {
+				requestContext[0] = Context.getUserContext();
+			}
+		};
+		
+		// the first request verifies the credentials and remembers them
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+		Assert.assertNotNull(CredentialCache.getInstance().get(AUTHORIZATION));
+		Context.logout();
+		
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+		
+		Assert.assertTrue(requestContext[0].isAuthenticated());
+		Assert.assertNotSame(Context.getUserContext(), requestContext[0]);
+		Assert.assertFalse(Context.isAuthenticated());
+	}
+	
+}
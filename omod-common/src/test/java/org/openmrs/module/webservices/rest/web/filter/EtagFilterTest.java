@@ -0,0 +1,99 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.filter;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.GlobalProperty;
+import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.RestUtil;
+import org.openmrs.util.OpenmrsConstants;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Tests for the {@link EtagFilter} class.
+ */
+public class EtagFilterTest extends BaseModuleWebContextSensitiveTest {
+	
+	private static final FilterChain CHAIN = new FilterChain() {
+		
+		@Override
+		public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+			response.setContentType("application/json");
+			response.getWriter().write("{\"results\":[]}");
+		}
+	};
+	
+	@After
+	public void after() {
+		new RestUtil().globalPropertyDeleted(RestConstants.STREAM_RESPONSES_GLOBAL_PROPERTY_NAME);
+		new RestUtil().globalPropertyDeleted(OpenmrsConstants.GLOBAL_PROPERTY_GZIP_ENABLED);
+	}
+	
+	/**
+	 * @see EtagFilter#shouldNotFilter(javax.servlet.http.HttpServletRequest)
+	 * @verifies add an etag to a response held in memory
+	 */
+	@Test
+	public void shouldNotFilter_shouldAddAnEtagToAResponseHeldInMemory() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		new EtagFilter().doFilter(new MockHttpServletRequest("GET", "/ws/rest/v1/concept"), response, CHAIN);
+		
+		Assert.assertNotNull(response.getHeader("ETag"));
+		Assert.assertEquals("{\"results\":[]}", response.getContentAsString());
+	}
+	
+	/**
+	 * @see EtagFilter#shouldNotFilter(javax.servlet.http.HttpServletRequest)
+	 * @verifies not add an etag to a streamed response
+	 */
+	@Test
+	public void shouldNotFilter_shouldNotAddAnEtagToAStreamedResponse() throws Exception {
+		new RestUtil().globalPropertyChanged(new GlobalProperty(RestConstants.STREAM_RESPONSES_GLOBAL_PROPERTY_NAME,
+		        "true"));
+		
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		new EtagFilter().doFilter(new MockHttpServletRequest("GET", "/ws/rest/v1/concept"), response, CHAIN);
+		
+		Assert.assertNull(response.getHeader("ETag"));
+		Assert.assertEquals("{\"results\":[]}", response.getContentAsString());
+	}
+	
+	/**
+	 * @see EtagFilter#shouldNotFilter(javax.servlet.http.HttpServletRequest)
+	 * @verifies not add an etag to a compressed response
+	 */
+	@Test
+	public void shouldNotFilter_shouldNotAddAnEtagToACompressedResponse() throws Exception {
+		new RestUtil().globalPropertyChanged(new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_GZIP_ENABLED, "true"));
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/ws/rest/v1/concept");
+		request.addHeader("Accept-Encoding", "gzip, deflate");
+		
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		new EtagFilter().doFilter(request, response, CHAIN);
+		
+		Assert.assertNull(response.getHeader("ETag"));
+	}
+	
+}
@@ -0,0 +1,133 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.filter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.GlobalProperty;
+import org.openmrs.module.webservices.rest.web.RestUtil;
+import org.openmrs.util.OpenmrsConstants;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Tests for the {@link GzipFilter} class.
+ */
+public class GzipFilterTest extends BaseModuleWebContextSensitiveTest {
+	
+	private static final String BODY = "{\"results\":[" + StringUtils.repeat("{\"uuid\":\"a-uuid\"},", 100) + "]}";
+	
+	private static final FilterChain CHAIN = new FilterChain() {
+		
+		@Override
+		public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+			response.setContentType("application/json");
+			response.getWriter().write(BODY);
+		}
+	};
+	
+	@After
+	public void after() {
+		new RestUtil().globalPropertyDeleted(OpenmrsConstants.GLOBAL_PROPERTY_GZIP_ENABLED);
+	}
+	
+	/**
+	 * @see GzipFilter#doFilter(ServletRequest,ServletResponse,FilterChain)
+	 * @verifies not compress responses unless gzip is enabled
+	 */
+	@Test
+	public void doFilter_shouldNotCompressResponsesUnlessGzipIsEnabled() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		new GzipFilter().doFilter(newRequest(), response, CHAIN);
+		
+		Assert.assertNull(response.getHeader("Content-Encoding"));
+		Assert.assertEquals(BODY, response.getContentAsString());
+	}
+	
+	/**
+	 * @see GzipFilter#doFilter(ServletRequest,ServletResponse,FilterChain)
+	 * @verifies compress large responses for clients that accept gzip
+	 */
+	@Test
+	public void doFilter_shouldCompressLargeResponsesForClientsThatAcceptGzip() throws Exception {
+		new RestUtil().globalPropertyChanged(new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_GZIP_ENABLED, "true"));
+		
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		new GzipFilter().doFilter(newRequest(), response, CHAIN);
+		
+		Assert.assertEquals("gzip", response.getHeader("Content-Encoding"));
+		Assert.assertTrue(response.getContentAsByteArray().length < BODY.length());
+		Assert.assertEquals(BODY, new String(read(new GZIPInputStream(new ByteArrayInputStream(response
+		        .getContentAsByteArray()))), "UTF-8"));
+	}
+	
+	/**
+	 * @see GzipFilter#doFilter(ServletRequest,ServletResponse,FilterChain)
+	 * @verifies decompress compressed request bodies
+	 */
+	@Test
+	public void doFilter_shouldDecompressCompressedRequestBodies() throws Exception {
+		new RestUtil().globalPropertyChanged(new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_GZIP_ENABLED, "true"));
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		OutputStream out = new GZIPOutputStream(compressed);
+		out.write(BODY.getBytes("UTF-8"));
+		out.close();
+		
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/ws/rest/v1/obs");
+		request.addHeader("Content-Encoding", "gzip");
+		request.setContent(compressed.toByteArray());
+		final byte[][] received = new byte[1][];
+		new GzipFilter().doFilter(request, new MockHttpServletResponse(), new FilterChain() {
+			
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+				received[0] = read(request.getInputStream());
+			}
+		});
+		
+		Assert.assertEquals(BODY, new String(received[0], "UTF-8"));
+	}
+	
+	private MockHttpServletRequest newRequest() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/ws/rest/v1/obs");
+		request.addHeader("Accept-Encoding", "gzip, deflate");
+		return request;
+	}
+	
+	private static byte[] read(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+	
+}
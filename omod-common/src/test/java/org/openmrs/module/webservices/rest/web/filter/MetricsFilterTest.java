@@ -0,0 +1,118 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.filter;
+
+import static org.mockito.Matchers.contains;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.apache.commons.logging.Log;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.RestUtil;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Tests for the {@link MetricsFilter} class, running real queries so that they also check that
+ * the query counting interceptor is chained into the session factory.
+ */
+public class MetricsFilterTest extends BaseModuleWebContextSensitiveTest {
+	
+	private static final Pattern QUERY_STATS = Pattern.compile("statements=(\\d+), entities=(\\d+)");
+	
+	/**
+	 * Loads the patients from the database, as a resource would
+	 */
+	private static final FilterChain CHAIN = new FilterChain() {
+		
+		@Override
+		public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+			Context.flushSession();
+			Context.clearSession();
+			int patients = Context.getPatientService().getAllPatients().size();
+			response.setContentType("application/json");
+			response.getWriter().write("{\"patients\":" + patients + "}");
+		}
+	};
+	
+	private MetricsFilter filter;
+	
+	private Log spyOnLog;
+	
+	@Before
+	public void before() throws Exception {
+		new RestUtil().globalPropertyChanged(new GlobalProperty(RestConstants.QUERY_STATS_ENABLED_GLOBAL_PROPERTY_NAME,
+		        "true"));
+		filter = new MetricsFilter();
+		spyOnLog = spy(filter.log);
+		Field log = MetricsFilter.class.getDeclaredField("log");
+		log.setAccessible(true);
+		log.set(filter, spyOnLog);
+	}
+	
+	@After
+	public void after() {
+		new RestUtil().globalPropertyDeleted(RestConstants.QUERY_STATS_ENABLED_GLOBAL_PROPERTY_NAME);
+		new RestUtil().globalPropertyDeleted(RestConstants.QUERY_STATS_LOG_THRESHOLD_GLOBAL_PROPERTY_NAME);
+	}
+	
+	/**
+	 * @see MetricsFilter#doFilter(ServletRequest,ServletResponse,FilterChain)
+	 * @verifies return the statements and entity loads of the request in a header
+	 */
+	@Test
+	public void doFilter_shouldReturnTheStatementsAndEntityLoadsOfTheRequestInAHeader() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/ws/rest/v1/patient"), response, CHAIN);
+		
+		String header = (String) response.getHeader(RestConstants.QUERY_STATS_HEADER);
+		Assert.assertNotNull(header);
+		Matcher matcher = QUERY_STATS.matcher(header);
+		Assert.assertTrue(header, matcher.matches());
+		Assert.assertTrue(header, Long.parseLong(matcher.group(1)) > 0);
+		Assert.assertTrue(header, Long.parseLong(matcher.group(2)) > 0);
+	}
+	
+	/**
+	 * @see MetricsFilter#doFilter(ServletRequest,ServletResponse,FilterChain)
+	 * @verifies log requests issuing at least as many statements as the threshold
+	 */
+	@Test
+	public void doFilter_shouldLogRequestsIssuingAtLeastAsManyStatementsAsTheThreshold() throws Exception {
+		new RestUtil().globalPropertyChanged(new GlobalProperty(
+		        RestConstants.QUERY_STATS_LOG_THRESHOLD_GLOBAL_PROPERTY_NAME, "1"));
+		
+		filter.doFilter(new MockHttpServletRequest("GET", "/ws/rest/v1/patient"), new MockHttpServletResponse(), CHAIN);
+		
+		verify(spyOnLog).warn(contains("GET /ws/rest/v1/patient issued statements="));
+	}
+	
+}
@@ -0,0 +1,122 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.jackson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.openmrs.module.webservices.rest.SimpleObject;
+import org.openmrs.module.webservices.rest.web.Hyperlink;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class BinaryJacksonHttpMessageConverterTest {
+	
+	private SimpleObject newObject() {
+		Hyperlink self = new Hyperlink("self", "/ws/rest/v1/obs/abc");
+		self.setResourceAlias("obs");
+		return new SimpleObject().add("uuid", "abc").add("value", 12.5).add("voided", false).add("links",
+		    Arrays.asList(self));
+	}
+	
+	private MockHttpServletResponse write(BinaryJacksonHttpMessageConverter converter, Object object) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ServletServerHttpResponse outputMessage = new ServletServerHttpResponse(response);
+		converter.write(object, converter.getSupportedMediaTypes().get(0), outputMessage);
+		outputMessage.close();
+		return response;
+	}
+	
+	private SimpleObject read(BinaryJacksonHttpMessageConverter converter, byte[] body) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/ws/rest/v1/obs");
+		request.setContentType(converter.getSupportedMediaTypes().get(0).toString());
+		request.setContent(body);
+		return (SimpleObject) converter.read(SimpleObject.class, new ServletServerHttpRequest(request));
+	}
+	
+	private void assertRoundTrip(BinaryJacksonHttpMessageConverter converter) throws Exception {
+		MockHttpServletResponse response = write(converter, newObject());
+		assertEquals(converter.getSupportedMediaTypes().get(0).toString(), response.getContentType());
+		
+		SimpleObject read = read(converter, response.getContentAsByteArray());
+		assertEquals("abc", read.get("uuid"));
+		assertEquals(12.5, read.get("value"));
+		assertEquals(false, read.get("voided"));
+		Map<?, ?> link = (Map<?, ?>) ((List<?>) read.get("links")).get(0);
+		assertEquals("self", link.get("rel"));
+		assertEquals("/ws/rest/v1/obs/abc", link.get("uri"));
+		assertNull(link.get("resourceAlias"));
+	}
+	
+	/**
+	 * @see BinaryJacksonHttpMessageConverter#writeInternal(Object,HttpOutputMessage)
+	 * @verifies write smile that reads back to the same representation
+	 */
+	@Test
+	public void writeInternal_shouldWriteSmileThatReadsBackToTheSameRepresentation() throws Exception {
+		assertRoundTrip(new SmileHttpMessageConverter());
+	}
+	
+	/**
+	 * @see BinaryJacksonHttpMessageConverter#writeInternal(Object,HttpOutputMessage)
+	 * @verifies write cbor that reads back to the same representation
+	 */
+	@Test
+	public void writeInternal_shouldWriteCborThatReadsBackToTheSameRepresentation() throws Exception {
+		assertRoundTrip(new CborHttpMessageConverter());
+	}
+	
+	/**
+	 * @see BinaryJacksonHttpMessageConverter#writeInternal(Object,HttpOutputMessage)
+	 * @verifies write fewer bytes than json
+	 */
+	@Test
+	public void writeInternal_shouldWriteFewerBytesThanJson() throws Exception {
+		MockHttpServletResponse response = write(new SmileHttpMessageConverter(), newObject());
+		String json = "{\"uuid\":\"abc\",\"value\":12.5,\"voided\":false,"
+		        + "\"links\":[{\"rel\":\"self\",\"uri\":\"/ws/rest/v1/obs/abc\"}]}";
+		assertTrue(response.getContentAsByteArray().length < json.length());
+	}
+	
+	/**
+	 * @see BinaryJacksonHttpMessageConverter#supports(Class)
+	 * @verifies only be chosen for the media type it was asked for
+	 */
+	@Test
+	public void supports_shouldOnlyBeChosenForTheMediaTypeItWasAskedFor() throws Exception {
+		SmileHttpMessageConverter smile = new SmileHttpMessageConverter();
+		CborHttpMessageConverter cbor = new CborHttpMessageConverter();
+		
+		assertTrue(smile.canWrite(SimpleObject.class, SmileHttpMessageConverter.SMILE));
+		assertTrue(cbor.canWrite(SimpleObject.class, CborHttpMessageConverter.CBOR));
+		assertFalse(smile.canWrite(SimpleObject.class, CborHttpMessageConverter.CBOR));
+		assertFalse(cbor.canWrite(SimpleObject.class, SmileHttpMessageConverter.SMILE));
+		assertFalse(smile.canWrite(SimpleObject.class, MediaType.APPLICATION_JSON));
+		assertFalse(cbor.canWrite(SimpleObject.class, MediaType.APPLICATION_XML));
+		
+		assertTrue(smile.canRead(SimpleObject.class, SmileHttpMessageConverter.SMILE));
+		assertFalse(smile.canRead(SimpleObject.class, MediaType.APPLICATION_JSON));
+	}
+	
+}
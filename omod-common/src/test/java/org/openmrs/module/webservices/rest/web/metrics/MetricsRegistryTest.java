@@ -0,0 +1,64 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.metrics;
+
+import java.io.StringWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.module.webservices.rest.web.metrics.RequestMetrics.Phase;
+
+/**
+ * Tests for the {@link MetricsRegistry} class.
+ */
+public class MetricsRegistryTest {
+	
+	/**
+	 * @see MetricsRegistry#getOperation(String,String,String,String)
+	 * @verifies return the same metrics for the same operation
+	 */
+	@Test
+	public void getOperation_shouldReturnTheSameMetricsForTheSameOperation() throws Exception {
+		MetricsRegistry registry = new MetricsRegistry();
+		OperationMetrics metrics = registry.getOperation("v1/obs", "search", "default", "default");
+		
+		Assert.assertSame(metrics, registry.getOperation("v1/obs", "search", "default", "default"));
+		Assert.assertNotSame(metrics, registry.getOperation("v1/obs", "search", "default", null));
+		Assert.assertEquals(2, registry.getOperations().size());
+	}
+	
+	/**
+	 * @see MetricsRegistry#writePrometheus(java.io.Writer)
+	 * @verifies write a histogram and phase counters for each operation
+	 */
+	@Test
+	public void writePrometheus_shouldWriteAHistogramAndPhaseCountersForEachOperation() throws Exception {
+		MetricsRegistry registry = new MetricsRegistry();
+		long[] phases = new long[Phase.values().length];
+		phases[Phase.FETCH.ordinal()] = 2000000L;
+		registry.getOperation("v1/patient", "retrieve", "full", null).record(3000000L, phases, false);
+		
+		StringWriter out = new StringWriter();
+		registry.writePrometheus(out);
+		String text = out.toString();
+		
+		String labels = "resource=\"v1/patient\",operation=\"retrieve\",representation=\"full\",search_handler=\"\"";
+		Assert.assertTrue(text.contains("openmrs_rest_request_duration_seconds_bucket{" + labels + ",le=\"0.005\"} 1\n"));
+		Assert.assertTrue(text.contains("openmrs_rest_request_duration_seconds_bucket{" + labels + ",le=\"+Inf\"} 1\n"));
+		Assert.assertTrue(text.contains("openmrs_rest_request_duration_seconds_count{" + labels + "} 1\n"));
+		Assert.assertTrue(text.contains("openmrs_rest_request_phase_seconds_total{" + labels + ",phase=\"fetch\"} 0.002\n"));
+		Assert.assertTrue(text.contains("openmrs_rest_conversion_memo_hits_total "));
+	}
+	
+}
@@ -0,0 +1,90 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.module.webservices.rest.web.metrics.RequestMetrics.Phase;
+
+/**
+ * Tests for the {@link OperationMetrics} class.
+ */
+public class OperationMetricsTest {
+	
+	private static final long MILLI = 1000000L;
+	
+	/**
+	 * @see OperationMetrics#record(long,long[],boolean)
+	 * @verifies count requests in the bucket of their total time
+	 */
+	@Test
+	public void record_shouldCountRequestsInTheBucketOfTheirTotalTime() throws Exception {
+		OperationMetrics metrics = new OperationMetrics("v1/obs", "search", "default", null);
+		long[] phases = new long[Phase.values().length];
+		metrics.record(3 * MILLI, phases, false);
+		metrics.record(5 * MILLI, phases, false);
+		metrics.record(60 * MILLI, phases, true);
+		metrics.record(20000 * MILLI, phases, false);
+		
+		long[] counts = metrics.getBucketCounts();
+		Assert.assertEquals(OperationMetrics.BUCKETS.length + 1, counts.length);
+		Assert.assertEquals(2, counts[0]);
+		Assert.assertEquals(1, counts[4]);
+		Assert.assertEquals(1, counts[counts.length - 1]);
+		Assert.assertEquals(4, metrics.getCount());
+		Assert.assertEquals(1, metrics.getErrors());
+		Assert.assertEquals(20068 * MILLI, metrics.getTotalNanos());
+	}
+	
+	/**
+	 * @see OperationMetrics#record(long,long[],boolean)
+	 * @verifies add up the time spent in each phase
+	 */
+	@Test
+	public void record_shouldAddUpTheTimeSpentInEachPhase() throws Exception {
+		OperationMetrics metrics = new OperationMetrics("v1/obs", "retrieve", "full", null);
+		long[] phases = new long[Phase.values().length];
+		phases[Phase.FETCH.ordinal()] = 2 * MILLI;
+		phases[Phase.CONVERT.ordinal()] = 3 * MILLI;
+		metrics.record(5 * MILLI, phases, false);
+		metrics.record(5 * MILLI, phases, false);
+		
+		Assert.assertEquals(0, metrics.getNanos(Phase.RESOLVE));
+		Assert.assertEquals(4 * MILLI, metrics.getNanos(Phase.FETCH));
+		Assert.assertEquals(6 * MILLI, metrics.getNanos(Phase.CONVERT));
+	}
+	
+	/**
+	 * @see OperationMetrics#getPercentile(double)
+	 * @verifies return the upper bound of the bucket holding the percentile
+	 */
+	@Test
+	public void getPercentile_shouldReturnTheUpperBoundOfTheBucketHoldingThePercentile() throws Exception {
+		OperationMetrics metrics = new OperationMetrics("v1/obs", "search", "default", null);
+		Assert.assertEquals(0, metrics.getPercentile(0.5), 0);
+		
+		long[] phases = new long[Phase.values().length];
+		for (int i = 0; i < 95; i++) {
+			metrics.record(MILLI, phases, false);
+		}
+		for (int i = 0; i < 5; i++) {
+			metrics.record(200 * MILLI, phases, false);
+		}
+		
+		Assert.assertEquals(0.005, metrics.getPercentile(0.5), 0);
+		Assert.assertEquals(0.005, metrics.getPercentile(0.95), 0);
+		Assert.assertEquals(0.25, metrics.getPercentile(0.99), 0);
+	}
+	
+}
@@ -0,0 +1,76 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.Concept;
+import org.openmrs.Obs;
+
+/**
+ * Tests for the {@link QueryStats} class.
+ */
+public class QueryStatsTest {
+	
+	/**
+	 * @see QueryStats#enter(Object,String)
+	 * @verifies count statements by conversion path
+	 */
+	@Test
+	public void enter_shouldCountStatementsByConversionPath() throws Exception {
+		QueryStats stats = new QueryStats();
+		for (int i = 0; i < 3; i++) {
+			Obs obs = new Obs();
+			stats.enter(obs, "default");
+			stats.enter(obs, "default");
+			stats.statementPrepared();
+			stats.exit();
+			stats.enter(new Concept(), "ref");
+			stats.statementPrepared();
+			stats.entityLoaded();
+			stats.exit();
+			stats.exit();
+		}
+		
+		Assert.assertEquals(6, stats.getStatements());
+		Assert.assertEquals(3, stats.getEntityLoads());
+		Assert.assertEquals("statements=6, entities=3", stats.toHeaderValue());
+		String description = stats.describe(10);
+		Assert.assertTrue(description.contains("6 statements in 3 conversions of Obs:default\n"));
+		Assert.assertTrue(description.endsWith("3 statements in 3 conversions of Obs:default > Concept:ref"));
+	}
+	
+	/**
+	 * @see QueryStats#describe(int)
+	 * @verifies list the paths that issued the most statements first
+	 */
+	@Test
+	public void describe_shouldListThePathsThatIssuedTheMostStatementsFirst() throws Exception {
+		QueryStats stats = new QueryStats();
+		stats.enter(new Concept(), "ref");
+		stats.exit();
+		stats.enter(new Obs(), "full");
+		stats.statementPrepared();
+		stats.exit();
+		stats.enter(new Concept(), "full");
+		stats.statementPrepared();
+		stats.statementPrepared();
+		stats.exit();
+		
+		Assert.assertEquals("\n  2 statements in 1 conversions of Concept:full", stats.describe(1));
+		Assert.assertEquals("\n  2 statements in 1 conversions of Concept:full\n  1 statements in 1 conversions of Obs:full",
+		    stats.describe(10));
+	}
+	
+}
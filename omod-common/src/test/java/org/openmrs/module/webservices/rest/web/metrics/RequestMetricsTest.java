@@ -0,0 +1,49 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.module.webservices.rest.web.representation.CustomRepresentation;
+import org.openmrs.module.webservices.rest.web.representation.NamedRepresentation;
+import org.openmrs.module.webservices.rest.web.representation.Representation;
+
+/**
+ * Tests for the {@link RequestMetrics} class.
+ */
+public class RequestMetricsTest {
+	
+	/**
+	 * @see RequestMetrics#getLabel(Representation)
+	 * @verifies label standard representations by name
+	 */
+	@Test
+	public void getLabel_shouldLabelStandardRepresentationsByName() throws Exception {
+		Assert.assertEquals("ref", RequestMetrics.getLabel(Representation.REF));
+		Assert.assertEquals("default", RequestMetrics.getLabel(Representation.DEFAULT));
+		Assert.assertEquals("full", RequestMetrics.getLabel(Representation.FULL));
+	}
+	
+	/**
+	 * @see RequestMetrics#getLabel(Representation)
+	 * @verifies label all other representations together
+	 */
+	@Test
+	public void getLabel_shouldLabelAllOtherRepresentationsTogether() throws Exception {
+		Assert.assertEquals("custom", RequestMetrics.getLabel(new CustomRepresentation("(uuid)")));
+		Assert.assertEquals("named", RequestMetrics.getLabel(new NamedRepresentation("random1")));
+		Assert.assertEquals("named", RequestMetrics.getLabel(new NamedRepresentation("random2")));
+	}
+	
+}
@@ -0,0 +1,104 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.representation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.openmrs.module.webservices.rest.web.representation.CustomRepresentationParser.Field;
+
+public class CustomRepresentationParserTest {
+	
+	/**
+	 * @see CustomRepresentationParser#parse(String)
+	 * @verifies parse simple properties
+	 */
+	@Test
+	public void parse_shouldParseSimpleProperties() throws Exception {
+		List<Field> fields = CustomRepresentationParser.parse("(uuid,display,links)");
+		assertEquals(3, fields.size());
+		assertEquals("uuid", fields.get(0).getName());
+		assertEquals("display", fields.get(1).getName());
+		assertEquals("links", fields.get(2).getName());
+		assertNull(fields.get(0).getRepresentation());
+	}
+	
+	/**
+	 * @see CustomRepresentationParser#parse(String)
+	 * @verifies parse named representations of properties
+	 */
+	@Test
+	public void parse_shouldParseNamedRepresentationsOfProperties() throws Exception {
+		List<Field> fields = CustomRepresentationParser.parse("(person:ref,names:FULL,concept:minimal)");
+		assertSame(Representation.REF, fields.get(0).getRepresentation());
+		assertSame(Representation.FULL, fields.get(1).getRepresentation());
+		assertTrue(fields.get(2).getRepresentation() instanceof NamedRepresentation);
+		assertEquals("minimal", fields.get(2).getRepresentation().getRepresentation());
+	}
+	
+	/**
+	 * @see CustomRepresentationParser#parse(String)
+	 * @verifies parse nested custom representations
+	 */
+	@Test
+	public void parse_shouldParseNestedCustomRepresentations() throws Exception {
+		List<Field> fields = CustomRepresentationParser.parse("(uuid,person:(gender,names:(givenName,familyName)),display)");
+		assertEquals(3, fields.size());
+		assertEquals("display", fields.get(2).getName());
+		
+		CustomRepresentation person = (CustomRepresentation) fields.get(1).getRepresentation();
+		assertEquals("(gender,names:(givenName,familyName))", person.getRepresentation());
+		assertEquals(2, person.getFields().size());
+		
+		CustomRepresentation names = (CustomRepresentation) person.getFields().get(1).getRepresentation();
+		assertEquals("(givenName,familyName)", names.getRepresentation());
+		assertEquals("familyName", names.getFields().get(1).getName());
+	}
+	
+	/**
+	 * @see CustomRepresentationParser#parse(String)
+	 * @verifies ignore whitespace around names
+	 */
+	@Test
+	public void parse_shouldIgnoreWhitespaceAroundNames() throws Exception {
+		List<Field> fields = CustomRepresentationParser.parse(" ( uuid , person : ref ) ");
+		assertEquals("uuid", fields.get(0).getName());
+		assertEquals("person", fields.get(1).getName());
+		assertSame(Representation.REF, fields.get(1).getRepresentation());
+	}
+	
+	/**
+	 * @see CustomRepresentationParser#parse(String)
+	 * @verifies fail for unbalanced parentheses
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void parse_shouldFailForUnbalancedParentheses() throws Exception {
+		CustomRepresentationParser.parse("(uuid,person:(gender)");
+	}
+	
+	/**
+	 * @see CustomRepresentationParser#parse(String)
+	 * @verifies fail for empty property names
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void parse_shouldFailForEmptyPropertyNames() throws Exception {
+		CustomRepresentationParser.parse("(uuid,,display)");
+	}
+	
+}
@@ -0,0 +1,39 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.representation;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class CustomRepresentationTest {
+	
+	/**
+	 * @see CustomRepresentation#getCompiled(Class)
+	 * @verifies return what was compiled by the same converter only
+	 */
+	@Test
+	public void getCompiled_shouldReturnWhatWasCompiledByTheSameConverterOnly() throws Exception {
+		CustomRepresentation representation = new CustomRepresentation("(uuid,display)");
+		Object compiled = new Object();
+		
+		representation.setCompiled(String.class, compiled);
+		
+		assertSame(compiled, representation.getCompiled(String.class));
+		assertNull(representation.getCompiled(Integer.class));
+		assertNull(new CustomRepresentation("(uuid,display)").getCompiled(String.class));
+	}
+	
+}
@@ -0,0 +1,48 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.resource.impl;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.module.webservices.rest.web.RequestContext;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+
+/**
+ * Tests for the {@link AlreadyPaged} class.
+ */
+public class AlreadyPagedTest extends BaseModuleWebContextSensitiveTest {
+	
+	/**
+	 * @see AlreadyPaged#fromLimitPlusOne(RequestContext,java.util.List,Long)
+	 * @verifies have more results only if given more results than the limit
+	 */
+	@Test
+	public void fromLimitPlusOne_shouldHaveMoreResultsOnlyIfGivenMoreResultsThanTheLimit() throws Exception {
+		RequestContext context = new RequestContext();
+		context.setLimit(2);
+		
+		AlreadyPaged<String> paged = AlreadyPaged.fromLimitPlusOne(context, Arrays.asList("a", "b", "c"), null);
+		Assert.assertTrue(paged.hasMoreResults());
+		Assert.assertEquals(Arrays.asList("a", "b"), paged.getPageOfResults());
+		Assert.assertNull(paged.getTotalCount());
+		
+		paged = AlreadyPaged.fromLimitPlusOne(context, Arrays.asList("a", "b"), 2L);
+		Assert.assertFalse(paged.hasMoreResults());
+		Assert.assertEquals(Arrays.asList("a", "b"), paged.getPageOfResults());
+		Assert.assertEquals(Long.valueOf(2), paged.getTotalCount());
+	}
+	
+}
@@ -0,0 +1,112 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.resource.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openmrs.module.webservices.rest.web.auth.SessionTokenSigner;
+import org.openmrs.module.webservices.rest.web.response.InvalidSearchException;
+
+/**
+ * Tests for the {@link KeysetCursor} class.
+ */
+public class KeysetCursorTest {
+	
+	private static final String QUERY = "org.openmrs.Obs|obsDatetime|obsId|person=1|voided=false";
+	
+	private static final String KEY_A = "a:0123456789abcdef0123";
+	
+	private static final String KEY_B = "b:fedcba9876543210fedc";
+	
+	private static final SecretKeySpec KEY = key(KEY_A);
+	
+	/**
+	 * @see KeysetCursor#encode(String,SecretKeySpec)
+	 * @verifies encode a cursor that decodes for the same query
+	 */
+	@Test
+	public void encode_shouldEncodeACursorThatDecodesForTheSameQuery() throws Exception {
+		Date date = new Date(1400000000000L);
+		
+		KeysetCursor decoded = KeysetCursor.decode(new KeysetCursor(date, 42).encode(QUERY, KEY), QUERY, KEY);
+		Assert.assertEquals(date, decoded.getDate());
+		Assert.assertEquals(Integer.valueOf(42), decoded.getId());
+		
+		decoded = KeysetCursor.decode(new KeysetCursor(null, 7).encode(QUERY, KEY), QUERY, KEY);
+		Assert.assertNull(decoded.getDate());
+		Assert.assertEquals(Integer.valueOf(7), decoded.getId());
+	}
+	
+	/**
+	 * @see KeysetCursor#encode(String,SecretKeySpec)
+	 * @verifies encode a cursor that decodes on nodes sharing the session token keys
+	 */
+	@Test
+	public void encode_shouldEncodeACursorThatDecodesOnNodesSharingTheSessionTokenKeys() throws Exception {
+		String cursor = new KeysetCursor(new Date(), 42).encode(QUERY, key(KEY_A));
+		
+		SessionTokenSigner otherNode = SessionTokenSigner.compile(Arrays.asList(KEY_A, KEY_B), 60);
+		KeysetCursor decoded = KeysetCursor.decode(cursor, QUERY, otherNode.deriveKey("keyset-cursor"));
+		Assert.assertEquals(Integer.valueOf(42), decoded.getId());
+	}
+	
+	/**
+	 * @see KeysetCursor#decode(String,String,SecretKeySpec)
+	 * @verifies fail for a cursor issued for another query
+	 */
+	@Test(expected = InvalidSearchException.class)
+	public void decode_shouldFailForACursorIssuedForAnotherQuery() throws Exception {
+		String cursor = new KeysetCursor(new Date(), 42).encode(QUERY, KEY);
+		KeysetCursor.decode(cursor, QUERY.replace("person=1", "person=2"), KEY);
+	}
+	
+	/**
+	 * @see KeysetCursor#decode(String,String,SecretKeySpec)
+	 * @verifies fail for a cursor signed with another key
+	 */
+	@Test(expected = InvalidSearchException.class)
+	public void decode_shouldFailForACursorSignedWithAnotherKey() throws Exception {
+		String cursor = new KeysetCursor(new Date(), 42).encode(QUERY, KEY);
+		KeysetCursor.decode(cursor, QUERY, key(KEY_B));
+	}
+	
+	/**
+	 * @see KeysetCursor#decode(String,String,SecretKeySpec)
+	 * @verifies fail for a tampered cursor
+	 */
+	@Test
+	public void decode_shouldFailForATamperedCursor() throws Exception {
+		String cursor = new KeysetCursor(new Date(), 42).encode(QUERY, KEY);
+		String otherPayload = new KeysetCursor(new Date(), 41).encode(QUERY, KEY).split("\\.")[0];
+		for (String tampered : new String[] { otherPayload + cursor.substring(cursor.indexOf('.')),
+		        cursor.substring(0, cursor.length() - 2), "not a cursor", "" }) {
+			try {
+				KeysetCursor.decode(tampered, QUERY, KEY);
+				Assert.fail("Decoded " + tampered);
+			}
+			catch (InvalidSearchException ex) {}
+		}
+	}
+	
+	private static SecretKeySpec key(String sessionTokenKey) {
+		return SessionTokenSigner.compile(Collections.singletonList(sessionTokenKey), 60).deriveKey("keyset-cursor");
+	}
+	
+}
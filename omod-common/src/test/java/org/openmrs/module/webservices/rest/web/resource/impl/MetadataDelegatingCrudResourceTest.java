@@ -19,10 +19,12 @@ import org.openmrs.Location;
 import org.openmrs.api.context.ServiceContext;
 import org.openmrs.messagesource.MessageSourceService;
 import org.openmrs.module.webservices.rest.web.RequestContext;
+import org.openmrs.module.webservices.rest.web.representation.CustomRepresentation;
 import org.openmrs.module.webservices.rest.web.representation.Representation;
 import org.openmrs.module.webservices.rest.web.response.ResponseException;
 
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -80,6 +82,23 @@ public class MetadataDelegatingCrudResourceTest {
 		assertThat(display, is(""));
 	}
 	
+	/**
+	 * @verifies compile the plan once for all objects converted with the same representation
+	 */
+	@Test
+	public void getCustomRepresentationPlan_shouldCompileThePlanOnceForAllObjectsConvertedWithTheSameRepresentation()
+	        throws Exception {
+		MockLocationResource resource = new MockLocationResource();
+		CustomRepresentation representation = new CustomRepresentation("(uuid,name)");
+		
+		RepresentationPlan plan = resource.getCustomRepresentationPlan(representation);
+		
+		assertSame(plan, representation.getCompiled(MockLocationResource.class));
+		assertSame(plan, resource.getCustomRepresentationPlan(representation));
+		// another request asking for the same specification finds it in the shared cache
+		assertSame(plan, resource.getCustomRepresentationPlan(new CustomRepresentation("(uuid,name)")));
+	}
+	
 	class MockLocationResource extends MetadataDelegatingCrudResource<Location> {
 		
 		@Override
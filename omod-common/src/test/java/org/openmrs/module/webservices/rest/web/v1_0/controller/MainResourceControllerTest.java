@@ -15,6 +15,10 @@ package org.openmrs.module.webservices.rest.web.v1_0.controller;
 
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
@@ -33,6 +37,7 @@ import org.apache.commons.beanutils.PropertyUtils;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.junit.Assert;
 import org.junit.Test;
+import org.openmrs.OpenmrsObject;
 import org.openmrs.module.webservices.rest.SimpleObject;
 import org.openmrs.module.webservices.rest.test.Util;
 import org.openmrs.module.webservices.rest.web.RestConstants;
@@ -226,6 +231,65 @@ public abstract class MainResourceControllerTest extends BaseModuleWebContextSen
 		Assert.assertEquals(getAllCount(), Util.getResultsSize(result));
 	}
 	
+	/**
+	 * Pages through the results of a GET request by cursor, following the next links up to the last
+	 * page
+	 * 
+	 * @param limit the number of results per page
+	 * @param parameters the parameters of the request
+	 * @return the uuids of the results of all the pages, in order
+	 * @throws Exception
+	 */
+	public List<Object> getUuidsPagedByCursor(int limit, Parameter... parameters) throws Exception {
+		List<Object> uuids = new ArrayList<Object>();
+		String cursor = "";
+		while (cursor != null) {
+			MockHttpServletRequest request = newGetRequest(getURI(), parameters);
+			request.addParameter(RestConstants.REQUEST_PROPERTY_FOR_LIMIT, String.valueOf(limit));
+			request.addParameter(RestConstants.REQUEST_PROPERTY_FOR_CURSOR, cursor);
+			SimpleObject page = deserialize(handle(request));
+			
+			List<Object> results = Util.getResultsList(page);
+			Assert.assertTrue("Got a page of " + results.size() + " results", results.size() <= limit);
+			for (Object result : results) {
+				uuids.add(PropertyUtils.getProperty(result, "uuid"));
+			}
+			cursor = getNextCursor(page);
+			Assert.assertTrue("Got a next link after an incomplete page", cursor == null || results.size() == limit);
+		}
+		return uuids;
+	}
+	
+	/**
+	 * Asserts that pages of results hold each of the expected objects exactly once
+	 * 
+	 * @param expected the objects expected
+	 * @param uuids the uuids of the results of all the pages
+	 */
+	public void assertSameObjects(Collection<? extends OpenmrsObject> expected, List<Object> uuids) {
+		Collection<Object> expectedUuids = new HashSet<Object>();
+		for (OpenmrsObject object : expected) {
+			expectedUuids.add(object.getUuid());
+		}
+		Assert.assertEquals("Got the same result on more than one page", new HashSet<Object>(uuids).size(), uuids.size());
+		Assert.assertEquals(expectedUuids, new HashSet<Object>(uuids));
+	}
+	
+	private String getNextCursor(SimpleObject page) throws Exception {
+		List<Object> links = page.get("links");
+		if (links != null) {
+			for (Object link : links) {
+				if ("next".equals(PropertyUtils.getProperty(link, "rel"))) {
+					String uri = (String) PropertyUtils.getProperty(link, "uri");
+					String cursor = uri.substring(uri.lastIndexOf(RestConstants.REQUEST_PROPERTY_FOR_CURSOR + "=")
+					        + RestConstants.REQUEST_PROPERTY_FOR_CURSOR.length() + 1);
+					return URLDecoder.decode(cursor, "UTF-8");
+				}
+			}
+		}
+		return null;
+	}
+	
 	/**
 	 * @return the URI of the resource
 	 */
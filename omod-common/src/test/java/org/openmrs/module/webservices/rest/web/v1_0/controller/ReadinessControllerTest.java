@@ -0,0 +1,76 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.v1_0.controller;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.lang.reflect.Field;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.module.webservices.rest.SimpleObject;
+import org.openmrs.module.webservices.rest.web.RestWarmUp;
+import org.openmrs.module.webservices.rest.web.RestWarmUpTest;
+import org.openmrs.web.test.BaseModuleWebContextSensitiveTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class ReadinessControllerTest extends BaseModuleWebContextSensitiveTest {
+	
+	ReadinessController controller;
+	
+	MockHttpServletResponse response;
+	
+	@Before
+	public void before() {
+		controller = new ReadinessController();
+		response = new MockHttpServletResponse();
+	}
+	
+	/**
+	 * @see ReadinessController#get(HttpServletResponse)
+	 * @verifies respond with service unavailable until the warm-up has finished
+	 */
+	@Test
+	public void get_shouldRespondWithServiceUnavailableUntilTheWarmUpHasFinished() throws Exception {
+		// The warm-up may already have finished in this JVM, so set it back to not ready
+		Field ready = RestWarmUp.class.getDeclaredField("ready");
+		ready.setAccessible(true);
+		ready.set(null, false);
+		
+		SimpleObject result = (SimpleObject) controller.get(response);
+		
+		assertThat(response.getStatus(), is(HttpServletResponse.SC_SERVICE_UNAVAILABLE));
+		assertThat((Boolean) result.get("ready"), is(false));
+	}
+	
+	/**
+	 * @see ReadinessController#get(HttpServletResponse)
+	 * @verifies respond with ok once the warm-up has finished
+	 */
+	@Test
+	public void get_shouldRespondWithOkOnceTheWarmUpHasFinished() throws Exception {
+		RestWarmUp.start();
+		RestWarmUpTest.awaitReady();
+		
+		SimpleObject result = (SimpleObject) controller.get(response);
+		
+		assertThat(response.getStatus(), is(HttpServletResponse.SC_OK));
+		assertThat((Boolean) result.get("ready"), is(true));
+		assertThat((Integer) result.get("resources"), is(RestWarmUp.getResourcesWarmed()));
+	}
+	
+}
@@ -0,0 +1,105 @@
+/**
+ * The contents of this file are subject to the OpenMRS Public License
+ * Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://license.openmrs.org
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * Copyright (C) OpenMRS, LLC.  All Rights Reserved.
+ */
+package org.openmrs.module.webservices.rest.web.xml;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.junit.Test;
+import org.openmrs.module.webservices.rest.SimpleObject;
+import org.openmrs.module.webservices.rest.web.Hyperlink;
+
+public class SimpleObjectXmlWriterTest {
+	
+	private String write(SimpleObject object) throws Exception {
+		StringWriter out = new StringWriter();
+		XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+		new SimpleObjectXmlWriter().write(object, writer);
+		writer.close();
+		return out.toString();
+	}
+	
+	private SimpleObject withSelfLink(String uuid, String resourceAlias) {
+		Hyperlink self = new Hyperlink("self", "/ws/rest/v1/" + resourceAlias + "/" + uuid);
+		self.setResourceAlias(resourceAlias);
+		List<Hyperlink> links = new ArrayList<Hyperlink>();
+		links.add(self);
+		return new SimpleObject().add("uuid", uuid).add("links", links);
+	}
+	
+	/**
+	 * @see SimpleObjectXmlWriter#write(SimpleObject,XMLStreamWriter)
+	 * @verifies write properties as elements
+	 */
+	@Test
+	public void write_shouldWritePropertiesAsElements() throws Exception {
+		SimpleObject object = new SimpleObject().add("uuid", "abc").add("voided", false).add("person",
+		    new SimpleObject().add("gender", "M")).add("comment", null);
+		assertEquals("<object><uuid>abc</uuid><voided>false</voided><person><gender>M</gender></person>"
+		        + "<comment></comment></object>", write(object));
+	}
+	
+	/**
+	 * @see SimpleObjectXmlWriter#write(SimpleObject,XMLStreamWriter)
+	 * @verifies name list items after the resource of their self link
+	 */
+	@Test
+	public void write_shouldNameListItemsAfterTheResourceOfTheirSelfLink() throws Exception {
+		SimpleObject object = new SimpleObject().add("results", Arrays.asList(withSelfLink("1", "concept"),
+		    new SimpleObject().add("uuid", "2")));
+		assertEquals("<object><results><concept><uuid>1</uuid><links><link><rel>self</rel>"
+		        + "<uri>/ws/rest/v1/concept/1</uri></link></links></concept><object><uuid>2</uuid></object>"
+		        + "</results></object>", write(object));
+	}
+	
+	/**
+	 * @see SimpleObjectXmlWriter#write(SimpleObject,XMLStreamWriter)
+	 * @verifies name other list items after their type
+	 */
+	@Test
+	public void write_shouldNameOtherListItemsAfterTheirType() throws Exception {
+		SimpleObject object = new SimpleObject().add("values", Arrays.asList("a", 1, 2L, true, null));
+		assertEquals("<object><values><string>a</string><int>1</int><long>2</long><boolean>true</boolean>"
+		        + "<null/></values></object>", write(object));
+	}
+	
+	/**
+	 * @see SimpleObjectXmlWriter#write(SimpleObject,XMLStreamWriter)
+	 * @verifies write links as rel and uri elements
+	 */
+	@Test
+	public void write_shouldWriteLinksAsRelAndUriElements() throws Exception {
+		SimpleObject object = new SimpleObject().add("next", new Hyperlink("next", "/ws/rest/v1/obs?startIndex=50"));
+		assertEquals("<object><next><rel>next</rel><uri>/ws/rest/v1/obs?startIndex=50</uri></next></object>",
+		    write(object));
+	}
+	
+	/**
+	 * @see SimpleObjectXmlWriter#write(SimpleObject,XMLStreamWriter)
+	 * @verifies escape element names and text like xstream
+	 */
+	@Test
+	public void write_shouldEscapeElementNamesAndTextLikeXstream() throws Exception {
+		SimpleObject object = new SimpleObject().add("some_property", "a < b & c");
+		assertEquals("<object><some__property>a &lt; b &amp; c</some__property></object>", write(object));
+	}
+	
+}
@@ -15,30 +15,61 @@ package org.openmrs.module.webservices.rest;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.AdministrationService;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.BaseModuleActivator;
+import org.openmrs.module.DaemonToken;
+import org.openmrs.module.DaemonTokenAware;
 import org.openmrs.module.ModuleActivator;
 import org.openmrs.module.webservices.rest.util.ReflectionUtil;
 import org.openmrs.module.webservices.rest.web.ConversionUtil;
+import org.openmrs.module.webservices.rest.web.RestConstants;
+import org.openmrs.module.webservices.rest.web.RestWarmUp;
 import org.openmrs.module.webservices.rest.web.api.RestService;
+import org.openmrs.module.webservices.rest.web.auth.SessionTokens;
 
 /**
  * {@link ModuleActivator} for the webservices.rest module
  */
-public class Activator extends BaseModuleActivator {
+public class Activator extends BaseModuleActivator implements DaemonTokenAware {
 	
 	private Log log = LogFactory.getLog(this.getClass());
 	
 	@Override
 	public void started() {
+		deleteSessionTokenKeysGlobalProperty();
 		log.info("Started the REST Web Service module");
 	}
 	
+	/**
+	 * Session token keys used to be a global property, which users allowed to view global
+	 * properties could read. Deletes it, so that the secrets are no longer exposed, since they are
+	 * now read from the runtime properties.
+	 */
+	private void deleteSessionTokenKeysGlobalProperty() {
+		AdministrationService administrationService = Context.getAdministrationService();
+		GlobalProperty keys = administrationService
+		        .getGlobalPropertyObject(RestConstants.SESSION_TOKEN_KEYS_RUNTIME_PROPERTY_NAME);
+		if (keys != null) {
+			administrationService.purgeGlobalProperty(keys);
+			log.warn("Deleted the " + RestConstants.SESSION_TOKEN_KEYS_RUNTIME_PROPERTY_NAME
+			        + " global property. Session token keys are read from the runtime properties instead,"
+			        + " set new keys there since the deleted ones may have been read by other users.");
+		}
+	}
+	
 	@Override
 	public void stopped() {
 		log.info("Stopped the REST Web Service module");
 	}
 	
+	@Override
+	public void setDaemonToken(DaemonToken token) {
+		// lets session tokens be accepted without the user's password
+		SessionTokens.setDaemonToken(token);
+	}
+	
 	@Override
 	public void contextRefreshed() {
 		// initialize all resources and search handlers
@@ -48,6 +79,9 @@ public class Activator extends BaseModuleActivator {
 		
 		ConversionUtil.clearCache();
 		ReflectionUtil.clearCaches();
+		
+		// compile representations and look up converters without holding up startup
+		RestWarmUp.start();
 	}
 	
 }
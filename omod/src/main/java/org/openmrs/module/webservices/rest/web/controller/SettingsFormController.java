@@ -14,13 +14,16 @@
 package org.openmrs.module.webservices.rest.web.controller;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.commons.lang.StringUtils;
 import org.openmrs.GlobalProperty;
 import org.openmrs.api.AdministrationService;
 import org.openmrs.api.context.Context;
+import org.openmrs.module.webservices.rest.web.IpMatcher;
 import org.openmrs.module.webservices.rest.web.RestConstants;
 import org.openmrs.web.WebConstants;
 import org.springframework.stereotype.Controller;
@@ -118,7 +121,16 @@ public class SettingsFormController {
 				if (gp.getProperty().equals(RestConstants.URI_PREFIX_GLOBAL_PROPERTY_NAME)) {
 					// TODO validate legal uri prefix
 				} else if (gp.getProperty().equals(RestConstants.ALLOWED_IPS_GLOBAL_PROPERTY_NAME)) {
-					// TODO validate legal comma-separated IPv4 or IPv6 addresses, wildcards, etc
+					String allowedIps = StringUtils.trim(gp.getPropertyValue());
+					if (StringUtils.isNotEmpty(allowedIps)) {
+						try {
+							IpMatcher.compile(Arrays.asList(allowedIps.split("[\\s,]+")));
+						}
+						catch (IllegalArgumentException ex) {
+							errors.rejectValue("properties[" + i + "]", RestConstants.MODULE_ID
+							        + ".allowedips.errorMessage");
+						}
+					}
 				} else if (gp.getProperty().equals(RestConstants.MAX_RESULTS_DEFAULT_GLOBAL_PROPERTY_NAME)) {
 					boolean okay = false;
 					try {
@@ -142,6 +154,58 @@ public class SettingsFormController {
 					if (!okay)
 						errors.rejectValue("properties[" + i + "]", RestConstants.MODULE_ID
 						        + ".maxResultsAbsolute.errorMessage");
+				} else if (gp.getProperty().equals(RestConstants.GZIP_MIN_SIZE_GLOBAL_PROPERTY_NAME)) {
+					boolean okay = false;
+					try {
+						Integer.valueOf(gp.getPropertyValue());
+						okay = true;
+					}
+					catch (Exception ex) {}
+					if (!okay)
+						errors.rejectValue("properties[" + i + "]", RestConstants.MODULE_ID
+						        + ".gzip.minSize.errorMessage");
+				} else if (gp.getProperty().equals(RestConstants.GZIP_LEVEL_GLOBAL_PROPERTY_NAME)) {
+					boolean okay = false;
+					try {
+						int level = Integer.valueOf(gp.getPropertyValue());
+						okay = level >= 0 && level <= 9;
+					}
+					catch (Exception ex) {}
+					if (!okay)
+						errors.rejectValue("properties[" + i + "]", RestConstants.MODULE_ID
+						        + ".gzip.level.errorMessage");
+				} else if (gp.getProperty().equals(RestConstants.CREDENTIAL_CACHE_TTL_GLOBAL_PROPERTY_NAME)) {
+					boolean okay = false;
+					try {
+						okay = Integer.valueOf(gp.getPropertyValue()) >= 0;
+					}
+					catch (Exception ex) {}
+					if (!okay)
+						errors.rejectValue("properties[" + i + "]", RestConstants.MODULE_ID
+						        + ".credentialCache.ttl.errorMessage");
+				} else if (gp.getProperty().equals(RestConstants.SESSION_TOKEN_TTL_GLOBAL_PROPERTY_NAME)) {
+					boolean okay = false;
+					try {
+						okay = Integer.valueOf(gp.getPropertyValue()) > 0;
+					}
+					catch (Exception ex) {}
+					if (!okay)
+						errors.rejectValue("properties[" + i + "]", RestConstants.MODULE_ID
+						        + ".sessionToken.ttl.errorMessage");
+				} else if (gp.getProperty().equals(RestConstants.QUERY_STATS_ENABLED_GLOBAL_PROPERTY_NAME)) {
+					String value = StringUtils.trim(gp.getPropertyValue());
+					if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value))
+						errors.rejectValue("properties[" + i + "]", RestConstants.MODULE_ID
+						        + ".queryStats.enabled.errorMessage");
+				} else if (gp.getProperty().equals(RestConstants.QUERY_STATS_LOG_THRESHOLD_GLOBAL_PROPERTY_NAME)) {
+					boolean okay = false;
+					try {
+						okay = Integer.valueOf(gp.getPropertyValue()) > 0;
+					}
+					catch (Exception ex) {}
+					if (!okay)
+						errors.rejectValue("properties[" + i + "]", RestConstants.MODULE_ID
+						        + ".queryStats.logThreshold.errorMessage");
 				}
 			}
 		}